@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -107,6 +108,13 @@ public class AuditEngineProperties implements Serializable {
      */
     private AuditFormatTypes auditFormat = AuditFormatTypes.DEFAULT;
 
+    /**
+     * Control the queue used by audit managers that save
+     * audit records asynchronously and in batches.
+     */
+    @NestedConfigurationProperty
+    private AuditQueueProperties queue = new AuditQueueProperties();
+
     /**
      * The audit format types.
      */
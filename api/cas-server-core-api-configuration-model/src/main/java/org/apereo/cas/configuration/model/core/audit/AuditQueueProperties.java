@@ -0,0 +1,71 @@
+package org.apereo.cas.configuration.model.core.audit;
+
+import org.apereo.cas.configuration.support.DurationCapable;
+import org.apereo.cas.configuration.support.RequiresModule;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+
+/**
+ * This is {@link AuditQueueProperties}.
+ * Controls the queue that sits in front of audit managers
+ * that are configured to save audit records asynchronously.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@RequiresModule(name = "cas-server-core-audit", automated = true)
+@Getter
+@Setter
+@Accessors(chain = true)
+@JsonFilter("AuditQueueProperties")
+public class AuditQueueProperties implements Serializable {
+
+    private static final long serialVersionUID = 2357105438744914710L;
+
+    /**
+     * Maximum number of audit records that can be held in the queue,
+     * waiting to be saved. Once the queue is full, the overflow policy
+     * decides how new records are handled.
+     */
+    private int capacity = 10_000;
+
+    /**
+     * Maximum number of audit records that are saved together in a single batch.
+     */
+    private int maxBatchSize = 100;
+
+    /**
+     * Amount of time to wait for a batch to fill up once the first
+     * record has been taken from the queue, before the batch is saved anyway.
+     */
+    @DurationCapable
+    private String lingerTime = "PT0.5S";
+
+    /**
+     * Decide how audit records are handled when the queue is full.
+     */
+    private OverflowPolicyTypes overflowPolicy = OverflowPolicyTypes.SYNCHRONOUS;
+
+    /**
+     * Policies that control how audit records are handled when the queue is full.
+     */
+    public enum OverflowPolicyTypes {
+        /**
+         * Block the caller until space becomes available in the queue.
+         */
+        BLOCK,
+        /**
+         * Discard the oldest record in the queue to make room for the new one.
+         */
+        DROP_OLDEST,
+        /**
+         * Save the record on the caller thread, bypassing the queue.
+         */
+        SYNCHRONOUS
+    }
+}
@@ -0,0 +1,42 @@
+package org.apereo.cas.configuration.model.core.authentication;
+
+import org.apereo.cas.configuration.support.RequiresModule;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+
+/**
+ * This is {@link AttributeRepositoryResolutionContextProperties}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@RequiresModule(name = "cas-server-support-person-directory", automated = true)
+@Getter
+@Setter
+@Accessors(chain = true)
+@JsonFilter("AttributeRepositoryResolutionContextProperties")
+public class AttributeRepositoryResolutionContextProperties implements Serializable {
+    private static final long serialVersionUID = -3182649370547381502L;
+
+    /**
+     * Whether results produced by attribute repositories should be shared for the duration
+     * of a request or an authentication event. When enabled, each attribute repository is queried
+     * at most once for the same query, and principal resolution as well as attribute release
+     * that take place within the same request reuse the same results when they query
+     * attribute repositories with the same attributes.
+     * When attribute repositories are merged together, all repositories are
+     * queried concurrently.
+     */
+    private boolean enabled;
+
+    /**
+     * Maximum number of attribute repositories that can be queried concurrently.
+     * If all threads are busy, queries are queued until a thread becomes available.
+     */
+    private int maxPoolSize = 10;
+}
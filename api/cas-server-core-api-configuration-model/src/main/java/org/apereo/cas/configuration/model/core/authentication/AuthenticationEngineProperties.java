@@ -36,4 +36,10 @@ public class AuthenticationEngineProperties implements Serializable {
     @NestedConfigurationProperty
     private GroovyAuthenticationEngineProcessorProperties groovyPostProcessor = new GroovyAuthenticationEngineProcessorProperties();
 
+    /**
+     * Settings that control the concurrent execution of authentication handlers.
+     */
+    @NestedConfigurationProperty
+    private ParallelAuthenticationHandlerExecutionProperties parallelExecution = new ParallelAuthenticationHandlerExecutionProperties();
+
 }
@@ -0,0 +1,65 @@
+package org.apereo.cas.configuration.model.core.authentication;
+
+import org.apereo.cas.configuration.support.DurationCapable;
+import org.apereo.cas.configuration.support.RequiresModule;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This is {@link ParallelAuthenticationHandlerExecutionProperties}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@RequiresModule(name = "cas-server-core-authentication", automated = true)
+@Getter
+@Setter
+@Accessors(chain = true)
+@JsonFilter("ParallelAuthenticationHandlerExecutionProperties")
+public class ParallelAuthenticationHandlerExecutionProperties implements Serializable {
+    private static final long serialVersionUID = 5921468123340178532L;
+
+    /**
+     * Whether authentication handlers that support a credential should be executed concurrently.
+     * Results are still collected in the order of the handlers, and authentication policies
+     * are evaluated as if handlers had run one after another. Handlers that are still running
+     * once authentication policies are satisfied are cancelled.
+     * Note that the credential, including any password, is handed to every handler that supports it
+     * when authentication starts, even if an earlier handler goes on to succeed; only enable this
+     * if all such handlers are equally trusted with the credential.
+     */
+    private boolean enabled;
+
+    /**
+     * Maximum number of authentication handlers that can execute concurrently.
+     * If all threads are busy, handlers are queued until a thread becomes available.
+     */
+    private int maxPoolSize = 20;
+
+    /**
+     * Maximum number of authentication handlers that can be queued while all threads are busy.
+     * Once the queue is full, handlers execute on the thread that processes the authentication transaction.
+     */
+    private int queueCapacity = 100;
+
+    /**
+     * Maximum amount of time to wait for an authentication handler to produce a result,
+     * after which the handler is cancelled and treated as a failure.
+     * A value of zero indicates no timeout.
+     */
+    @DurationCapable
+    private String timeout = "PT10S";
+
+    /**
+     * Timeouts for individual authentication handlers, keyed by authentication handler name,
+     * which override the default timeout for those handlers.
+     */
+    private Map<String, String> handlerTimeouts = new LinkedHashMap<>();
+}
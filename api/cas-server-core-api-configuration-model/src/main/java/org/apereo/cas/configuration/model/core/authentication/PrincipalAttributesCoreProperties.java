@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
 import java.io.Serializable;
 import java.util.HashSet;
@@ -46,6 +47,15 @@ public class PrincipalAttributesCoreProperties implements Serializable {
      */
     private int maximumCacheSize = 10000;
 
+    /**
+     * Percentage of the expiration period of attributes that are cached per application,
+     * by caching attribute repositories that are assigned to registered services, after which
+     * cached attributes are refreshed in the background, ahead of their expiration.
+     * Requests continue to receive the cached attributes while the refresh is in progress.
+     * A zero value disables refreshing cached attributes ahead of expiration.
+     */
+    private int refreshAheadPercentage;
+
     /**
      * Recover from LDAP exceptions and continue with partial results. Otherwise,
      * die and do not allow to log in.
@@ -86,6 +96,13 @@ public class PrincipalAttributesCoreProperties implements Serializable {
      */
     private Set<String> defaultAttributesToRelease = new HashSet<>(0);
 
+    /**
+     * Control how results produced by attribute repositories are shared
+     * across principal resolution and attribute release within a request.
+     */
+    @NestedConfigurationProperty
+    private AttributeRepositoryResolutionContextProperties resolutionContext = new AttributeRepositoryResolutionContextProperties();
+
     /**
      * The aggregation strategy types.
      */
@@ -9,6 +9,9 @@ import lombok.Setter;
 import lombok.experimental.Accessors;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This is {@link ServiceRegistryCacheProperties}.
@@ -40,4 +43,36 @@ public class ServiceRegistryCacheProperties implements Serializable {
      * Services cache capacity sets the minimum total size for the internal data structures.
      */
     private int initialCapacity = 2_000;
+
+    /**
+     * Maximum number of requested services whose resolution outcome is remembered,
+     * mapping the normalized service id to the registered service it resolved to,
+     * or the lack thereof. The resolution cache is cleared whenever service definitions
+     * are saved, deleted or reloaded on this node; changes made on other nodes or directly
+     * in the service registry are only picked up once entries expire.
+     * A value of zero, the default, turns off the resolution cache.
+     */
+    private long resolutionCacheSize;
+
+    /**
+     * Fixed duration for an entry in the service resolution cache
+     * to be automatically removed after its creation.
+     */
+    @DurationCapable
+    private String resolutionDuration = "PT15M";
+
+    /**
+     * Fixed duration for an entry in the service resolution cache that records
+     * a requested service with no matching registered service to be automatically removed after its creation.
+     */
+    @DurationCapable
+    private String resolutionUnresolvedDuration = "PT5S";
+
+    /**
+     * Names of the requested service attributes that registered service locators
+     * consider when picking a registered service, and that are therefore part of the resolution cache key.
+     * Other attributes of the requested service do not affect the key.
+     */
+    private List<String> resolutionAttributes = Stream.of("client_id", "entityId", "providerId", "SAMLRequest", "wreply")
+        .collect(Collectors.toList());
 }
@@ -43,6 +43,35 @@ public class ServiceRegistryCoreProperties implements Serializable {
      */
     private ServiceManagementTypes managementType = ServiceManagementTypes.DEFAULT;
 
+    /**
+     * Whether service definitions should be reloaded incrementally.
+     * When enabled, periodic reloads only re-cache service definitions that have changed, been added or removed,
+     * and unchanged definitions keep their already-initialized state. File-based service registries
+     * track the modification time, size and content hash of each file and only parse files that have changed.
+     * Service definitions loaded from other registries are compared with the definitions
+     * that are already cached. If nothing has changed, no event is published to signal that services are loaded.
+     */
+    private boolean incrementalLoad;
+
+    /**
+     * Number of threads used by file-based service registries
+     * to parse service definition files when services are loaded.
+     * A value of {@code 1} parses files sequentially.
+     */
+    private int loadParallelism = 1;
+
+    /**
+     * Directory where file-based service registries write a binary snapshot of their loaded service definitions
+     * when CAS shuts down. On the next startup, service definition files whose content hash
+     * matches the snapshot are restored from it without being parsed again. Service registry listeners
+     * are invoked again for restored definitions, so they reflect the current configuration.
+     * Unless incremental loading is enabled, service definitions are serialized into the snapshot only when it is written.
+     * The snapshot carries a digest of its contents, and snapshots that are truncated or corrupted are ignored.
+     * The digest does not protect against deliberate changes, so the directory must only be writable by CAS.
+     * Leaving this blank disables snapshots.
+     */
+    private String snapshotDirectory;
+
     /**
      * Types of service managers that one can control.
      */
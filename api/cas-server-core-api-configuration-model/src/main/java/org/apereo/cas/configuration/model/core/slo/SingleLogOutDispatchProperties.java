@@ -0,0 +1,69 @@
+package org.apereo.cas.configuration.model.core.slo;
+
+import org.apereo.cas.configuration.support.DurationCapable;
+import org.apereo.cas.configuration.support.RequiresModule;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+
+/**
+ * This is {@link SingleLogOutDispatchProperties}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@RequiresModule(name = "cas-server-core-logout", automated = true)
+@Getter
+@Setter
+@Accessors(chain = true)
+public class SingleLogOutDispatchProperties implements Serializable {
+
+    private static final long serialVersionUID = -1572838211590232795L;
+
+    /**
+     * Whether back-channel logout messages should be sent using a non-blocking HTTP client,
+     * with bounded concurrency per host. When enabled, services that participate in the
+     * single logout session are also processed in parallel.
+     */
+    private boolean enabled;
+
+    /**
+     * Maximum number of services that are processed at the same time,
+     * across all single logout operations.
+     */
+    private int parallelism = 8;
+
+    /**
+     * Maximum number of logout messages that are sent at the same time to the same host.
+     * Messages beyond this limit are queued until an earlier message completes.
+     */
+    private int maxConcurrencyPerHost = 4;
+
+    /**
+     * Maximum number of logout messages that can be queued for the same host.
+     * Messages beyond this limit are rejected and reported as failures.
+     */
+    private int maxPendingPerHost = 1000;
+
+    /**
+     * Maximum amount of time to wait for a logout endpoint to respond.
+     */
+    @DurationCapable
+    private String timeout = "PT5S";
+
+    /**
+     * Number of consecutive failures for a host after which further
+     * logout messages to that host are rejected, until the circuit is closed again.
+     */
+    private int failureThreshold = 5;
+
+    /**
+     * Amount of time logout messages to a failing host are rejected,
+     * before attempting to contact the host again.
+     */
+    @DurationCapable
+    private String circuitOpenDuration = "PT30S";
+}
@@ -5,6 +5,7 @@ import org.apereo.cas.configuration.support.RequiresModule;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
 import java.io.Serializable;
 
@@ -32,4 +33,10 @@ public class SingleLogOutProperties implements Serializable {
      * Whether SLO should be entirely disabled globally for the CAS deployment.
      */
     private boolean disabled;
+
+    /**
+     * Settings that control how back-channel logout messages are dispatched.
+     */
+    @NestedConfigurationProperty
+    private SingleLogOutDispatchProperties dispatch = new SingleLogOutDispatchProperties();
 }
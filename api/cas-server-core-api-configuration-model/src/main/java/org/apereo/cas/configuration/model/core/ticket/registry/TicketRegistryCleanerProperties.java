@@ -0,0 +1,58 @@
+package org.apereo.cas.configuration.model.core.ticket.registry;
+
+import org.apereo.cas.configuration.model.support.quartz.ScheduledJobProperties;
+import org.apereo.cas.configuration.support.RequiresModule;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * This is {@link TicketRegistryCleanerProperties}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@RequiresModule(name = "cas-server-core-tickets", automated = true)
+@Getter
+@Setter
+@NoArgsConstructor
+@Accessors(chain = true)
+@JsonFilter("TicketRegistryCleanerProperties")
+public class TicketRegistryCleanerProperties extends ScheduledJobProperties {
+
+    private static final long serialVersionUID = 3384521863945286742L;
+
+    /**
+     * Number of expired tickets that are collected and handed over
+     * to the ticket registry for removal at the same time. Registries that support
+     * bulk operations are able to remove each batch in a single round trip.
+     * Ticket-granting tickets are always cleaned individually so that
+     * logout notifications can be processed for each.
+     * Tickets in a batch are locked together before they are removed.
+     * A value of {@code 1} or less removes tickets one at a time.
+     */
+    private int batchSize = 1;
+
+    /**
+     * Keep track of tickets in the in-memory ticket registry ordered by
+     * the earliest instant at which each could expire, allowing the cleaner to only visit
+     * tickets that are due for expiration instead of scanning the entire registry.
+     * Tickets that are forcefully marked as expired without being updated
+     * in the registry are only cleaned once their computed expiration instant passes.
+     */
+    private boolean expirationIndexEnabled;
+
+    /**
+     * Number of batches of expired tickets that may be cleaned concurrently.
+     * This setting only applies to ticket registries that maintain an expiration index
+     * and when tickets are cleaned in batches.
+     */
+    private int parallelism = 1;
+
+    public TicketRegistryCleanerProperties(final String startDelay, final String repeatInterval) {
+        super(startDelay, repeatInterval);
+    }
+}
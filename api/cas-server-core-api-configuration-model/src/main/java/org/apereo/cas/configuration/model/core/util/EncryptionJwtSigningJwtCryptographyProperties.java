@@ -9,6 +9,8 @@ import lombok.experimental.Accessors;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Common properties for all cryptography related configs.
@@ -59,4 +61,20 @@ public class EncryptionJwtSigningJwtCryptographyProperties implements Serializab
      * </ul>
      */
     private String strategyType = "ENCRYPT_AND_SIGN";
+
+    /**
+     * Encrypt and sign values into a compact, versioned binary envelope
+     * with a random nonce per value, instead of JWS/JWE compact serializations.
+     * Values produced before the envelope was turned on continue to be accepted.
+     * The envelope requires AES encryption keys of 128, 192 or 256 bits and
+     * symmetric signing keys; otherwise JWS/JWE values are produced as before.
+     */
+    private boolean compactEnvelope;
+
+    /**
+     * Encryption and signing keys that were in use before the current keys were rotated in.
+     * Values in a compact envelope that were produced with these keys continue to be accepted,
+     * while new values are always produced with the current keys.
+     */
+    private List<RotatedCryptographyKeyProperties> rotatedKeys = new ArrayList<>();
 }
@@ -0,0 +1,49 @@
+package org.apereo.cas.configuration.model.core.util;
+
+import org.apereo.cas.configuration.support.DurationCapable;
+import org.apereo.cas.configuration.support.RequiresModule;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+
+/**
+ * This is {@link LogStructuredStoreProperties}, controlling an append-only local record store
+ * that keeps records in a log file next to a JSON resource, instead of rewriting the JSON resource on every change.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Getter
+@Setter
+@RequiresModule(name = "cas-server-core-util", automated = true)
+@Accessors(chain = true)
+public class LogStructuredStoreProperties implements Serializable {
+
+    private static final long serialVersionUID = 5118251283409843412L;
+
+    /**
+     * Whether changes should be appended to a log file that sits next to the JSON resource.
+     * Records are imported from the JSON resource when the log is first created or when the JSON
+     * resource is newer than the log, and the JSON resource is written back when CAS shuts down.
+     */
+    private boolean enabled;
+
+    /**
+     * How often appended records are flushed to disk.
+     * Records are written to the log immediately; this setting controls how often
+     * they are forced to the storage device so that they survive an operating system crash.
+     * A zero duration forces every change to disk before it is acknowledged.
+     */
+    @DurationCapable
+    private String syncInterval = "PT0.1S";
+
+    /**
+     * How often the log is checked for compaction. The log is rewritten to contain
+     * only the current records once it holds more superseded or deleted records than current ones.
+     */
+    @DurationCapable
+    private String compactionInterval = "PT1M";
+}
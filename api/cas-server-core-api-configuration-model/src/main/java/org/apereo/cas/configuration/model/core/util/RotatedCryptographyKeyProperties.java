@@ -0,0 +1,39 @@
+package org.apereo.cas.configuration.model.core.util;
+
+import org.apereo.cas.configuration.support.RequiredProperty;
+import org.apereo.cas.configuration.support.RequiresModule;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.Serializable;
+
+/**
+ * This is {@link RotatedCryptographyKeyProperties}, describing a pair of
+ * encryption and signing keys that were in use before the current keys were rotated in.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Getter
+@Setter
+@RequiresModule(name = "cas-server-core-util", automated = true)
+@Accessors(chain = true)
+public class RotatedCryptographyKeyProperties implements Serializable {
+
+    private static final long serialVersionUID = 2474062283146736307L;
+
+    /**
+     * The encryption key that was previously used, in the same format as the current encryption key.
+     */
+    @RequiredProperty
+    private String encryptionKey = StringUtils.EMPTY;
+
+    /**
+     * The signing key that was previously used, in the same format as the current signing key.
+     */
+    @RequiredProperty
+    private String signingKey = StringUtils.EMPTY;
+}
@@ -64,4 +64,48 @@ public class WebflowSessionManagementProperties implements Serializable {
      */
     @NestedConfigurationProperty
     private BaseHazelcastProperties hazelcast = new BaseHazelcastProperties();
+
+    /**
+     * Controls whether spring webflow executions are to be stored server-side in the ticket registry.
+     * The client is then only handed a key that identifies the flow execution, and the execution
+     * can be resumed on any node that shares the ticket registry. This setting takes precedence
+     * over storing flow executions in the server session.
+     */
+    private boolean ticketRegistryStorage;
+
+    /**
+     * Sets the time period after which a flow execution that is stored in the ticket registry
+     * and left idle is removed. Only relevant if flow executions are stored in the ticket registry.
+     */
+    @DurationCapable
+    private String ticketRegistryTimeout = "PT10M";
+
+    /**
+     * Maximum number of snapshots that are kept for each flow execution, to allow
+     * the browser back button to resume earlier steps of the flow. Once the maximum is exceeded,
+     * the oldest snapshot is removed. Only relevant if flow executions are stored in the ticket registry.
+     */
+    private int maxSnapshots = 10;
+
+    /**
+     * Format used to encode the state of the flow execution before it is encrypted,
+     * when state is managed on the client side or in the ticket registry. Flow state encoded in either format
+     * can always be decoded, so the format can be switched while flows are in progress.
+     */
+    private FlowStateFormatTypes stateFormat = FlowStateFormatTypes.JAVA;
+
+    /**
+     * Flow state format types.
+     */
+    public enum FlowStateFormatTypes {
+        /**
+         * Encode flow state using Java serialization.
+         */
+        JAVA,
+        /**
+         * Encode flow state using a compact binary format, which writes registered
+         * types by identifier and falls back to Java serialization for other values.
+         */
+        BINARY
+    }
 }
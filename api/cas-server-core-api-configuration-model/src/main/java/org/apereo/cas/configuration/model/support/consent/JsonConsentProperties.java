@@ -1,11 +1,13 @@
 package org.apereo.cas.configuration.model.support.consent;
 
 import org.apereo.cas.configuration.model.SpringResourceProperties;
+import org.apereo.cas.configuration.model.core.util.LogStructuredStoreProperties;
 import org.apereo.cas.configuration.support.RequiresModule;
 
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
 /**
  * This is {@link JsonConsentProperties}.
@@ -20,4 +22,10 @@ import lombok.experimental.Accessors;
 public class JsonConsentProperties extends SpringResourceProperties {
 
     private static final long serialVersionUID = 7079027843747126083L;
+
+    /**
+     * Store records in an append-only log next to the JSON resource.
+     */
+    @NestedConfigurationProperty
+    private LogStructuredStoreProperties logStore = new LogStructuredStoreProperties();
 }
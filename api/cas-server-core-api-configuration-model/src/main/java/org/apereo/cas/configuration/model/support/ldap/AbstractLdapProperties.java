@@ -179,6 +179,34 @@ public abstract class AbstractLdapProperties implements Serializable {
     @DurationCapable
     private String blockWaitTime = "PT3S";
 
+    /**
+     * Whether the connection pool should be shared with other components and modules
+     * that connect to the same LDAP url with the same bind identity, connection settings and pool settings,
+     * and that also allow the pool to be shared. Components whose pool settings differ, such as the size of the pool
+     * or its validation and pruning settings, do not share a pool.
+     * Connections used to authenticate users via bind operations are pooled separately from
+     * connections used to search. The pool is closed once all components that share it are closed.
+     * Shared pools report checkout wait times, connections in use and the time spent on search and bind
+     * operations to the metrics registry, if any.
+     */
+    private boolean sharedPool;
+
+    /**
+     * Maximum size to which a shared connection pool may grow, beyond {@link #getMaxPoolSize()},
+     * when requests wait for connections to become available for longer than
+     * {@link #getAdaptivePoolWaitThreshold()}. Once demand decreases, the pool
+     * gradually shrinks back to {@link #getMaxPoolSize()}.
+     * A value that is not greater than {@link #getMaxPoolSize()} disables adaptive sizing.
+     */
+    private int maxAdaptivePoolSize;
+
+    /**
+     * Amount of time a request may wait for a connection from a shared pool,
+     * before the pool is allowed to grow beyond its maximum size.
+     */
+    @DurationCapable
+    private String adaptivePoolWaitThreshold = "PT0.05S";
+
     /**
      * If multiple URLs are provided as the ldapURL this describes how each URL will be processed.
      * <ul>
@@ -1,12 +1,14 @@
 package org.apereo.cas.configuration.model.support.mfa.trusteddevice;
 
 import org.apereo.cas.configuration.model.SpringResourceProperties;
+import org.apereo.cas.configuration.model.core.util.LogStructuredStoreProperties;
 import org.apereo.cas.configuration.support.RequiresModule;
 
 import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
 /**
  * This is {@link JsonTrustedDevicesMultifactorProperties}.
@@ -21,4 +23,10 @@ import lombok.experimental.Accessors;
 @JsonFilter("JsonTrustedDevicesMultifactorProperties")
 public class JsonTrustedDevicesMultifactorProperties extends SpringResourceProperties {
     private static final long serialVersionUID = -8690563713141571620L;
+
+    /**
+     * Store records in an append-only log next to the JSON resource.
+     */
+    @NestedConfigurationProperty
+    private LogStructuredStoreProperties logStore = new LogStructuredStoreProperties();
 }
@@ -30,6 +30,22 @@ public class RedisTicketRegistryProperties extends BaseRedisProperties {
     @NestedConfigurationProperty
     private EncryptionRandomizedSigningJwtCryptographyProperties crypto = new EncryptionRandomizedSigningJwtCryptographyProperties();
 
+    /**
+     * Whether tickets that were stored using the legacy key layout,
+     * which embedded the principal id into the ticket key, should be located
+     * and migrated on demand. Locating such tickets requires a scan over the keyspace,
+     * so this setting should only be turned on for the duration of an upgrade
+     * and until existing tickets have expired.
+     */
+    private boolean legacyKeyMigrationEnabled;
+
+    /**
+     * Number of tickets that are fetched or removed together in a single round trip
+     * when the registry is iterated or cleaned. Keys found via scan operations are
+     * grouped into batches of this size and fetched using a single {@code MGET} command.
+     */
+    private int batchSize = 500;
+
     public RedisTicketRegistryProperties() {
         this.crypto.setEnabled(false);
     }
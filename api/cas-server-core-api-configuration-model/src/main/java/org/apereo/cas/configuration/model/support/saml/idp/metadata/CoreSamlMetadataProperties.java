@@ -46,6 +46,16 @@ public class CoreSamlMetadataProperties implements Serializable {
     @DurationCapable
     private String cacheExpiration = "PT24H";
 
+    /**
+     * How long after it is loaded should cached metadata be refreshed.
+     * The refresh runs in the background once a request asks for the metadata after this interval
+     * has passed, and the metadata that was last loaded successfully continues to be used until the
+     * refresh completes, or if the refresh fails. This interval should be shorter than the cache expiration,
+     * since expired metadata is loaded again while the request waits. Leave blank to disable.
+     */
+    @DurationCapable
+    private String cacheRefreshInterval;
+
     /**
      * Whether valid metadata is required.
      */
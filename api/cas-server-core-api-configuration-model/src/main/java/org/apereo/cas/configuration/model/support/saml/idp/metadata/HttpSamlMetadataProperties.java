@@ -40,4 +40,26 @@ public class HttpSamlMetadataProperties implements Serializable {
      */
     @ExpressionLanguageCapable
     private String metadataBackupLocation;
+
+    /**
+     * Index the entity descriptors of downloaded metadata by entity id instead of
+     * keeping the complete metadata document in memory. This is useful for large
+     * metadata aggregates. Metadata is read once in a streaming pass and its entity descriptors
+     * are stored on disk next to the metadata backup file; they are then loaded one
+     * at a time when they are asked for. Signatures and validity of the aggregate are verified
+     * once per version of the aggregate, and an existing index for the same version
+     * is reused when metadata is loaded again, for example after a restart.
+     */
+    private boolean indexEntityDescriptors;
+
+    /**
+     * Whether the on-disk store of indexed entity descriptors should be memory-mapped.
+     */
+    private boolean memoryMapIndexedEntityDescriptors = true;
+
+    /**
+     * Maximum number of indexed entity descriptors, per metadata source,
+     * that are kept in memory once they are loaded from the index.
+     */
+    private long indexedEntityDescriptorsCacheSize = 1_000L;
 }
@@ -1,6 +1,7 @@
 package org.apereo.cas.configuration.model.support.throttle;
 
 import org.apereo.cas.configuration.model.support.jpa.AbstractJpaProperties;
+import org.apereo.cas.configuration.support.DurationCapable;
 import org.apereo.cas.configuration.support.RequiresModule;
 
 import com.fasterxml.jackson.annotation.JsonFilter;
@@ -48,4 +49,34 @@ public class JdbcThrottleProperties extends AbstractJpaProperties {
      */
     private String auditQuery = SQL_AUDIT_QUERY_BY_USER_AND_IP;
 
+    /**
+     * Decide how failed authentication attempts are tracked and looked up.
+     */
+    private ThrottleStorageTypes storageType = ThrottleStorageTypes.AUDIT;
+
+    /**
+     * When failures are tracked using counters, failures may be buffered locally
+     * and written to the database periodically at this interval, trading some accuracy
+     * across nodes for fewer database writes. A zero or negative value disables the buffer
+     * and writes each failure to the database as it occurs.
+     */
+    @DurationCapable
+    private String writeBehindInterval = "PT0S";
+
+    /**
+     * Storage types for failed authentication attempts.
+     */
+    public enum ThrottleStorageTypes {
+        /**
+         * Look up failures by querying the audit trail table
+         * for failed authentication events recorded in the failure range.
+         */
+        AUDIT,
+        /**
+         * Keep track of failures in a dedicated counter table, keyed by client IP address,
+         * username and time bucket. A request is throttled once the number of failures
+         * counted within the failure range goes above the configured threshold.
+         */
+        COUNTER
+    }
 }
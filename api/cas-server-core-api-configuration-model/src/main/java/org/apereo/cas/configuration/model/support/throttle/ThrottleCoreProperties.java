@@ -37,4 +37,30 @@ public class ThrottleCoreProperties implements Serializable {
      * Application code used to identify this application in the audit logs.
      */
     private String appCode = DEFAULT_APPLICATION_CODE;
+
+    /**
+     * Strategy used to keep track of failed submissions in memory.
+     * Accepted values are:
+     * <ul>
+     * <li>DEFAULT: Remember the last failed submission for each key and compare the
+     * instantaneous rate between that and the current submission with the threshold.</li>
+     * <li>SLIDING_WINDOW: Count failed submissions for each key in a sliding window
+     * that spans the failure range, and compare the rate within that window with the threshold.</li>
+     * </ul>
+     */
+    private InMemoryStoreTypes inMemoryStore = InMemoryStoreTypes.DEFAULT;
+
+    /**
+     * Types of in-memory stores that track failed submissions.
+     */
+    public enum InMemoryStoreTypes {
+        /**
+         * Track the last failed submission for each key.
+         */
+        DEFAULT,
+        /**
+         * Count failed submissions for each key in a sliding window.
+         */
+        SLIDING_WINDOW
+    }
 }
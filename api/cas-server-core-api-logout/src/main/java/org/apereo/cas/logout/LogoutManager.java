@@ -2,7 +2,9 @@ package org.apereo.cas.logout;
 
 import org.apereo.cas.logout.slo.SingleLogoutRequestContext;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * A logout manager handles the Single Log Out process.
@@ -26,4 +28,19 @@ public interface LogoutManager {
      * @return all logout requests.
      */
     List<SingleLogoutRequestContext> performLogout(SingleLogoutExecutionRequest context);
+
+    /**
+     * Perform a back channel logout for a batch of ticket granting
+     * tickets and returns all the logout requests.
+     *
+     * @param contexts the contexts
+     * @return all logout requests.
+     */
+    default List<SingleLogoutRequestContext> performLogouts(final Collection<SingleLogoutExecutionRequest> contexts) {
+        return contexts
+            .stream()
+            .map(this::performLogout)
+            .flatMap(List::stream)
+            .collect(Collectors.toList());
+    }
 }
@@ -2,8 +2,11 @@ package org.apereo.cas.authentication.principal;
 
 import org.apereo.cas.services.RegisteredService;
 
+import lombok.val;
+
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * This is {@link PrincipalAttributesRepositoryCache}.
@@ -45,4 +48,30 @@ public interface PrincipalAttributesRepositoryCache {
     void putAttributes(RegisteredService registeredService,
                        RegisteredServicePrincipalAttributesRepository repository,
                        String id, Map<String, List<Object>> attributes);
+
+    /**
+     * Fetch attributes, and load them using the given function
+     * if no attributes are cached for the principal.
+     * Empty results are not cached, so they are loaded again on the next request.
+     *
+     * @param registeredService the registered service
+     * @param repository        the repository
+     * @param principal         the principal
+     * @param loader            the function that loads attributes for the principal
+     * @return the map
+     */
+    default Map<String, List<Object>> fetchAttributes(final RegisteredService registeredService,
+                                                      final RegisteredServicePrincipalAttributesRepository repository,
+                                                      final Principal principal,
+                                                      final Function<Principal, Map<String, List<Object>>> loader) {
+        val cachedAttributes = fetchAttributes(registeredService, repository, principal);
+        if (cachedAttributes != null && !cachedAttributes.isEmpty()) {
+            return cachedAttributes;
+        }
+        val attributes = loader.apply(principal);
+        if (attributes != null && !attributes.isEmpty()) {
+            putAttributes(registeredService, repository, principal.getId(), attributes);
+        }
+        return attributes;
+    }
 }
@@ -0,0 +1,68 @@
+package org.apereo.cas.services;
+
+import java.util.function.Function;
+
+/**
+ * This is {@link RegisteredServiceIndexedKey} that describes a key, such as a client id,
+ * by which registered services of a given type can be looked up.
+ * Services managers may index registered services by this key
+ * to avoid scanning all registered services for each lookup. Keys are compared ignoring case.
+ *
+ * @param <T> the type of registered services
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+public interface RegisteredServiceIndexedKey<T extends RegisteredService> {
+
+    /**
+     * Build an indexed key.
+     *
+     * @param <T>          the type of registered services
+     * @param name         the name of the key
+     * @param type         the type of registered services
+     * @param keyExtractor the function that extracts the key from a registered service
+     * @return the registered service indexed key
+     */
+    static <T extends RegisteredService> RegisteredServiceIndexedKey<T> of(final String name,
+                                                                           final Class<T> type,
+                                                                           final Function<T, String> keyExtractor) {
+        return new RegisteredServiceIndexedKey<>() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Class<T> getType() {
+                return type;
+            }
+
+            @Override
+            public String getKey(final T registeredService) {
+                return keyExtractor.apply(registeredService);
+            }
+        };
+    }
+
+    /**
+     * Unique name of the key, used to identify the index.
+     *
+     * @return the name
+     */
+    String getName();
+
+    /**
+     * The type of registered services that carry the key.
+     *
+     * @return the type
+     */
+    Class<T> getType();
+
+    /**
+     * Extract the key from the registered service.
+     *
+     * @param registeredService the registered service
+     * @return the key, or null if the registered service cannot be found by this key
+     */
+    String getKey(T registeredService);
+}
@@ -140,6 +140,27 @@ public interface ServicesManager extends Ordered {
         return null;
     }
 
+    /**
+     * Find a {@link RegisteredService} whose indexed key matches the supplied key, ignoring case.
+     * If more than one registered service carries the same key, the first one
+     * in the order of {@link #getAllServicesOfType(Class)} is returned.
+     *
+     * @param <T>        the type parameter
+     * @param indexedKey the indexed key
+     * @param key        the key to match with.
+     * @return the {@link RegisteredService} that matches the supplied key.
+     */
+    default <T extends RegisteredService> T findServiceBy(final RegisteredServiceIndexedKey<T> indexedKey, final String key) {
+        if (key == null) {
+            return null;
+        }
+        return getAllServicesOfType(indexedKey.getType())
+            .stream()
+            .filter(registeredService -> key.equalsIgnoreCase(indexedKey.getKey(registeredService)))
+            .findFirst()
+            .orElse(null);
+    }
+
     /**
      * Find a {@link RegisteredService} by matching with the supplied name.
      *
@@ -93,6 +93,20 @@ public interface TicketRegistry {
      */
     int deleteTicket(Ticket ticketId) throws Exception;
 
+    /**
+     * Remove the given tickets from the registry in bulk.
+     * If a ticket to delete is a TGT then related service tickets, etc are removed as well.
+     * Registries that are able to remove multiple entries in a single operation
+     * should override this to reduce the number of round trips to the store.
+     *
+     * @param tickets the tickets to delete.
+     * @return the number of tickets deleted including children.
+     * @throws Exception the exception
+     */
+    default int deleteTickets(final Collection<? extends Ticket> tickets) throws Exception {
+        return tickets.stream().mapToInt(Unchecked.toIntFunction(this::deleteTicket)).sum();
+    }
+
     /**
      * Delete all tickets from the registry.
      *
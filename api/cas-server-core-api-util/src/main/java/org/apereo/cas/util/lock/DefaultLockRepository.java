@@ -5,8 +5,14 @@ import lombok.val;
 import org.jooq.lambda.Unchecked;
 import org.springframework.integration.support.locks.LockRegistry;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -37,4 +43,24 @@ public class DefaultLockRepository implements LockRepository {
                 });
         }).get();
     }
+
+    @Override
+    public <K, T> T executeAll(final Collection<K> lockKeys, final Function<List<K>, T> consumer) {
+        val locks = new ArrayDeque<Lock>(lockKeys.size());
+        val lockedKeys = new ArrayList<K>(lockKeys.size());
+        try {
+            for (val lockKey : lockKeys) {
+                val lock = lockRegistry.obtain(lockKey);
+                if (Unchecked.supplier(() -> lock.tryLock(LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS)).get()) {
+                    locks.push(lock);
+                    lockedKeys.add(lockKey);
+                }
+            }
+            return consumer.apply(lockedKeys);
+        } finally {
+            while (!locks.isEmpty()) {
+                locks.pop().unlock();
+            }
+        }
+    }
 }
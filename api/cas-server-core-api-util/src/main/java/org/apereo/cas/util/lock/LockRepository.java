@@ -3,7 +3,11 @@ package org.apereo.cas.util.lock;
 import org.springframework.integration.support.locks.DefaultLockRegistry;
 import org.springframework.integration.support.locks.PassThruLockRegistry;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -56,4 +60,21 @@ public interface LockRepository {
      * @return the optional type
      */
     <T> Optional<T> execute(Object lockKey, Supplier<T> consumer);
+
+    /**
+     * Obtain a lock for each of the given keys in turn, execute the required action
+     * with the keys whose lock could be obtained while all of those locks are held,
+     * and finally unlock every lock that was obtained. Keys whose lock cannot be obtained
+     * are not handed over to the action. Implementations that maintain locks
+     * should override this; by default, no locks are obtained and all keys are handed over.
+     *
+     * @param <K>      the type of the lock keys
+     * @param <T>      the type parameter
+     * @param lockKeys the lock keys
+     * @param consumer the consumer
+     * @return the result of the action
+     */
+    default <K, T> T executeAll(final Collection<K> lockKeys, final Function<List<K>, T> consumer) {
+        return consumer.apply(new ArrayList<>(lockKeys));
+    }
 }
@@ -2,14 +2,18 @@ package org.apereo.cas.util.lock;
 
 import lombok.SneakyThrows;
 import lombok.val;
+import org.jooq.lambda.Unchecked;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.springframework.integration.support.locks.DefaultLockRegistry;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -66,6 +70,38 @@ public class DefaultLockRepositoryTests {
         assertEquals(10, container.values.get(lockKey).size());
     }
 
+    @Test
+    public void verifyExecuteAll() throws Exception {
+        val lockRegistry = new DefaultLockRegistry();
+        val repository = new DefaultLockRepository(lockRegistry);
+        val busyLock = lockRegistry.obtain("busy");
+        val held = new CountDownLatch(1);
+        val release = new CountDownLatch(1);
+        val holder = new Thread(Unchecked.runnable(() -> {
+            busyLock.lock();
+            try {
+                held.countDown();
+                release.await();
+            } finally {
+                busyLock.unlock();
+            }
+        }));
+        holder.start();
+        held.await();
+        try {
+            val result = repository.executeAll(List.of("first", "busy", "second"), lockedKeys -> {
+                assertFalse(CompletableFuture.supplyAsync(() -> lockRegistry.obtain("first").tryLock()).join());
+                return lockedKeys;
+            });
+            assertEquals(List.of("first", "second"), result);
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+        assertTrue(CompletableFuture.supplyAsync(() -> lockRegistry.obtain("first").tryLock()).get());
+        assertEquals(List.of("first", "busy"), LockRepository.noOp().executeAll(List.of("first", "busy"), lockedKeys -> lockedKeys));
+    }
+
     private static class Container {
         private final Map<String, List<String>> values = new HashMap<>();
     }
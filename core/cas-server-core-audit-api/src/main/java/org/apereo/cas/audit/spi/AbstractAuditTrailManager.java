@@ -1,7 +1,9 @@
 package org.apereo.cas.audit.spi;
 
+import org.apereo.cas.configuration.model.core.audit.AuditQueueProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -9,11 +11,12 @@ import org.apereo.inspektr.audit.AuditActionContext;
 import org.apereo.inspektr.audit.AuditTrailManager;
 import org.springframework.beans.factory.DisposableBean;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.List;
 
 /**
  * This is {@link AbstractAuditTrailManager}.
+ * Records are saved on the caller thread, or when asynchronous,
+ * handed over to a bounded {@link AuditRecordBatchPipeline} that saves them in batches.
  *
  * @author Misagh Moayyed
  * @since 5.2.0
@@ -21,7 +24,6 @@ import java.util.concurrent.Executors;
 @Setter
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-@AllArgsConstructor(access = AccessLevel.PROTECTED)
 public abstract class AbstractAuditTrailManager implements AuditTrailManager, DisposableBean {
 
     /**
@@ -29,13 +31,28 @@ public abstract class AbstractAuditTrailManager implements AuditTrailManager, Di
      */
     protected boolean asynchronous;
 
-    private final ExecutorService executorService = Executors.newSingleThreadExecutor(
-        r -> new Thread(r, "AuditTrailManagerThread"));
+    /**
+     * Settings for the queue used when saving records asynchronously.
+     */
+    private AuditQueueProperties queue = new AuditQueueProperties();
+
+    /**
+     * Meter registry used to record queue metrics, if any.
+     */
+    private MeterRegistry meterRegistry;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile AuditRecordBatchPipeline pipeline;
+
+    protected AbstractAuditTrailManager(final boolean asynchronous) {
+        this.asynchronous = asynchronous;
+    }
 
     @Override
     public void record(final AuditActionContext audit) {
         if (this.asynchronous) {
-            this.executorService.execute(() -> saveAuditRecord(audit));
+            getPipeline().submit(audit);
         } else {
             saveAuditRecord(audit);
         }
@@ -43,7 +60,11 @@ public abstract class AbstractAuditTrailManager implements AuditTrailManager, Di
 
     @Override
     public void destroy() {
-        this.executorService.shutdown();
+        synchronized (this) {
+            if (this.pipeline != null) {
+                this.pipeline.close();
+            }
+        }
     }
 
     /**
@@ -51,4 +72,28 @@ public abstract class AbstractAuditTrailManager implements AuditTrailManager, Di
      * @param audit Audit record to be saved.
      */
     protected abstract void saveAuditRecord(AuditActionContext audit);
+
+    /**
+     * Save a batch of audit records. Implementations that
+     * are able to store multiple records at once should override this.
+     *
+     * @param audits Audit records to be saved.
+     */
+    protected void saveAuditRecords(final List<AuditActionContext> audits) {
+        audits.forEach(this::saveAuditRecord);
+    }
+
+    private AuditRecordBatchPipeline getPipeline() {
+        var result = this.pipeline;
+        if (result == null) {
+            synchronized (this) {
+                result = this.pipeline;
+                if (result == null) {
+                    result = new AuditRecordBatchPipeline(getClass().getSimpleName(), queue, this::saveAuditRecords, meterRegistry);
+                    this.pipeline = result;
+                }
+            }
+        }
+        return result;
+    }
 }
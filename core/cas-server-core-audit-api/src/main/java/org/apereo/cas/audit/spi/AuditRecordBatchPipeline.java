@@ -0,0 +1,238 @@
+package org.apereo.cas.audit.spi;
+
+import org.apereo.cas.configuration.model.core.audit.AuditQueueProperties;
+import org.apereo.cas.configuration.support.Beans;
+import org.apereo.cas.util.LoggingUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apereo.inspektr.audit.AuditActionContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * This is {@link AuditRecordBatchPipeline}.
+ * Hands audit records over to a bounded queue that is drained by a single
+ * background thread, which saves records in batches. A batch is saved once it
+ * reaches the maximum batch size, or once the linger time has passed since the
+ * first record of the batch was taken from the queue. When the queue is full,
+ * the configured overflow policy decides whether the caller blocks, the oldest
+ * queued record is dropped, or the record is saved on the caller thread.
+ * <p>
+ * When a {@link MeterRegistry} is available, the queue depth, the size of each
+ * saved batch and the number of dropped records are recorded.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+public class AuditRecordBatchPipeline implements AutoCloseable {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private static final long IDLE_POLL_MILLIS = 250;
+
+    private final BlockingQueue<AuditActionContext> queue;
+
+    private final Consumer<List<AuditActionContext>> batchConsumer;
+
+    private final int maxBatchSize;
+
+    private final long lingerTimeNanos;
+
+    private final AuditQueueProperties.OverflowPolicyTypes overflowPolicy;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final Thread worker;
+
+    private final DistributionSummary batchSizes;
+
+    private final Counter droppedRecords;
+
+    private final LongAdder batches = new LongAdder();
+
+    private volatile boolean closed;
+
+    public AuditRecordBatchPipeline(final String name, final AuditQueueProperties properties,
+                                    final Consumer<List<AuditActionContext>> batchConsumer,
+                                    final MeterRegistry meterRegistry) {
+        this(name, properties.getCapacity(), properties.getMaxBatchSize(),
+            Beans.newDuration(properties.getLingerTime()), properties.getOverflowPolicy(),
+            batchConsumer, meterRegistry);
+    }
+
+    public AuditRecordBatchPipeline(final String name, final int capacity, final int maxBatchSize,
+                                    final Duration lingerTime,
+                                    final AuditQueueProperties.OverflowPolicyTypes overflowPolicy,
+                                    final Consumer<List<AuditActionContext>> batchConsumer,
+                                    final MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.lingerTimeNanos = Math.max(0, lingerTime.toNanos());
+        this.overflowPolicy = overflowPolicy;
+        this.batchConsumer = batchConsumer;
+        if (meterRegistry != null) {
+            Gauge.builder("cas.audit.queue.size", queue, BlockingQueue::size)
+                .description("Number of audit records waiting to be saved")
+                .tag("name", name)
+                .register(meterRegistry);
+            this.batchSizes = DistributionSummary.builder("cas.audit.batch.size")
+                .description("Number of audit records saved in each batch")
+                .tag("name", name)
+                .register(meterRegistry);
+            this.droppedRecords = Counter.builder("cas.audit.records.dropped")
+                .description("Number of audit records dropped because the queue was full")
+                .tag("name", name)
+                .register(meterRegistry);
+        } else {
+            this.batchSizes = null;
+            this.droppedRecords = null;
+        }
+        this.worker = new Thread(this::drain, name + "Thread");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Submit the audit record to be saved.
+     *
+     * @param audit the audit record
+     */
+    public void submit(final AuditActionContext audit) {
+        if (closed) {
+            save(List.of(audit));
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(audit);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    save(List.of(audit));
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(audit)) {
+                    if (queue.poll() != null) {
+                        recordDropped();
+                    }
+                }
+                break;
+            case SYNCHRONOUS:
+            default:
+                if (!queue.offer(audit)) {
+                    LOGGER.trace("Audit queue is full; saving audit record on the caller thread");
+                    save(List.of(audit));
+                }
+                break;
+        }
+    }
+
+    /**
+     * Number of audit records waiting to be saved.
+     *
+     * @return the size
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Number of audit records dropped because the queue was full.
+     *
+     * @return the count
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Number of batches saved so far.
+     *
+     * @return the count
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Stop accepting records into the queue, and save
+     * all records that are still waiting in the queue.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT_SECONDS));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        val remaining = new ArrayList<AuditActionContext>(maxBatchSize);
+        while (queue.drainTo(remaining, maxBatchSize) > 0) {
+            save(remaining);
+            remaining.clear();
+        }
+    }
+
+    private void drain() {
+        val batch = new ArrayList<AuditActionContext>(maxBatchSize);
+        while (!closed) {
+            try {
+                val first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                val deadline = System.nanoTime() + lingerTimeNanos;
+                while (batch.size() < maxBatchSize && !closed) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    val remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    val next = queue.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(IDLE_POLL_MILLIS)), TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+            } catch (final InterruptedException e) {
+                LOGGER.trace("Audit queue worker is interrupted");
+            }
+            if (!batch.isEmpty()) {
+                save(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void save(final List<AuditActionContext> batch) {
+        try {
+            batchConsumer.accept(List.copyOf(batch));
+            batches.increment();
+            if (batchSizes != null) {
+                batchSizes.record(batch.size());
+            }
+        } catch (final Exception e) {
+            LoggingUtils.error(LOGGER, e);
+        }
+    }
+
+    private void recordDropped() {
+        dropped.increment();
+        if (droppedRecords != null) {
+            droppedRecords.increment();
+        }
+    }
+}
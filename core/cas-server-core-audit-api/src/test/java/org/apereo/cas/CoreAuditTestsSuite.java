@@ -1,6 +1,7 @@
 package org.apereo.cas;
 
 import org.apereo.cas.audit.spi.AuditActionContextJsonSerializerTests;
+import org.apereo.cas.audit.spi.AuditRecordBatchPipelineTests;
 import org.apereo.cas.audit.spi.FilterAndDelegateAuditTrailManagerTests;
 import org.apereo.cas.audit.spi.plan.DefaultAuditTrailRecordResolutionPlanTests;
 import org.apereo.cas.audit.spi.principal.ChainingAuditPrincipalIdProviderTests;
@@ -21,6 +22,7 @@ import org.junit.platform.suite.api.Suite;
  */
 @SelectClasses({
     ProtocolSpecificationValidationAuditResourceResolverTests.class,
+    AuditRecordBatchPipelineTests.class,
     AuditActionContextJsonSerializerTests.class,
     ServiceAuditResourceResolverTests.class,
     DefaultAuditTrailRecordResolutionPlanTests.class,
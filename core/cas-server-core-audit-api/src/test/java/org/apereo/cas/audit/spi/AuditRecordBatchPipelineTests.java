@@ -0,0 +1,166 @@
+package org.apereo.cas.audit.spi;
+
+import org.apereo.cas.configuration.model.core.audit.AuditQueueProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Getter;
+import lombok.val;
+import org.apereo.inspektr.audit.AuditActionContext;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is {@link AuditRecordBatchPipelineTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("Audits")
+@SuppressWarnings("JavaUtilDate")
+public class AuditRecordBatchPipelineTests {
+
+    private static AuditActionContext newAuditRecord() {
+        return new AuditActionContext(UUID.randomUUID().toString(), "resource", "action",
+            "CAS", new Date(), "1.2.3.4", "4.5.6.7", "Mozilla");
+    }
+
+    @Test
+    public void verifyBatchesBySize() {
+        val batches = new CopyOnWriteArrayList<List<AuditActionContext>>();
+        val registry = new SimpleMeterRegistry();
+        try (val pipeline = new AuditRecordBatchPipeline("test", 100, 10, Duration.ofSeconds(30),
+            AuditQueueProperties.OverflowPolicyTypes.BLOCK, batches::add, registry)) {
+            for (var i = 0; i < 25; i++) {
+                pipeline.submit(newAuditRecord());
+            }
+            await().atMost(5, TimeUnit.SECONDS).until(() -> batches.size() >= 2);
+            assertEquals(10, batches.get(0).size());
+            assertEquals(10, batches.get(1).size());
+        }
+        assertEquals(3, batches.size());
+        assertEquals(25, batches.stream().mapToInt(List::size).sum());
+        assertEquals(3, registry.get("cas.audit.batch.size").summary().count());
+        assertEquals(0, registry.get("cas.audit.queue.size").gauge().value());
+    }
+
+    @Test
+    public void verifyBatchesByLingerTime() {
+        val batches = new CopyOnWriteArrayList<List<AuditActionContext>>();
+        try (val pipeline = new AuditRecordBatchPipeline("test", 100, 50, Duration.ofMillis(100),
+            AuditQueueProperties.OverflowPolicyTypes.BLOCK, batches::add, null)) {
+            pipeline.submit(newAuditRecord());
+            pipeline.submit(newAuditRecord());
+            await().atMost(5, TimeUnit.SECONDS).until(() -> batches.size() == 1);
+            assertEquals(2, batches.get(0).size());
+            assertEquals(1, pipeline.getBatchCount());
+        }
+    }
+
+    @Test
+    public void verifyOverflowPolicies() throws Exception {
+        val blocked = new CountDownLatch(1);
+        val saved = new CopyOnWriteArrayList<AuditActionContext>();
+        val registry = new SimpleMeterRegistry();
+        try (val pipeline = new AuditRecordBatchPipeline("test", 2, 1, Duration.ZERO,
+            AuditQueueProperties.OverflowPolicyTypes.DROP_OLDEST, batch -> {
+                awaitQuietly(blocked);
+                saved.addAll(batch);
+            }, registry)) {
+            val records = new ArrayList<AuditActionContext>();
+            records.add(newAuditRecord());
+            pipeline.submit(records.get(0));
+            await().atMost(5, TimeUnit.SECONDS).until(() -> pipeline.size() == 0);
+            for (var i = 0; i < 5; i++) {
+                val audit = newAuditRecord();
+                records.add(audit);
+                pipeline.submit(audit);
+            }
+            assertEquals(2, pipeline.size());
+            assertEquals(3, pipeline.getDroppedCount());
+            blocked.countDown();
+            pipeline.close();
+            assertEquals(List.of(records.get(0), records.get(4), records.get(5)), saved);
+            assertEquals(pipeline.getDroppedCount(), registry.get("cas.audit.records.dropped").counter().count());
+        }
+
+        val caller = Thread.currentThread();
+        val threads = new CopyOnWriteArrayList<Thread>();
+        val release = new CountDownLatch(1);
+        try (val pipeline = new AuditRecordBatchPipeline("test", 1, 1, Duration.ZERO,
+            AuditQueueProperties.OverflowPolicyTypes.SYNCHRONOUS, batch -> {
+                if (Thread.currentThread() != caller) {
+                    awaitQuietly(release);
+                }
+                threads.add(Thread.currentThread());
+            }, null)) {
+            pipeline.submit(newAuditRecord());
+            await().atMost(5, TimeUnit.SECONDS).until(() -> pipeline.size() == 0);
+            pipeline.submit(newAuditRecord());
+            pipeline.submit(newAuditRecord());
+            assertEquals(List.of(caller), threads);
+            release.countDown();
+        }
+        assertEquals(3, threads.size());
+    }
+
+    @Test
+    public void verifyAuditTrailManagerSavesInBatches() throws Exception {
+        val manager = new BatchingAuditTrailManager();
+        manager.setAsynchronous(true);
+        manager.setQueue(new AuditQueueProperties().setMaxBatchSize(5).setLingerTime("PT10S"));
+        for (var i = 0; i < 12; i++) {
+            manager.record(newAuditRecord());
+        }
+        manager.destroy();
+        assertEquals(12, manager.getBatches().stream().mapToInt(List::size).sum());
+        assertTrue(manager.getBatches().size() >= 3);
+        assertTrue(manager.getBatches().stream().allMatch(batch -> batch.size() <= 5));
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Getter
+    private static final class BatchingAuditTrailManager extends AbstractAuditTrailManager {
+        private final List<List<AuditActionContext>> batches = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void saveAuditRecord(final AuditActionContext audit) {
+            batches.add(List.of(audit));
+        }
+
+        @Override
+        protected void saveAuditRecords(final List<AuditActionContext> audits) {
+            batches.add(audits);
+        }
+
+        @Override
+        public Set<? extends AuditActionContext> getAuditRecords(final Map<WhereClauseFields, Object> whereClause) {
+            return Set.of();
+        }
+
+        @Override
+        public void removeAll() {
+            batches.clear();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.apereo.cas.authentication;
 import org.apereo.cas.audit.AuditActionResolvers;
 import org.apereo.cas.audit.AuditResourceResolvers;
 import org.apereo.cas.audit.AuditableActions;
+import org.apereo.cas.authentication.attribute.AttributeRepositoryResolutionContext;
 import org.apereo.cas.authentication.exceptions.UnresolvedPrincipalException;
 import org.apereo.cas.authentication.metadata.BasicCredentialMetaData;
 import org.apereo.cas.authentication.principal.NullPrincipal;
@@ -66,7 +67,7 @@ public class DefaultAuthenticationManager implements AuthenticationManager {
             throw new AuthenticationException("Authentication pre-processor has failed to process transaction");
         }
         AuthenticationCredentialsThreadLocalBinder.bindCurrent(transaction.getCredentials());
-        val builder = authenticateInternal(transaction);
+        val builder = authenticateWithResolutionContext(transaction);
         AuthenticationCredentialsThreadLocalBinder.bindCurrent(builder);
 
         val authentication = builder.build();
@@ -85,6 +86,22 @@ public class DefaultAuthenticationManager implements AuthenticationManager {
         return auth;
     }
 
+    /**
+     * Authenticate the transaction within an attribute repository resolution context,
+     * so that principal resolvers share results produced by attribute repositories
+     * for the duration of the authentication event.
+     *
+     * @param transaction the transaction
+     * @return the authentication builder
+     * @throws AuthenticationException the authentication exception
+     */
+    protected AuthenticationBuilder authenticateWithResolutionContext(final AuthenticationTransaction transaction)
+        throws AuthenticationException {
+        try (val context = AttributeRepositoryResolutionContext.open()) {
+            return authenticateInternal(transaction);
+        }
+    }
+
     /**
      * Populate authentication metadata attributes.
      *
@@ -191,6 +208,23 @@ public class DefaultAuthenticationManager implements AuthenticationManager {
         publishEvent(new CasAuthenticationTransactionStartedEvent(this, credential));
 
         val result = handler.authenticate(credential, service);
+        addAuthenticationHandlerResult(builder, credential, resolver, handler, result);
+    }
+
+    /**
+     * Record the result produced by the authentication handler and resolve the principal.
+     *
+     * @param builder    the builder
+     * @param credential the credential
+     * @param resolver   the resolver
+     * @param handler    the handler
+     * @param result     the result produced by the handler
+     */
+    protected void addAuthenticationHandlerResult(final AuthenticationBuilder builder,
+                                                  final Credential credential,
+                                                  final PrincipalResolver resolver,
+                                                  final AuthenticationHandler handler,
+                                                  final AuthenticationHandlerExecutionResult result) {
         val authenticationHandlerName = handler.getName();
         builder.addSuccess(authenticationHandlerName, result);
         LOGGER.debug("Authentication handler [{}] successfully authenticated [{}]", authenticationHandlerName, credential);
@@ -282,38 +316,7 @@ public class DefaultAuthenticationManager implements AuthenticationManager {
             while (it.hasNext()) {
                 val credential = it.next();
                 LOGGER.debug("Attempting to authenticate credential [{}]", credential);
-
-                val itHandlers = handlerSet.iterator();
-                var proceedWithNextHandler = true;
-                while (proceedWithNextHandler && itHandlers.hasNext()) {
-                    val handler = itHandlers.next();
-                    if (handler.supports(credential)) {
-                        try {
-                            val resolver = getPrincipalResolverLinkedToHandlerIfAny(handler, transaction);
-                            LOGGER.debug("Attempting authentication of [{}] using [{}]", credential.getId(), handler.getName());
-                            authenticateAndResolvePrincipal(builder, credential, resolver, handler, transaction.getService());
-
-                            val authnResult = builder.build();
-                            AuthenticationCredentialsThreadLocalBinder.bindInProgress(authnResult);
-                            val executionResult = evaluateAuthenticationPolicies(authnResult, transaction, handlerSet);
-                            proceedWithNextHandler = !executionResult.isSuccess();
-                        } catch (final GeneralSecurityException e) {
-                            handleAuthenticationException(e, handler.getName(), builder);
-                            proceedWithNextHandler = shouldAuthenticationChainProceedOnFailure(transaction, e);
-                        } catch (final Exception e) {
-                            LOGGER.error("Authentication has failed. Credentials may be incorrect or CAS cannot "
-                                + "find authentication handler that supports [{}] of type [{}]. Examine the configuration to "
-                                + "ensure a method of authentication is defined and analyze CAS logs at DEBUG level to trace "
-                                + "the authentication event.", credential, credential.getClass().getSimpleName());
-
-                            handleAuthenticationException(e, handler.getName(), builder);
-                            proceedWithNextHandler = shouldAuthenticationChainProceedOnFailure(transaction, e);
-                        }
-                    } else {
-                        LOGGER.debug("Authentication handler [{}] does not support the credential type [{}].",
-                            handler.getName(), credential);
-                    }
-                }
+                authenticateCredential(builder, credential, handlerSet, transaction);
             }
             evaluateFinalAuthentication(builder, transaction, handlerSet);
             return builder;
@@ -322,6 +325,74 @@ public class DefaultAuthenticationManager implements AuthenticationManager {
         }
     }
 
+    /**
+     * Authenticate the credential with the handlers that support it, in order,
+     * until authentication policies are satisfied or a failure should stop the chain.
+     *
+     * @param builder     the builder
+     * @param credential  the credential
+     * @param handlerSet  the handler set
+     * @param transaction the transaction
+     */
+    protected void authenticateCredential(final AuthenticationBuilder builder,
+                                          final Credential credential,
+                                          final Set<AuthenticationHandler> handlerSet,
+                                          final AuthenticationTransaction transaction) {
+        val itHandlers = handlerSet.iterator();
+        var proceedWithNextHandler = true;
+        while (proceedWithNextHandler && itHandlers.hasNext()) {
+            val handler = itHandlers.next();
+            if (handler.supports(credential)) {
+                proceedWithNextHandler = authenticateWithHandler(builder, credential, handler, handlerSet, transaction,
+                    resolver -> authenticateAndResolvePrincipal(builder, credential, resolver, handler, transaction.getService()));
+            } else {
+                LOGGER.debug("Authentication handler [{}] does not support the credential type [{}].",
+                    handler.getName(), credential);
+            }
+        }
+    }
+
+    /**
+     * Run the authentication handler execution for the credential, and evaluate
+     * the outcome against authentication policies.
+     *
+     * @param builder     the builder
+     * @param credential  the credential
+     * @param handler     the handler
+     * @param handlerSet  the handler set
+     * @param transaction the transaction
+     * @param execution   the execution that authenticates the credential and resolves the principal
+     * @return true if authentication should proceed with the next handler
+     */
+    protected boolean authenticateWithHandler(final AuthenticationBuilder builder,
+                                              final Credential credential,
+                                              final AuthenticationHandler handler,
+                                              final Set<AuthenticationHandler> handlerSet,
+                                              final AuthenticationTransaction transaction,
+                                              final AuthenticationHandlerExecution execution) {
+        try {
+            val resolver = getPrincipalResolverLinkedToHandlerIfAny(handler, transaction);
+            LOGGER.debug("Attempting authentication of [{}] using [{}]", credential.getId(), handler.getName());
+            execution.execute(resolver);
+
+            val authnResult = builder.build();
+            AuthenticationCredentialsThreadLocalBinder.bindInProgress(authnResult);
+            val executionResult = evaluateAuthenticationPolicies(authnResult, transaction, handlerSet);
+            return !executionResult.isSuccess();
+        } catch (final GeneralSecurityException e) {
+            handleAuthenticationException(e, handler.getName(), builder);
+            return shouldAuthenticationChainProceedOnFailure(transaction, e);
+        } catch (final Exception e) {
+            LOGGER.error("Authentication has failed. Credentials may be incorrect or CAS cannot "
+                + "find authentication handler that supports [{}] of type [{}]. Examine the configuration to "
+                + "ensure a method of authentication is defined and analyze CAS logs at DEBUG level to trace "
+                + "the authentication event.", credential, credential.getClass().getSimpleName());
+
+            handleAuthenticationException(e, handler.getName(), builder);
+            return shouldAuthenticationChainProceedOnFailure(transaction, e);
+        }
+    }
+
     /**
      * Evaluate produced authentication context.
      * We apply an implicit security policy of at least one successful authentication.
@@ -425,6 +496,21 @@ public class DefaultAuthenticationManager implements AuthenticationManager {
         return policies.stream().anyMatch(policy -> policy.shouldResumeOnFailure(failure));
     }
 
+    /**
+     * Authenticates a credential with a handler, and resolves the principal.
+     */
+    @FunctionalInterface
+    protected interface AuthenticationHandlerExecution {
+        /**
+         * Execute.
+         *
+         * @param resolver the principal resolver linked to the handler, if any
+         * @throws GeneralSecurityException the general security exception
+         * @throws PreventedException       the prevented exception
+         */
+        void execute(PrincipalResolver resolver) throws GeneralSecurityException, PreventedException;
+    }
+
     @Getter
     private static class ChainingAuthenticationPolicyExecutionResult {
         private final List<AuthenticationPolicyExecutionResult> results = new ArrayList<>();
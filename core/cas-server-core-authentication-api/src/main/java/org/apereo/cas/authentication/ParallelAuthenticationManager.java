@@ -0,0 +1,188 @@
+package org.apereo.cas.authentication;
+
+import org.apereo.cas.support.events.authentication.CasAuthenticationTransactionStartedEvent;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apereo.inspektr.common.web.ClientInfoHolder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * This is {@link ParallelAuthenticationManager} that executes all authentication handlers
+ * that support a credential concurrently, rather than one after another.
+ * Results produced by handlers are processed in the order of the handlers, exactly
+ * as they would be if handlers were executed in sequence: principal resolution, authentication
+ * policy evaluation and failure handling are all carried out on the thread that processes
+ * the authentication transaction. Once authentication policies are satisfied, or a failure
+ * should stop the chain, handlers that are still running are cancelled.
+ * Handlers that do not produce a result within their configured timeout are cancelled and
+ * recorded as failures.
+ * <p>
+ * Note that every handler that supports the credential receives it as soon as the transaction starts,
+ * including handlers that are cancelled once an earlier handler satisfies authentication policies.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+@Getter
+public class ParallelAuthenticationManager extends DefaultAuthenticationManager implements DisposableBean {
+    private final ExecutorService executorService;
+
+    private final Duration timeout;
+
+    private final Map<String, Duration> handlerTimeouts;
+
+    public ParallelAuthenticationManager(final AuthenticationEventExecutionPlan authenticationEventExecutionPlan,
+                                         final boolean principalResolutionFailureFatal,
+                                         final ConfigurableApplicationContext applicationContext,
+                                         final ExecutorService executorService,
+                                         final Duration timeout,
+                                         final Map<String, Duration> handlerTimeouts) {
+        super(authenticationEventExecutionPlan, principalResolutionFailureFatal, applicationContext);
+        this.executorService = executorService;
+        this.timeout = timeout;
+        this.handlerTimeouts = handlerTimeouts;
+    }
+
+    @Override
+    public void destroy() {
+        executorService.shutdownNow();
+    }
+
+    @Override
+    protected void authenticateCredential(final AuthenticationBuilder builder,
+                                          final Credential credential,
+                                          final Set<AuthenticationHandler> handlerSet,
+                                          final AuthenticationTransaction transaction) {
+        val handlers = handlerSet
+            .stream()
+            .filter(handler -> handler.supports(credential))
+            .collect(Collectors.toList());
+        if (handlers.size() <= 1) {
+            super.authenticateCredential(builder, credential, handlerSet, transaction);
+            return;
+        }
+
+        LOGGER.debug("Executing [{}] authentication handlers concurrently for [{}]", handlers.size(), credential.getId());
+        val startTime = System.nanoTime();
+        val executions = new LinkedHashMap<AuthenticationHandler, Future<AuthenticationHandlerExecutionResult>>();
+        try {
+            handlers.forEach(handler -> executions.put(handler,
+                executorService.submit(newAuthenticationHandlerExecution(handler, credential, transaction))));
+
+            val it = executions.entrySet().iterator();
+            var proceedWithNextHandler = true;
+            while (proceedWithNextHandler && it.hasNext()) {
+                val entry = it.next();
+                val handler = entry.getKey();
+                proceedWithNextHandler = authenticateWithHandler(builder, credential, handler, handlerSet, transaction,
+                    resolver -> {
+                        val result = waitForAuthenticationHandler(handler, entry.getValue(), startTime);
+                        addAuthenticationHandlerResult(builder, credential, resolver, handler, result);
+                    });
+            }
+        } finally {
+            executions.forEach((handler, execution) -> {
+                if (execution.cancel(true)) {
+                    LOGGER.debug("Cancelled outstanding authentication handler [{}] for [{}]", handler.getName(), credential.getId());
+                }
+            });
+        }
+    }
+
+    /**
+     * Build the task that executes the authentication handler. The credentials of the transaction, the client info
+     * and the request attributes of the calling thread are made available to the handler on the thread that executes it.
+     * If the executor runs the task on the calling thread, that thread's state is left as it is.
+     *
+     * @param handler     the handler
+     * @param credential  the credential
+     * @param transaction the transaction
+     * @return the task
+     */
+    protected Callable<AuthenticationHandlerExecutionResult> newAuthenticationHandlerExecution(final AuthenticationHandler handler,
+                                                                                              final Credential credential,
+                                                                                              final AuthenticationTransaction transaction) {
+        val caller = Thread.currentThread();
+        val clientInfo = ClientInfoHolder.getClientInfo();
+        val requestAttributes = RequestContextHolder.getRequestAttributes();
+        return () -> {
+            val propagate = Thread.currentThread() != caller;
+            if (propagate) {
+                AuthenticationCredentialsThreadLocalBinder.bindCurrent(transaction.getCredentials());
+                ClientInfoHolder.setClientInfo(clientInfo);
+                RequestContextHolder.setRequestAttributes(requestAttributes);
+            }
+            try {
+                publishEvent(new CasAuthenticationTransactionStartedEvent(this, credential));
+                return handler.authenticate(credential, transaction.getService());
+            } finally {
+                if (propagate) {
+                    RequestContextHolder.resetRequestAttributes();
+                    ClientInfoHolder.clear();
+                    AuthenticationCredentialsThreadLocalBinder.clear();
+                }
+            }
+        };
+    }
+
+    /**
+     * Wait for the authentication handler to produce a result, until its timeout expires.
+     *
+     * @param handler   the handler
+     * @param execution the execution
+     * @param startTime the time at which handlers were submitted
+     * @return the authentication handler execution result
+     * @throws GeneralSecurityException the general security exception
+     * @throws PreventedException       the prevented exception
+     */
+    protected AuthenticationHandlerExecutionResult waitForAuthenticationHandler(final AuthenticationHandler handler,
+                                                                              final Future<AuthenticationHandlerExecutionResult> execution,
+                                                                              final long startTime)
+        throws GeneralSecurityException, PreventedException {
+        val handlerTimeout = handlerTimeouts.getOrDefault(handler.getName(), timeout);
+        try {
+            if (handlerTimeout.isZero() || handlerTimeout.isNegative()) {
+                return execution.get();
+            }
+            val remaining = handlerTimeout.toNanos() - (System.nanoTime() - startTime);
+            return execution.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+        } catch (final ExecutionException e) {
+            val cause = e.getCause();
+            if (cause instanceof GeneralSecurityException) {
+                throw (GeneralSecurityException) cause;
+            }
+            if (cause instanceof PreventedException) {
+                throw (PreventedException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new PreventedException(cause);
+        } catch (final TimeoutException e) {
+            execution.cancel(true);
+            LOGGER.warn("Authentication handler [{}] did not produce a result within [{}]", handler.getName(), handlerTimeout);
+            throw new PreventedException("Authentication handler " + handler.getName() + " timed out after " + handlerTimeout);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PreventedException(e);
+        }
+    }
+}
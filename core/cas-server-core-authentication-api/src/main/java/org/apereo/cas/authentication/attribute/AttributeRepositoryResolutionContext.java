@@ -0,0 +1,209 @@
+package org.apereo.cas.authentication.attribute;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+import org.apereo.services.persondir.IPersonAttributeDao;
+import org.apereo.services.persondir.IPersonAttributes;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * This is {@link AttributeRepositoryResolutionContext} that keeps track of the results produced
+ * by attribute repositories for the duration of a request or an authentication event.
+ * Results are kept per attribute repository and query, so that each attribute repository
+ * is queried at most once for the same query while the context is open, and principal resolution
+ * and attribute release that take place later within the same context share the same results
+ * when they query the attribute repository with the same attributes. Queries that differ in any
+ * attribute, such as the credential or the service, are never answered with each other's results.
+ * The context is bound to the current thread; contexts may be opened more than once, in which case
+ * the context remains bound until the outermost scope is closed.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+public class AttributeRepositoryResolutionContext implements AutoCloseable {
+    private static final ThreadLocal<AttributeRepositoryResolutionContext> CURRENT_CONTEXT = new ThreadLocal<>();
+
+    private static final String QUERY_ATTRIBUTE_USERNAME = "username";
+
+    private final Map<String, Resolution> resolutions = new ConcurrentHashMap<>();
+
+    private final LongAdder savedCalls = new LongAdder();
+
+    private int depth;
+
+    /**
+     * Open a context and bind it to the current thread,
+     * or reuse the context that is already bound.
+     *
+     * @return the attribute repository resolution context
+     */
+    public static AttributeRepositoryResolutionContext open() {
+        var context = CURRENT_CONTEXT.get();
+        if (context == null) {
+            context = new AttributeRepositoryResolutionContext();
+            CURRENT_CONTEXT.set(context);
+        }
+        context.depth++;
+        return context;
+    }
+
+    /**
+     * The context bound to the current thread, if any.
+     *
+     * @return the attribute repository resolution context
+     */
+    public static Optional<AttributeRepositoryResolutionContext> current() {
+        return Optional.ofNullable(CURRENT_CONTEXT.get());
+    }
+
+    /**
+     * Resolve people from the attribute repository, reusing the results
+     * already produced by the repository for the same query in the current context.
+     * If no context is bound to the current thread, or the query does not identify
+     * a principal, the attribute repository is always queried.
+     *
+     * @param repository  the attribute repository
+     * @param query       the query
+     * @param call        the call that queries the attribute repository
+     * @param onSavedCall invoked when results are reused instead of querying the attribute repository
+     * @return the people
+     */
+    public static Set<IPersonAttributes> resolve(final IPersonAttributeDao repository,
+                                                 final Map<String, List<Object>> query,
+                                                 final Supplier<Set<IPersonAttributes>> call,
+                                                 final Runnable onSavedCall) {
+        val key = getResolutionKey(repository, query);
+        return current()
+            .filter(context -> key != null)
+            .map(context -> context.resolve(key, call, onSavedCall))
+            .orElseGet(call);
+    }
+
+    /**
+     * Query the attribute repository in the background using the executor,
+     * unless results are already available or pending for the same query in the current context.
+     *
+     * @param repository the attribute repository
+     * @param query      the query
+     * @param call       the call that queries the attribute repository
+     * @param executor   the executor
+     * @return true if the attribute repository is queried
+     */
+    public static boolean submit(final IPersonAttributeDao repository,
+                                 final Map<String, List<Object>> query,
+                                 final Supplier<Set<IPersonAttributes>> call,
+                                 final Executor executor) {
+        val key = getResolutionKey(repository, query);
+        return key != null && current().map(context -> context.submit(key, call, executor)).orElse(Boolean.FALSE);
+    }
+
+    private static String getResolutionKey(final IPersonAttributeDao repository, final Map<String, List<Object>> query) {
+        val username = query.get(QUERY_ATTRIBUTE_USERNAME);
+        if (username == null || username.isEmpty() || username.get(0) == null) {
+            return null;
+        }
+        return StringUtils.join(repository.getId(), ',') + '|' + new TreeMap<>(query);
+    }
+
+    private static Set<IPersonAttributes> getResult(final CompletableFuture<Set<IPersonAttributes>> result) {
+        try {
+            return result.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Number of attribute repository calls that were avoided
+     * by reusing results in this context.
+     *
+     * @return the saved calls
+     */
+    public long getSavedCalls() {
+        return savedCalls.sum();
+    }
+
+    @Override
+    public void close() {
+        depth--;
+        if (depth <= 0 && CURRENT_CONTEXT.get() == this) {
+            CURRENT_CONTEXT.remove();
+            LOGGER.trace("Closed attribute repository resolution context with [{}] result(s), saving [{}] call(s)",
+                resolutions.size(), getSavedCalls());
+        }
+    }
+
+    private Set<IPersonAttributes> resolve(final String key, final Supplier<Set<IPersonAttributes>> call,
+                                           final Runnable onSavedCall) {
+        val created = new Resolution();
+        val resolution = resolutions.putIfAbsent(key, created);
+        if (resolution == null) {
+            created.consumed.set(true);
+            return execute(key, created, call);
+        }
+        if (resolution.consumed.getAndSet(true)) {
+            LOGGER.trace("Reusing attribute repository results for [{}]", key);
+            savedCalls.increment();
+            onSavedCall.run();
+        }
+        return getResult(resolution.result);
+    }
+
+    private boolean submit(final String key, final Supplier<Set<IPersonAttributes>> call, final Executor executor) {
+        val created = new Resolution();
+        if (resolutions.putIfAbsent(key, created) == null) {
+            LOGGER.trace("Querying attribute repository for [{}] in the background", key);
+            try {
+                executor.execute(() -> {
+                    try {
+                        execute(key, created, call);
+                    } catch (final RuntimeException e) {
+                        LOGGER.debug("Attribute repository query for [{}] has failed: [{}]", key, e.getMessage());
+                    }
+                });
+                return true;
+            } catch (final RejectedExecutionException e) {
+                LOGGER.debug("Attribute repository query for [{}] is rejected and will execute on demand", key);
+                resolutions.remove(key, created);
+            }
+        }
+        return false;
+    }
+
+    private Set<IPersonAttributes> execute(final String key, final Resolution resolution,
+                                           final Supplier<Set<IPersonAttributes>> call) {
+        try {
+            val result = call.get();
+            resolution.result.complete(result);
+            return result;
+        } catch (final RuntimeException e) {
+            resolutions.remove(key, resolution);
+            resolution.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static class Resolution {
+        private final CompletableFuture<Set<IPersonAttributes>> result = new CompletableFuture<>();
+
+        private final AtomicBoolean consumed = new AtomicBoolean();
+    }
+}
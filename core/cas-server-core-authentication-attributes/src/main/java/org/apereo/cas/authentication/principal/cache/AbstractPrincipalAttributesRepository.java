@@ -21,7 +21,6 @@ import lombok.val;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apereo.services.persondir.IPersonAttributeDao;
 
-import javax.persistence.Transient;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -41,18 +40,13 @@ import java.util.stream.Collectors;
  * @since 4.2
  */
 @Slf4j
-@ToString(exclude = "lock")
+@ToString
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @EqualsAndHashCode(of = {"mergingStrategy", "attributeRepositoryIds"})
 @JsonInclude(JsonInclude.Include.NON_DEFAULT)
 public abstract class AbstractPrincipalAttributesRepository implements RegisteredServicePrincipalAttributesRepository, AutoCloseable {
     private static final long serialVersionUID = 6350245643948535906L;
 
-    @JsonIgnore
-    @Transient
-    @org.springframework.data.annotation.Transient
-    private final transient Object lock = new Object();
-
     /**
      * The merging strategy that deals with existing principal attributes
      * and those that are retrieved from the source. By default, existing attributes
@@ -164,21 +158,19 @@ public abstract class AbstractPrincipalAttributesRepository implements Registere
      * @return the map of attributes
      */
     protected Map<String, List<Object>> retrievePersonAttributesFromAttributeRepository(final Principal principal) {
-        synchronized (lock) {
-            val repository = getAttributeRepository();
-            if (repository == null) {
-                LOGGER.warn("No attribute repositories could be fetched from application context");
-                return new HashMap<>(0);
-            }
-
-            return PrincipalAttributeRepositoryFetcher.builder()
-                .attributeRepository(repository)
-                .principalId(principal.getId())
-                .activeAttributeRepositoryIdentifiers(this.attributeRepositoryIds)
-                .currentPrincipal(principal)
-                .build()
-                .retrieve();
+        val repository = getAttributeRepository();
+        if (repository == null) {
+            LOGGER.warn("No attribute repositories could be fetched from application context");
+            return new HashMap<>(0);
         }
+
+        return PrincipalAttributeRepositoryFetcher.builder()
+            .attributeRepository(repository)
+            .principalId(principal.getId())
+            .activeAttributeRepositoryIdentifiers(this.attributeRepositoryIds)
+            .currentPrincipal(principal)
+            .build()
+            .retrieve();
     }
 
     /**
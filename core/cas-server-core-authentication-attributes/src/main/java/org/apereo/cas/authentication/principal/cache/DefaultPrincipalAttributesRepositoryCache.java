@@ -4,23 +4,41 @@ import org.apereo.cas.authentication.principal.Principal;
 import org.apereo.cas.authentication.principal.PrincipalAttributesRepositoryCache;
 import org.apereo.cas.authentication.principal.RegisteredServicePrincipalAttributesRepository;
 import org.apereo.cas.services.RegisteredService;
-import org.apereo.cas.util.DigestUtils;
+import org.apereo.cas.util.LoggingUtils;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 
 import java.io.Closeable;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 /**
  * This is {@link DefaultPrincipalAttributesRepositoryCache}.
+ * <p>
+ * Attributes are cached per registered service and principal. When attributes are fetched
+ * with a loader, concurrent requests for the same principal and service wait on a single load
+ * rather than each querying the attribute repository. Attributes may optionally be refreshed
+ * in the background once a percentage of their expiration period has elapsed, so that popular
+ * entries are reloaded before they expire instead of all at once when they do.
  *
  * @author Misagh Moayyed
  * @since 6.1.0
@@ -31,28 +49,39 @@ public class DefaultPrincipalAttributesRepositoryCache implements PrincipalAttri
 
     private static final String DEFAULT_CACHE_EXPIRATION_UNIT = TimeUnit.HOURS.name();
 
-    private final Map<String, Cache<String, Map<String, List<Object>>>> registeredServicesCache = new HashMap<>(0);
+    private final Map<Pair<Long, String>, RegisteredServiceCache> registeredServicesCache = new ConcurrentHashMap<>();
 
     /**
-     * Build registered service cache key string.
+     * Percentage of the expiration period after which cached attributes
+     * are refreshed in the background. Zero disables refreshing ahead of expiration.
+     */
+    @Setter
+    private int refreshAheadPercentage;
+
+    /**
+     * Executor used to refresh cached attributes in the background.
+     */
+    @Setter
+    private Executor executor = ForkJoinPool.commonPool();
+
+    /**
+     * Optional meter registry to record cache metrics.
+     */
+    @Setter
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Build registered service cache key.
      *
      * @param registeredService the registered service
-     * @return the string
+     * @return the key
      */
-    private static String buildRegisteredServiceCacheKey(final RegisteredService registeredService) {
-        val key = registeredService.getId() + '@' + registeredService.getName();
-        return DigestUtils.sha512(key);
+    private static Pair<Long, String> buildRegisteredServiceCacheKey(final RegisteredService registeredService) {
+        return Pair.of(registeredService.getId(), registeredService.getName());
     }
-    
-    private static Cache<String, Map<String, List<Object>>> initializeCache(
-        final RegisteredServicePrincipalAttributesRepository repository) {
-        val cachedRepository = CachingPrincipalAttributesRepository.class.cast(repository);
-        val unit = TimeUnit.valueOf(StringUtils.defaultString(cachedRepository.getTimeUnit(), DEFAULT_CACHE_EXPIRATION_UNIT));
-        return Caffeine.newBuilder()
-            .initialCapacity(DEFAULT_MAXIMUM_CACHE_SIZE)
-            .maximumSize(DEFAULT_MAXIMUM_CACHE_SIZE)
-            .expireAfterWrite(cachedRepository.getExpiration(), unit)
-            .build(s -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+
+    private static Map<String, List<Object>> emptyAttributes() {
+        return new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
     }
 
     @Override
@@ -65,7 +94,7 @@ public class DefaultPrincipalAttributesRepositoryCache implements PrincipalAttri
      */
     @Override
     public void invalidate() {
-        registeredServicesCache.values().forEach(Cache::invalidateAll);
+        registeredServicesCache.values().forEach(cache -> cache.getCache().invalidateAll());
     }
 
     @Override
@@ -73,10 +102,34 @@ public class DefaultPrincipalAttributesRepositoryCache implements PrincipalAttri
                                                      final RegisteredServicePrincipalAttributesRepository repository,
                                                      final Principal principal) {
         val cache = getRegisteredServiceCacheInstance(registeredService, repository);
-        return cache.get(principal.getId(), s -> {
+        val cachedAttributes = cache.getCache().getIfPresent(principal.getId());
+        if (cachedAttributes == null) {
             LOGGER.debug("No cached attributes could be found for [{}]", principal.getId());
-            return new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            return emptyAttributes();
+        }
+        return cachedAttributes.getAttributes();
+    }
+
+    @Override
+    public Map<String, List<Object>> fetchAttributes(final RegisteredService registeredService,
+                                                     final RegisteredServicePrincipalAttributesRepository repository,
+                                                     final Principal principal,
+                                                     final Function<Principal, Map<String, List<Object>>> loader) {
+        val cache = getRegisteredServiceCacheInstance(registeredService, repository);
+        val cachedAttributes = cache.getCache().getIfPresent(principal.getId());
+        if (cachedAttributes != null) {
+            count("cas.principal.attributes.cache.hits");
+            refreshIfNecessary(cache, cachedAttributes, principal, loader);
+            return cachedAttributes.getAttributes();
+        }
+        count("cas.principal.attributes.cache.misses");
+        val loadedAttributes = new AtomicReference<Map<String, List<Object>>>();
+        val attributes = cache.getCache().get(principal.getId(), id -> {
+            val result = load(principal, loader);
+            loadedAttributes.set(result);
+            return result.isEmpty() ? null : new CachedAttributes(result, System.nanoTime());
         });
+        return attributes != null ? attributes.getAttributes() : loadedAttributes.get();
     }
 
     @Override
@@ -84,7 +137,54 @@ public class DefaultPrincipalAttributesRepositoryCache implements PrincipalAttri
                               final RegisteredServicePrincipalAttributesRepository repository,
                               final String id, final Map<String, List<Object>> attributes) {
         val cache = getRegisteredServiceCacheInstance(registeredService, repository);
-        cache.put(id, attributes);
+        cache.getCache().put(id, new CachedAttributes(attributes, System.nanoTime()));
+    }
+
+    private void refreshIfNecessary(final RegisteredServiceCache cache, final CachedAttributes cachedAttributes,
+                                    final Principal principal,
+                                    final Function<Principal, Map<String, List<Object>>> loader) {
+        if (cache.getRefreshAfterNanos() > 0
+            && System.nanoTime() - cachedAttributes.getLoadedAt() >= cache.getRefreshAfterNanos()
+            && cachedAttributes.getRefreshing().compareAndSet(false, true)) {
+            LOGGER.trace("Refreshing cached attributes for [{}] ahead of expiration", principal.getId());
+            count("cas.principal.attributes.cache.refreshes");
+            executor.execute(() -> {
+                try {
+                    val attributes = load(principal, loader);
+                    if (!attributes.isEmpty()) {
+                        cache.getCache().asMap().replace(principal.getId(), cachedAttributes,
+                            new CachedAttributes(attributes, System.nanoTime()));
+                    }
+                } catch (final Exception e) {
+                    LoggingUtils.warn(LOGGER, e);
+                } finally {
+                    cachedAttributes.getRefreshing().set(false);
+                }
+            });
+        }
+    }
+
+    private Map<String, List<Object>> load(final Principal principal,
+                                           final Function<Principal, Map<String, List<Object>>> loader) {
+        val startTime = System.nanoTime();
+        try {
+            LOGGER.trace("Loading attributes for [{}]", principal.getId());
+            val attributes = loader.apply(principal);
+            return attributes == null ? emptyAttributes() : attributes;
+        } finally {
+            if (meterRegistry != null) {
+                Timer.builder("cas.principal.attributes.cache.load")
+                    .description("Time taken to load principal attributes on a cache miss or refresh")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void count(final String name) {
+        if (meterRegistry != null) {
+            Counter.builder(name).register(meterRegistry).increment();
+        }
     }
 
     /**
@@ -94,15 +194,41 @@ public class DefaultPrincipalAttributesRepositoryCache implements PrincipalAttri
      * @param repository        the repository
      * @return the registered service cache instance
      */
-    private Cache<String, Map<String, List<Object>>> getRegisteredServiceCacheInstance(
+    private RegisteredServiceCache getRegisteredServiceCacheInstance(
         final RegisteredService registeredService, final RegisteredServicePrincipalAttributesRepository repository) {
-
         val key = buildRegisteredServiceCacheKey(registeredService);
-        if (registeredServicesCache.containsKey(key)) {
-            return registeredServicesCache.get(key);
-        }
-        val cache = initializeCache(repository);
-        registeredServicesCache.put(key, cache);
-        return cache;
+        return registeredServicesCache.computeIfAbsent(key, k -> initializeCache(repository));
+    }
+
+    private RegisteredServiceCache initializeCache(final RegisteredServicePrincipalAttributesRepository repository) {
+        val cachedRepository = CachingPrincipalAttributesRepository.class.cast(repository);
+        val unit = TimeUnit.valueOf(StringUtils.defaultString(cachedRepository.getTimeUnit(), DEFAULT_CACHE_EXPIRATION_UNIT));
+        val cache = Caffeine.newBuilder()
+            .initialCapacity(DEFAULT_MAXIMUM_CACHE_SIZE)
+            .maximumSize(DEFAULT_MAXIMUM_CACHE_SIZE)
+            .expireAfterWrite(cachedRepository.getExpiration(), unit)
+            .<String, CachedAttributes>build();
+        val refreshAfterNanos = refreshAheadPercentage > 0 && refreshAheadPercentage < 100
+            ? unit.toNanos(cachedRepository.getExpiration()) * refreshAheadPercentage / 100
+            : 0;
+        return new RegisteredServiceCache(cache, refreshAfterNanos);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class RegisteredServiceCache {
+        private final Cache<String, CachedAttributes> cache;
+
+        private final long refreshAfterNanos;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class CachedAttributes {
+        private final Map<String, List<Object>> attributes;
+
+        private final long loadedAt;
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
     }
 }
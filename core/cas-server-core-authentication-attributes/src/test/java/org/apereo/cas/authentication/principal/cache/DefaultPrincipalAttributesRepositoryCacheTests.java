@@ -0,0 +1,154 @@
+package org.apereo.cas.authentication.principal.cache;
+
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
+import org.apereo.cas.authentication.principal.Principal;
+import org.apereo.cas.authentication.principal.PrincipalAttributesRepositoryCache;
+import org.apereo.cas.authentication.principal.RegisteredServicePrincipalAttributesRepository;
+import org.apereo.cas.services.RegisteredService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is {@link DefaultPrincipalAttributesRepositoryCacheTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("Attributes")
+public class DefaultPrincipalAttributesRepositoryCacheTests {
+
+    private static Function<Principal, Map<String, List<Object>>> getLoader(final AtomicInteger loads) {
+        return principal -> Map.of("load", List.of(loads.incrementAndGet()));
+    }
+
+    @Test
+    public void verifySingleLoadForConcurrentRequests() throws Exception {
+        val cache = new DefaultPrincipalAttributesRepositoryCache();
+        val meterRegistry = new SimpleMeterRegistry();
+        cache.setMeterRegistry(meterRegistry);
+        val service = CoreAuthenticationTestUtils.getRegisteredService();
+        val repository = new CachingPrincipalAttributesRepository(TimeUnit.MINUTES.name(), 5);
+        val principal = CoreAuthenticationTestUtils.getPrincipal("casuser");
+
+        val loads = new AtomicInteger();
+        val loading = new CountDownLatch(1);
+        val release = new CountDownLatch(1);
+        val executor = Executors.newFixedThreadPool(8);
+        try {
+            val first = executor.submit(() -> cache.fetchAttributes(service, repository, principal, p -> {
+                loading.countDown();
+                try {
+                    assertTrue(release.await(10, TimeUnit.SECONDS));
+                } catch (final InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return getLoader(loads).apply(p);
+            }));
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+            val others = new ArrayList<Future<Map<String, List<Object>>>>();
+            for (var i = 0; i < 7; i++) {
+                others.add(executor.submit(() -> cache.fetchAttributes(service, repository, principal, getLoader(loads))));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            assertEquals(List.of(1), first.get().get("load"));
+            for (val other : others) {
+                assertEquals(List.of(1), other.get().get("load"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(List.of(1), cache.fetchAttributes(service, repository, principal, getLoader(loads)).get("load"));
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.get("cas.principal.attributes.cache.load").timer().count());
+        assertTrue(meterRegistry.get("cas.principal.attributes.cache.misses").counter().count() >= 1);
+        assertTrue(meterRegistry.get("cas.principal.attributes.cache.hits").counter().count() >= 1);
+    }
+
+    @Test
+    public void verifyRefreshAheadOfExpiration() throws Exception {
+        val cache = new DefaultPrincipalAttributesRepositoryCache();
+        cache.setRefreshAheadPercentage(50);
+        cache.setExecutor(Runnable::run);
+        val service = CoreAuthenticationTestUtils.getRegisteredService();
+        val repository = new CachingPrincipalAttributesRepository(TimeUnit.SECONDS.name(), 1);
+        val principal = CoreAuthenticationTestUtils.getPrincipal("casuser");
+        val loads = new AtomicInteger();
+
+        assertEquals(List.of(1), cache.fetchAttributes(service, repository, principal, getLoader(loads)).get("load"));
+        assertEquals(List.of(1), cache.fetchAttributes(service, repository, principal, getLoader(loads)).get("load"));
+        assertEquals(1, loads.get());
+        Thread.sleep(600);
+        assertEquals(List.of(1), cache.fetchAttributes(service, repository, principal, getLoader(loads)).get("load"));
+        assertEquals(2, loads.get());
+        assertEquals(List.of(2), cache.fetchAttributes(service, repository, principal, getLoader(loads)).get("load"));
+    }
+
+    @Test
+    public void verifyEmptyAttributesAreNotCached() {
+        val cache = new DefaultPrincipalAttributesRepositoryCache();
+        val service = CoreAuthenticationTestUtils.getRegisteredService();
+        val repository = new CachingPrincipalAttributesRepository(TimeUnit.MINUTES.name(), 5);
+        val principal = CoreAuthenticationTestUtils.getPrincipal("casuser");
+        val loads = new AtomicInteger();
+        for (var i = 0; i < 3; i++) {
+            assertTrue(cache.fetchAttributes(service, repository, principal, p -> {
+                loads.incrementAndGet();
+                return Map.of();
+            }).isEmpty());
+        }
+        assertEquals(3, loads.get());
+        assertTrue(cache.fetchAttributes(service, repository, principal).isEmpty());
+    }
+
+    @Test
+    public void verifyEmptyAttributesAreNotCachedByDefault() {
+        val cached = new HashMap<String, Map<String, List<Object>>>();
+        val cache = new PrincipalAttributesRepositoryCache() {
+            @Override
+            public void invalidate() {
+                cached.clear();
+            }
+
+            @Override
+            public Map<String, List<Object>> fetchAttributes(final RegisteredService registeredService,
+                                                             final RegisteredServicePrincipalAttributesRepository repository,
+                                                             final Principal principal) {
+                return cached.getOrDefault(principal.getId(), Map.of());
+            }
+
+            @Override
+            public void putAttributes(final RegisteredService registeredService,
+                                      final RegisteredServicePrincipalAttributesRepository repository,
+                                      final String id, final Map<String, List<Object>> attributes) {
+                cached.put(id, attributes);
+            }
+        };
+        val service = CoreAuthenticationTestUtils.getRegisteredService();
+        val repository = new CachingPrincipalAttributesRepository(TimeUnit.MINUTES.name(), 5);
+        val principal = CoreAuthenticationTestUtils.getPrincipal("casuser");
+        assertTrue(cache.fetchAttributes(service, repository, principal, p -> Map.of()).isEmpty());
+        assertTrue(cached.isEmpty());
+        val loads = new AtomicInteger();
+        assertEquals(List.of(1), cache.fetchAttributes(service, repository, principal, getLoader(loads)).get("load"));
+        assertEquals(List.of(1), cache.fetchAttributes(service, repository, principal, getLoader(loads)).get("load"));
+        assertEquals(1, loads.get());
+    }
+}
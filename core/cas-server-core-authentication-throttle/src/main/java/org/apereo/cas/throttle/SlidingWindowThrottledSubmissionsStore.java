@@ -0,0 +1,258 @@
+package org.apereo.cas.throttle;
+
+import org.apereo.cas.configuration.CasConfigurationProperties;
+import org.apereo.cas.web.support.ThrottledSubmission;
+import org.apereo.cas.web.support.ThrottledSubmissionsStore;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * This is {@link SlidingWindowThrottledSubmissionsStore}.
+ * Tracks failed submissions per key using a sliding-window counter whose
+ * length matches the configured failure range. The number of submissions in
+ * the window is approximated from the counts recorded in the current and previous
+ * fixed windows, weighted by how much of the previous window still overlaps.
+ * A key exceeds the threshold once the approximated number of submissions in the
+ * window, divided by the window length, goes above the threshold rate.
+ * <p>
+ * Counters are kept as primitive values packed into a single {@code long} per key
+ * and updated without locks. Keys expire lazily: each key is scheduled for expiration
+ * once per window it is active in, and releasing the store only visits keys whose
+ * expiration is due rather than sweeping every entry.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+public class SlidingWindowThrottledSubmissionsStore implements ThrottledSubmissionsStore<ThrottledSubmission> {
+    private static final long MAX_COUNT = 0xFFFFL;
+
+    private static final long EXPIRED = Long.MIN_VALUE;
+
+    private final Map<String, SubmissionWindow> windows = new ConcurrentHashMap<>();
+
+    private final Map<Long, Queue<SubmissionWindow>> expirations = new ConcurrentHashMap<>();
+
+    /**
+     * The window length in milliseconds.
+     */
+    @Getter
+    private final long windowLength;
+
+    /**
+     * The clock used to timestamp submissions.
+     */
+    @Setter
+    private Clock clock = Clock.systemUTC();
+
+    public SlidingWindowThrottledSubmissionsStore(final CasConfigurationProperties casProperties) {
+        this(TimeUnit.SECONDS.toMillis(Math.max(1, casProperties.getAuthn().getThrottle().getFailure().getRangeSeconds())));
+    }
+
+    public SlidingWindowThrottledSubmissionsStore(final long windowLength) {
+        this.windowLength = Math.max(1, windowLength);
+    }
+
+    private static int getWindowDistance(final long now, final long state) {
+        return (int) now - (int) (state >>> Integer.SIZE);
+    }
+
+    @Override
+    public void put(final ThrottledSubmission submission) {
+        val timestamp = submission.getValue() == null
+            ? clock.millis()
+            : submission.getValue().toInstant().toEpochMilli();
+        record(submission.getKey(), timestamp);
+    }
+
+    @Override
+    public ThrottledSubmission get(final String key) {
+        val window = windows.get(key);
+        return window == null || isExpired(window.state, clock.millis()) ? null : toSubmission(window);
+    }
+
+    @Override
+    public Stream<ThrottledSubmission> entries() {
+        val now = clock.millis();
+        return windows.values()
+            .stream()
+            .filter(window -> !isExpired(window.state, now))
+            .map(this::toSubmission);
+    }
+
+    @Override
+    public void removeIf(final Predicate<ThrottledSubmission> condition) {
+        windows.values().removeIf(window -> condition.test(toSubmission(window)) && window.expire());
+    }
+
+    @Override
+    public boolean exceedsThreshold(final String key, final double thresholdRate) {
+        val window = windows.get(key);
+        if (window == null) {
+            return false;
+        }
+        val now = clock.millis();
+        if (expire(window, now)) {
+            return false;
+        }
+        val rate = getSubmissionCount(window.state, now) * 1000.0D / windowLength;
+        LOGGER.trace("Submission rate for [{}] in the current window is [{}]", key, rate);
+        return rate > thresholdRate;
+    }
+
+    @Override
+    public void release(final double thresholdRate) {
+        val now = clock.millis();
+        val current = Math.floorDiv(now, windowLength);
+        expirations.keySet().removeIf(index -> {
+            if (index > current) {
+                return false;
+            }
+            val queue = expirations.get(index);
+            if (queue != null) {
+                queue.forEach(window -> expire(window, now));
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Number of keys currently tracked, including those that have expired
+     * but not yet released.
+     *
+     * @return the size
+     */
+    public int size() {
+        return windows.size();
+    }
+
+    /**
+     * Record a submission for the given key at the given instant.
+     *
+     * @param key       the key
+     * @param timestamp the timestamp in epoch milliseconds
+     */
+    protected void record(final String key, final long timestamp) {
+        val index = Math.floorDiv(timestamp, windowLength);
+        while (true) {
+            val window = windows.computeIfAbsent(key, SubmissionWindow::new);
+            val distance = window.increment(index, timestamp);
+            if (distance == Integer.MIN_VALUE) {
+                windows.remove(key, window);
+            } else {
+                if (distance > 0) {
+                    expirations.computeIfAbsent(index + 2, k -> new ConcurrentLinkedQueue<>()).add(window);
+                }
+                return;
+            }
+        }
+    }
+
+    private boolean isExpired(final long state, final long now) {
+        if ((state & MAX_COUNT) == 0) {
+            return state == EXPIRED;
+        }
+        return getWindowDistance(Math.floorDiv(now, windowLength), state) > 1;
+    }
+
+    private boolean expire(final SubmissionWindow window, final long now) {
+        while (true) {
+            val state = window.state;
+            if (state == EXPIRED) {
+                return true;
+            }
+            if (!isExpired(state, now) || state == 0) {
+                return false;
+            }
+            if (SubmissionWindow.STATE.compareAndSet(window, state, EXPIRED)) {
+                windows.remove(window.getKey(), window);
+                return true;
+            }
+        }
+    }
+
+    private double getSubmissionCount(final long state, final long now) {
+        val distance = getWindowDistance(Math.floorDiv(now, windowLength), state);
+        val previous = (state >>> Short.SIZE) & MAX_COUNT;
+        val current = state & MAX_COUNT;
+        val overlap = 1.0D - (double) Math.floorMod(now, windowLength) / windowLength;
+        if (distance <= 0) {
+            return previous * overlap + current;
+        }
+        return distance == 1 ? current * overlap : 0;
+    }
+
+    private ThrottledSubmission toSubmission(final SubmissionWindow window) {
+        return ThrottledSubmission.builder()
+            .key(window.getKey())
+            .value(ZonedDateTime.ofInstant(Instant.ofEpochMilli(window.lastSubmission), ZoneOffset.UTC))
+            .build();
+    }
+
+    @RequiredArgsConstructor
+    @Getter
+    private static final class SubmissionWindow {
+        private static final AtomicLongFieldUpdater<SubmissionWindow> STATE =
+            AtomicLongFieldUpdater.newUpdater(SubmissionWindow.class, "state");
+
+        private final String key;
+
+        /**
+         * Packs the index of the current window (upper 32 bits), the number of submissions
+         * recorded in the previous window (next 16 bits) and in the current window (lower 16 bits).
+         * Recorded windows always count at least one submission in the current window; a value
+         * of zero indicates a window that was never recorded into.
+         */
+        private volatile long state;
+
+        private volatile long lastSubmission;
+
+        /**
+         * Count a submission in the window with the given index.
+         *
+         * @return the number of windows the counter moved forward,
+         * or {@link Integer#MIN_VALUE} if this window has expired and must be replaced.
+         */
+        int increment(final long index, final long timestamp) {
+            while (true) {
+                val state = this.state;
+                if (state == EXPIRED) {
+                    return Integer.MIN_VALUE;
+                }
+                val distance = state == 0 ? Integer.MAX_VALUE : getWindowDistance(index, state);
+                val current = state & MAX_COUNT;
+                val next = distance <= 0
+                    ? state & ~MAX_COUNT | Math.min(MAX_COUNT, current + 1)
+                    : index << Integer.SIZE | (distance == 1 ? current << Short.SIZE : 0) | 1;
+                if (STATE.compareAndSet(this, state, next)) {
+                    if (timestamp > lastSubmission) {
+                        lastSubmission = timestamp;
+                    }
+                    return Math.max(0, distance);
+                }
+            }
+        }
+
+        boolean expire() {
+            STATE.set(this, EXPIRED);
+            return true;
+        }
+    }
+}
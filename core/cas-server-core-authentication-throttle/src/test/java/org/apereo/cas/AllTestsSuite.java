@@ -3,6 +3,7 @@ package org.apereo.cas;
 import org.apereo.cas.throttle.ConcurrentThrottledSubmissionsStoreTests;
 import org.apereo.cas.throttle.DefaultAuthenticationThrottlingExecutionPlanTests;
 import org.apereo.cas.throttle.DefaultThrottledRequestResponseHandlerTests;
+import org.apereo.cas.throttle.SlidingWindowThrottledSubmissionsStoreTests;
 import org.apereo.cas.throttle.ThrottledRequestFilterTests;
 
 import org.junit.platform.suite.api.SelectClasses;
@@ -18,6 +19,7 @@ import org.junit.platform.suite.api.Suite;
     DefaultAuthenticationThrottlingExecutionPlanTests.class,
     ThrottledRequestFilterTests.class,
     ConcurrentThrottledSubmissionsStoreTests.class,
+    SlidingWindowThrottledSubmissionsStoreTests.class,
     DefaultThrottledRequestResponseHandlerTests.class
 })
 @Suite
@@ -0,0 +1,166 @@
+package org.apereo.cas.throttle;
+
+import org.apereo.cas.configuration.CasConfigurationProperties;
+import org.apereo.cas.web.support.ThrottledSubmission;
+import org.apereo.cas.web.support.ThrottledSubmissionsStore;
+
+import lombok.val;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is {@link SlidingWindowThrottledSubmissionsStoreTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("AuthenticationThrottling")
+public class SlidingWindowThrottledSubmissionsStoreTests {
+    private static final int THREADS = 64;
+
+    private static final int KEYS = 1_000;
+
+    private static ThrottledSubmission newSubmission(final String key, final long timestamp) {
+        return ThrottledSubmission.builder()
+            .key(key)
+            .value(ZonedDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC))
+            .build();
+    }
+
+    @Test
+    public void verifyOperation() {
+        val store = new SlidingWindowThrottledSubmissionsStore(new CasConfigurationProperties());
+        assertEquals(1000, store.getWindowLength());
+        val key = UUID.randomUUID().toString();
+        store.put(ThrottledSubmission.builder().key(key).build());
+        assertNotNull(store.get(key));
+        assertEquals(1, store.entries().count());
+        store.removeIf(entry -> entry.getKey().equals(key));
+        assertEquals(0, store.entries().count());
+        assertNull(store.get(key));
+        assertFalse(store.exceedsThreshold(key, 0.1));
+    }
+
+    @Test
+    public void verifySlidingWindow() {
+        val store = new SlidingWindowThrottledSubmissionsStore(10_000);
+        val start = 1_000_000_000L;
+        store.setClock(Clock.fixed(Instant.ofEpochMilli(start), ZoneOffset.UTC));
+        for (var i = 0; i < 3; i++) {
+            store.put(newSubmission("casuser", start + i));
+        }
+        assertFalse(store.exceedsThreshold("casuser", 0.3));
+        store.put(newSubmission("casuser", start + 3));
+        assertTrue(store.exceedsThreshold("casuser", 0.3));
+        assertEquals(start + 3, store.get("casuser").getValue().toInstant().toEpochMilli());
+
+        store.setClock(Clock.fixed(Instant.ofEpochMilli(start + 12_500), ZoneOffset.UTC));
+        assertTrue(store.exceedsThreshold("casuser", 0.2));
+        assertFalse(store.exceedsThreshold("casuser", 0.3));
+
+        store.put(newSubmission("casuser", start + 12_500));
+        store.setClock(Clock.fixed(Instant.ofEpochMilli(start + 17_500), ZoneOffset.UTC));
+        assertTrue(store.exceedsThreshold("casuser", 0.1));
+        assertFalse(store.exceedsThreshold("casuser", 0.2));
+
+        store.setClock(Clock.fixed(Instant.ofEpochMilli(start + 30_000), ZoneOffset.UTC));
+        assertFalse(store.exceedsThreshold("casuser", 0.01));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void verifyReleaseExpiredKeys() {
+        val store = new SlidingWindowThrottledSubmissionsStore(1_000);
+        val start = 1_000_000_000L;
+        store.setClock(Clock.fixed(Instant.ofEpochMilli(start), ZoneOffset.UTC));
+        for (var i = 0; i < 100; i++) {
+            store.put(newSubmission("user" + i, start));
+        }
+        store.setClock(Clock.fixed(Instant.ofEpochMilli(start + 1_500), ZoneOffset.UTC));
+        store.put(newSubmission("user0", start + 1_500));
+        store.release(0.1);
+        assertEquals(100, store.size());
+
+        store.setClock(Clock.fixed(Instant.ofEpochMilli(start + 2_000), ZoneOffset.UTC));
+        store.release(0.1);
+        assertEquals(1, store.size());
+        assertNotNull(store.get("user0"));
+
+        store.setClock(Clock.fixed(Instant.ofEpochMilli(start + 3_000), ZoneOffset.UTC));
+        store.release(0.1);
+        assertEquals(0, store.size());
+        store.put(newSubmission("user0", start + 3_000));
+        assertEquals(1, store.entries().count());
+    }
+
+    @Test
+    public void verifyConcurrentSubmissions() throws Exception {
+        val store = new SlidingWindowThrottledSubmissionsStore(TimeUnit.MINUTES.toMillis(10));
+        val executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            val tasks = new ArrayList<Callable<Object>>();
+            for (var i = 0; i < THREADS; i++) {
+                tasks.add(() -> {
+                    for (var j = 0; j < 500; j++) {
+                        store.put(ThrottledSubmission.builder().key("casuser").build());
+                    }
+                    return null;
+                });
+            }
+            for (val result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        val rate = THREADS * 500 * 1000.0D / store.getWindowLength();
+        assertTrue(store.exceedsThreshold("casuser", rate * 0.99));
+        assertFalse(store.exceedsThreshold("casuser", rate));
+    }
+
+    @Test
+    public void verifyConcurrentSubmissionsAcrossKeys() throws Exception {
+        val store = new SlidingWindowThrottledSubmissionsStore(TimeUnit.MINUTES.toMillis(10));
+        val start = 1_000_000_000L;
+        store.setClock(Clock.fixed(Instant.ofEpochMilli(start), ZoneOffset.UTC));
+        val executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            val ready = new CountDownLatch(THREADS);
+            val tasks = new ArrayList<Callable<Object>>();
+            for (var i = 0; i < THREADS; i++) {
+                tasks.add(() -> {
+                    ready.countDown();
+                    ready.await();
+                    for (var key = 0; key < KEYS; key++) {
+                        store.put(newSubmission("192.168.1." + key, start));
+                    }
+                    return null;
+                });
+            }
+            for (val result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(KEYS, store.size());
+        val rate = THREADS * 1000.0D / store.getWindowLength();
+        for (var key = 0; key < KEYS; key++) {
+            assertTrue(store.exceedsThreshold("192.168.1." + key, rate * 0.99));
+            assertFalse(store.exceedsThreshold("192.168.1." + key, rate));
+        }
+    }
+}
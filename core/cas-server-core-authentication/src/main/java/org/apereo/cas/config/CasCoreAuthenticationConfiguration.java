@@ -12,8 +12,10 @@ import org.apereo.cas.authentication.DefaultAuthenticationManager;
 import org.apereo.cas.authentication.DefaultAuthenticationResultBuilderFactory;
 import org.apereo.cas.authentication.DefaultAuthenticationTransactionFactory;
 import org.apereo.cas.authentication.DefaultAuthenticationTransactionManager;
+import org.apereo.cas.authentication.ParallelAuthenticationManager;
 import org.apereo.cas.configuration.CasConfigurationProperties;
 import org.apereo.cas.configuration.features.CasFeatureModule;
+import org.apereo.cas.configuration.support.Beans;
 import org.apereo.cas.util.model.TriStateBoolean;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
 import org.apereo.cas.validation.AuthenticationAttributeReleasePolicy;
@@ -33,9 +35,16 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * This is {@link CasCoreAuthenticationConfiguration}.
@@ -106,6 +115,26 @@ public class CasCoreAuthenticationConfiguration {
             @Qualifier(AuthenticationEventExecutionPlan.DEFAULT_BEAN_NAME)
             final AuthenticationEventExecutionPlan authenticationEventExecutionPlan) {
             val isFatal = casProperties.getPersonDirectory().getPrincipalResolutionFailureFatal() == TriStateBoolean.TRUE;
+            val parallel = casProperties.getAuthn().getCore().getEngine().getParallelExecution();
+            if (parallel.isEnabled()) {
+                val threadFactory = new CustomizableThreadFactory("cas-authn-handler-");
+                threadFactory.setDaemon(true);
+                val executor = new ThreadPoolExecutor(parallel.getMaxPoolSize(), parallel.getMaxPoolSize(),
+                    1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(parallel.getQueueCapacity()), threadFactory,
+                    (task, pool) -> {
+                        if (pool.isShutdown()) {
+                            throw new RejectedExecutionException("Authentication handler executor is shut down");
+                        }
+                        task.run();
+                    });
+                executor.allowCoreThreadTimeOut(true);
+                val handlerTimeouts = parallel.getHandlerTimeouts()
+                    .entrySet()
+                    .stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> Beans.newDuration(entry.getValue())));
+                return new ParallelAuthenticationManager(authenticationEventExecutionPlan, isFatal, applicationContext,
+                    executor, Beans.newDuration(parallel.getTimeout()), handlerTimeouts);
+            }
             return new DefaultAuthenticationManager(authenticationEventExecutionPlan, isFatal, applicationContext);
         }
     }
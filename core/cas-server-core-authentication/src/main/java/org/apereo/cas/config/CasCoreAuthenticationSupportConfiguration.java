@@ -25,6 +25,7 @@ import org.apereo.cas.util.spring.beans.BeanCondition;
 import org.apereo.cas.util.spring.beans.BeanSupplier;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.val;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -55,8 +56,13 @@ public class CasCoreAuthenticationSupportConfiguration {
         @ConditionalOnMissingBean(name = PrincipalAttributesRepositoryCache.DEFAULT_BEAN_NAME)
         @Bean
         @RefreshScope(proxyMode = ScopedProxyMode.DEFAULT)
-        public PrincipalAttributesRepositoryCache principalAttributesRepositoryCache() {
-            return new DefaultPrincipalAttributesRepositoryCache();
+        public PrincipalAttributesRepositoryCache principalAttributesRepositoryCache(
+            final CasConfigurationProperties casProperties,
+            final ObjectProvider<MeterRegistry> meterRegistry) {
+            val cache = new DefaultPrincipalAttributesRepositoryCache();
+            cache.setRefreshAheadPercentage(casProperties.getAuthn().getAttributeRepository().getCore().getRefreshAheadPercentage());
+            meterRegistry.ifAvailable(cache::setMeterRegistry);
+            return cache;
         }
     }
 
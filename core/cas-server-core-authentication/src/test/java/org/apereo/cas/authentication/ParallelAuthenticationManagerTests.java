@@ -0,0 +1,225 @@
+package org.apereo.cas.authentication;
+
+import org.apereo.cas.authentication.handler.DefaultAuthenticationHandlerResolver;
+import org.apereo.cas.authentication.policy.AtLeastOneCredentialValidatedAuthenticationPolicy;
+import org.apereo.cas.authentication.principal.PrincipalFactoryUtils;
+import org.apereo.cas.authentication.principal.PrincipalResolver;
+import org.apereo.cas.authentication.principal.Service;
+import org.apereo.cas.util.spring.ApplicationContextProvider;
+
+import lombok.val;
+import org.apereo.inspektr.common.web.ClientInfo;
+import org.apereo.inspektr.common.web.ClientInfoHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.security.auth.login.FailedLoginException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This is {@link ParallelAuthenticationManagerTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("Authentication")
+public class ParallelAuthenticationManagerTests {
+    private ConfigurableApplicationContext applicationContext;
+
+    private ExecutorService executorService;
+
+    private static AuthenticationHandler newHandler(final String name, final int order,
+                                                    final boolean success, final CountDownLatch gate) throws Exception {
+        return newHandler(name, order, success, gate, null);
+    }
+
+    private static AuthenticationHandler newHandler(final String name, final int order, final boolean success,
+                                                    final CountDownLatch gate, final CountDownLatch interrupted) throws Exception {
+        return newHandler(name, order, success, gate, interrupted, null);
+    }
+
+    private static AuthenticationHandler newHandler(final String name, final int order, final boolean success,
+                                                    final CountDownLatch gate, final CountDownLatch interrupted,
+                                                    final Runnable observer) throws Exception {
+        val handler = mock(AuthenticationHandler.class);
+        when(handler.getName()).thenReturn(name);
+        when(handler.getOrder()).thenReturn(order);
+        when(handler.supports(any(Credential.class))).thenReturn(true);
+        when(handler.getState()).thenCallRealMethod();
+        when(handler.authenticate(any(Credential.class), any(Service.class))).thenAnswer(args -> {
+            if (observer != null) {
+                observer.run();
+            }
+            try {
+                if (gate != null && !gate.await(10, TimeUnit.SECONDS)) {
+                    throw new PreventedException(name + " was never released");
+                }
+            } catch (final InterruptedException e) {
+                if (interrupted != null) {
+                    interrupted.countDown();
+                }
+                throw e;
+            }
+            if (!success) {
+                throw new FailedLoginException(name);
+            }
+            val principal = PrincipalFactoryUtils.newPrincipalFactory().createPrincipal("casuser");
+            return new DefaultAuthenticationHandlerExecutionResult(handler, mock(CredentialMetaData.class), principal);
+        });
+        return handler;
+    }
+
+    private static AuthenticationHandler newObservingHandler(final String name, final int order, final boolean success,
+                                                             final CountDownLatch gate, final CountDownLatch started,
+                                                             final Map<String, List<Object>> observed) throws Exception {
+        return newHandler(name, order, success, gate, null, () -> {
+            observed.put(name, Arrays.asList(Thread.currentThread(), ClientInfoHolder.getClientInfo(),
+                RequestContextHolder.getRequestAttributes(), AuthenticationCredentialsThreadLocalBinder.getCurrentCredentialIdsAsString()));
+            started.countDown();
+        });
+    }
+
+    private static AuthenticationEventExecutionPlan getAuthenticationExecutionPlan(final AuthenticationHandler... handlers) {
+        val plan = new DefaultAuthenticationEventExecutionPlan();
+        val map = new LinkedHashMap<AuthenticationHandler, PrincipalResolver>();
+        for (val handler : handlers) {
+            map.put(handler, null);
+        }
+        plan.registerAuthenticationHandlerWithPrincipalResolver(map);
+        plan.registerAuthenticationHandlerResolver(new DefaultAuthenticationHandlerResolver());
+        plan.registerAuthenticationPolicy(new AtLeastOneCredentialValidatedAuthenticationPolicy());
+        return plan;
+    }
+
+    private static AuthenticationTransaction getTransaction() {
+        return new DefaultAuthenticationTransactionFactory().newTransaction(CoreAuthenticationTestUtils.getService(),
+            CoreAuthenticationTestUtils.getCredentialsWithSameUsernameAndPassword("casuser"));
+    }
+
+    private ParallelAuthenticationManager getParallelManager(final AuthenticationEventExecutionPlan plan,
+                                                             final Map<String, Duration> handlerTimeouts) {
+        return new ParallelAuthenticationManager(plan, false, applicationContext,
+            executorService, Duration.ofSeconds(10), handlerTimeouts);
+    }
+
+    @BeforeEach
+    public void setup() {
+        applicationContext = new StaticApplicationContext();
+        applicationContext.refresh();
+        ApplicationContextProvider.registerBeanIntoApplicationContext(applicationContext,
+            CoreAuthenticationTestUtils.getAuthenticationSystemSupport(), AuthenticationSystemSupport.BEAN_NAME);
+        executorService = Executors.newFixedThreadPool(10);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void verifyResultsFollowHandlerOrder() throws Exception {
+        val started = new CountDownLatch(4);
+        val interrupted = new CountDownLatch(1);
+        val plan = getAuthenticationExecutionPlan(
+            newHandler("FirstHandler", 1, false, started, null, started::countDown),
+            newHandler("SecondHandler", 2, true, started, null, started::countDown),
+            newHandler("ThirdHandler", 3, true, started, null, started::countDown),
+            newHandler("SlowHandler", 4, true, new CountDownLatch(1), interrupted, started::countDown));
+        val manager = getParallelManager(plan, Map.of());
+
+        val authentication = manager.authenticate(getTransaction());
+        assertEquals(0, started.getCount());
+        assertEquals(1, authentication.getSuccesses().size());
+        assertTrue(authentication.getSuccesses().containsKey("SecondHandler"));
+        assertEquals(1, authentication.getFailures().size());
+        assertTrue(authentication.getFailures().containsKey("FirstHandler"));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void verifyHandlerTimeout() throws Exception {
+        val interrupted = new CountDownLatch(1);
+        val plan = getAuthenticationExecutionPlan(
+            newHandler("SlowHandler", 1, true, new CountDownLatch(1), interrupted),
+            newHandler("FastHandler", 2, true, null));
+        val manager = getParallelManager(plan, Map.of("SlowHandler", Duration.ofMillis(200)));
+
+        val authentication = manager.authenticate(getTransaction());
+        assertTrue(authentication.getSuccesses().containsKey("FastHandler"));
+        assertTrue(authentication.getFailures().get("SlowHandler") instanceof PreventedException);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void verifyAllHandlersFail() throws Exception {
+        val plan = getAuthenticationExecutionPlan(
+            newHandler("FirstHandler", 1, false, null),
+            newHandler("SecondHandler", 2, false, null));
+        val manager = getParallelManager(plan, Map.of());
+        val error = assertThrows(AuthenticationException.class, () -> manager.authenticate(getTransaction()));
+        assertEquals(2, error.getHandlerErrors().size());
+        assertTrue(error.getHandlerSuccesses().isEmpty());
+    }
+
+    @Test
+    public void verifySingleHandler() throws Exception {
+        val plan = getAuthenticationExecutionPlan(newHandler("OnlyHandler", 1, true, null));
+        val manager = getParallelManager(plan, Map.of());
+        assertTrue(manager.authenticate(getTransaction()).getSuccesses().containsKey("OnlyHandler"));
+    }
+
+    @Test
+    public void verifyThreadStatePropagated() throws Exception {
+        val request = new MockHttpServletRequest();
+        request.setRemoteAddr("185.86.151.11");
+        val clientInfo = new ClientInfo(request);
+        val requestAttributes = new ServletRequestAttributes(request);
+        ClientInfoHolder.setClientInfo(clientInfo);
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+
+        val observed = new ConcurrentHashMap<String, List<Object>>();
+        val secondStarted = new CountDownLatch(1);
+        val first = newObservingHandler("FirstHandler", 1, false, secondStarted, new CountDownLatch(1), observed);
+        val second = newObservingHandler("SecondHandler", 2, true, null, secondStarted, observed);
+        val executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.MINUTES, new SynchronousQueue<>(), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            val manager = new ParallelAuthenticationManager(getAuthenticationExecutionPlan(first, second), false, applicationContext,
+                executor, Duration.ofSeconds(10), Map.of());
+            assertTrue(manager.authenticate(getTransaction()).getSuccesses().containsKey("SecondHandler"));
+            assertNotEquals(Thread.currentThread(), observed.get("FirstHandler").get(0));
+            assertEquals(Thread.currentThread(), observed.get("SecondHandler").get(0));
+            observed.values().forEach(state -> {
+                assertSame(clientInfo, state.get(1));
+                assertSame(requestAttributes, state.get(2));
+                assertEquals("casuser", state.get(3));
+            });
+            assertSame(clientInfo, ClientInfoHolder.getClientInfo());
+            assertSame(requestAttributes, RequestContextHolder.getRequestAttributes());
+        } finally {
+            executor.shutdownNow();
+            ClientInfoHolder.clear();
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.apereo.cas.logout.slo.SingleLogoutServiceMessageHandler;
 
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.apache.commons.lang3.tuple.Pair;
@@ -17,14 +18,24 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * This logout manager handles the Single Log Out process.
+ * Services that participate in the single logout session are handled
+ * in order by the calling thread, unless an executor is assigned, in which
+ * case they are handled concurrently and the logout completes once all are done.
+ * Sessions are logged out one after the other, and the logout post-processors of each session
+ * run once all of its services are handled, before the next session is processed.
+ * The executor is owned by the caller, which is responsible for shutting it down.
  *
  * @author Jerome Leleu
  * @since 4.0.0
@@ -37,53 +48,95 @@ public class DefaultLogoutManager implements LogoutManager {
 
     private final LogoutExecutionPlan logoutExecutionPlan;
 
+    /**
+     * Optional executor used to handle services concurrently.
+     */
+    @Setter
+    private ExecutorService executorService;
+
     @Override
     public List<SingleLogoutRequestContext> performLogout(final SingleLogoutExecutionRequest context) {
-        val ticket = context.getTicketGrantingTicket();
-        LOGGER.info("Performing logout operations for [{}]", ticket.getId());
+        return performLogouts(List.of(context));
+    }
+
+    @Override
+    public List<SingleLogoutRequestContext> performLogouts(final Collection<SingleLogoutExecutionRequest> contexts) {
+        contexts.forEach(context -> LOGGER.info("Performing logout operations for [{}]", context.getTicketGrantingTicket().getId()));
         if (this.singleLogoutCallbacksDisabled) {
             LOGGER.info("Single logout callbacks are disabled");
             return new ArrayList<>(0);
         }
-        val logoutRequests = performLogoutForTicket(context);
-        logoutExecutionPlan.getLogoutPostProcessors().forEach(h -> {
-            LOGGER.debug("Invoking logout handler [{}] to process ticket [{}]", h.getClass().getSimpleName(), ticket.getId());
-            h.handle(ticket);
+        val sloHandlers = logoutExecutionPlan.getSingleLogoutServiceMessageHandlers()
+            .stream()
+            .sorted(Comparator.comparing(SingleLogoutServiceMessageHandler::getOrder))
+            .collect(Collectors.toList());
+        val logoutRequests = new ArrayList<SingleLogoutRequestContext>();
+        contexts.forEach(context -> {
+            val ticket = context.getTicketGrantingTicket();
+            val requests = getLogoutServices(context)
+                .stream()
+                .map(entry -> submit(() -> performLogoutForService(sloHandlers, context, entry)))
+                .collect(Collectors.toList())
+                .stream()
+                .map(DefaultLogoutManager::getResult)
+                .flatMap(Collection::stream)
+                .filter(distinctByKey(SingleLogoutRequestContext::getService))
+                .collect(Collectors.toList());
+            logoutExecutionPlan.getLogoutPostProcessors().forEach(h -> {
+                LOGGER.debug("Invoking logout handler [{}] to process ticket [{}]", h.getClass().getSimpleName(), ticket.getId());
+                h.handle(ticket);
+            });
+            LOGGER.info("[{}] logout requests were processed", requests.size());
+            logoutRequests.addAll(requests);
         });
-        LOGGER.info("[{}] logout requests were processed", logoutRequests.size());
         return logoutRequests;
     }
 
-    private List<SingleLogoutRequestContext> performLogoutForTicket(final SingleLogoutExecutionRequest context) {
+    private CompletableFuture<List<SingleLogoutRequestContext>> submit(final Supplier<List<SingleLogoutRequestContext>> task) {
+        if (executorService == null) {
+            return CompletableFuture.completedFuture(task.get());
+        }
+        return CompletableFuture.supplyAsync(task, executorService);
+    }
+
+    private static List<SingleLogoutRequestContext> getResult(final CompletableFuture<List<SingleLogoutRequestContext>> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static List<Pair<String, WebApplicationService>> getLogoutServices(final SingleLogoutExecutionRequest context) {
         val ticketToBeLoggedOut = context.getTicketGrantingTicket();
         val streamServices = Stream.concat(
             Stream.of(ticketToBeLoggedOut.getServices()),
             Stream.of(ticketToBeLoggedOut.getProxyGrantingTickets()));
-        val logoutServices = streamServices
+        return streamServices
             .map(Map::entrySet)
             .flatMap(Set::stream)
             .filter(entry -> entry.getValue() instanceof WebApplicationService)
             .filter(Objects::nonNull)
             .map(entry -> Pair.of(entry.getKey(), (WebApplicationService) entry.getValue()))
             .collect(Collectors.toList());
-        
-        val sloHandlers = logoutExecutionPlan.getSingleLogoutServiceMessageHandlers();
-        return logoutServices
+    }
+
+    private static List<SingleLogoutRequestContext> performLogoutForService(final List<SingleLogoutServiceMessageHandler> sloHandlers,
+                                                                            final SingleLogoutExecutionRequest context,
+                                                                            final Pair<String, WebApplicationService> entry) {
+        return sloHandlers
             .stream()
-            .map(entry -> sloHandlers
-                .stream()
-                .sorted(Comparator.comparing(SingleLogoutServiceMessageHandler::getOrder))
-                .filter(handler -> handler.supports(context, entry.getValue()))
-                .map(handler -> {
-                    val service = entry.getValue();
-                    LOGGER.trace("Handling single logout callback for [{}]", service.getId());
-                    return handler.handle(service, entry.getKey(), context);
-                })
-                .flatMap(Collection::stream)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList()))
+            .filter(handler -> handler.supports(context, entry.getValue()))
+            .map(handler -> {
+                val service = entry.getValue();
+                LOGGER.trace("Handling single logout callback for [{}]", service.getId());
+                return handler.handle(service, entry.getKey(), context);
+            })
             .flatMap(Collection::stream)
-            .filter(distinctByKey(SingleLogoutRequestContext::getService))
+            .filter(Objects::nonNull)
             .collect(Collectors.toList());
     }
 
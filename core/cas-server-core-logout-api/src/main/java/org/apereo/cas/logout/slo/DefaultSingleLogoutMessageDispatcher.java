@@ -0,0 +1,377 @@
+package org.apereo.cas.logout.slo;
+
+import org.apereo.cas.authentication.CasSSLContext;
+import org.apereo.cas.configuration.model.core.slo.SingleLogOutDispatchProperties;
+import org.apereo.cas.configuration.support.Beans;
+import org.apereo.cas.logout.LogoutHttpMessage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.jooq.lambda.Unchecked;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.net.Socket;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This is {@link DefaultSingleLogoutMessageDispatcher} that sends logout messages
+ * using a non-blocking {@link HttpClient}.
+ * <ul>
+ * <li>The number of messages in flight to the same host is bounded; messages beyond
+ * that limit are queued, and rejected once the queue for the host is full.</li>
+ * <li>A host that fails repeatedly has its circuit opened, and messages to it
+ * are rejected until the circuit is closed again.</li>
+ * </ul>
+ * Every message is delivered on its own, since each one carries the identifier of the session it ends.
+ * Delivery latency and rejected messages are recorded when a {@link MeterRegistry} is available.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+public class DefaultSingleLogoutMessageDispatcher implements SingleLogoutMessageDispatcher {
+    private final HttpClient httpClient;
+
+    private final int maxConcurrencyPerHost;
+
+    private final int maxPendingPerHost;
+
+    private final int failureThreshold;
+
+    private final Duration timeout;
+
+    private final Duration circuitOpenDuration;
+
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * Clock used to open and close circuits.
+     */
+    @Setter
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * Optional meter registry to record dispatch metrics.
+     */
+    @Setter
+    private MeterRegistry meterRegistry;
+
+    public DefaultSingleLogoutMessageDispatcher(final HttpClient httpClient,
+                                                final SingleLogOutDispatchProperties properties) {
+        this.httpClient = httpClient;
+        this.maxConcurrencyPerHost = Math.max(1, properties.getMaxConcurrencyPerHost());
+        this.maxPendingPerHost = Math.max(0, properties.getMaxPendingPerHost());
+        this.failureThreshold = Math.max(1, properties.getFailureThreshold());
+        this.timeout = Beans.newDuration(properties.getTimeout());
+        this.circuitOpenDuration = Beans.newDuration(properties.getCircuitOpenDuration());
+    }
+
+    /**
+     * Build the http client used to deliver logout messages, using the key and trust material
+     * of the given SSL context. When hostname verification is turned off, the trust managers
+     * are wrapped so that server certificates are checked without matching them against the host,
+     * since the http client otherwise always verifies hostnames.
+     *
+     * @param properties           the dispatch properties
+     * @param casSslContext        the CAS SSL context
+     * @param hostnameVerification whether hostnames should be verified
+     * @return the http client
+     */
+    public static HttpClient newHttpClient(final SingleLogOutDispatchProperties properties,
+                                           final CasSSLContext casSslContext,
+                                           final boolean hostnameVerification) {
+        val sslContext = hostnameVerification
+            ? casSslContext.getSslContext()
+            : Unchecked.supplier(() -> {
+                val context = SSLContext.getInstance("TLS");
+                val trustManagers = Arrays.stream(casSslContext.getTrustManagers())
+                    .map(manager -> manager instanceof X509TrustManager
+                        ? new HostnameUnverifiedTrustManager((X509TrustManager) manager)
+                        : manager)
+                    .toArray(TrustManager[]::new);
+                context.init(casSslContext.getKeyManagers(), trustManagers, null);
+                return context;
+            }).get();
+        return HttpClient.newBuilder()
+            .connectTimeout(Beans.newDuration(properties.getTimeout()))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .sslContext(sslContext)
+            .build();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> dispatch(final LogoutHttpMessage message) {
+        val result = new CompletableFuture<Boolean>();
+        submit(message, result);
+        return result.copy();
+    }
+
+    private void submit(final LogoutHttpMessage message, final CompletableFuture<Boolean> result) {
+        val host = getHost(message.getUrl());
+        val state = hosts.computeIfAbsent(host, k -> new HostState());
+        val delivery = new Delivery(message, result);
+        if (state.isCircuitOpen(clock.millis())) {
+            reject(host, "circuit-open", result);
+        } else if (!state.offer(delivery)) {
+            reject(host, "queue-full", result);
+        } else {
+            var next = state.acquire();
+            while (next != null) {
+                send(host, state, next);
+                next = state.acquire();
+            }
+        }
+    }
+
+    /**
+     * Send the delivery and any queued deliveries for the host that can be sent right away.
+     * Deliveries that complete on the calling thread hand their slot over to the next
+     * queued delivery in this loop, rather than recursively, so a long queue of failing
+     * deliveries does not grow the stack.
+     */
+    private void send(final String host, final HostState state, final Delivery delivery) {
+        var current = delivery;
+        while (current != null) {
+            if (state.isCircuitOpen(clock.millis())) {
+                reject(host, "circuit-open", current.getResult());
+                current = state.release();
+            } else {
+                current = sendAsync(host, state, current);
+            }
+        }
+    }
+
+    private Delivery sendAsync(final String host, final HostState state, final Delivery delivery) {
+        val message = delivery.getMessage();
+        val result = delivery.getResult();
+        val startTime = System.nanoTime();
+        try {
+            val request = HttpRequest.newBuilder(message.getUrl().toURI())
+                .timeout(timeout)
+                .header(HttpHeaders.CONTENT_TYPE, message.getContentType())
+                .POST(HttpRequest.BodyPublishers.ofString(message.getMessage()))
+                .build();
+            LOGGER.trace("Sending logout message to [{}]", message.getUrl());
+            val response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+            if (response.isDone()) {
+                return complete(host, state, isDelivered(message, response), startTime, result);
+            }
+            response.whenComplete((unused, error) -> {
+                val next = complete(host, state, isDelivered(message, response), startTime, result);
+                if (next != null) {
+                    send(host, state, next);
+                }
+            });
+            return null;
+        } catch (final Exception e) {
+            LOGGER.debug("Unable to send logout message to [{}]: [{}]", message.getUrl(), e.getMessage());
+            return complete(host, state, false, startTime, result);
+        }
+    }
+
+    private static boolean isDelivered(final LogoutHttpMessage message, final CompletableFuture<HttpResponse<Void>> response) {
+        try {
+            val statusCode = response.join().statusCode();
+            if (statusCode == HttpStatus.OK.value()) {
+                return true;
+            }
+            LOGGER.debug("Unable to deliver logout message to [{}]: [{}]", message.getUrl(), statusCode);
+        } catch (final Exception e) {
+            LOGGER.debug("Unable to deliver logout message to [{}]: [{}]", message.getUrl(), e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Record the outcome of the delivery and hand its slot over.
+     *
+     * @return the next queued delivery to send, if any.
+     */
+    private Delivery complete(final String host, final HostState state, final boolean delivered,
+                              final long startTime, final CompletableFuture<Boolean> result) {
+        if (state.record(delivered, clock.millis(), failureThreshold, circuitOpenDuration)) {
+            LOGGER.warn("Logout messages to [{}] have failed [{}] times in a row and will be rejected for [{}]",
+                host, failureThreshold, circuitOpenDuration);
+        }
+        if (meterRegistry != null) {
+            Timer.builder("cas.slo.dispatch.latency")
+                .description("Time taken to deliver back-channel logout messages")
+                .tag("host", host)
+                .tag("outcome", delivered ? "success" : "failure")
+                .register(meterRegistry)
+                .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+        val next = state.release();
+        result.complete(delivered);
+        return next;
+    }
+
+    private void reject(final String host, final String reason, final CompletableFuture<Boolean> result) {
+        LOGGER.debug("Logout message to [{}] is rejected: [{}]", host, reason);
+        count("cas.slo.dispatch.rejected", host, reason);
+        result.complete(Boolean.FALSE);
+    }
+
+    private void count(final String name, final String host, final String reason) {
+        if (meterRegistry != null) {
+            Counter.builder(name)
+                .tag("host", host)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        }
+    }
+
+    private static String getHost(final URL url) {
+        return url.getHost() + ':' + (url.getPort() == -1 ? url.getDefaultPort() : url.getPort());
+    }
+
+    @RequiredArgsConstructor
+    private static final class HostnameUnverifiedTrustManager extends X509ExtendedTrustManager {
+        private final X509TrustManager delegate;
+
+        @Override
+        public void checkClientTrusted(final X509Certificate[] chain, final String authType) throws CertificateException {
+            delegate.checkClientTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkServerTrusted(final X509Certificate[] chain, final String authType) throws CertificateException {
+            delegate.checkServerTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkClientTrusted(final X509Certificate[] chain, final String authType,
+                                       final Socket socket) throws CertificateException {
+            delegate.checkClientTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkServerTrusted(final X509Certificate[] chain, final String authType,
+                                       final Socket socket) throws CertificateException {
+            delegate.checkServerTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkClientTrusted(final X509Certificate[] chain, final String authType,
+                                       final SSLEngine engine) throws CertificateException {
+            delegate.checkClientTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkServerTrusted(final X509Certificate[] chain, final String authType,
+                                       final SSLEngine engine) throws CertificateException {
+            delegate.checkServerTrusted(chain, authType);
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return delegate.getAcceptedIssuers();
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Delivery {
+        private final LogoutHttpMessage message;
+
+        private final CompletableFuture<Boolean> result;
+    }
+
+    private final class HostState {
+        private final Deque<Delivery> pending = new ArrayDeque<>();
+
+        private int active;
+
+        private int consecutiveFailures;
+
+        private long openUntil;
+
+        synchronized boolean isCircuitOpen(final long now) {
+            return openUntil > now;
+        }
+
+        /**
+         * Record the outcome of a delivery.
+         *
+         * @return true if the circuit was opened as a result.
+         */
+        synchronized boolean record(final boolean delivered, final long now, final int threshold, final Duration openDuration) {
+            if (delivered) {
+                consecutiveFailures = 0;
+                return false;
+            }
+            consecutiveFailures++;
+            if (consecutiveFailures >= threshold && openUntil <= now) {
+                openUntil = now + openDuration.toMillis();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Queue the delivery, unless the queue is full.
+         *
+         * @return false if the delivery is rejected.
+         */
+        synchronized boolean offer(final Delivery delivery) {
+            if (active >= maxConcurrencyPerHost && pending.size() >= maxPendingPerHost) {
+                return false;
+            }
+            pending.add(delivery);
+            return true;
+        }
+
+        /**
+         * Take a free slot for the next queued delivery.
+         *
+         * @return the delivery to send, if a slot is free and a delivery is queued.
+         */
+        synchronized Delivery acquire() {
+            if (active < maxConcurrencyPerHost && !pending.isEmpty()) {
+                active++;
+                return pending.poll();
+            }
+            return null;
+        }
+
+        /**
+         * Hand the slot over to the next queued delivery, or free it.
+         *
+         * @return the next delivery to send, if any.
+         */
+        synchronized Delivery release() {
+            val next = pending.poll();
+            if (next == null) {
+                active--;
+            }
+            return next;
+        }
+    }
+}
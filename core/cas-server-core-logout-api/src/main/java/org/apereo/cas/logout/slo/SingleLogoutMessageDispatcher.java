@@ -0,0 +1,30 @@
+package org.apereo.cas.logout.slo;
+
+import org.apereo.cas.logout.LogoutHttpMessage;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This is {@link SingleLogoutMessageDispatcher} that delivers
+ * back-channel logout messages to logout endpoints without blocking the caller.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@FunctionalInterface
+public interface SingleLogoutMessageDispatcher {
+
+    /**
+     * Default bean name.
+     */
+    String BEAN_NAME = "singleLogoutMessageDispatcher";
+
+    /**
+     * Dispatch the logout message to its endpoint.
+     *
+     * @param message the message
+     * @return a future that completes with whether the message was delivered successfully;
+     * the future never completes exceptionally.
+     */
+    CompletableFuture<Boolean> dispatch(LogoutHttpMessage message);
+}
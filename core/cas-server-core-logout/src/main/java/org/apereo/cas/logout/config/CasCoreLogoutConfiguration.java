@@ -1,6 +1,7 @@
 package org.apereo.cas.logout.config;
 
 import org.apereo.cas.authentication.AuthenticationServiceSelectionPlan;
+import org.apereo.cas.authentication.CasSSLContext;
 import org.apereo.cas.authentication.principal.ServiceFactory;
 import org.apereo.cas.authentication.principal.ServiceFactoryConfigurer;
 import org.apereo.cas.authentication.principal.WebApplicationService;
@@ -16,10 +17,12 @@ import org.apereo.cas.logout.LogoutManager;
 import org.apereo.cas.logout.LogoutRedirectionStrategy;
 import org.apereo.cas.logout.LogoutWebApplicationServiceFactory;
 import org.apereo.cas.logout.slo.ChainingSingleLogoutServiceLogoutUrlBuilder;
+import org.apereo.cas.logout.slo.DefaultSingleLogoutMessageDispatcher;
 import org.apereo.cas.logout.slo.DefaultSingleLogoutRequestExecutor;
 import org.apereo.cas.logout.slo.DefaultSingleLogoutServiceLogoutUrlBuilder;
 import org.apereo.cas.logout.slo.DefaultSingleLogoutServiceMessageHandler;
 import org.apereo.cas.logout.slo.SingleLogoutMessageCreator;
+import org.apereo.cas.logout.slo.SingleLogoutMessageDispatcher;
 import org.apereo.cas.logout.slo.SingleLogoutRequestExecutor;
 import org.apereo.cas.logout.slo.SingleLogoutServiceLogoutUrlBuilder;
 import org.apereo.cas.logout.slo.SingleLogoutServiceLogoutUrlBuilderConfigurer;
@@ -28,14 +31,17 @@ import org.apereo.cas.services.ServicesManager;
 import org.apereo.cas.ticket.registry.TicketRegistry;
 import org.apereo.cas.util.CollectionUtils;
 import org.apereo.cas.util.http.HttpClient;
+import org.apereo.cas.util.spring.beans.BeanCondition;
 import org.apereo.cas.util.spring.beans.BeanSupplier;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
 import org.apereo.cas.web.UrlValidator;
 import org.apereo.cas.web.support.ArgumentExtractor;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.jooq.lambda.Unchecked;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfigureOrder;
@@ -50,6 +56,9 @@ import org.springframework.core.Ordered;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -135,13 +144,19 @@ public class CasCoreLogoutConfiguration {
             @Qualifier(HttpClient.BEAN_NAME_HTTPCLIENT_NO_REDIRECT)
             final HttpClient noRedirectHttpClient,
             @Qualifier("singleLogoutServiceLogoutUrlBuilder")
-            final SingleLogoutServiceLogoutUrlBuilder singleLogoutServiceLogoutUrlBuilder) {
-            return new DefaultSingleLogoutServiceMessageHandler(noRedirectHttpClient,
+            final SingleLogoutServiceLogoutUrlBuilder singleLogoutServiceLogoutUrlBuilder,
+            @Qualifier(SingleLogoutMessageDispatcher.BEAN_NAME)
+            final SingleLogoutMessageDispatcher singleLogoutMessageDispatcher) {
+            val handler = new DefaultSingleLogoutServiceMessageHandler(noRedirectHttpClient,
                 defaultSingleLogoutMessageCreator,
                 servicesManager,
                 singleLogoutServiceLogoutUrlBuilder,
                 casProperties.getSlo().isAsynchronous(),
                 authenticationServiceSelectionPlan);
+            if (BeanSupplier.isNotProxy(singleLogoutMessageDispatcher)) {
+                handler.setMessageDispatcher(singleLogoutMessageDispatcher);
+            }
+            return handler;
         }
 
         @ConditionalOnMissingBean(name = "defaultSingleLogoutMessageCreator")
@@ -152,18 +167,66 @@ public class CasCoreLogoutConfiguration {
         }
     }
 
+    @Configuration(value = "CasCoreLogoutDispatchConfiguration", proxyBeanMethods = false)
+    @EnableConfigurationProperties(CasConfigurationProperties.class)
+    public static class CasCoreLogoutDispatchConfiguration {
+        private static final BeanCondition CONDITION = BeanCondition.on("cas.slo.dispatch.enabled").isTrue();
+
+        @ConditionalOnMissingBean(name = SingleLogoutMessageDispatcher.BEAN_NAME)
+        @Bean
+        @RefreshScope(proxyMode = ScopedProxyMode.DEFAULT)
+        public SingleLogoutMessageDispatcher singleLogoutMessageDispatcher(
+            final ConfigurableApplicationContext applicationContext,
+            final CasConfigurationProperties casProperties,
+            final ObjectProvider<CasSSLContext> casSslContext,
+            final ObjectProvider<MeterRegistry> meterRegistry) {
+            return BeanSupplier.of(SingleLogoutMessageDispatcher.class)
+                .when(CONDITION.given(applicationContext.getEnvironment()))
+                .supply(() -> {
+                    val dispatch = casProperties.getSlo().getDispatch();
+                    val hostnameVerification = !casProperties.getHttpClient().getHostNameVerifier().equalsIgnoreCase("none");
+                    val httpClient = DefaultSingleLogoutMessageDispatcher.newHttpClient(dispatch,
+                        casSslContext.getIfAvailable(CasSSLContext::system), hostnameVerification);
+                    val dispatcher = new DefaultSingleLogoutMessageDispatcher(httpClient, dispatch);
+                    meterRegistry.ifAvailable(dispatcher::setMeterRegistry);
+                    return dispatcher;
+                })
+                .otherwiseProxy()
+                .get();
+        }
+    }
+
     @Configuration(value = "CasCoreLogoutManagementConfiguration", proxyBeanMethods = false)
     @EnableConfigurationProperties(CasConfigurationProperties.class)
     public static class CasCoreLogoutManagementConfiguration {
 
+        @ConditionalOnMissingBean(name = "singleLogoutExecutorService")
+        @RefreshScope(proxyMode = ScopedProxyMode.DEFAULT)
+        @Bean(destroyMethod = "shutdown")
+        public ExecutorService singleLogoutExecutorService(final CasConfigurationProperties casProperties) {
+            val index = new AtomicInteger();
+            return Executors.newFixedThreadPool(Math.max(1, casProperties.getSlo().getDispatch().getParallelism()), r -> {
+                val thread = new Thread(r, "SingleLogoutThread-" + index.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
         @ConditionalOnMissingBean(name = LogoutManager.DEFAULT_BEAN_NAME)
         @RefreshScope(proxyMode = ScopedProxyMode.DEFAULT)
         @Bean
         public LogoutManager logoutManager(
             @Qualifier(LogoutExecutionPlan.BEAN_NAME)
             final LogoutExecutionPlan logoutExecutionPlan,
+            @Qualifier("singleLogoutExecutorService")
+            final ExecutorService singleLogoutExecutorService,
             final CasConfigurationProperties casProperties) {
-            return new DefaultLogoutManager(casProperties.getSlo().isDisabled(), logoutExecutionPlan);
+            val slo = casProperties.getSlo();
+            val logoutManager = new DefaultLogoutManager(slo.isDisabled(), logoutExecutionPlan);
+            if (slo.getDispatch().isEnabled() && slo.getDispatch().getParallelism() > 1) {
+                logoutManager.setExecutorService(singleLogoutExecutorService);
+            }
+            return logoutManager;
         }
 
     }
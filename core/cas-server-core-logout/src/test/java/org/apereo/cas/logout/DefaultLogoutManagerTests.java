@@ -29,7 +29,10 @@ import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -234,4 +237,37 @@ public class DefaultLogoutManagerTests {
             .build());
         assertEquals(1, logoutRequests.size());
     }
+
+    @Test
+    public void verifyLogoutsInParallel() throws Exception {
+        this.registeredService.setLogoutType(RegisteredServiceLogoutType.BACK_CHANNEL);
+        val plan = new DefaultLogoutExecutionPlan();
+        plan.registerSingleLogoutServiceMessageHandler(singleLogoutServiceMessageHandler);
+        val processed = new ArrayList<String>();
+        plan.registerLogoutPostProcessor(ticket -> {
+            assertEquals(3, ticket.getServices().size());
+            processed.add(ticket.getId());
+        });
+        val manager = new DefaultLogoutManager(false, plan);
+        val executor = Executors.newFixedThreadPool(4);
+        manager.setExecutorService(executor);
+        try {
+            val requests = new ArrayList<SingleLogoutExecutionRequest>();
+            for (var i = 0; i < 5; i++) {
+                val ticket = new MockTicketGrantingTicket("casuser-" + i);
+                for (var j = 0; j < 3; j++) {
+                    val service = getService(URL + "/app" + j);
+                    ticket.getServices().put(ID + '-' + j, service);
+                    when(servicesManager.findServiceBy(service)).thenReturn(this.registeredService);
+                }
+                requests.add(SingleLogoutExecutionRequest.builder().ticketGrantingTicket(ticket).build());
+            }
+            val logoutRequests = manager.performLogouts(requests);
+            assertEquals(15, logoutRequests.size());
+            assertTrue(logoutRequests.stream().allMatch(request -> request.getStatus() == LogoutRequestStatus.SUCCESS));
+            assertEquals(requests.stream().map(request -> request.getTicketGrantingTicket().getId()).collect(Collectors.toList()), processed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,165 @@
+package org.apereo.cas.logout;
+
+import org.apereo.cas.authentication.CasSSLContext;
+import org.apereo.cas.configuration.model.core.slo.SingleLogOutDispatchProperties;
+import org.apereo.cas.logout.slo.DefaultSingleLogoutMessageDispatcher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This is {@link DefaultSingleLogoutMessageDispatcherTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("Logout")
+public class DefaultSingleLogoutMessageDispatcherTests {
+
+    private static LogoutHttpMessage getMessage(final String host, final String message) throws Exception {
+        return new LogoutHttpMessage(new URL("https://" + host + "/logout"), message, false);
+    }
+
+    private static HttpResponse<Void> getResponse(final int status) {
+        val response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(status);
+        return response;
+    }
+
+    @Test
+    public void verifyMessagesToSameEndpointDeliveredSeparately() throws Exception {
+        val responses = new ArrayList<CompletableFuture<HttpResponse<Void>>>();
+        val dispatcher = newDispatcher(responses, new SingleLogOutDispatchProperties());
+        val meterRegistry = new SimpleMeterRegistry();
+        dispatcher.setMeterRegistry(meterRegistry);
+
+        val first = dispatcher.dispatch(getMessage("sso.example.org", "ST-1"));
+        val second = dispatcher.dispatch(getMessage("sso.example.org", "ST-1"));
+        assertEquals(2, responses.size());
+        responses.forEach(response -> response.complete(getResponse(200)));
+        assertTrue(first.join());
+        assertTrue(second.join());
+        assertEquals(2, meterRegistry.get("cas.slo.dispatch.latency").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    public void verifyHttpClientHonorsHostnameVerification() {
+        val properties = new SingleLogOutDispatchProperties();
+        val casSslContext = CasSSLContext.system();
+        assertSame(casSslContext.getSslContext(),
+            DefaultSingleLogoutMessageDispatcher.newHttpClient(properties, casSslContext, true).sslContext());
+        assertNotSame(casSslContext.getSslContext(),
+            DefaultSingleLogoutMessageDispatcher.newHttpClient(properties, casSslContext, false).sslContext());
+    }
+
+    @Test
+    public void verifyConcurrencyPerHost() throws Exception {
+        val properties = new SingleLogOutDispatchProperties();
+        properties.setMaxConcurrencyPerHost(2);
+        properties.setMaxPendingPerHost(1);
+        val responses = new ArrayList<CompletableFuture<HttpResponse<Void>>>();
+        val dispatcher = newDispatcher(responses, properties);
+        val meterRegistry = new SimpleMeterRegistry();
+        dispatcher.setMeterRegistry(meterRegistry);
+
+        val results = new ArrayList<CompletableFuture<Boolean>>();
+        for (var i = 0; i < 4; i++) {
+            results.add(dispatcher.dispatch(getMessage("sso.example.org", "ST-" + i)));
+        }
+        val other = dispatcher.dispatch(getMessage("app.example.org", "ST-0"));
+        assertEquals(3, responses.size());
+        assertFalse(results.get(3).join());
+        assertEquals(1, meterRegistry.get("cas.slo.dispatch.rejected").tag("reason", "queue-full").counter().count());
+
+        responses.get(0).complete(getResponse(200));
+        assertTrue(results.get(0).join());
+        assertEquals(4, responses.size());
+        assertFalse(results.get(2).isDone());
+        responses.subList(1, 4).forEach(response -> response.complete(getResponse(200)));
+        assertTrue(results.get(1).join());
+        assertTrue(results.get(2).join());
+        assertTrue(other.join());
+    }
+
+    @Test
+    public void verifyCircuitOpens() throws Exception {
+        val properties = new SingleLogOutDispatchProperties();
+        properties.setFailureThreshold(2);
+        properties.setCircuitOpenDuration("PT30S");
+        val responses = new ArrayList<CompletableFuture<HttpResponse<Void>>>();
+        val dispatcher = newDispatcher(responses, properties);
+        val meterRegistry = new SimpleMeterRegistry();
+        dispatcher.setMeterRegistry(meterRegistry);
+        val now = Instant.now();
+        dispatcher.setClock(Clock.fixed(now, ZoneOffset.UTC));
+
+        val first = dispatcher.dispatch(getMessage("sso.example.org", "ST-1"));
+        responses.get(0).complete(getResponse(500));
+        assertFalse(first.join());
+        val second = dispatcher.dispatch(getMessage("sso.example.org", "ST-2"));
+        responses.get(1).completeExceptionally(new IllegalStateException("Connection refused"));
+        assertFalse(second.join());
+
+        assertFalse(dispatcher.dispatch(getMessage("sso.example.org", "ST-3")).join());
+        assertEquals(2, responses.size());
+        assertEquals(1, meterRegistry.get("cas.slo.dispatch.rejected").tag("reason", "circuit-open").counter().count());
+
+        dispatcher.setClock(Clock.fixed(now.plus(Duration.ofMinutes(1)), ZoneOffset.UTC));
+        val fourth = dispatcher.dispatch(getMessage("sso.example.org", "ST-4"));
+        assertEquals(3, responses.size());
+        responses.get(2).complete(getResponse(200));
+        assertTrue(fourth.join());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void verifyQueuedFailuresDrained() throws Exception {
+        val properties = new SingleLogOutDispatchProperties();
+        properties.setMaxConcurrencyPerHost(1);
+        properties.setMaxPendingPerHost(20_000);
+        properties.setFailureThreshold(Integer.MAX_VALUE);
+        val first = new CompletableFuture<HttpResponse<Void>>();
+        val httpClient = mock(HttpClient.class);
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+            .thenReturn(first)
+            .thenThrow(new IllegalArgumentException("Invalid request"));
+        val dispatcher = new DefaultSingleLogoutMessageDispatcher(httpClient, properties);
+
+        val results = new ArrayList<CompletableFuture<Boolean>>();
+        for (var i = 0; i < 20_000; i++) {
+            results.add(dispatcher.dispatch(getMessage("sso.example.org", "ST-" + i)));
+        }
+        first.complete(getResponse(200));
+        assertTrue(results.get(0).join());
+        assertTrue(results.stream().skip(1).noneMatch(CompletableFuture::join));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DefaultSingleLogoutMessageDispatcher newDispatcher(final List<CompletableFuture<HttpResponse<Void>>> responses,
+                                                                      final SingleLogOutDispatchProperties properties) {
+        val httpClient = mock(HttpClient.class);
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(args -> {
+            val response = new CompletableFuture<HttpResponse<Void>>();
+            responses.add(response);
+            return response;
+        });
+        return new DefaultSingleLogoutMessageDispatcher(httpClient, properties);
+    }
+}
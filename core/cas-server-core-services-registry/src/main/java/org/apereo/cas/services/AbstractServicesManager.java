@@ -8,6 +8,7 @@ import org.apereo.cas.support.events.service.CasRegisteredServicePreSaveEvent;
 import org.apereo.cas.support.events.service.CasRegisteredServiceSavedEvent;
 import org.apereo.cas.support.events.service.CasRegisteredServicesDeletedEvent;
 import org.apereo.cas.support.events.service.CasRegisteredServicesLoadedEvent;
+import org.apereo.cas.util.DigestUtils;
 
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -19,7 +20,15 @@ import org.springframework.context.ApplicationEvent;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -38,17 +47,55 @@ import java.util.stream.Stream;
 @Getter
 public abstract class AbstractServicesManager implements ServicesManager {
 
+    /**
+     * Value recorded in the service resolution cache for requested services
+     * that have no matching registered service.
+     */
+    public static final long UNRESOLVED_SERVICE_ID = Long.MIN_VALUE;
+
     /**
      * The Configuration context.
      */
     protected final ServicesManagerConfigurationContext configurationContext;
 
+    @Getter(AccessLevel.NONE)
+    private final Map<String, RegisteredServicesKeyIndex> keyIndexes = new ConcurrentHashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong servicesCacheGeneration = new AtomicLong();
+
     private static Predicate<RegisteredService> getRegisteredServicesFilteringPredicate(
         final Predicate<RegisteredService>... p) {
         val predicates = Stream.of(p).collect(Collectors.toCollection(ArrayList::new));
         return predicates.stream().reduce(x -> true, Predicate::and);
     }
 
+    /**
+     * Build the resolution cache key for the requested service.
+     * The key is the service id as normalized by the service factory,
+     * plus a digest of those service attributes that locators consider
+     * when picking a registered service. Other request attributes are left out
+     * so that they do not defeat the cache.
+     *
+     * @param service the service
+     * @return the key
+     */
+    private String getServiceResolutionKey(final Service service) {
+        val attributes = service.getAttributes();
+        if (attributes == null || attributes.isEmpty()) {
+            return service.getId();
+        }
+        val resolutionAttributes = new TreeMap<String, Object>();
+        configurationContext.getServiceResolutionAttributes()
+            .stream()
+            .filter(attributes::containsKey)
+            .forEach(name -> resolutionAttributes.put(name, attributes.get(name)));
+        if (resolutionAttributes.isEmpty()) {
+            return service.getId();
+        }
+        return service.getId() + '@' + DigestUtils.sha256(resolutionAttributes.toString());
+    }
+
     @Override
     public RegisteredService save(final RegisteredService registeredService) {
         return save(registeredService, true);
@@ -60,6 +107,7 @@ public abstract class AbstractServicesManager implements ServicesManager {
         val r = configurationContext.getServiceRegistry().save(registeredService);
         cacheRegisteredService(r);
         saveInternal(registeredService);
+        invalidateServiceResolutionCache();
 
         if (publishEvent) {
             publishEvent(new CasRegisteredServiceSavedEvent(this, r));
@@ -77,6 +125,7 @@ public abstract class AbstractServicesManager implements ServicesManager {
                 publishEvent(new CasRegisteredServicePreSaveEvent(this, registeredService));
                 cacheRegisteredService(registeredService);
                 saveInternal(registeredService);
+                invalidateServiceResolutionCache();
                 publishEvent(new CasRegisteredServiceSavedEvent(this, registeredService));
                 return registeredService;
             }
@@ -92,6 +141,7 @@ public abstract class AbstractServicesManager implements ServicesManager {
             .forEach(r -> {
                 cacheRegisteredService(r);
                 saveInternal(r);
+                invalidateServiceResolutionCache();
                 publishEvent(new CasRegisteredServiceSavedEvent(this, r));
             });
     }
@@ -100,6 +150,7 @@ public abstract class AbstractServicesManager implements ServicesManager {
     public synchronized void deleteAll() {
         configurationContext.getServicesCache().asMap().forEach((k, v) -> delete(v));
         configurationContext.getServicesCache().invalidateAll();
+        invalidateServiceResolutionCache();
         publishEvent(new CasRegisteredServicesDeletedEvent(this));
     }
 
@@ -116,6 +167,7 @@ public abstract class AbstractServicesManager implements ServicesManager {
             configurationContext.getServiceRegistry().delete(service);
             configurationContext.getServicesCache().invalidate(service.getId());
             deleteInternal(service);
+            invalidateServiceResolutionCache();
             publishEvent(new CasRegisteredServiceDeletedEvent(this, service));
         }
         return service;
@@ -126,7 +178,33 @@ public abstract class AbstractServicesManager implements ServicesManager {
         if (service == null) {
             return null;
         }
+        val resolutionCache = configurationContext.getServiceResolutionCache();
+        if (resolutionCache == null) {
+            return resolveService(service);
+        }
+        val resolutionKey = getServiceResolutionKey(service);
+        val resolvedId = resolutionCache.getIfPresent(resolutionKey);
+        if (resolvedId != null) {
+            if (resolvedId == UNRESOLVED_SERVICE_ID) {
+                LOGGER.trace("Service [{}] is known to have no matching registered service", service.getId());
+                return null;
+            }
+            val registeredService = configurationContext.getServicesCache().getIfPresent(resolvedId);
+            if (registeredService != null) {
+                registeredService.initialize();
+                return validateRegisteredService(registeredService);
+            }
+        }
+        val resolutionGeneration = configurationContext.getServiceResolutionGeneration();
+        val generation = resolutionGeneration.get();
+        val registeredService = resolveService(service);
+        if (generation == resolutionGeneration.get()) {
+            resolutionCache.put(resolutionKey, registeredService == null ? UNRESOLVED_SERVICE_ID : registeredService.getId());
+        }
+        return registeredService;
+    }
 
+    private RegisteredService resolveService(final Service service) {
         val candidates = getCandidateServicesToMatch(service.getId());
         var foundService = configurationContext.getRegisteredServiceLocators()
             .stream()
@@ -170,6 +248,7 @@ public abstract class AbstractServicesManager implements ServicesManager {
             peek(RegisteredService::initialize).
             collect(Collectors.toMap(RegisteredService::getId, Function.identity(), (r, s) -> s));
         configurationContext.getServicesCache().putAll(results);
+        invalidateServiceIndexes();
         return results.values();
     }
 
@@ -187,8 +266,7 @@ public abstract class AbstractServicesManager implements ServicesManager {
 
     @Override
     public RegisteredService findServiceBy(final long id) {
-        val result = configurationContext.getServicesCache().get(id,
-            k -> configurationContext.getServiceRegistry().findServiceById(id));
+        val result = getOrLoadRegisteredService(id, () -> configurationContext.getServiceRegistry().findServiceById(id));
         return validateRegisteredService(result);
     }
 
@@ -200,11 +278,39 @@ public abstract class AbstractServicesManager implements ServicesManager {
         }
         LOGGER.trace("The service with id [{}] and type [{}] is not found in the cache; trying to find it from [{}]",
             id, clazz, configurationContext.getServiceRegistry().getName());
-        service = configurationContext.getServicesCache().get(id,
-            k -> configurationContext.getServiceRegistry().findServiceById(id, clazz));
+        service = getOrLoadRegisteredService(id, () -> configurationContext.getServiceRegistry().findServiceById(id, clazz));
         return (T) validateRegisteredService(service);
     }
 
+    @Override
+    public <T extends RegisteredService> T findServiceBy(final RegisteredServiceIndexedKey<T> indexedKey, final String key) {
+        if (key == null || !supports(indexedKey.getType())) {
+            return null;
+        }
+        val cache = configurationContext.getServicesCache();
+        val size = cache.estimatedSize();
+        if (size <= 0) {
+            return ServicesManager.super.findServiceBy(indexedKey, key);
+        }
+        val generation = getServicesCacheGeneration();
+        var index = keyIndexes.get(indexedKey.getName());
+        if (index == null || index.getSourceSize() != size || index.getGeneration() != generation) {
+            val services = cache.asMap().values()
+                .stream()
+                .filter(this::validateAndFilterServiceByEnvironment)
+                .sorted(Comparator.naturalOrder())
+                .collect(Collectors.toList());
+            index = new RegisteredServicesKeyIndex(services, indexedKey, size, generation);
+            keyIndexes.put(indexedKey.getName(), index);
+            LOGGER.trace("Indexed [{}] service(s) by [{}]", index.size(), indexedKey.getName());
+        }
+        val registeredService = index.get(key);
+        if (registeredService != null) {
+            registeredService.initialize();
+        }
+        return (T) registeredService;
+    }
+
     @Override
     public RegisteredService findServiceByName(final String name) {
         if (StringUtils.isBlank(name)) {
@@ -290,6 +396,9 @@ public abstract class AbstractServicesManager implements ServicesManager {
     @Override
     public synchronized Collection<RegisteredService> load() {
         LOGGER.trace("Loading services from [{}]", configurationContext.getServiceRegistry().getName());
+        if (configurationContext.isIncrementalLoad()) {
+            return loadIncrementally();
+        }
         val servicesMap = configurationContext.getServiceRegistry().load()
             .stream()
             .filter(this::supports)
@@ -303,6 +412,7 @@ public abstract class AbstractServicesManager implements ServicesManager {
         configurationContext.getServicesCache().invalidateAll();
         configurationContext.getServicesCache().putAll(servicesMap);
         loadInternal();
+        invalidateServiceResolutionCache();
         publishEvent(new CasRegisteredServicesLoadedEvent(this, getAllServices()));
         evaluateExpiredServiceDefinitions();
         LOGGER.info("Loaded [{}] service(s) from [{}].", configurationContext.getServicesCache().asMap().size(),
@@ -315,6 +425,64 @@ public abstract class AbstractServicesManager implements ServicesManager {
         return configurationContext.getServiceRegistry().size();
     }
 
+    /**
+     * Load services from the registry and only apply the differences to the services cache.
+     * Service definitions that are unchanged since the last load keep their cached instances,
+     * so that state compiled for them (i.e. patterns, match indexes) survives the reload.
+     * They are put back into the services cache regardless, so they do not expire between loads.
+     * If nothing has changed, the load completes without invalidating caches or publishing events.
+     *
+     * @return the loaded services
+     */
+    protected Collection<RegisteredService> loadIncrementally() {
+        val servicesCache = configurationContext.getServicesCache();
+        val cached = new HashMap<>(servicesCache.asMap());
+        val loaded = configurationContext.getServiceRegistry().load()
+            .stream()
+            .filter(this::supports)
+            .filter(this::validateAndFilterServiceByEnvironment)
+            .collect(Collectors.toMap(RegisteredService::getId, Function.identity(), (r, s) -> s, LinkedHashMap::new));
+
+        val added = new AtomicLong();
+        val updated = new AtomicLong();
+        loaded.forEach((id, service) -> {
+            val existing = cached.remove(id);
+            if (existing == null) {
+                LOGGER.trace("Adding registered service [{}] with name [{}] and internal identifier [{}]",
+                    service.getServiceId(), service.getName(), service.getId());
+                servicesCache.put(id, service);
+                loadInternal(service);
+                added.incrementAndGet();
+            } else if (existing != service && !existing.equals(service)) {
+                LOGGER.trace("Updating registered service [{}] with name [{}] and internal identifier [{}]",
+                    service.getServiceId(), service.getName(), service.getId());
+                servicesCache.put(id, service);
+                saveInternal(service);
+                updated.incrementAndGet();
+            } else {
+                servicesCache.put(id, existing);
+            }
+        });
+        cached.values().forEach(service -> {
+            LOGGER.trace("Removing registered service [{}] with name [{}] and internal identifier [{}]",
+                service.getServiceId(), service.getName(), service.getId());
+            servicesCache.invalidate(service.getId());
+            deleteInternal(service);
+        });
+
+        val changed = added.get() + updated.get() + cached.size() > 0;
+        if (changed) {
+            loadInternal();
+            invalidateServiceResolutionCache();
+            publishEvent(new CasRegisteredServicesLoadedEvent(this, getAllServices()));
+        }
+        evaluateExpiredServiceDefinitions();
+        LOGGER.info("Loaded [{}] service(s) from [{}]; added [{}], updated [{}], removed [{}].",
+            servicesCache.asMap().size(), configurationContext.getServiceRegistry().getName(),
+            added.get(), updated.get(), cached.size());
+        return servicesCache.asMap().values();
+    }
+
     /**
      * Gets candidate services to match the service id.
      *
@@ -353,12 +521,55 @@ public abstract class AbstractServicesManager implements ServicesManager {
     protected void loadInternal(final RegisteredService service) {
     }
 
+    /**
+     * Gets the generation of the services cache. The generation advances whenever
+     * services are saved, deleted, loaded or otherwise put into the services cache,
+     * so indexes built over the cache remain valid for as long as the generation
+     * and the size of the cache are unchanged.
+     *
+     * @return the generation
+     */
+    protected long getServicesCacheGeneration() {
+        return servicesCacheGeneration.get();
+    }
+
+    private void invalidateServiceIndexes() {
+        servicesCacheGeneration.incrementAndGet();
+    }
+
+    private void invalidateServiceResolutionCache() {
+        invalidateServiceIndexes();
+        configurationContext.invalidateServiceResolutionCache();
+    }
+
     private void cacheRegisteredService(final RegisteredService service) {
         if (configurationContext.getServicesCache().getIfPresent(service.getId()) == null) {
             configurationContext.getServicesCache().put(service.getId(), service);
+            invalidateServiceIndexes();
         }
     }
 
+    /**
+     * Gets the service from the cache, or loads it into the cache. Services loaded here may replace entries
+     * that expired from the cache without changing its size, so service indexes are invalidated once a service is loaded.
+     *
+     * @param id     the id
+     * @param loader the loader
+     * @return the registered service
+     */
+    private RegisteredService getOrLoadRegisteredService(final long id, final Supplier<RegisteredService> loader) {
+        val loaded = new AtomicBoolean();
+        val service = configurationContext.getServicesCache().get(id, k -> {
+            val result = loader.get();
+            loaded.set(result != null);
+            return result;
+        });
+        if (loaded.get()) {
+            invalidateServiceIndexes();
+        }
+        return service;
+    }
+
     private void evaluateExpiredServiceDefinitions() {
         getCacheableServicesStream()
             .get()
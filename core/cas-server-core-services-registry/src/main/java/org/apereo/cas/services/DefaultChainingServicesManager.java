@@ -134,6 +134,16 @@ public class DefaultChainingServicesManager implements ChainingServicesManager {
         return manager.map(servicesManager -> servicesManager.findServiceBy(id, clazz)).orElse(null);
     }
 
+    @Override
+    public <T extends RegisteredService> T findServiceBy(final RegisteredServiceIndexedKey<T> indexedKey, final String key) {
+        return serviceManagers.stream()
+            .filter(s -> s.supports(indexedKey.getType()))
+            .map(s -> s.findServiceBy(indexedKey, key))
+            .filter(Objects::nonNull)
+            .findFirst()
+            .orElse(null);
+    }
+
     @Override
     public RegisteredService findServiceByName(final String name) {
         return serviceManagers.stream()
@@ -1,17 +1,25 @@
 package org.apereo.cas.services;
 
+import lombok.val;
+
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.stream.Collectors;
 
 /**
  * Default implementation of the {@link ServicesManager} interface.
+ * Candidate services are narrowed down using a {@link RegisteredServicesMatchIndex}
+ * that is rebuilt whenever the generation or the size of the services cache changes.
  *
  * @author Scott Battaglia
  * @since 3.1
  */
 public class DefaultServicesManager extends AbstractServicesManager {
 
+    private final Object matchIndexLock = new Object();
+
+    private volatile RegisteredServicesMatchIndex matchIndex;
+
     public DefaultServicesManager(final ServicesManagerConfigurationContext context) {
         super(context);
     }
@@ -25,8 +33,31 @@ public class DefaultServicesManager extends AbstractServicesManager {
 
     @Override
     protected Collection<RegisteredService> getCandidateServicesToMatch(final String serviceId) {
-        return getCacheableServicesStream().get()
-            .sorted(Comparator.naturalOrder())
-            .collect(Collectors.toList());
+        val size = configurationContext.getServicesCache().estimatedSize();
+        if (size <= 0) {
+            return getCacheableServicesStream().get()
+                .sorted(Comparator.naturalOrder())
+                .collect(Collectors.toList());
+        }
+        return getMatchIndex(size).getCandidates(serviceId);
+    }
+
+    private RegisteredServicesMatchIndex getMatchIndex(final long size) {
+        val generation = getServicesCacheGeneration();
+        var index = matchIndex;
+        if (index == null || index.getSourceSize() != size || index.getGeneration() != generation) {
+            synchronized (matchIndexLock) {
+                index = matchIndex;
+                if (index == null || index.getSourceSize() != size || index.getGeneration() != generation) {
+                    val services = configurationContext.getServicesCache().asMap().values()
+                        .stream()
+                        .sorted(Comparator.naturalOrder())
+                        .collect(Collectors.toList());
+                    index = new RegisteredServicesMatchIndex(services, size, generation);
+                    matchIndex = index;
+                }
+            }
+        }
+        return index;
     }
 }
@@ -0,0 +1,78 @@
+package org.apereo.cas.services;
+
+import lombok.Getter;
+import lombok.val;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This is {@link RegisteredServicesKeyIndex}.
+ * An immutable snapshot of registered services, sorted by their natural order,
+ * keyed by a {@link RegisteredServiceIndexedKey} such as a client id.
+ * Keys are normalized to lower case so lookups ignore case; when more than one registered service
+ * carries the same key, the first one in the sorted collection wins, which is identical
+ * to the result of a linear scan over all definitions.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+public class RegisteredServicesKeyIndex {
+    private final Map<String, RegisteredService> services;
+
+    /**
+     * The number of entries in the source cache when this index was built.
+     */
+    @Getter
+    private final long sourceSize;
+
+    /**
+     * The generation of the services cache when this index was built;
+     * the generation changes whenever services are saved, deleted or loaded.
+     */
+    @Getter
+    private final long generation;
+
+    public <T extends RegisteredService> RegisteredServicesKeyIndex(final Collection<RegisteredService> sortedServices,
+                                                                    final RegisteredServiceIndexedKey<T> indexedKey,
+                                                                    final long sourceSize,
+                                                                    final long generation) {
+        this.sourceSize = sourceSize;
+        this.generation = generation;
+        this.services = new HashMap<>(sortedServices.size());
+        sortedServices
+            .stream()
+            .filter(registeredService -> indexedKey.getType().isInstance(registeredService))
+            .forEach(registeredService -> {
+                val key = indexedKey.getKey(indexedKey.getType().cast(registeredService));
+                if (key != null) {
+                    services.putIfAbsent(normalize(key), registeredService);
+                }
+            });
+    }
+
+    private static String normalize(final String key) {
+        return key.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets the registered service indexed by the key.
+     *
+     * @param key the key
+     * @return the registered service, or null
+     */
+    public RegisteredService get(final String key) {
+        return services.get(normalize(key));
+    }
+
+    /**
+     * Number of indexed registered services.
+     *
+     * @return the size
+     */
+    public int size() {
+        return services.size();
+    }
+}
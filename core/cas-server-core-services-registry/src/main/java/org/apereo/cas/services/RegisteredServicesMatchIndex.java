@@ -0,0 +1,366 @@
+package org.apereo.cas.services;
+
+import lombok.Getter;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This is {@link RegisteredServicesMatchIndex}.
+ * An immutable snapshot of registered services, sorted by their natural order,
+ * that narrows down the candidates that could possibly match a given service id.
+ * CAS service definitions whose service id is a literal value or a regular expression
+ * with a literal prefix are indexed in a prefix trie; definitions whose pattern
+ * starts with a {@code http}/{@code https} scheme alternation are indexed in a trie
+ * keyed by the literal portion of the host. Patterns with top-level alternatives are
+ * indexed under each alternative, as long as all of them can be indexed. Everything else, including definitions
+ * of other types and custom matching strategies, is always returned as a candidate.
+ * Candidates are always returned in the same order as the original sorted collection
+ * such that the first match remains identical to a linear scan over all definitions.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+public class RegisteredServicesMatchIndex {
+    private static final String[] HTTP_SCHEME_PATTERNS = {
+        "https?", "(https?)", "(https|http)", "(http|https)", "http(s)?", "http[s]?"
+    };
+
+    private static final String[] HTTP_SCHEMES = {"http://", "https://"};
+
+    private static final String REGEX_METACHARACTERS = "[](){}.*+?|^$";
+
+    private final RegisteredService[] services;
+
+    private final TrieNode prefixes = new TrieNode();
+
+    private final TrieNode hosts = new TrieNode();
+
+    private final int[] residuals;
+
+    /**
+     * The number of entries in the source cache when this index was built.
+     */
+    @Getter
+    private final long sourceSize;
+
+    /**
+     * The generation of the services cache when this index was built;
+     * the generation changes whenever services are saved, deleted or loaded.
+     */
+    @Getter
+    private final long generation;
+
+    public RegisteredServicesMatchIndex(final Collection<RegisteredService> sortedServices,
+                                        final long sourceSize,
+                                        final long generation) {
+        this.services = sortedServices.toArray(RegisteredService[]::new);
+        this.sourceSize = sourceSize;
+        this.generation = generation;
+        val residualRanks = new ArrayList<Integer>();
+        for (var rank = 0; rank < services.length; rank++) {
+            val registeredService = services[rank];
+            if (!index(registeredService, rank)) {
+                residualRanks.add(rank);
+            }
+        }
+        this.residuals = residualRanks.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Gets candidate services, in their original order, that might match the given service id.
+     *
+     * @param serviceId the service id
+     * @return the candidates
+     */
+    public List<RegisteredService> getCandidates(final String serviceId) {
+        if (StringUtils.isBlank(serviceId)) {
+            return toServices(residuals);
+        }
+        val folded = fold(serviceId);
+        val hits = new RankCollector();
+        prefixes.collect(folded, 0, hits);
+        for (val scheme : HTTP_SCHEMES) {
+            if (folded.startsWith(scheme)) {
+                hosts.collect(folded, scheme.length(), hits);
+            }
+        }
+        if (hits.size == 0) {
+            return toServices(residuals);
+        }
+        val indexed = Arrays.stream(hits.ranks, 0, hits.size).sorted().distinct().toArray();
+        val results = new ArrayList<RegisteredService>(indexed.length + residuals.length);
+        var i = 0;
+        var j = 0;
+        while (i < indexed.length || j < residuals.length) {
+            if (j >= residuals.length || i < indexed.length && indexed[i] < residuals[j]) {
+                results.add(services[indexed[i++]]);
+            } else {
+                results.add(services[residuals[j++]]);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Number of indexed service definitions.
+     *
+     * @return the size
+     */
+    public int size() {
+        return services.length;
+    }
+
+    /**
+     * Number of service definitions that could not be indexed
+     * and are always evaluated.
+     *
+     * @return the count
+     */
+    public int getResidualCount() {
+        return residuals.length;
+    }
+
+    /**
+     * Determine whether the registered service would be handled by
+     * {@link DefaultServicesManagerRegisteredServiceLocator}, the only locator
+     * that matches definitions directly against the requested service id.
+     *
+     * @param registeredService the registered service
+     * @return true/false
+     */
+    private static boolean isCasRegisteredService(final RegisteredService registeredService) {
+        return (registeredService instanceof CasRegisteredService || registeredService instanceof RegexRegisteredService)
+               && CasRegisteredService.FRIENDLY_NAME.equalsIgnoreCase(registeredService.getFriendlyName());
+    }
+
+    /**
+     * Fold characters in a way that two characters considered equal
+     * by either a case-insensitive regular expression or {@link String#equalsIgnoreCase(String)}
+     * end up with the same folded value.
+     *
+     * @param value the value
+     * @return the folded value
+     */
+    private static String fold(final String value) {
+        val chars = value.toCharArray();
+        for (var i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Get the literal prefix of the given regular expression, starting at the given position.
+     * Every string matched by the expression must begin with the returned prefix. The
+     * prefix stops at the first non-ASCII character to stay safe with case-insensitive matching.
+     *
+     * @param regex the regex
+     * @param start the start
+     * @return the literal prefix, or an empty string
+     */
+    static String getLiteralPrefix(final String regex, final int start) {
+        if (getAlternatives(regex).size() != 1) {
+            return StringUtils.EMPTY;
+        }
+        val prefix = new StringBuilder();
+        var i = start;
+        while (i < regex.length()) {
+            val c = regex.charAt(i);
+            String literal;
+            int next;
+            if (c == '\\') {
+                if (i + 1 >= regex.length()) {
+                    break;
+                }
+                val escaped = regex.charAt(i + 1);
+                if (escaped == 'Q') {
+                    val end = regex.indexOf("\\E", i + 2);
+                    literal = end < 0 ? regex.substring(i + 2) : regex.substring(i + 2, end);
+                    next = end < 0 ? regex.length() : end + 2;
+                } else if (Character.isLetterOrDigit(escaped)) {
+                    break;
+                } else {
+                    literal = String.valueOf(escaped);
+                    next = i + 2;
+                }
+            } else if (REGEX_METACHARACTERS.indexOf(c) >= 0) {
+                break;
+            } else {
+                literal = String.valueOf(c);
+                next = i + 1;
+            }
+            if (next < regex.length()) {
+                val quantifier = regex.charAt(next);
+                if (quantifier == '?' || quantifier == '*' || quantifier == '{') {
+                    prefix.append(literal, 0, Math.max(0, literal.length() - 1));
+                    break;
+                }
+                if (quantifier == '+') {
+                    prefix.append(literal);
+                    break;
+                }
+            }
+            prefix.append(literal);
+            i = next;
+        }
+        return foldAsciiPrefix(prefix.toString());
+    }
+
+    private static String foldAsciiPrefix(final String value) {
+        var length = 0;
+        while (length < value.length() && value.charAt(length) < 128) {
+            length++;
+        }
+        return fold(value.substring(0, length));
+    }
+
+    /**
+     * Split the expression into its top-level alternatives, ignoring any alternation
+     * inside groups or character classes. Expressions that cannot be reliably scanned
+     * produce no alternatives at all.
+     *
+     * @param regex the regex
+     * @return the alternatives
+     */
+    static List<String> getAlternatives(final String regex) {
+        val alternatives = new ArrayList<String>();
+        var groups = 0;
+        var classes = 0;
+        var from = 0;
+        var i = 0;
+        while (i < regex.length()) {
+            val c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == 'Q') {
+                    val end = regex.indexOf("\\E", i + 2);
+                    i = end < 0 ? regex.length() : end + 2;
+                } else {
+                    i += 2;
+                }
+                continue;
+            }
+            if (c == '[') {
+                classes++;
+            } else if (c == ']' && classes > 0) {
+                classes--;
+            } else if (classes == 0) {
+                if (c == '(') {
+                    groups++;
+                } else if (c == ')') {
+                    groups--;
+                    if (groups < 0) {
+                        return new ArrayList<>(0);
+                    }
+                } else if (c == '|' && groups == 0) {
+                    alternatives.add(regex.substring(from, i));
+                    from = i + 1;
+                }
+            }
+            i++;
+        }
+        if (groups != 0 || classes != 0) {
+            return new ArrayList<>(0);
+        }
+        alternatives.add(regex.substring(Math.min(from, regex.length())));
+        return alternatives;
+    }
+
+    private boolean index(final RegisteredService registeredService, final int rank) {
+        if (!isCasRegisteredService(registeredService) || StringUtils.isBlank(registeredService.getServiceId())) {
+            return false;
+        }
+        val serviceId = registeredService.getServiceId();
+        val strategy = registeredService.getMatchingStrategy();
+        if (strategy instanceof LiteralRegisteredServiceMatchingStrategy) {
+            return prefixes.add(foldAsciiPrefix(serviceId.trim()), rank);
+        }
+        val fullMatch = strategy == null || strategy.getClass().equals(FullRegexRegisteredServiceMatchingStrategy.class);
+        if (!fullMatch && !strategy.getClass().equals(PartialRegexRegisteredServiceMatchingStrategy.class)) {
+            return false;
+        }
+        val alternatives = getAlternatives(serviceId);
+        val hostKeys = new ArrayList<String>(alternatives.size());
+        val prefixKeys = new ArrayList<String>(alternatives.size());
+        for (val alternative : alternatives) {
+            val anchored = alternative.startsWith("^");
+            if (!anchored && !fullMatch) {
+                return false;
+            }
+            val start = anchored ? 1 : 0;
+            val scheme = Arrays.stream(HTTP_SCHEME_PATTERNS)
+                .filter(pattern -> alternative.startsWith(pattern + "://", start))
+                .findFirst();
+            val key = scheme
+                .map(pattern -> getLiteralPrefix(alternative, start + pattern.length() + "://".length()))
+                .orElseGet(() -> getLiteralPrefix(alternative, start));
+            if (key.isEmpty()) {
+                return false;
+            }
+            (scheme.isPresent() ? hostKeys : prefixKeys).add(key);
+        }
+        hostKeys.forEach(key -> hosts.add(key, rank));
+        prefixKeys.forEach(key -> prefixes.add(key, rank));
+        return !alternatives.isEmpty();
+    }
+
+    private List<RegisteredService> toServices(final int[] ranks) {
+        val results = new ArrayList<RegisteredService>(ranks.length);
+        for (val rank : ranks) {
+            results.add(services[rank]);
+        }
+        return results;
+    }
+
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+
+        private int[] ranks = new int[0];
+
+        boolean add(final String key, final int rank) {
+            if (key.isEmpty()) {
+                return false;
+            }
+            var node = this;
+            for (var i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), k -> new TrieNode());
+            }
+            node.ranks = Arrays.copyOf(node.ranks, node.ranks.length + 1);
+            node.ranks[node.ranks.length - 1] = rank;
+            return true;
+        }
+
+        void collect(final String value, final int start, final RankCollector collector) {
+            var node = this;
+            for (var i = start; i < value.length() && node != null; i++) {
+                node = node.children.get(value.charAt(i));
+                if (node != null) {
+                    collector.addAll(node.ranks);
+                }
+            }
+        }
+    }
+
+    private static final class RankCollector {
+        private int[] ranks = new int[16];
+
+        private int size;
+
+        void addAll(final int[] values) {
+            if (values.length == 0) {
+                return;
+            }
+            if (size + values.length > ranks.length) {
+                ranks = Arrays.copyOf(ranks, Math.max(ranks.length * 2, size + values.length));
+            }
+            System.arraycopy(values, 0, ranks, size, values.length);
+            size += values.length;
+        }
+    }
+}
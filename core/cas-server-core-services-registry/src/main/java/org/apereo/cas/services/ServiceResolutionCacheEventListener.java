@@ -0,0 +1,61 @@
+package org.apereo.cas.services;
+
+import org.apereo.cas.support.events.service.CasRegisteredServiceDeletedEvent;
+import org.apereo.cas.support.events.service.CasRegisteredServiceSavedEvent;
+import org.apereo.cas.support.events.service.CasRegisteredServicesLoadedEvent;
+import org.apereo.cas.util.spring.CasEventListener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+
+/**
+ * This is {@link ServiceResolutionCacheEventListener}.
+ * Clears the service resolution cache when service definitions change,
+ * including changes reported by service registries outside the services manager.
+ * The cache is invalidated through the services manager configuration context, which also advances
+ * the cache generation so that resolutions in progress are not cached with stale results.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ServiceResolutionCacheEventListener implements CasEventListener {
+    private final ServicesManagerConfigurationContext configurationContext;
+
+    /**
+     * Handle registered service saved event.
+     *
+     * @param event the event
+     */
+    @EventListener
+    public void handleRegisteredServiceSavedEvent(final CasRegisteredServiceSavedEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Handle registered service deleted event.
+     *
+     * @param event the event
+     */
+    @EventListener
+    public void handleRegisteredServiceDeletedEvent(final CasRegisteredServiceDeletedEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Handle registered services loaded event.
+     *
+     * @param event the event
+     */
+    @EventListener
+    public void handleRegisteredServicesLoadedEvent(final CasRegisteredServicesLoadedEvent event) {
+        invalidate();
+    }
+
+    private void invalidate() {
+        LOGGER.trace("Invalidating the service resolution cache");
+        configurationContext.invalidateServiceResolutionCache();
+    }
+}
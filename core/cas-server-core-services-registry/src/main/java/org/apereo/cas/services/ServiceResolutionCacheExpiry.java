@@ -0,0 +1,40 @@
+package org.apereo.cas.services;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * This is {@link ServiceResolutionCacheExpiry}.
+ * Expires entries of the service resolution cache after a fixed duration since their creation or update,
+ * using a separate, typically much shorter, duration for requested services that had no matching registered service.
+ * Services added on other nodes or directly in the service registry are then found soon after,
+ * even though no local event invalidates the cache.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@RequiredArgsConstructor
+public class ServiceResolutionCacheExpiry implements Expiry<String, Long> {
+    private final Duration resolvedDuration;
+
+    private final Duration unresolvedDuration;
+
+    @Override
+    public long expireAfterCreate(final String key, final Long value, final long currentTime) {
+        return value == AbstractServicesManager.UNRESOLVED_SERVICE_ID
+            ? unresolvedDuration.toNanos()
+            : resolvedDuration.toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(final String key, final Long value, final long currentTime, final long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(final String key, final Long value, final long currentTime, final long currentDuration) {
+        return currentDuration;
+    }
+}
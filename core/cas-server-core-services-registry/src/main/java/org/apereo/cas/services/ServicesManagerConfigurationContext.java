@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This is {@link ServicesManagerConfigurationContext}.
@@ -29,6 +30,41 @@ public class ServicesManagerConfigurationContext {
 
     private final Cache<Long, RegisteredService> servicesCache;
 
+    /**
+     * Resolution cache that maps a requested service to the identifier
+     * of the registered service it resolved to, if any. May be null.
+     */
+    private final Cache<String, Long> serviceResolutionCache;
+
+    /**
+     * Names of the requested service attributes that are part of the resolution cache key.
+     */
+    @Builder.Default
+    private final Set<String> serviceResolutionAttributes = new HashSet<>();
+
+    /**
+     * Generation of the service resolution cache, advanced whenever the cache is invalidated,
+     * so that resolutions that started before an invalidation are not cached after it.
+     */
+    @Builder.Default
+    private final AtomicLong serviceResolutionGeneration = new AtomicLong();
+
     @Builder.Default
     private final List<ServicesManagerRegisteredServiceLocator> registeredServiceLocators = new ArrayList<>();
+
+    /**
+     * Whether loading services should only re-cache
+     * definitions that have changed since the last load.
+     */
+    private final boolean incrementalLoad;
+
+    /**
+     * Invalidate the service resolution cache, if any, and advance its generation.
+     */
+    public void invalidateServiceResolutionCache() {
+        if (serviceResolutionCache != null) {
+            serviceResolutionGeneration.incrementAndGet();
+            serviceResolutionCache.invalidateAll();
+        }
+    }
 }
@@ -6,10 +6,12 @@ import org.apereo.cas.services.ResourceBasedServiceRegistry;
 import org.apereo.cas.services.ServiceRegistryListener;
 import org.apereo.cas.services.replication.NoOpRegisteredServiceReplicationStrategy;
 import org.apereo.cas.services.replication.RegisteredServiceReplicationStrategy;
+import org.apereo.cas.services.util.RegisteredServiceJsonSerializer;
 import org.apereo.cas.support.events.service.CasRegisteredServiceDeletedEvent;
 import org.apereo.cas.support.events.service.CasRegisteredServiceLoadedEvent;
 import org.apereo.cas.support.events.service.CasRegisteredServicePreDeleteEvent;
 import org.apereo.cas.util.CollectionUtils;
+import org.apereo.cas.util.DigestUtils;
 import org.apereo.cas.util.LoggingUtils;
 import org.apereo.cas.util.RegexUtils;
 import org.apereo.cas.util.ResourceUtils;
@@ -18,31 +20,52 @@ import org.apereo.cas.util.io.PathWatcherService;
 import org.apereo.cas.util.io.WatcherService;
 import org.apereo.cas.util.serialization.StringSerializer;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.commons.lang3.time.StopWatch;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.io.Resource;
 import org.springframework.util.Assert;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -58,6 +81,11 @@ import java.util.stream.Stream;
 @ToString
 public abstract class AbstractResourceBasedServiceRegistry extends AbstractServiceRegistry
     implements ResourceBasedServiceRegistry, DisposableBean {
+    /**
+     * Format version of service registry snapshots, written as the first bytes of the snapshot.
+     */
+    private static final int SNAPSHOT_VERSION = 0x43415303;
+
     /**
      * The Service registry directory.
      */
@@ -78,6 +106,39 @@ public abstract class AbstractResourceBasedServiceRegistry extends AbstractServi
     @Setter
     private WatcherService serviceRegistryWatcherService;
 
+    /**
+     * Whether files that have not changed since the last load should be
+     * skipped, reusing the service definitions previously loaded from them.
+     */
+    @Setter
+    private boolean incrementalLoad;
+
+    /**
+     * Number of threads used to parse service definition files.
+     */
+    @Setter
+    private int loadParallelism = 1;
+
+    /**
+     * Directory where a snapshot of loaded service definitions is written on shutdown
+     * and restored from on the next startup; snapshots are disabled if undefined.
+     * Unless loads are incremental, definitions are built from the files when the snapshot is written.
+     */
+    @Setter
+    private File snapshotDirectory;
+
+    @ToString.Exclude
+    @Setter
+    private MeterRegistry meterRegistry;
+
+    @ToString.Exclude
+    private final Map<String, LoadedResource> loadedResources = new ConcurrentHashMap<>();
+
+    private boolean snapshotRestoreAttempted;
+
+    @ToString.Exclude
+    private ObjectMapper snapshotObjectMapper;
+
     private RegisteredServiceReplicationStrategy registeredServiceReplicationStrategy;
 
     private RegisteredServiceResourceNamingStrategy resourceNamingStrategy;
@@ -220,14 +281,31 @@ public abstract class AbstractResourceBasedServiceRegistry extends AbstractServi
     @Override
     public synchronized Collection<RegisteredService> load() {
         LOGGER.trace("Loading files from [{}]", this.serviceRegistryDirectory);
-        val files = FileUtils.listFiles(this.serviceRegistryDirectory.toFile(), getExtensions(), true);
+        val stopwatch = StopWatch.createStarted();
+        val files = new ArrayList<>(FileUtils.listFiles(this.serviceRegistryDirectory.toFile(), getExtensions(), true));
         LOGGER.trace("Located [{}] files from [{}] are [{}]", getExtensions(), this.serviceRegistryDirectory, files);
+        val listingTime = stopwatch.getTime();
+
+        if (snapshotDirectory != null && snapshotObjectMapper == null) {
+            snapshotObjectMapper = new RegisteredServiceJsonSerializer(getApplicationContext()).getObjectMapper();
+        }
+        val restored = restoreSnapshotIfNecessary();
+        val snapshotTime = stopwatch.getTime() - listingTime;
+
+        val trackResources = incrementalLoad || snapshotDirectory != null;
+        if (trackResources) {
+            val paths = files.stream().map(File::getAbsolutePath).collect(Collectors.toSet());
+            loadedResources.keySet().retainAll(paths);
+        } else {
+            loadedResources.clear();
+        }
+        val reuseResources = incrementalLoad || restored;
+        val parsedServices = Collections.synchronizedSet(Collections.<RegisteredService>newSetFromMap(new IdentityHashMap<>()));
+        val loadedServices = loadFiles(files, file -> trackResources ? loadIfModified(file, parsedServices, reuseResources) : load(file));
+        val parsingTime = stopwatch.getTime() - listingTime - snapshotTime;
 
-        this.services = files
+        this.services = loadedServices
             .stream()
-            .map(this::load)
-            .filter(Objects::nonNull)
-            .flatMap(Collection::stream)
             .sorted()
             .collect(Collectors.toMap(RegisteredService::getId, Function.identity(),
                 (s1, s2) -> {
@@ -236,12 +314,56 @@ public abstract class AbstractResourceBasedServiceRegistry extends AbstractServi
                 }, LinkedHashMap::new));
         val listedServices = new ArrayList<>(this.services.values());
         val results = this.registeredServiceReplicationStrategy.updateLoadedRegisteredServicesFromCache(listedServices, this);
-        results.forEach(service -> publishEvent(new CasRegisteredServiceLoadedEvent(this, service)));
+        results
+            .stream()
+            .filter(service -> !incrementalLoad || restored || parsedServices.contains(service))
+            .forEach(service -> publishEvent(new CasRegisteredServiceLoadedEvent(this, service)));
+        stopwatch.stop();
+
+        LOGGER.debug("Loaded [{}] service definition(s) from [{}] file(s) in [{}] ms; listing files: [{}] ms, "
+                     + "restoring snapshot: [{}] ms, parsing [{}] file(s): [{}] ms",
+            results.size(), files.size(), stopwatch.getTime(), listingTime, snapshotTime,
+            trackResources ? parsedServices.size() : files.size(), parsingTime);
+        recordLoadTime("listing", listingTime);
+        recordLoadTime("snapshot", snapshotTime);
+        recordLoadTime("parsing", parsingTime);
+        recordLoadTime("total", stopwatch.getTime());
         return results;
     }
 
     @Override
     public Collection<RegisteredService> load(final File file) {
+        return invokeServiceRegistryListenersPostLoad(parse(file));
+    }
+
+    @Override
+    public Stream<? extends RegisteredService> getServicesStream() {
+        return this.services.values().stream();
+    }
+
+    @Override
+    public RegisteredService findServiceById(final long id) {
+        val service = this.services.get(id);
+        return this.registeredServiceReplicationStrategy.getRegisteredServiceFromCacheIfAny(service, id, this);
+    }
+
+    @Override
+    public long size() {
+        return this.services.size();
+    }
+
+    @Override
+    public void update(final RegisteredService service) {
+        this.services.put(service.getId(), service);
+    }
+
+    @Override
+    public void destroy() {
+        this.serviceRegistryWatcherService.close();
+        writeSnapshot();
+    }
+
+    private Collection<RegisteredService> parse(final File file) {
         val fileName = file.getName();
         if (!file.canRead()) {
             LOGGER.warn("[{}] is not readable. Check file permissions", fileName);
@@ -280,8 +402,6 @@ public abstract class AbstractResourceBasedServiceRegistry extends AbstractServi
                 .map(s -> s.load(in))
                 .filter(Objects::nonNull)
                 .flatMap(Collection::stream)
-                .map(this::invokeServiceRegistryListenerPostLoad)
-                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
         } catch (final Exception e) {
             LOGGER.error("Error reading configuration file [{}]", fileName);
@@ -290,30 +410,227 @@ public abstract class AbstractResourceBasedServiceRegistry extends AbstractServi
         return new ArrayList<>(0);
     }
 
-    @Override
-    public Stream<? extends RegisteredService> getServicesStream() {
-        return this.services.values().stream();
+    private Collection<RegisteredService> invokeServiceRegistryListenersPostLoad(final Collection<RegisteredService> parsed) {
+        return parsed
+            .stream()
+            .map(this::invokeServiceRegistryListenerPostLoad)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
     }
 
-    @Override
-    public RegisteredService findServiceById(final long id) {
-        val service = this.services.get(id);
-        return this.registeredServiceReplicationStrategy.getRegisteredServiceFromCacheIfAny(service, id, this);
+    private Collection<RegisteredService> loadFiles(final List<File> files,
+                                                    final Function<File, Collection<RegisteredService>> loader) {
+        if (loadParallelism <= 1 || files.size() <= 1) {
+            return files
+                .stream()
+                .map(loader)
+                .filter(Objects::nonNull)
+                .flatMap(Collection::stream)
+                .collect(Collectors.toList());
+        }
+        val classLoader = Thread.currentThread().getContextClassLoader();
+        val pool = new ForkJoinPool(loadParallelism, forkJoinPool -> {
+            val thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        }, null, false);
+        try {
+            return FunctionUtils.doUnchecked(() -> pool.submit(() -> files
+                .parallelStream()
+                .map(loader)
+                .filter(Objects::nonNull)
+                .flatMap(Collection::stream)
+                .collect(Collectors.toList())).get());
+        } finally {
+            pool.shutdown();
+        }
     }
 
-    @Override
-    public long size() {
-        return this.services.size();
+    private Collection<RegisteredService> loadIfModified(final File file, final Set<RegisteredService> parsedServices,
+                                                         final boolean reuseResources) {
+        return FunctionUtils.doUnchecked(() -> {
+            val key = file.getAbsolutePath();
+            val lastModified = file.lastModified();
+            val length = file.length();
+            if (!reuseResources) {
+                val loaded = load(file);
+                parsedServices.addAll(loaded);
+                loadedResources.put(key, new LoadedResource(lastModified, length, null, null, null));
+                return loaded;
+            }
+            val previous = loadedResources.get(key);
+            if (previous != null && previous.getServices() != null
+                && previous.getLastModified() == lastModified && previous.getLength() == length) {
+                LOGGER.trace("[{}] has not been modified since it was last loaded", key);
+                return previous.getServices();
+            }
+            val digest = DigestUtils.digest(MessageDigestAlgorithms.SHA_256, Files.readAllBytes(file.toPath()));
+            if (previous != null && digest.equals(previous.getDigest())) {
+                LOGGER.trace("[{}] has not changed since it was last loaded or restored from the snapshot", key);
+                val services = previous.getServices() != null
+                    ? previous.getServices()
+                    : invokeServiceRegistryListenersPostLoad(readDefinitions(previous.getDefinitions()));
+                loadedResources.put(key, new LoadedResource(lastModified, length, digest, previous.getDefinitions(), services));
+                return services;
+            }
+            LOGGER.debug("[{}] has changed since it was last loaded", key);
+            val parsed = parse(file);
+            val definitions = writeDefinitions(parsed);
+            val loaded = invokeServiceRegistryListenersPostLoad(parsed);
+            parsedServices.addAll(loaded);
+            loadedResources.put(key, new LoadedResource(lastModified, length, digest, definitions, new ArrayList<>(loaded)));
+            return loaded;
+        });
     }
 
-    @Override
-    public void update(final RegisteredService service) {
-        this.services.put(service.getId(), service);
+    private List<byte[]> writeDefinitions(final Collection<RegisteredService> parsed) throws IOException {
+        if (snapshotObjectMapper == null) {
+            return List.of();
+        }
+        val definitions = new ArrayList<byte[]>(parsed.size());
+        for (val service : parsed) {
+            definitions.add(snapshotObjectMapper.writeValueAsBytes(service));
+        }
+        return definitions;
     }
 
-    @Override
-    public void destroy() {
-        this.serviceRegistryWatcherService.close();
+    private List<RegisteredService> readDefinitions(final List<byte[]> definitions) throws IOException {
+        val parsed = new ArrayList<RegisteredService>(definitions.size());
+        for (val definition : definitions) {
+            parsed.add(snapshotObjectMapper.readValue(definition, RegisteredService.class));
+        }
+        return parsed;
+    }
+
+    private LoadedResource getSnapshotResource(final String key, final LoadedResource resource) throws IOException {
+        if (resource.getDefinitions() != null) {
+            return resource;
+        }
+        val file = new File(key);
+        if (!file.exists()) {
+            return null;
+        }
+        val lastModified = file.lastModified();
+        val length = file.length();
+        val digest = DigestUtils.digest(MessageDigestAlgorithms.SHA_256, Files.readAllBytes(file.toPath()));
+        return new LoadedResource(lastModified, length, digest, writeDefinitions(parse(file)), null);
+    }
+
+    private File getSnapshotFile() {
+        val name = getClass().getSimpleName() + '-' + DigestUtils.sha256(serviceRegistryDirectory.toString()) + ".snapshot";
+        return new File(snapshotDirectory, name);
+    }
+
+    private boolean restoreSnapshotIfNecessary() {
+        if (snapshotDirectory == null || snapshotRestoreAttempted) {
+            return false;
+        }
+        snapshotRestoreAttempted = true;
+        val snapshotFile = getSnapshotFile();
+        if (!snapshotFile.exists()) {
+            LOGGER.debug("No service registry snapshot is found at [{}]", snapshotFile);
+            return false;
+        }
+        try (val digestStream = new DigestInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile.toPath())),
+            MessageDigest.getInstance(MessageDigestAlgorithms.SHA_256));
+             val in = new DataInputStream(digestStream)) {
+            if (in.readInt() != SNAPSHOT_VERSION) {
+                LOGGER.warn("Service registry snapshot at [{}] has an unsupported format and is ignored", snapshotFile);
+                return false;
+            }
+            val directory = in.readUTF();
+            if (!directory.equals(serviceRegistryDirectory.toString())) {
+                LOGGER.warn("Service registry snapshot at [{}] belongs to [{}] and is ignored", snapshotFile, directory);
+                return false;
+            }
+            val resources = new HashMap<String, LoadedResource>();
+            val resourceCount = in.readInt();
+            for (var i = 0; i < resourceCount; i++) {
+                val key = in.readUTF();
+                val lastModified = in.readLong();
+                val length = in.readLong();
+                val digest = in.readUTF();
+                val definitionCount = in.readInt();
+                val definitions = new ArrayList<byte[]>(definitionCount);
+                for (var j = 0; j < definitionCount; j++) {
+                    val content = new byte[in.readInt()];
+                    in.readFully(content);
+                    definitions.add(content);
+                }
+                resources.put(key, new LoadedResource(lastModified, length, digest, definitions, null));
+            }
+            val actualDigest = digestStream.getMessageDigest().digest();
+            digestStream.on(false);
+            val expectedDigest = new byte[actualDigest.length];
+            in.readFully(expectedDigest);
+            if (!MessageDigest.isEqual(expectedDigest, actualDigest)) {
+                LOGGER.warn("Service registry snapshot at [{}] does not match its digest and is ignored", snapshotFile);
+                return false;
+            }
+            loadedResources.putAll(resources);
+            LOGGER.info("Restored service registry snapshot for [{}] file(s) from [{}]", resources.size(), snapshotFile);
+            return true;
+        } catch (final Exception e) {
+            LOGGER.warn("Unable to restore service registry snapshot from [{}]; service definitions will be parsed again", snapshotFile);
+            LoggingUtils.warn(LOGGER, e);
+        }
+        return false;
+    }
+
+    private synchronized void writeSnapshot() {
+        if (snapshotDirectory == null || loadedResources.isEmpty()) {
+            return;
+        }
+        val snapshotFile = getSnapshotFile();
+        try {
+            FileUtils.forceMkdir(snapshotDirectory);
+            val resources = new HashMap<String, LoadedResource>();
+            for (val entry : loadedResources.entrySet()) {
+                val resource = getSnapshotResource(entry.getKey(), entry.getValue());
+                if (resource != null) {
+                    resources.put(entry.getKey(), resource);
+                }
+            }
+            val temporaryFile = new File(snapshotDirectory, snapshotFile.getName() + ".tmp");
+            try (val digestStream = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile.toPath())),
+                MessageDigest.getInstance(MessageDigestAlgorithms.SHA_256));
+                 val out = new DataOutputStream(digestStream)) {
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeUTF(serviceRegistryDirectory.toString());
+                out.writeInt(resources.size());
+                for (val entry : resources.entrySet()) {
+                    val resource = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(resource.getLastModified());
+                    out.writeLong(resource.getLength());
+                    out.writeUTF(resource.getDigest());
+                    out.writeInt(resource.getDefinitions().size());
+                    for (val content : resource.getDefinitions()) {
+                        out.writeInt(content.length);
+                        out.write(content);
+                    }
+                }
+                out.flush();
+                digestStream.on(false);
+                out.write(digestStream.getMessageDigest().digest());
+            }
+            Files.move(temporaryFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.info("Wrote service registry snapshot for [{}] file(s) to [{}]", resources.size(), snapshotFile);
+        } catch (final Exception e) {
+            LOGGER.warn("Unable to write service registry snapshot to [{}]", snapshotFile);
+            LoggingUtils.warn(LOGGER, e);
+        }
+    }
+
+    private void recordLoadTime(final String phase, final long duration) {
+        if (meterRegistry != null) {
+            Timer.builder("cas.service.registry.load")
+                .description("Duration of each phase of loading service definitions from the service registry")
+                .tag("registry", getName())
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .record(duration, TimeUnit.MILLISECONDS);
+        }
     }
 
     private void initializeRegistry(final Path configDirectory,
@@ -402,4 +719,26 @@ public abstract class AbstractResourceBasedServiceRegistry extends AbstractServi
      */
     protected abstract String[] getExtensions();
 
+    @Getter
+    @RequiredArgsConstructor
+    private static class LoadedResource {
+        private final long lastModified;
+
+        private final long length;
+
+        private final String digest;
+
+        /**
+         * Service definitions as parsed from the file, before service registry listeners are invoked,
+         * written to and restored from the snapshot, or null if they are to be built when the snapshot is written.
+         */
+        private final List<byte[]> definitions;
+
+        /**
+         * Services after service registry listeners are invoked,
+         * or null if restored from the snapshot and not yet verified against the file.
+         */
+        private final Collection<RegisteredService> services;
+    }
+
 }
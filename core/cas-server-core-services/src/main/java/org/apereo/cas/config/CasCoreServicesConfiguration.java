@@ -32,6 +32,8 @@ import org.apereo.cas.services.ServiceRegistry;
 import org.apereo.cas.services.ServiceRegistryExecutionPlan;
 import org.apereo.cas.services.ServiceRegistryExecutionPlanConfigurer;
 import org.apereo.cas.services.ServiceRegistryListener;
+import org.apereo.cas.services.ServiceResolutionCacheEventListener;
+import org.apereo.cas.services.ServiceResolutionCacheExpiry;
 import org.apereo.cas.services.ServicesManager;
 import org.apereo.cas.services.ServicesManagerConfigurationContext;
 import org.apereo.cas.services.ServicesManagerExecutionPlanConfigurer;
@@ -43,6 +45,7 @@ import org.apereo.cas.services.replication.NoOpRegisteredServiceReplicationStrat
 import org.apereo.cas.services.replication.RegisteredServiceReplicationStrategy;
 import org.apereo.cas.services.resource.DefaultRegisteredServiceResourceNamingStrategy;
 import org.apereo.cas.services.resource.RegisteredServiceResourceNamingStrategy;
+import org.apereo.cas.util.spring.CasEventListener;
 import org.apereo.cas.util.spring.beans.BeanCondition;
 import org.apereo.cas.util.spring.beans.BeanSupplier;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
@@ -52,6 +55,8 @@ import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.jooq.lambda.Unchecked;
@@ -77,6 +82,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -263,7 +269,10 @@ public class CasCoreServicesConfiguration {
             final ChainingServiceRegistry serviceRegistry,
             @Qualifier("servicesManagerCache")
             final Cache<Long, RegisteredService> servicesManagerCache,
+            @Qualifier("servicesManagerResolutionCache")
+            final Cache<String, Long> servicesManagerResolutionCache,
             final List<ServicesManagerRegisteredServiceLocator> servicesManagerRegisteredServiceLocators,
+            final CasConfigurationProperties casProperties,
             final Environment environment,
             final ConfigurableApplicationContext applicationContext) {
             AnnotationAwareOrderComparator.sortIfNecessary(servicesManagerRegisteredServiceLocators);
@@ -273,7 +282,11 @@ public class CasCoreServicesConfiguration {
                 .applicationContext(applicationContext)
                 .environments(activeProfiles)
                 .servicesCache(servicesManagerCache)
+                .serviceResolutionCache(casProperties.getServiceRegistry().getCache().getResolutionCacheSize() > 0
+                    ? servicesManagerResolutionCache : null)
+                .serviceResolutionAttributes(new HashSet<>(casProperties.getServiceRegistry().getCache().getResolutionAttributes()))
                 .registeredServiceLocators(servicesManagerRegisteredServiceLocators)
+                .incrementalLoad(casProperties.getServiceRegistry().getCore().isIncrementalLoad())
                 .build();
         }
 
@@ -333,6 +346,31 @@ public class CasCoreServicesConfiguration {
                 .build();
         }
 
+        @RefreshScope(proxyMode = ScopedProxyMode.DEFAULT)
+        @Bean
+        @ConditionalOnMissingBean(name = "servicesManagerResolutionCache")
+        public Cache<String, Long> servicesManagerResolutionCache(
+            final ObjectProvider<MeterRegistry> meterRegistry,
+            final CasConfigurationProperties casProperties) {
+            val cacheProperties = casProperties.getServiceRegistry().getCache();
+            val cache = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getResolutionCacheSize())
+                .expireAfter(new ServiceResolutionCacheExpiry(Beans.newDuration(cacheProperties.getResolutionDuration()),
+                    Beans.newDuration(cacheProperties.getResolutionUnresolvedDuration())))
+                .recordStats()
+                .<String, Long>build();
+            meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "servicesManagerResolutionCache"));
+            return cache;
+        }
+
+        @Bean
+        @ConditionalOnMissingBean(name = "servicesManagerResolutionCacheEventListener")
+        public CasEventListener servicesManagerResolutionCacheEventListener(
+            @Qualifier("servicesManagerConfigurationContext")
+            final ServicesManagerConfigurationContext servicesManagerConfigurationContext) {
+            return new ServiceResolutionCacheEventListener(servicesManagerConfigurationContext);
+        }
+
         @EventListener
         public void refreshServicesManagerWhenReady(final ApplicationReadyEvent event) {
             val servicesManager = event.getApplicationContext().getBean(ServicesManager.BEAN_NAME, ChainingServicesManager.class);
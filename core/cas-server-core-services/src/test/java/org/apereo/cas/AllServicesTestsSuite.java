@@ -42,6 +42,7 @@ import org.apereo.cas.services.RegisteredServiceAuthenticationPolicyResolverTest
 import org.apereo.cas.services.RegisteredServicePublicKeyImplTests;
 import org.apereo.cas.services.RegisteredServiceTests;
 import org.apereo.cas.services.RegisteredServicesEventListenerTests;
+import org.apereo.cas.services.RegisteredServicesMatchIndexTests;
 import org.apereo.cas.services.RemoteEndpointServiceAccessStrategyTests;
 import org.apereo.cas.services.RestfulRegisteredServiceProxyPolicyTests;
 import org.apereo.cas.services.ReturnEncryptedAttributeReleasePolicyTests;
@@ -97,6 +98,7 @@ import org.junit.platform.suite.api.Suite;
     DefaultServicesManagerCachingTests.class,
     GroovyAuthenticationHandlerResolverTests.class,
     RegisteredServicesEventListenerTests.class,
+    RegisteredServicesMatchIndexTests.class,
     DefaultRegisteredServiceDomainExtractorTests.class,
     ChainingRegisteredServiceSingleSignOnParticipationPolicyTests.class,
     DefaultRegisteredServiceProxyTicketExpirationPolicyTests.class,
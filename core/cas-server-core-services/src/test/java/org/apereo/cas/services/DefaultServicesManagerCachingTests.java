@@ -1,5 +1,9 @@
 package org.apereo.cas.services;
 
+import org.apereo.cas.support.events.service.CasRegisteredServiceDeletedEvent;
+import org.apereo.cas.support.events.service.CasRegisteredServiceSavedEvent;
+import org.apereo.cas.support.events.service.CasRegisteredServicesLoadedEvent;
+
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.val;
@@ -7,9 +11,15 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.springframework.context.support.StaticApplicationContext;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -55,4 +65,110 @@ public class DefaultServicesManagerCachingTests {
         assertEquals(1, mgr.load().size());
         assertEquals(1, mgr.getAllServices().size());
     }
+
+    @Test
+    public void verifyServiceResolutionCache() {
+        val service1 = RegisteredServiceTestUtils.getRegisteredService("https://app.example.org/.*");
+        val applicationContext = new StaticApplicationContext();
+        applicationContext.refresh();
+
+        val resolutionCache = Caffeine.newBuilder()
+            .maximumSize(100)
+            .recordStats()
+            .<String, Long>build();
+        val context = ServicesManagerConfigurationContext.builder()
+            .applicationContext(applicationContext)
+            .serviceRegistry(new InMemoryServiceRegistry(applicationContext, new ArrayList<>(List.of(service1)), List.of()))
+            .registeredServiceLocators(List.of(new DefaultServicesManagerRegisteredServiceLocator()))
+            .servicesCache(Caffeine.newBuilder().build())
+            .serviceResolutionCache(resolutionCache)
+            .build();
+        val mgr = new DefaultServicesManager(context);
+        mgr.load();
+
+        val service = RegisteredServiceTestUtils.getService("https://app.example.org/home");
+        val unknown = RegisteredServiceTestUtils.getService("https://unknown.example.org");
+        assertEquals(service1.getId(), mgr.findServiceBy(service).getId());
+        assertEquals(service1.getId(), mgr.findServiceBy(service).getId());
+        assertNull(mgr.findServiceBy(unknown));
+        assertNull(mgr.findServiceBy(unknown));
+        assertEquals(2, resolutionCache.stats().hitCount());
+        assertEquals(2, resolutionCache.stats().missCount());
+
+        val service2 = RegisteredServiceTestUtils.getRegisteredService("https://unknown.example.org");
+        mgr.save(service2);
+        assertEquals(0, resolutionCache.estimatedSize());
+        assertEquals(service2.getId(), mgr.findServiceBy(unknown).getId());
+
+        mgr.delete(service2);
+        assertEquals(0, resolutionCache.estimatedSize());
+        assertNull(mgr.findServiceBy(unknown));
+
+        mgr.load();
+        assertEquals(0, resolutionCache.estimatedSize());
+        assertNotNull(mgr.findServiceBy(service));
+
+        val listener = new ServiceResolutionCacheEventListener(context);
+        val generation = context.getServiceResolutionGeneration().get();
+        listener.handleRegisteredServiceSavedEvent(new CasRegisteredServiceSavedEvent(this, service2));
+        assertEquals(0, resolutionCache.estimatedSize());
+        assertEquals(generation + 1, context.getServiceResolutionGeneration().get());
+        assertNotNull(mgr.findServiceBy(service));
+        listener.handleRegisteredServiceDeletedEvent(new CasRegisteredServiceDeletedEvent(this, service2));
+        assertEquals(0, resolutionCache.estimatedSize());
+        assertNotNull(mgr.findServiceBy(service));
+        listener.handleRegisteredServicesLoadedEvent(new CasRegisteredServicesLoadedEvent(this, List.of(service1)));
+        assertEquals(0, resolutionCache.estimatedSize());
+    }
+
+    @Test
+    public void verifyResolutionKeyIgnoresRequestAttributes() {
+        val service1 = RegisteredServiceTestUtils.getRegisteredService("https://app.example.org/.*");
+        val applicationContext = new StaticApplicationContext();
+        applicationContext.refresh();
+        val resolutionCache = Caffeine.newBuilder()
+            .maximumSize(100)
+            .recordStats()
+            .<String, Long>build();
+        val context = ServicesManagerConfigurationContext.builder()
+            .applicationContext(applicationContext)
+            .serviceRegistry(new InMemoryServiceRegistry(applicationContext, new ArrayList<>(List.of(service1)), List.of()))
+            .registeredServiceLocators(List.of(new DefaultServicesManagerRegisteredServiceLocator()))
+            .servicesCache(Caffeine.newBuilder().build())
+            .serviceResolutionCache(resolutionCache)
+            .serviceResolutionAttributes(Set.of("client_id"))
+            .build();
+        val mgr = new DefaultServicesManager(context);
+        mgr.load();
+
+        IntStream.range(0, 3).forEach(i -> {
+            val service = RegisteredServiceTestUtils.getService("https://app.example.org/home");
+            service.setAttributes(Map.of("execution", List.of(UUID.randomUUID().toString())));
+            assertEquals(service1.getId(), mgr.findServiceBy(service).getId());
+        });
+        assertEquals(1, resolutionCache.estimatedSize());
+        assertEquals(2, resolutionCache.stats().hitCount());
+
+        val client = RegisteredServiceTestUtils.getService("https://app.example.org/home");
+        client.setAttributes(Map.of("client_id", List.of("client")));
+        assertEquals(service1.getId(), mgr.findServiceBy(client).getId());
+        assertEquals(2, resolutionCache.estimatedSize());
+    }
+
+    @Test
+    public void verifyUnresolvedServicesExpireSooner() {
+        val time = new AtomicLong();
+        val resolutionCache = Caffeine.newBuilder()
+            .ticker(time::get)
+            .executor(Runnable::run)
+            .expireAfter(new ServiceResolutionCacheExpiry(Duration.ofMinutes(15), Duration.ofSeconds(5)))
+            .<String, Long>build();
+        resolutionCache.put("https://app.example.org", 1L);
+        resolutionCache.put("https://unknown.example.org", AbstractServicesManager.UNRESOLVED_SERVICE_ID);
+        time.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        assertNull(resolutionCache.getIfPresent("https://unknown.example.org"));
+        assertEquals(1L, resolutionCache.getIfPresent("https://app.example.org"));
+        time.addAndGet(TimeUnit.MINUTES.toNanos(15));
+        assertNull(resolutionCache.getIfPresent("https://app.example.org"));
+    }
 }
@@ -0,0 +1,273 @@
+package org.apereo.cas.services;
+
+import org.apereo.cas.authentication.principal.Service;
+import org.apereo.cas.authentication.principal.WebApplicationServiceFactory;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.support.StaticApplicationContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is {@link RegisteredServicesMatchIndexTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("RegisteredService")
+public class RegisteredServicesMatchIndexTests {
+    private static final int LOOKUPS = 2_000;
+
+    private static final int SAMPLED_LOOKUPS = 50;
+
+    private static final int[] REQUEST_OFFSETS = {0, 1, 2, 3, 4, 0, 6, 1, 6, 0};
+
+    private static CasRegisteredService newService(final long id, final String serviceId,
+                                                   final RegisteredServiceMatchingStrategy strategy,
+                                                   final int evaluationOrder) {
+        val service = new CasRegisteredService();
+        service.setId(id);
+        service.setName("Service" + id);
+        service.setServiceId(serviceId);
+        service.setMatchingStrategy(strategy);
+        service.setEvaluationOrder(evaluationOrder);
+        return service;
+    }
+
+    private static List<RegisteredService> newServices(final int count, final Random random) {
+        val services = new ArrayList<RegisteredService>(count);
+        for (var i = 0; i < count; i++) {
+            val order = random.nextInt(count);
+            switch (i % 8) {
+                case 0:
+                    services.add(newService(i, "https://app" + i + ".example.org/.*", null, order));
+                    break;
+                case 1:
+                    services.add(newService(i, "^https?://host" + i + "\\.example\\.org(:\\d+)?/.*", null, order));
+                    break;
+                case 2:
+                    services.add(newService(i, "https://literal" + i + ".example.org/login",
+                        new LiteralRegisteredServiceMatchingStrategy().setCaseInsensitive(i % 3 == 0), order));
+                    break;
+                case 3:
+                    services.add(newService(i, "(https|http)://portal" + i + ".example.org/.*", null, order));
+                    break;
+                case 4:
+                    services.add(newService(i, "^https://api" + i + "\\.example\\.net/v\\d+/.*",
+                        new PartialRegexRegisteredServiceMatchingStrategy(), order));
+                    break;
+                case 5:
+                    services.add(newService(i, "https://app" + (i - 5) + ".example.org/admin/.*", null, order));
+                    break;
+                case 6:
+                    services.add(newService(i, "https://shop" + i + ".example.org/.*|imaps://mail" + i + ".example.org", null, order));
+                    break;
+                default:
+                    val other = new CasRegisteredService() {
+                        private static final long serialVersionUID = 5212806463125069624L;
+
+                        @Override
+                        public String getFriendlyName() {
+                            return "Other Client";
+                        }
+                    };
+                    other.setId(i);
+                    other.setName("Other" + i);
+                    other.setServiceId("https://other" + i + ".example.org/.*");
+                    other.setEvaluationOrder(order);
+                    services.add(other);
+                    break;
+            }
+        }
+        if (count > 0) {
+            services.add(newService(count, "^(https|imaps)://.*", null, Integer.MAX_VALUE));
+        }
+        return services;
+    }
+
+    private static List<Service> newRequests(final int count, final int size, final Random random, final boolean matchingOnly) {
+        val factory = new WebApplicationServiceFactory();
+        val requests = new ArrayList<Service>(count);
+        for (var i = 0; i < count; i++) {
+            val id = matchingOnly || i % 20 < 10
+                ? random.nextInt(Math.max(1, size / 8)) * 8 + REQUEST_OFFSETS[i % 10]
+                : random.nextInt(size);
+            switch (i % 10) {
+                case 0:
+                    requests.add(factory.createService("https://APP" + id + ".example.org/home"));
+                    break;
+                case 1:
+                    requests.add(factory.createService("http://host" + id + ".example.org:8443/path"));
+                    break;
+                case 2:
+                    requests.add(factory.createService("https://Literal" + id + ".example.org/login"));
+                    break;
+                case 3:
+                    requests.add(factory.createService("https://portal" + id + ".example.org/index"));
+                    break;
+                case 4:
+                    requests.add(factory.createService("https://api" + id + ".example.net/v2/users?query=1"));
+                    break;
+                case 5:
+                    requests.add(factory.createService("https://app" + id + ".example.org/admin/page"));
+                    break;
+                case 6:
+                    requests.add(factory.createService("imaps://mail" + id + ".example.org"));
+                    break;
+                case 7:
+                    requests.add(factory.createService("HTTPS://Host" + id + ".example.org/"));
+                    break;
+                case 8:
+                    requests.add(factory.createService("https://shop" + id + ".example.org/cart"));
+                    break;
+                default:
+                    requests.add(factory.createService("https://nowhere" + id + ".example.com/path"));
+                    break;
+            }
+        }
+        return requests;
+    }
+
+    private static DefaultServicesManager newServicesManager(final List<RegisteredService> services) {
+        val applicationContext = new StaticApplicationContext();
+        applicationContext.refresh();
+        val context = ServicesManagerConfigurationContext.builder()
+            .applicationContext(applicationContext)
+            .serviceRegistry(new InMemoryServiceRegistry(applicationContext, services, List.of()))
+            .registeredServiceLocators(List.of(new DefaultServicesManagerRegisteredServiceLocator()))
+            .servicesCache(Caffeine.newBuilder().build())
+            .build();
+        val servicesManager = new DefaultServicesManager(context);
+        servicesManager.load();
+        return servicesManager;
+    }
+
+    private static RegisteredService findServiceByLinearScan(final List<RegisteredService> sortedServices, final Service service) {
+        return new DefaultServicesManagerRegisteredServiceLocator().locate(sortedServices, service);
+    }
+
+    @Test
+    public void verifyLiteralPrefix() {
+        assertEquals("https://app.example.org/", RegisteredServicesMatchIndex.getLiteralPrefix("https://app\\.example\\.org/.*", 0));
+        assertEquals("https://app", RegisteredServicesMatchIndex.getLiteralPrefix("https://app.example.org", 0));
+        assertEquals("http", RegisteredServicesMatchIndex.getLiteralPrefix("https?://app.example.org", 0));
+        assertEquals("https://a", RegisteredServicesMatchIndex.getLiteralPrefix("https://a+pp.example.org", 0));
+        assertEquals("https://ap", RegisteredServicesMatchIndex.getLiteralPrefix("https://\\Qapp\\E{0,1}.example.org", 0));
+        assertEquals("https://app/", RegisteredServicesMatchIndex.getLiteralPrefix("HTTPS://APP/\\d+", 0));
+        assertEquals("https://caf", RegisteredServicesMatchIndex.getLiteralPrefix("https://café.example.org", 0));
+        assertEquals(StringUtils.EMPTY, RegisteredServicesMatchIndex.getLiteralPrefix("https://a.org|https://b.org", 0));
+        assertEquals(StringUtils.EMPTY, RegisteredServicesMatchIndex.getLiteralPrefix("(?i)https://app.org", 0));
+        assertEquals("https://", RegisteredServicesMatchIndex.getLiteralPrefix("https://(a|b).org", 0));
+        assertTrue(RegisteredServicesMatchIndex.getAlternatives("https://a.org)|(https://b.org").isEmpty());
+        assertEquals(List.of("https://[|]\\|\\Q|\\E.org"), RegisteredServicesMatchIndex.getAlternatives("https://[|]\\|\\Q|\\E.org"));
+        assertEquals(List.of("^https://a.org", "imaps://(b|c).org", ""), RegisteredServicesMatchIndex.getAlternatives("^https://a.org|imaps://(b|c).org|"));
+    }
+
+    @Test
+    public void verifyCandidatesKeepOrder() {
+        val random = new Random(42);
+        val services = newServices(400, random);
+        services.sort(Comparator.naturalOrder());
+        val index = new RegisteredServicesMatchIndex(services, services.size(), 0);
+        assertTrue(index.getResidualCount() < services.size() / 2);
+        for (val request : newRequests(500, 400, random, false)) {
+            val candidates = index.getCandidates(request.getId());
+            val expected = services.stream().filter(candidates::contains).collect(Collectors.toList());
+            assertEquals(expected, candidates);
+            assertEquals(findServiceByLinearScan(services, request), findServiceByLinearScan(candidates, request));
+        }
+    }
+
+    @Test
+    public void verifyMatchesLinearScan() {
+        val random = new Random(7);
+        val services = newServices(2_000, random);
+        val servicesManager = newServicesManager(services);
+        val sorted = services.stream().sorted().collect(Collectors.toList());
+        for (val request : newRequests(LOOKUPS, 2_000, random, false)) {
+            assertEquals(findServiceByLinearScan(sorted, request), servicesManager.findServiceBy(request), request.getId());
+        }
+    }
+
+    @Test
+    public void verifyIndexRebuiltOnChange() {
+        val service = newService(1, "https://app.example.org/.*", null, 10);
+        val servicesManager = newServicesManager(new ArrayList<>(List.of(service)));
+        val request = new WebApplicationServiceFactory().createService("https://app.example.org/home");
+        assertEquals(service, servicesManager.findServiceBy(request));
+
+        val preferred = newService(2, "https://app\\.example\\.org/.+", null, 1);
+        servicesManager.save(preferred);
+        assertEquals(preferred, servicesManager.findServiceBy(request));
+
+        servicesManager.delete(preferred);
+        assertEquals(service, servicesManager.findServiceBy(request));
+
+        servicesManager.delete(service);
+        assertNull(servicesManager.findServiceBy(request));
+
+        servicesManager.save(newService(3, "https://app.example.org/.*", null, 5));
+        servicesManager.load();
+        assertEquals(3, servicesManager.findServiceBy(request).getId());
+    }
+
+    @Test
+    public void verifyIndexRebuiltWhenExpiredServiceReloaded() {
+        val applicationContext = new StaticApplicationContext();
+        applicationContext.refresh();
+        val serviceRegistry = new InMemoryServiceRegistry(applicationContext,
+            new ArrayList<>(List.of(newService(1, "https://old.example.org/.*", null, 1))), List.of());
+        val time = new AtomicLong();
+        val context = ServicesManagerConfigurationContext.builder()
+            .applicationContext(applicationContext)
+            .serviceRegistry(serviceRegistry)
+            .registeredServiceLocators(List.of(new DefaultServicesManagerRegisteredServiceLocator()))
+            .servicesCache(Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .ticker(time::get)
+                .executor(Runnable::run)
+                .build())
+            .build();
+        val servicesManager = new DefaultServicesManager(context);
+        servicesManager.load();
+        val oldRequest = new WebApplicationServiceFactory().createService("https://old.example.org/home");
+        val newRequest = new WebApplicationServiceFactory().createService("https://new.example.org/home");
+        assertEquals(1, servicesManager.findServiceBy(oldRequest).getId());
+
+        serviceRegistry.save(newService(1, "https://new.example.org/.*", null, 1));
+        time.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertEquals("https://new.example.org/.*", servicesManager.findServiceBy(1).getServiceId());
+        assertEquals(1, context.getServicesCache().estimatedSize());
+        assertNull(servicesManager.findServiceBy(oldRequest));
+        assertEquals(1, servicesManager.findServiceBy(newRequest).getId());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 10_000, 50_000})
+    public void verifyCandidatesNarrowedAtScale(final int count) {
+        val random = new Random(count);
+        val services = newServices(count, random);
+        services.sort(Comparator.naturalOrder());
+        val index = new RegisteredServicesMatchIndex(services, services.size(), 0);
+        val servicesManager = newServicesManager(services);
+        for (val request : newRequests(SAMPLED_LOOKUPS, count, random, true)) {
+            val candidates = index.getCandidates(request.getId());
+            assertTrue(candidates.size() < count / 2, request.getId());
+            assertEquals(findServiceByLinearScan(services, request), servicesManager.findServiceBy(request), request.getId());
+        }
+    }
+}
@@ -1,27 +1,48 @@
 package org.apereo.cas.ticket.registry;
 
 import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.TicketGrantingTicket;
 import org.apereo.cas.util.crypto.CipherExecutor;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.apache.commons.lang3.StringUtils;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * This is {@link AbstractMapBasedTicketRegistry}.
+ * Ticket-granting tickets are additionally indexed by their principal id
+ * so that sessions for a given principal can be looked up without
+ * having to scan the entire registry. Tickets may also be tracked
+ * by their expiration via {@link TicketExpirationIndex}, when enabled.
  *
  * @author Misagh Moayyed
  * @since 5.2.0
  */
 @Slf4j
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-public abstract class AbstractMapBasedTicketRegistry extends AbstractTicketRegistry {
+public abstract class AbstractMapBasedTicketRegistry extends AbstractTicketRegistry implements ExpirationIndexedTicketRegistry {
+
+    private final Map<String, Set<String>> principalTicketIndex = new ConcurrentHashMap<>();
+
+    private final Map<String, String> ticketPrincipalIndex = new ConcurrentHashMap<>();
+
+    /**
+     * Tracks tickets by their expiration; must be set before tickets are added to the registry.
+     */
+    @Setter
+    private TicketExpirationIndex expirationIndex;
 
     protected AbstractMapBasedTicketRegistry(final CipherExecutor cipherExecutor) {
         setCipherExecutor(cipherExecutor);
@@ -32,6 +53,12 @@ public abstract class AbstractMapBasedTicketRegistry extends AbstractTicketRegis
         val encTicket = encodeTicket(ticket);
         LOGGER.debug("Putting ticket [{}] in registry.", ticket.getId());
         getMapInstance().put(encTicket.getId(), encTicket);
+        if (ticket instanceof TicketGrantingTicket) {
+            indexTicketGrantingTicket(encTicket.getId(), (TicketGrantingTicket) ticket);
+        }
+        if (expirationIndex != null) {
+            expirationIndex.schedule(encTicket.getId(), ticket, Instant.now());
+        }
     }
 
     @Override
@@ -58,16 +85,39 @@ public abstract class AbstractMapBasedTicketRegistry extends AbstractTicketRegis
     @Override
     public long deleteSingleTicket(final String ticketId) {
         val encTicketId = encodeTicketId(ticketId);
-        return !StringUtils.isBlank(encTicketId) && getMapInstance().remove(encTicketId) != null ? 1 : 0;
+        if (StringUtils.isBlank(encTicketId)) {
+            return 0;
+        }
+        val removed = getMapInstance().remove(encTicketId) != null;
+        removeFromIndexes(encTicketId);
+        return removed ? 1 : 0;
     }
 
     @Override
     public long deleteAll() {
         val size = getMapInstance().size();
         getMapInstance().clear();
+        principalTicketIndex.clear();
+        ticketPrincipalIndex.clear();
+        if (expirationIndex != null) {
+            expirationIndex.clear();
+        }
         return size;
     }
 
+    @Override
+    public long countSessionsFor(final String principalId) {
+        return getIndexedTicketGrantingTickets(principalId)
+            .filter(ticket -> ticket.getAuthentication().getPrincipal().getId().equalsIgnoreCase(principalId))
+            .count();
+    }
+
+    @Override
+    public Stream<? extends Ticket> getSessionsFor(final String principalId) {
+        return getIndexedTicketGrantingTickets(principalId)
+            .filter(ticket -> !ticket.isExpired() && ticket.getAuthentication().getPrincipal().getId().equals(principalId));
+    }
+
     @Override
     public Collection<? extends Ticket> getTickets() {
         return decodeTickets(getMapInstance().values());
@@ -80,6 +130,109 @@ public abstract class AbstractMapBasedTicketRegistry extends AbstractTicketRegis
         return ticket;
     }
 
+    @Override
+    public boolean isExpirationIndexEnabled() {
+        return expirationIndex != null;
+    }
+
+    @Override
+    public Stream<? extends Ticket> getExpirationCandidates() {
+        if (expirationIndex == null) {
+            return stream();
+        }
+        val now = Instant.now();
+        return expirationIndex.getDueKeys(now)
+            .map(encTicketId -> {
+                val found = getMapInstance().get(encTicketId);
+                if (found == null) {
+                    if (!getMapInstance().containsKey(encTicketId)) {
+                        expirationIndex.remove(encTicketId);
+                    }
+                    return null;
+                }
+                val ticket = decodeTicket(found);
+                if (!ticket.isExpired()) {
+                    LOGGER.trace("Ticket [{}] is not yet expired and will be examined again later", ticket.getId());
+                    expirationIndex.reschedule(encTicketId, ticket, now);
+                }
+                return ticket;
+            })
+            .filter(Objects::nonNull);
+    }
+
+    /**
+     * Remove the ticket from the principal and expiration indexes, once it is no longer present in the map.
+     * The indexes are kept consistent with the map as long as entries are only removed
+     * via this method after they are removed from the map itself.
+     *
+     * @param encTicketId the encoded ticket id, as found in the map
+     */
+    protected void removeFromIndexes(final String encTicketId) {
+        if (expirationIndex != null) {
+            expirationIndex.remove(encTicketId);
+        }
+        val principalKey = ticketPrincipalIndex.remove(encTicketId);
+        if (principalKey != null) {
+            principalTicketIndex.computeIfPresent(principalKey, (key, ticketIds) -> {
+                ticketIds.remove(encTicketId);
+                return ticketIds.isEmpty() ? null : ticketIds;
+            });
+        }
+    }
+
+    /**
+     * Count the number of tickets tracked by the principal index.
+     *
+     * @return the count
+     */
+    protected long getPrincipalIndexSize() {
+        return ticketPrincipalIndex.size();
+    }
+
+    private static String getPrincipalIndexKey(final String principalId) {
+        val chars = principalId.toCharArray();
+        for (var i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    private void indexTicketGrantingTicket(final String encTicketId, final TicketGrantingTicket ticket) {
+        val authentication = ticket.getAuthentication();
+        if (authentication == null || authentication.getPrincipal() == null || authentication.getPrincipal().getId() == null) {
+            return;
+        }
+        val principalKey = getPrincipalIndexKey(authentication.getPrincipal().getId());
+        val previousKey = ticketPrincipalIndex.put(encTicketId, principalKey);
+        if (previousKey != null && !previousKey.equals(principalKey)) {
+            principalTicketIndex.computeIfPresent(previousKey, (key, ticketIds) -> {
+                ticketIds.remove(encTicketId);
+                return ticketIds.isEmpty() ? null : ticketIds;
+            });
+        }
+        principalTicketIndex.compute(principalKey, (key, ticketIds) -> {
+            val results = ticketIds == null ? ConcurrentHashMap.<String>newKeySet() : ticketIds;
+            results.add(encTicketId);
+            return results;
+        });
+    }
+
+    private Stream<TicketGrantingTicket> getIndexedTicketGrantingTickets(final String principalId) {
+        if (principalId == null) {
+            return Stream.empty();
+        }
+        val ticketIds = principalTicketIndex.get(getPrincipalIndexKey(principalId));
+        if (ticketIds == null) {
+            return Stream.empty();
+        }
+        return ticketIds.stream()
+            .map(getMapInstance()::get)
+            .filter(Objects::nonNull)
+            .map(this::decodeTicket)
+            .filter(TicketGrantingTicket.class::isInstance)
+            .map(TicketGrantingTicket.class::cast);
+    }
+
     /**
      * Create map instance, which must ben created during initialization phases
      * and always be the same instance.
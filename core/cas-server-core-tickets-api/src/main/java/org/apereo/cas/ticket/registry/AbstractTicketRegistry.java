@@ -21,6 +21,7 @@ import lombok.val;
 import org.apache.commons.lang3.StringUtils;
 import org.jooq.lambda.Unchecked;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Optional;
@@ -148,6 +149,36 @@ public abstract class AbstractTicketRegistry implements TicketRegistry {
         return finalCount;
     }
 
+    @Override
+    public int deleteTickets(final Collection<? extends Ticket> tickets) throws Exception {
+        var count = 0;
+        val ticketIds = new ArrayList<String>(tickets.size());
+        for (val ticket : tickets) {
+            if (ticket instanceof TicketGrantingTicket) {
+                count += deleteTicket(ticket);
+            } else {
+                ticketIds.add(ticket.getId());
+            }
+        }
+        if (!ticketIds.isEmpty()) {
+            LOGGER.debug("Removing [{}] tickets from the registry.", ticketIds.size());
+            count += (int) deleteSingleTickets(ticketIds);
+        }
+        return count;
+    }
+
+    /**
+     * Delete multiple ticket instances from the store.
+     * Registries that support bulk removals should override this
+     * to remove all tickets in as few operations as possible.
+     *
+     * @param ticketIds the ticket ids
+     * @return the number of tickets removed
+     */
+    protected long deleteSingleTickets(final Collection<String> ticketIds) {
+        return ticketIds.stream().mapToLong(this::deleteSingleTicket).sum();
+    }
+
     /**
      * Delete a single ticket instance from the store.
      *
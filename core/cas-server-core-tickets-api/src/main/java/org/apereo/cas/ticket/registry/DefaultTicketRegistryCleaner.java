@@ -7,14 +7,41 @@ import org.apereo.cas.ticket.TicketGrantingTicket;
 import org.apereo.cas.util.LoggingUtils;
 import org.apereo.cas.util.lock.LockRepository;
 
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Streams;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.jooq.lambda.Unchecked;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This is {@link DefaultTicketRegistryCleaner}.
+ * Registries that maintain an expiration index only have their due tickets visited,
+ * while all other registries are scanned in full. The number of tickets visited and removed
+ * and the duration of each run are recorded when a {@link MeterRegistry} is available.
+ * Batches that are cleaned concurrently run on a pool of worker threads that is reused across runs
+ * and shut down when the cleaner is destroyed; each batch runs in its own transaction
+ * when a transaction manager is available, since workers do not share the transaction of the calling thread.
  *
  * @author Misagh Moayyed
  * @since 5.0.0
@@ -22,13 +49,49 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 @RequiredArgsConstructor
 @Transactional(transactionManager = "ticketTransactionManager")
-public class DefaultTicketRegistryCleaner implements TicketRegistryCleaner {
+public class DefaultTicketRegistryCleaner implements TicketRegistryCleaner, DisposableBean {
     private final LockRepository lockRepository;
 
     private final LogoutManager logoutManager;
 
     private final TicketRegistry ticketRegistry;
 
+    /**
+     * Number of expired tickets handed over to the registry for removal at the same time.
+     */
+    @Setter
+    private int batchSize = 1;
+
+    /**
+     * Number of batches of expired tickets that are cleaned concurrently
+     * when the registry maintains an expiration index.
+     */
+    @Setter
+    private int parallelism = 1;
+
+    /**
+     * Optional meter registry to record cleaner metrics.
+     */
+    @Setter
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Optional transaction manager used to clean each batch in its own transaction
+     * when batches are cleaned concurrently.
+     */
+    @Setter
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutorService executorService;
+
+    @Override
+    public synchronized void destroy() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+            executorService = null;
+        }
+    }
+
     @Override
     public int clean() {
         try {
@@ -58,16 +121,165 @@ public class DefaultTicketRegistryCleaner implements TicketRegistryCleaner {
         })).orElseThrow();
     }
     
-    protected int cleanInternal() {
-        try (val expiredTickets = ticketRegistry.stream().filter(Ticket::isExpired)) {
-            val ticketsDeleted = expiredTickets
-                .mapToInt(this::cleanTicket)
-                .sum();
-            LOGGER.info("[{}] expired tickets removed.", ticketsDeleted);
+    protected int cleanInternal() throws Exception {
+        val indexed = isExpirationIndexed();
+        val visited = new LongAdder();
+        val startTime = System.nanoTime();
+        try (val candidates = indexed
+            ? ((ExpirationIndexedTicketRegistry) ticketRegistry).getExpirationCandidates()
+            : ticketRegistry.stream()) {
+            val expiredTickets = candidates.peek(ticket -> visited.increment()).filter(Ticket::isExpired);
+            val ticketsDeleted = batchSize <= 1
+                ? expiredTickets.mapToInt(this::cleanTicket).sum()
+                : indexed && parallelism > 1
+                    ? cleanTicketsInParallel(expiredTickets)
+                    : Streams.stream(Iterators.partition(expiredTickets.iterator(), batchSize))
+                        .mapToInt(this::cleanTickets)
+                        .sum();
+            val duration = System.nanoTime() - startTime;
+            LOGGER.info("[{}] expired tickets removed after visiting [{}] tickets in [{}]ms.", ticketsDeleted,
+                visited.sum(), TimeUnit.NANOSECONDS.toMillis(duration));
+            recordMetrics(visited.sum(), ticketsDeleted, duration);
             return ticketsDeleted;
         }
     }
 
+    /**
+     * Clean expired tickets in batches, allowing up to {@link #parallelism}
+     * batches to be processed at the same time.
+     *
+     * @param expiredTickets the expired tickets
+     * @return the number of tickets that were cleaned up
+     * @throws Exception the exception
+     */
+    protected int cleanTicketsInParallel(final Stream<? extends Ticket> expiredTickets) throws Exception {
+        val completionService = new ExecutorCompletionService<Integer>(getExecutorService());
+        val batches = Iterators.partition(expiredTickets.iterator(), batchSize);
+        var count = 0;
+        var pending = 0;
+        try {
+            while (batches.hasNext()) {
+                if (pending >= parallelism) {
+                    pending--;
+                    count += completionService.take().get();
+                }
+                val batch = batches.next();
+                completionService.submit(() -> cleanTicketsInTransaction(batch));
+                pending++;
+            }
+            while (pending > 0) {
+                pending--;
+                count += completionService.take().get();
+            }
+            return count;
+        } finally {
+            while (pending-- > 0) {
+                completionService.take();
+            }
+        }
+    }
+
+    private int cleanTicketsInTransaction(final List<? extends Ticket> tickets) {
+        if (transactionManager == null) {
+            return cleanTickets(tickets);
+        }
+        val result = new TransactionTemplate(transactionManager).execute(status -> cleanTickets(tickets));
+        return result == null ? 0 : result;
+    }
+
+    private synchronized ExecutorService getExecutorService() {
+        if (executorService == null) {
+            executorService = Executors.newFixedThreadPool(parallelism);
+        }
+        return executorService;
+    }
+
+    /**
+     * Clean a batch of expired tickets. Logout notifications for the ticket-granting tickets
+     * in the batch are handed over to the logout manager at once, after which each
+     * ticket-granting ticket is removed individually, while all other tickets
+     * are removed from the registry in bulk while holding the lock of each ticket.
+     *
+     * @param tickets the tickets
+     * @return the number of tickets that were cleaned up
+     */
+    protected int cleanTickets(final List<? extends Ticket> tickets) {
+        val ticketGrantingTickets = new ArrayList<TicketGrantingTicket>();
+        val ticketsToDelete = new ArrayList<Ticket>(tickets.size());
+        for (val ticket : tickets) {
+            if (ticket instanceof TicketGrantingTicket) {
+                ticketGrantingTickets.add((TicketGrantingTicket) ticket);
+            } else {
+                ticketsToDelete.add(ticket);
+            }
+        }
+        var count = 0;
+        if (!ticketGrantingTickets.isEmpty()) {
+            LOGGER.debug("Cleaning up [{}] expired ticket-granting tickets", ticketGrantingTickets.size());
+            logoutManager.performLogouts(ticketGrantingTickets
+                .stream()
+                .map(ticket -> SingleLogoutExecutionRequest.builder().ticketGrantingTicket(ticket).build())
+                .collect(Collectors.toList()));
+            for (val ticket : ticketGrantingTickets) {
+                count += lockRepository.execute(ticket.getId(),
+                    Unchecked.supplier(() -> ticketRegistry.deleteTicket(ticket))).orElseThrow();
+            }
+        }
+        if (!ticketsToDelete.isEmpty()) {
+            LOGGER.debug("Cleaning up [{}] expired tickets", ticketsToDelete.size());
+            count += deleteTicketsWhileLocked(ticketsToDelete);
+        }
+        return count;
+    }
+
+    /**
+     * Obtain the lock of each ticket in the batch and remove all locked tickets from the registry in bulk
+     * while every lock is still held. Tickets whose lock cannot be obtained are left for the next run.
+     *
+     * @param tickets the tickets
+     * @return the number of tickets that were removed
+     */
+    private int deleteTicketsWhileLocked(final List<Ticket> tickets) {
+        val ticketsById = tickets
+            .stream()
+            .collect(Collectors.toMap(Ticket::getId, Function.identity(), (first, second) -> first, LinkedHashMap::new));
+        return lockRepository.executeAll(ticketsById.keySet(), lockedIds -> {
+            if (lockedIds.size() < ticketsById.size()) {
+                LOGGER.debug("Unable to lock [{}] expired tickets; they will be cleaned up on the next run",
+                    ticketsById.size() - lockedIds.size());
+            }
+            val locked = lockedIds.stream().map(ticketsById::get).collect(Collectors.toList());
+            return locked.isEmpty() ? 0 : Unchecked.supplier(() -> ticketRegistry.deleteTickets(locked)).get();
+        });
+    }
+
+    /**
+     * Indicates whether the registry is able to only hand over tickets that are due for expiration.
+     *
+     * @return true/false
+     */
+    protected boolean isExpirationIndexed() {
+        return ticketRegistry instanceof ExpirationIndexedTicketRegistry
+               && ((ExpirationIndexedTicketRegistry) ticketRegistry).isExpirationIndexEnabled();
+    }
+
+    private void recordMetrics(final long visited, final long removed, final long duration) {
+        if (meterRegistry != null) {
+            DistributionSummary.builder("cas.ticket.registry.cleaner.visited")
+                .description("Number of tickets visited by each ticket registry cleaner run")
+                .register(meterRegistry)
+                .record(visited);
+            DistributionSummary.builder("cas.ticket.registry.cleaner.removed")
+                .description("Number of expired tickets removed by each ticket registry cleaner run")
+                .register(meterRegistry)
+                .record(removed);
+            Timer.builder("cas.ticket.registry.cleaner.duration")
+                .description("Duration of each ticket registry cleaner run")
+                .register(meterRegistry)
+                .record(duration, TimeUnit.NANOSECONDS);
+        }
+    }
+
     /**
      * Indicates whether the registry supports automated ticket cleanup.
      * Generally, a registry that is able to return a collection of available
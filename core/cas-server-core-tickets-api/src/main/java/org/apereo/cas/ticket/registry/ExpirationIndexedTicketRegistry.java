@@ -0,0 +1,33 @@
+package org.apereo.cas.ticket.registry;
+
+import org.apereo.cas.ticket.Ticket;
+
+import java.util.stream.Stream;
+
+/**
+ * This is {@link ExpirationIndexedTicketRegistry}.
+ * Describes a ticket registry that is able to keep track of
+ * ticket expiration, allowing the cleaner to only visit tickets
+ * that are due for expiration instead of the entire registry.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+public interface ExpirationIndexedTicketRegistry extends TicketRegistry {
+
+    /**
+     * Whether the expiration index is maintained by this registry.
+     *
+     * @return true/false
+     */
+    boolean isExpirationIndexEnabled();
+
+    /**
+     * Stream tickets whose computed expiration instant has passed.
+     * Tickets may still turn out to be valid, and must be checked
+     * for expiration by the caller.
+     *
+     * @return the tickets
+     */
+    Stream<? extends Ticket> getExpirationCandidates();
+}
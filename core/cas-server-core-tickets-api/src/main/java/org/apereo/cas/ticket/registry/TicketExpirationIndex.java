@@ -0,0 +1,197 @@
+package org.apereo.cas.ticket.registry;
+
+import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.TicketGrantingTicketAwareTicket;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * This is {@link TicketExpirationIndex}.
+ * Keeps track of tickets ordered by the earliest instant at which they could
+ * possibly expire, so that expired tickets can be located without having to
+ * visit every ticket in the registry. The computed instant is derived from the
+ * creation and last-used timestamps of the ticket and the time-to-live and
+ * time-to-idle values reported by its expiration policy, and is never later
+ * than the actual expiration instant for policies that honor those values.
+ * Tickets that turn out to be still valid once due are rescheduled; tickets
+ * whose policies do not report any such values are re-examined
+ * every {@link #getRecheckInterval()}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@RequiredArgsConstructor
+public class TicketExpirationIndex {
+    private static final long MAX_DURATION_SECONDS = Integer.MAX_VALUE;
+
+    private final Map<String, Instant> expirations = new ConcurrentHashMap<>();
+
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>();
+
+    /**
+     * Interval after which tickets whose expiration instant cannot be determined are examined again.
+     */
+    @Getter
+    private final Duration recheckInterval;
+
+    /**
+     * Calculate the earliest instant at which the ticket could expire,
+     * that is after the given instant.
+     *
+     * @param ticket    the ticket
+     * @param notBefore the instant after which the expiration must fall, or {@code null}
+     * @return the instant, or {@code null} if it cannot be determined
+     */
+    static Instant getExpirationInstant(final Ticket ticket, final Instant notBefore) {
+        val policy = ticket.getExpirationPolicy();
+        if (policy == null) {
+            return null;
+        }
+        val created = ticket.getCreationTime().toInstant();
+        val lastUsed = ticket.getLastTimeUsed() == null ? created : ticket.getLastTimeUsed().toInstant();
+        val timeToLive = Objects.requireNonNullElse(policy.getTimeToLive(ticket), 0L);
+        val timeToIdle = Objects.requireNonNullElse(policy.getTimeToIdle(), 0L);
+        Instant result = null;
+        if (timeToLive > 0) {
+            result = earliest(result, created.plusSeconds(Math.min(timeToLive, MAX_DURATION_SECONDS)), notBefore);
+            result = earliest(result, lastUsed.plusSeconds(Math.min(timeToLive, MAX_DURATION_SECONDS)), notBefore);
+        }
+        if (timeToIdle > 0) {
+            result = earliest(result, lastUsed.plusSeconds(Math.min(timeToIdle, MAX_DURATION_SECONDS)), notBefore);
+        }
+        if (ticket instanceof TicketGrantingTicketAwareTicket) {
+            val parent = ((TicketGrantingTicketAwareTicket) ticket).getTicketGrantingTicket();
+            if (parent != null && parent != ticket) {
+                result = earliest(result, getExpirationInstant(parent, notBefore), notBefore);
+            }
+        }
+        return result;
+    }
+
+    private static Instant earliest(final Instant current, final Instant candidate, final Instant notBefore) {
+        if (candidate == null || notBefore != null && !candidate.isAfter(notBefore)) {
+            return current;
+        }
+        return current == null || candidate.isBefore(current) ? candidate : current;
+    }
+
+    /**
+     * Track the ticket stored under the given key, replacing any previous entry.
+     *
+     * @param key    the key under which the ticket is stored
+     * @param ticket the ticket
+     * @param now    the current instant
+     */
+    public void schedule(final String key, final Ticket ticket, final Instant now) {
+        val expiration = ticket.isExpired() ? now : getExpirationInstant(ticket, null);
+        put(key, expiration == null ? now : expiration);
+    }
+
+    /**
+     * Track the ticket stored under the given key after it was found to be still valid,
+     * pushing its entry forward to the next instant at which it could expire.
+     *
+     * @param key    the key under which the ticket is stored
+     * @param ticket the ticket
+     * @param now    the current instant
+     */
+    public void reschedule(final String key, final Ticket ticket, final Instant now) {
+        val expiration = getExpirationInstant(ticket, now);
+        put(key, expiration == null ? now.plus(recheckInterval) : expiration);
+    }
+
+    /**
+     * Stop tracking the ticket stored under the given key.
+     *
+     * @param key the key
+     */
+    public void remove(final String key) {
+        val expiration = expirations.remove(key);
+        if (expiration != null) {
+            entries.remove(new Entry(expiration, key));
+        }
+    }
+
+    /**
+     * Stop tracking all tickets.
+     */
+    public void clear() {
+        expirations.clear();
+        entries.clear();
+    }
+
+    /**
+     * Number of tracked tickets.
+     *
+     * @return the size
+     */
+    public int size() {
+        return expirations.size();
+    }
+
+    /**
+     * Stream the keys of tickets whose computed expiration instant is not after the given instant,
+     * ordered by expiration.
+     *
+     * @param now the current instant
+     * @return the keys
+     */
+    public Stream<String> getDueKeys(final Instant now) {
+        return entries.headSet(new Entry(now, null), true)
+            .stream()
+            .filter(entry -> {
+                if (entry.getExpiration().equals(expirations.get(entry.getKey()))) {
+                    return true;
+                }
+                entries.remove(entry);
+                return false;
+            })
+            .map(Entry::getKey);
+    }
+
+    private void put(final String key, final Instant expiration) {
+        val previous = expirations.put(key, expiration);
+        if (previous != null && !previous.equals(expiration)) {
+            entries.remove(new Entry(previous, key));
+        }
+        entries.add(new Entry(expiration, key));
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Entry implements Comparable<Entry> {
+        private static final Comparator<Entry> COMPARATOR = Comparator.comparing(Entry::getExpiration)
+            .thenComparing(Entry::getKey, Comparator.nullsLast(Comparator.naturalOrder()));
+
+        private final Instant expiration;
+
+        private final String key;
+
+        @Override
+        public int compareTo(final Entry other) {
+            return COMPARATOR.compare(this, other);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof Entry && compareTo((Entry) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(expiration, key);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.apereo.cas.util;
 
 import org.apereo.cas.configuration.model.core.util.EncryptionRandomizedSigningJwtCryptographyProperties;
+import org.apereo.cas.util.cipher.CipherExecutorUtils;
 import org.apereo.cas.util.cipher.DefaultTicketCipherExecutor;
 import org.apereo.cas.util.crypto.CipherExecutor;
 import org.apereo.cas.util.function.FunctionUtils;
@@ -60,13 +61,14 @@ public class CoreTicketUtils {
 
         if (enabled || forceIfBlankKeys) {
             LOGGER.debug("Ticket registry encryption/signing is enabled for [{}]", registryName);
-            return new DefaultTicketCipherExecutor(
+            val cipher = new DefaultTicketCipherExecutor(
                 registry.getEncryption().getKey(),
                 registry.getSigning().getKey(),
                 registry.getAlg(),
                 registry.getSigning().getKeySize(),
                 registry.getEncryption().getKeySize(),
                 registryName);
+            return CipherExecutorUtils.configureCompactEnvelope(cipher, registry.isCompactEnvelope(), registry.getRotatedKeys());
         }
         LOGGER.info("Ticket registry encryption/signing is turned off. This MAY NOT be safe in a clustered production environment. "
                     + "Consider using other choices to handle encryption, signing and verification of "
@@ -5,6 +5,7 @@ import org.apereo.cas.authentication.PseudoPlatformTransactionManager;
 import org.apereo.cas.authentication.policy.UniquePrincipalAuthenticationPolicy;
 import org.apereo.cas.configuration.CasConfigurationProperties;
 import org.apereo.cas.configuration.features.CasFeatureModule;
+import org.apereo.cas.configuration.support.Beans;
 import org.apereo.cas.logout.LogoutManager;
 import org.apereo.cas.services.ServicesManager;
 import org.apereo.cas.ticket.DefaultServiceTicketSessionTrackingPolicy;
@@ -37,6 +38,7 @@ import org.apereo.cas.ticket.proxy.ProxyTicketFactory;
 import org.apereo.cas.ticket.registry.CachingTicketRegistry;
 import org.apereo.cas.ticket.registry.DefaultTicketRegistry;
 import org.apereo.cas.ticket.registry.DefaultTicketRegistrySupport;
+import org.apereo.cas.ticket.registry.TicketExpirationIndex;
 import org.apereo.cas.ticket.registry.TicketRegistry;
 import org.apereo.cas.ticket.registry.TicketRegistrySupport;
 import org.apereo.cas.util.CoreTicketUtils;
@@ -148,11 +150,16 @@ public class CasCoreTicketsConfiguration {
             val mem = casProperties.getTicket().getRegistry().getInMemory();
             val cipher = CoreTicketUtils.newTicketRegistryCipherExecutor(mem.getCrypto(), "in-memory");
 
-            if (mem.isCache()) {
-                return new CachingTicketRegistry(cipher, logoutManager);
+            val registry = mem.isCache()
+                ? new CachingTicketRegistry(cipher, logoutManager)
+                : new DefaultTicketRegistry(new ConcurrentHashMap<String, Ticket>(mem.getInitialCapacity(),
+                    mem.getLoadFactor(), mem.getConcurrency()), cipher);
+            val cleaner = casProperties.getTicket().getRegistry().getCleaner();
+            if (cleaner.isExpirationIndexEnabled()) {
+                LOGGER.debug("Tickets are tracked by their expiration to assist the ticket registry cleaner");
+                registry.setExpirationIndex(new TicketExpirationIndex(Beans.newDuration(cleaner.getSchedule().getRepeatInterval())));
             }
-            val storageMap = new ConcurrentHashMap<String, Ticket>(mem.getInitialCapacity(), mem.getLoadFactor(), mem.getConcurrency());
-            return new DefaultTicketRegistry(storageMap, cipher);
+            return registry;
         }
 
         @RefreshScope(proxyMode = ScopedProxyMode.DEFAULT)
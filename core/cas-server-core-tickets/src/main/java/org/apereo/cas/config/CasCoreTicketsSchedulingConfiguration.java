@@ -14,10 +14,12 @@ import org.apereo.cas.util.spring.beans.BeanSupplier;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
 import org.apereo.cas.util.spring.boot.ConditionalOnMatchingHostname;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.apereo.inspektr.common.Cleanable;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -29,6 +31,7 @@ import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -52,16 +55,24 @@ public class CasCoreTicketsSchedulingConfiguration {
     @RefreshScope(proxyMode = ScopedProxyMode.DEFAULT)
     public TicketRegistryCleaner ticketRegistryCleaner(
         final CasConfigurationProperties casProperties,
+        final ObjectProvider<MeterRegistry> meterRegistry,
+        @Qualifier("ticketTransactionManager")
+        final ObjectProvider<PlatformTransactionManager> ticketTransactionManager,
         @Qualifier(LockRepository.BEAN_NAME)
         final LockRepository lockRepository,
         @Qualifier(LogoutManager.DEFAULT_BEAN_NAME)
         final LogoutManager logoutManager,
         @Qualifier(TicketRegistry.BEAN_NAME)
         final TicketRegistry ticketRegistry) {
-        val isCleanerEnabled = casProperties.getTicket().getRegistry().getCleaner().getSchedule().isEnabled();
-        if (isCleanerEnabled) {
+        val cleaner = casProperties.getTicket().getRegistry().getCleaner();
+        if (cleaner.getSchedule().isEnabled()) {
             LOGGER.debug("Ticket registry cleaner is enabled.");
-            return new DefaultTicketRegistryCleaner(lockRepository, logoutManager, ticketRegistry);
+            val registryCleaner = new DefaultTicketRegistryCleaner(lockRepository, logoutManager, ticketRegistry);
+            registryCleaner.setBatchSize(cleaner.getBatchSize());
+            registryCleaner.setParallelism(cleaner.getParallelism());
+            meterRegistry.ifAvailable(registryCleaner::setMeterRegistry);
+            ticketTransactionManager.ifAvailable(registryCleaner::setTransactionManager);
+            return registryCleaner;
         }
         LOGGER.debug("Ticket registry cleaner is not enabled. "
                      + "Expired tickets are not forcefully cleaned by CAS. It is up to the ticket registry itself to "
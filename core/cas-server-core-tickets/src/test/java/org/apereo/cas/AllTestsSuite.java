@@ -33,6 +33,7 @@ import org.apereo.cas.ticket.registry.DefaultTicketRegistryCleanerTests;
 import org.apereo.cas.ticket.registry.DefaultTicketRegistrySupportTests;
 import org.apereo.cas.ticket.registry.DefaultTicketRegistryTests;
 import org.apereo.cas.ticket.registry.DistributedTicketRegistryTests;
+import org.apereo.cas.ticket.registry.TicketExpirationIndexTests;
 import org.apereo.cas.ticket.serialization.DefaultTicketStringSerializationManagerTests;
 import org.apereo.cas.util.DefaultMessageSanitizerTests;
 import org.apereo.cas.util.DefaultUniqueTicketIdGeneratorTests;
@@ -66,6 +67,7 @@ import org.junit.platform.suite.api.Suite;
     DefaultTicketRegistryTests.class,
     CachingTicketRegistryTests.class,
     DistributedTicketRegistryTests.class,
+    TicketExpirationIndexTests.class,
     Cas10ProxyHandlerTests.class,
     DefaultTicketGrantingTicketFactoryTests.class,
     DefaultEncodedTicketTests.class,
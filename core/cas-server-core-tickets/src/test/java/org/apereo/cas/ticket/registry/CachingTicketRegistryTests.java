@@ -64,4 +64,21 @@ public class CachingTicketRegistryTests extends BaseTicketRegistryTests {
         ticket.markTicketExpired();
         assertNull(registry.getTicket(ticket.getId()));
     }
+
+    @RepeatedTest(1)
+    public void verifyExpiredSessionsRemovedFromIndex() throws Exception {
+        val registry = new CachingTicketRegistry(CipherExecutor.noOp(),
+            new DirectObjectProvider<>(mock(LogoutManager.class)));
+        val ticket = new TicketGrantingTicketImpl(TicketGrantingTicket.PREFIX + "-12347",
+            RegisteredServiceTestUtils.getAuthentication("casuser"), new HardTimeoutExpirationPolicy(1));
+        registry.addTicket(ticket);
+        assertEquals(1, registry.countSessionsFor("casuser"));
+        assertEquals(1, registry.getSessionsFor("casuser").count());
+        Thread.sleep(2000);
+        assertNull(registry.getTicket(ticket.getId()));
+        assertEquals(0, registry.countSessionsFor("casuser"));
+        registry.getStorage().cleanUp();
+        Thread.sleep(500);
+        assertEquals(0, registry.getPrincipalIndexSize());
+    }
 }
@@ -1,14 +1,40 @@
 package org.apereo.cas.ticket.registry;
 
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
 import org.apereo.cas.logout.LogoutManager;
+import org.apereo.cas.mock.MockServiceTicket;
 import org.apereo.cas.mock.MockTicketGrantingTicket;
+import org.apereo.cas.services.RegisteredServiceTestUtils;
+import org.apereo.cas.ticket.ExpirationPolicy;
+import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.TicketGrantingTicket;
+import org.apereo.cas.ticket.TicketGrantingTicketImpl;
+import org.apereo.cas.ticket.TransientSessionTicket;
+import org.apereo.cas.ticket.TransientSessionTicketImpl;
 import org.apereo.cas.ticket.expiration.HardTimeoutExpirationPolicy;
+import org.apereo.cas.ticket.expiration.NeverExpiresExpirationPolicy;
+import org.apereo.cas.util.lock.DefaultLockRepository;
 import org.apereo.cas.util.lock.LockRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.val;
+import org.jooq.lambda.Unchecked;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.integration.support.locks.DefaultLockRegistry;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -37,6 +63,132 @@ public class DefaultTicketRegistryCleanerTests {
         assertEquals(0, ticketRegistry.sessionCount());
     }
 
+    @Test
+    public void verifyActionInBatches() throws Exception {
+        val logoutManager = mock(LogoutManager.class);
+        val ticketRegistry = new DefaultTicketRegistry();
+        val tgt = new MockTicketGrantingTicket("casuser");
+        ticketRegistry.addTicket(tgt);
+        for (var i = 0; i < 10; i++) {
+            val st = new MockServiceTicket("ST-" + i, RegisteredServiceTestUtils.getService(), tgt);
+            ticketRegistry.addTicket(st);
+            st.markTicketExpired();
+        }
+        tgt.markTicketExpired();
+        assertEquals(11, ticketRegistry.getTickets().size());
+        val c = new DefaultTicketRegistryCleaner(LockRepository.noOp(), logoutManager, ticketRegistry);
+        c.setBatchSize(4);
+        assertEquals(11, c.clean());
+        assertTrue(ticketRegistry.getTickets().isEmpty());
+        verify(logoutManager, times(1)).performLogouts(any());
+    }
+
+    @Test
+    public void verifyBatchRemovedWhileLocked() throws Exception {
+        val lockRegistry = new DefaultLockRegistry();
+        val lockedDuringRemoval = new ArrayList<String>();
+        val ticketRegistry = new DefaultTicketRegistry() {
+            @Override
+            public int deleteTickets(final Collection<? extends Ticket> tickets) throws Exception {
+                for (val ticket : tickets) {
+                    if (!CompletableFuture.supplyAsync(() -> lockRegistry.obtain(ticket.getId()).tryLock()).get()) {
+                        lockedDuringRemoval.add(ticket.getId());
+                    }
+                }
+                return super.deleteTickets(tickets);
+            }
+        };
+        val tgt = new MockTicketGrantingTicket("casuser");
+        ticketRegistry.addTicket(tgt);
+        for (var i = 0; i < 5; i++) {
+            val st = new MockServiceTicket("ST-" + i, RegisteredServiceTestUtils.getService(), tgt);
+            ticketRegistry.addTicket(st);
+            st.markTicketExpired();
+        }
+        val held = new CountDownLatch(1);
+        val release = new CountDownLatch(1);
+        val holder = CompletableFuture.runAsync(Unchecked.runnable(() -> {
+            val lock = lockRegistry.obtain("ST-4");
+            lock.lock();
+            try {
+                held.countDown();
+                release.await();
+            } finally {
+                lock.unlock();
+            }
+        }));
+        held.await();
+        val c = new DefaultTicketRegistryCleaner(new DefaultLockRepository(lockRegistry), mock(LogoutManager.class), ticketRegistry);
+        c.setBatchSize(10);
+        try {
+            assertEquals(4, c.clean());
+        } finally {
+            release.countDown();
+            holder.get();
+        }
+        assertEquals(List.of("ST-0", "ST-1", "ST-2", "ST-3"), lockedDuringRemoval.stream().sorted().collect(Collectors.toList()));
+        assertEquals(2, ticketRegistry.getTickets().size());
+        assertTrue(CompletableFuture.supplyAsync(() -> lockRegistry.obtain("ST-0").tryLock()).get());
+    }
+
+    @Test
+    public void verifyLargeBatchRemovedWhileLocked() throws Exception {
+        val ticketRegistry = new DefaultTicketRegistry();
+        val tgt = new MockTicketGrantingTicket("casuser");
+        ticketRegistry.addTicket(tgt);
+        for (var i = 0; i < 20_000; i++) {
+            val st = new MockServiceTicket("ST-" + i, RegisteredServiceTestUtils.getService(), tgt);
+            ticketRegistry.addTicket(st);
+            st.markTicketExpired();
+        }
+        val c = new DefaultTicketRegistryCleaner(LockRepository.asDefault(), mock(LogoutManager.class), ticketRegistry);
+        c.setBatchSize(20_000);
+        assertEquals(20_000, c.clean());
+        assertEquals(1, ticketRegistry.getTickets().size());
+    }
+
+    @Test
+    public void verifyActionWithExpirationIndex() throws Exception {
+        val logoutManager = mock(LogoutManager.class);
+        val ticketRegistry = new DefaultTicketRegistry();
+        ticketRegistry.setExpirationIndex(new TicketExpirationIndex(Duration.ofMinutes(1)));
+        for (var i = 0; i < 1_000; i++) {
+            ticketRegistry.addTicket(new TicketGrantingTicketImpl(TicketGrantingTicket.PREFIX + "-valid-" + i,
+                CoreAuthenticationTestUtils.getAuthentication(), NeverExpiresExpirationPolicy.INSTANCE));
+        }
+        ticketRegistry.addTicket(new TicketGrantingTicketImpl(TicketGrantingTicket.PREFIX + "-expired",
+            CoreAuthenticationTestUtils.getAuthentication(), new HardTimeoutExpirationPolicy(1)));
+        for (var i = 0; i < 10; i++) {
+            ticketRegistry.addTicket(new TransientSessionTicketImpl(TransientSessionTicket.PREFIX + "-expired-" + i,
+                new HardTimeoutExpirationPolicy(1), RegisteredServiceTestUtils.getService(), Map.of()));
+        }
+        val unknownPolicy = mock(ExpirationPolicy.class);
+        when(unknownPolicy.getClock()).thenReturn(Clock.systemUTC());
+        ticketRegistry.addTicket(new TicketGrantingTicketImpl(TicketGrantingTicket.PREFIX + "-unknown",
+            CoreAuthenticationTestUtils.getAuthentication(), unknownPolicy));
+        Thread.sleep(1_500);
+
+        val meterRegistry = new SimpleMeterRegistry();
+        val c = new DefaultTicketRegistryCleaner(LockRepository.noOp(), logoutManager, ticketRegistry);
+        c.setBatchSize(4);
+        c.setParallelism(2);
+        c.setMeterRegistry(meterRegistry);
+        val transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        c.setTransactionManager(transactionManager);
+        assertEquals(11, c.clean());
+        assertEquals(1_001, ticketRegistry.getTickets().size());
+        verify(logoutManager, times(1)).performLogouts(any());
+        verify(transactionManager, times(3)).commit(any());
+
+        assertEquals(0, c.clean());
+        val visited = meterRegistry.get("cas.ticket.registry.cleaner.visited").summary();
+        assertEquals(2, visited.count());
+        assertEquals(12, visited.totalAmount());
+        assertEquals(11, meterRegistry.get("cas.ticket.registry.cleaner.removed").summary().totalAmount());
+        assertEquals(2, meterRegistry.get("cas.ticket.registry.cleaner.duration").timer().count());
+        c.destroy();
+    }
 
     @Test
     public void verifyCleanFail() {
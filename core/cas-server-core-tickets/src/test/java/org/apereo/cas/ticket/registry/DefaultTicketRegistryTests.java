@@ -1,9 +1,13 @@
 package org.apereo.cas.ticket.registry;
 
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
 import org.apereo.cas.mock.MockServiceTicket;
 import org.apereo.cas.mock.MockTicketGrantingTicket;
 import org.apereo.cas.services.RegisteredServiceTestUtils;
 import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.TicketGrantingTicket;
+import org.apereo.cas.ticket.TicketGrantingTicketImpl;
+import org.apereo.cas.ticket.expiration.NeverExpiresExpirationPolicy;
 import org.apereo.cas.util.cipher.DefaultTicketCipherExecutor;
 import org.apereo.cas.util.crypto.CipherExecutor;
 
@@ -11,8 +15,14 @@ import lombok.val;
 import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Tag;
 
+import java.util.ArrayList;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -56,6 +66,57 @@ public class DefaultTicketRegistryTests extends BaseTicketRegistryTests {
     }
 
 
+    @RepeatedTest(1)
+    public void verifySessionsForPrincipalUnderConcurrency() throws Exception {
+        val registry = (DefaultTicketRegistry) getNewTicketRegistry();
+        val principals = new String[]{"casuser", "CasUser2", "cas-user3", "Casuser4"};
+        val executor = Executors.newFixedThreadPool(8);
+        try {
+            val tasks = new ArrayList<Callable<Object>>();
+            for (var i = 0; i < 8; i++) {
+                tasks.add(() -> {
+                    val random = ThreadLocalRandom.current();
+                    val added = new ArrayList<String>();
+                    for (var j = 0; j < 2_000; j++) {
+                        if (!added.isEmpty() && random.nextInt(3) == 0) {
+                            registry.deleteTicket(added.remove(random.nextInt(added.size())));
+                        } else {
+                            val principal = principals[random.nextInt(principals.length)];
+                            val tgt = new TicketGrantingTicketImpl(TicketGrantingTicket.PREFIX + '-' + UUID.randomUUID(),
+                                CoreAuthenticationTestUtils.getAuthentication(principal), NeverExpiresExpirationPolicy.INSTANCE);
+                            registry.addTicket(tgt);
+                            added.add(tgt.getId());
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (val result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        }
+
+        var total = 0L;
+        for (val principal : principals) {
+            val expected = registry.getTickets(ticket -> ticket instanceof TicketGrantingTicket
+                && ((TicketGrantingTicket) ticket).getAuthentication().getPrincipal().getId().equalsIgnoreCase(principal)).count();
+            assertEquals(expected, registry.countSessionsFor(principal));
+            assertEquals(expected, registry.countSessionsFor(principal.toUpperCase(Locale.ENGLISH)));
+            assertEquals(expected, registry.getSessionsFor(principal).count());
+            assertEquals(0, registry.getSessionsFor(principal.toUpperCase(Locale.ENGLISH)).count());
+            total += expected;
+        }
+        assertEquals(registry.getTickets().size(), total);
+        assertEquals(total, registry.getPrincipalIndexSize());
+
+        registry.deleteAll();
+        assertEquals(0, registry.getPrincipalIndexSize());
+        assertEquals(0, registry.countSessionsFor(principals[0]));
+    }
+
     @RepeatedTest(1)
     public void verifyEncodeFails() throws Exception {
         val cipher = new DefaultTicketCipherExecutor(null, null,
@@ -0,0 +1,92 @@
+package org.apereo.cas.ticket.registry;
+
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
+import org.apereo.cas.mock.MockServiceTicket;
+import org.apereo.cas.services.RegisteredServiceTestUtils;
+import org.apereo.cas.ticket.ExpirationPolicy;
+import org.apereo.cas.ticket.TicketGrantingTicket;
+import org.apereo.cas.ticket.TicketGrantingTicketImpl;
+import org.apereo.cas.ticket.expiration.HardTimeoutExpirationPolicy;
+import org.apereo.cas.ticket.expiration.TicketGrantingTicketExpirationPolicy;
+import org.apereo.cas.ticket.expiration.TimeoutExpirationPolicy;
+
+import lombok.val;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This is {@link TicketExpirationIndexTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("Tickets")
+public class TicketExpirationIndexTests {
+
+    private static TicketGrantingTicket newTicketGrantingTicket(final String id, final ExpirationPolicy policy) {
+        return new TicketGrantingTicketImpl(TicketGrantingTicket.PREFIX + '-' + id, CoreAuthenticationTestUtils.getAuthentication(), policy);
+    }
+
+    private static ExpirationPolicy newUnknownExpirationPolicy() {
+        val policy = mock(ExpirationPolicy.class);
+        when(policy.getClock()).thenReturn(Clock.systemUTC());
+        return policy;
+    }
+
+    @Test
+    public void verifyExpirationInstant() {
+        val hard = newTicketGrantingTicket("hard", new HardTimeoutExpirationPolicy(30));
+        val created = hard.getCreationTime().toInstant();
+        assertEquals(created.plusSeconds(30), TicketExpirationIndex.getExpirationInstant(hard, null));
+
+        val timeout = newTicketGrantingTicket("timeout", new TimeoutExpirationPolicy(20));
+        assertEquals(timeout.getLastTimeUsed().toInstant().plusSeconds(20), TicketExpirationIndex.getExpirationInstant(timeout, null));
+
+        val tgt = newTicketGrantingTicket("tgt", new TicketGrantingTicketExpirationPolicy(100, 10));
+        assertEquals(tgt.getLastTimeUsed().toInstant().plusSeconds(10), TicketExpirationIndex.getExpirationInstant(tgt, null));
+        val later = tgt.getLastTimeUsed().toInstant().plusSeconds(10);
+        assertEquals(tgt.getCreationTime().toInstant().plusSeconds(100), TicketExpirationIndex.getExpirationInstant(tgt, later));
+
+        val st = new MockServiceTicket("ST-1", RegisteredServiceTestUtils.getService(), hard,
+            new HardTimeoutExpirationPolicy(60));
+        assertEquals(created.plusSeconds(30), TicketExpirationIndex.getExpirationInstant(st, null));
+
+        assertNull(TicketExpirationIndex.getExpirationInstant(newTicketGrantingTicket("unknown", newUnknownExpirationPolicy()), null));
+    }
+
+    @Test
+    public void verifyDueKeys() {
+        val index = new TicketExpirationIndex(Duration.ofMinutes(5));
+        val now = Instant.now();
+        val first = newTicketGrantingTicket("first", new HardTimeoutExpirationPolicy(10));
+        val second = newTicketGrantingTicket("second", new HardTimeoutExpirationPolicy(20));
+        val unknown = newTicketGrantingTicket("unknown", newUnknownExpirationPolicy());
+        index.schedule(second.getId(), second, now);
+        index.schedule(first.getId(), first, now);
+        index.schedule(unknown.getId(), unknown, now);
+        assertEquals(3, index.size());
+
+        assertEquals(List.of(unknown.getId()), index.getDueKeys(now).collect(Collectors.toList()));
+        assertEquals(List.of(unknown.getId(), first.getId(), second.getId()),
+            index.getDueKeys(now.plusSeconds(30)).collect(Collectors.toList()));
+
+        index.reschedule(unknown.getId(), unknown, now);
+        assertEquals(List.of(first.getId(), second.getId()), index.getDueKeys(now.plusSeconds(30)).collect(Collectors.toList()));
+        assertEquals(3, index.getDueKeys(now.plus(index.getRecheckInterval())).count());
+
+        index.schedule(first.getId(), second, now);
+        index.remove(second.getId());
+        assertEquals(List.of(first.getId()), index.getDueKeys(now.plusSeconds(30)).collect(Collectors.toList()));
+        index.clear();
+        assertEquals(0, index.size());
+    }
+}
@@ -1,11 +1,21 @@
 package org.apereo.cas.util;
 
+import org.apereo.cas.ticket.UniqueTicketIdGenerator;
+import org.apereo.cas.util.gen.Base64RandomStringGenerator;
 import org.apereo.cas.util.gen.DefaultLongNumericGenerator;
 import org.apereo.cas.util.gen.HexRandomStringGenerator;
 
 import lombok.val;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -15,6 +25,38 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 @Tag("Tickets")
 public class DefaultUniqueTicketIdGeneratorTests {
+    private static final int TICKETS_PER_THREAD = 1_000;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 8, 64})
+    public void verifyConcurrentGenerationWithThreadLocalRandom(final int threads) throws Exception {
+        val generator = new DefaultUniqueTicketIdGenerator(new DefaultLongNumericGenerator(1),
+            new Base64RandomStringGenerator(new ThreadLocalSecureRandom(), UniqueTicketIdGenerator.TICKET_SIZE), null);
+        val ticketIds = ConcurrentHashMap.<String>newKeySet();
+        val start = new CountDownLatch(1);
+        val executor = Executors.newFixedThreadPool(threads);
+        try {
+            val results = new ArrayList<Future<Object>>();
+            for (var i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (var j = 0; j < TICKETS_PER_THREAD; j++) {
+                        val ticketId = generator.getNewTicketId("ST");
+                        assertTrue(ticketId.startsWith("ST-"));
+                        ticketIds.add(ticketId);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (val result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(threads * TICKETS_PER_THREAD, ticketIds.size());
+    }
 
     @Test
     public void verifyUniqueGenerationOfTicketIds() {
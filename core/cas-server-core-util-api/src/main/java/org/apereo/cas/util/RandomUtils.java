@@ -3,6 +3,7 @@ package org.apereo.cas.util;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.apache.commons.lang3.EnumUtils;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
@@ -28,6 +29,13 @@ public class RandomUtils {
      */
     public static final String SYSTEM_PROPERTY_SECURE_RANDOM_ALG = "CAS_SECURE_RANDOM_ALG";
 
+    /**
+     * System property to indicate the type of random source
+     * used for generating random strings and identifiers.
+     * Accepted values are defined by {@link SecureRandomTypes}.
+     */
+    public static final String SYSTEM_PROPERTY_SECURE_RANDOM_TYPE = "CAS_SECURE_RANDOM_TYPE";
+
     private static final int HEX_HIGH_BITS_BITWISE_FLAG = 0x0f;
 
     private static final int SECURE_ID_CHARS_LENGTH = 40;
@@ -38,6 +46,21 @@ public class RandomUtils {
 
     private static final String NATIVE_NON_BLOCKING_ALGORITHM = "NativePRNGNonBlocking";
 
+    /**
+     * Get the secure random instance used for generating random strings and identifiers,
+     * based on the type indicated by {@link #SYSTEM_PROPERTY_SECURE_RANDOM_TYPE}.
+     *
+     * @return the secure random instance
+     */
+    public static SecureRandom getInstance() {
+        val type = EnumUtils.getEnumIgnoreCase(SecureRandomTypes.class,
+            System.getProperty(SYSTEM_PROPERTY_SECURE_RANDOM_TYPE), SecureRandomTypes.NATIVE);
+        if (type == SecureRandomTypes.THREAD_LOCAL_DRBG) {
+            return ThreadLocalSecureRandomHolder.INSTANCE;
+        }
+        return getNativeInstance();
+    }
+
     /**
      * Get strong enough SecureRandom instance and of the checked exception.
      *
@@ -97,7 +120,7 @@ public class RandomUtils {
             return startInclusive;
         }
 
-        return startInclusive + (endInclusive - startInclusive) * getNativeInstance().nextDouble();
+        return startInclusive + (endInclusive - startInclusive) * getInstance().nextDouble();
     }
 
     /**
@@ -118,7 +141,7 @@ public class RandomUtils {
      * @return the string
      */
     public static String generateSecureRandomId() {
-        val generator = getNativeInstance();
+        val generator = getInstance();
         val charMappings = new char[]{
             'a', 'b', 'c', 'd', 'e', 'f', 'g',
             'h', 'i', 'j', 'k', 'l', 'm', 'n', 'o',
@@ -187,7 +210,7 @@ public class RandomUtils {
             return startInclusive;
         }
 
-        return startInclusive + getNativeInstance().nextInt(endExclusive - startInclusive);
+        return startInclusive + getInstance().nextInt(endExclusive - startInclusive);
     }
 
     /**
@@ -236,7 +259,7 @@ public class RandomUtils {
      * @return the random string
      */
     public static String random(final int count, final int start, final int end, final boolean letters, final boolean numbers) {
-        return RandomStringUtils.random(count, start, end, letters, numbers, null, getNativeInstance());
+        return RandomStringUtils.random(count, start, end, letters, numbers, null, getInstance());
     }
 
     /**
@@ -282,4 +305,25 @@ public class RandomUtils {
     public static String randomNumeric(final int count) {
         return random(count, false, true);
     }
+
+    /**
+     * Types of random sources.
+     */
+    public enum SecureRandomTypes {
+        /**
+         * Use a new instance of the native random source, as indicated by
+         * {@link #SYSTEM_PROPERTY_SECURE_RANDOM_ALG}, for every request.
+         * All instances share the lock that guards the native source.
+         */
+        NATIVE,
+        /**
+         * Use a {@code DRBG} generator per thread, seeded and periodically
+         * reseeded from the native random source.
+         */
+        THREAD_LOCAL_DRBG
+    }
+
+    private static final class ThreadLocalSecureRandomHolder {
+        private static final SecureRandom INSTANCE = new ThreadLocalSecureRandom();
+    }
 }
@@ -0,0 +1,140 @@
+package org.apereo.cas.util;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.nio.ByteBuffer;
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * This is {@link ThreadLocalSecureRandom}.
+ * <p>
+ * A {@link SecureRandom} that hands out random bytes from a {@code DRBG} instance
+ * that is owned by the calling thread, so that concurrent callers never contend
+ * on a shared generator or on the lock that guards the native source. Each
+ * per-thread generator is seeded from the native source when first used,
+ * and reseeded from it after a number of generate requests. Small requests
+ * are served from a per-thread block of output, so that the fixed cost of a
+ * generate request is paid once per block rather than once per call; bytes
+ * are wiped from the block as soon as they are handed out.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+public class ThreadLocalSecureRandom extends SecureRandom {
+    /**
+     * Default number of generate requests after which a per-thread generator is reseeded.
+     */
+    public static final long DEFAULT_RESEED_INTERVAL = 10_000;
+
+    private static final long serialVersionUID = -6340155327937429845L;
+
+    private static final String ALGORITHM = "DRBG";
+
+    private static final int SECURITY_STRENGTH = 256;
+
+    private static final int SEED_LENGTH = 48;
+
+    private static final int BUFFER_LENGTH = 512;
+
+    private final long reseedInterval;
+
+    private final transient SecureRandom seedSource;
+
+    private final transient ThreadLocal<Generator> generators;
+
+    public ThreadLocalSecureRandom() {
+        this(DEFAULT_RESEED_INTERVAL);
+    }
+
+    public ThreadLocalSecureRandom(final long reseedInterval) {
+        this(RandomUtils.getNativeInstance(), reseedInterval);
+    }
+
+    public ThreadLocalSecureRandom(final SecureRandom seedSource, final long reseedInterval) {
+        this.seedSource = seedSource;
+        this.reseedInterval = Math.max(1, reseedInterval);
+        this.generators = ThreadLocal.withInitial(this::newGenerator);
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return ALGORITHM;
+    }
+
+    @Override
+    public void nextBytes(final byte[] bytes) {
+        val generator = generators.get();
+        if (bytes.length > BUFFER_LENGTH) {
+            generate(generator, bytes);
+            return;
+        }
+        var offset = 0;
+        while (offset < bytes.length) {
+            if (generator.position == BUFFER_LENGTH) {
+                generate(generator, generator.buffer);
+                generator.position = 0;
+            }
+            val length = Math.min(bytes.length - offset, BUFFER_LENGTH - generator.position);
+            System.arraycopy(generator.buffer, generator.position, bytes, offset, length);
+            Arrays.fill(generator.buffer, generator.position, generator.position + length, (byte) 0);
+            generator.position += length;
+            offset += length;
+        }
+    }
+
+    @Override
+    public byte[] generateSeed(final int numBytes) {
+        return seedSource.generateSeed(numBytes);
+    }
+
+    private void generate(final Generator generator, final byte[] bytes) {
+        if (++generator.requests >= reseedInterval) {
+            generator.requests = 0;
+            generator.random.setSeed(nextSeed());
+        }
+        generator.random.nextBytes(bytes);
+    }
+
+    private byte[] nextSeed() {
+        val seed = new byte[SEED_LENGTH];
+        seedSource.nextBytes(seed);
+        return seed;
+    }
+
+    private Generator newGenerator() {
+        val thread = Thread.currentThread();
+        val personalization = ByteBuffer.allocate(Long.BYTES * 2)
+            .putLong(thread.getId())
+            .putLong(System.nanoTime())
+            .array();
+        try {
+            val random = SecureRandom.getInstance(ALGORITHM, DrbgParameters.instantiation(SECURITY_STRENGTH,
+                DrbgParameters.Capability.RESEED_ONLY, personalization));
+            random.setSeed(nextSeed());
+            LOGGER.trace("Created random generator [{}] for thread [{}]", random, thread.getName());
+            return new Generator(random);
+        } catch (final NoSuchAlgorithmException e) {
+            LOGGER.warn("Unable to create a [{}] random generator; falling back to the native source: [{}]", ALGORITHM, e.getMessage());
+            return new Generator(seedSource);
+        }
+    }
+
+    private static final class Generator {
+        private final SecureRandom random;
+
+        private final byte[] buffer = new byte[BUFFER_LENGTH];
+
+        private int position = BUFFER_LENGTH;
+
+        private long requests;
+
+        Generator(final SecureRandom random) {
+            this.random = random;
+        }
+    }
+}
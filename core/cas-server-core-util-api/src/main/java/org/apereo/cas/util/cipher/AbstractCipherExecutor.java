@@ -14,6 +14,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.apache.commons.lang3.tuple.Pair;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.jose4j.jws.AlgorithmIdentifiers;
 import org.jose4j.keys.AesKey;
@@ -29,6 +30,7 @@ import java.security.Security;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.spec.RSAPublicKeySpec;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -52,6 +54,8 @@ public abstract class AbstractCipherExecutor<T, R> implements CipherExecutor<T,
 
     private Map<String, Object> customHeaders = new LinkedHashMap<>();
 
+    private CompactCipherEnvelope compactEnvelope;
+
     /**
      * Extract private key from resource private key.
      *
@@ -91,6 +95,29 @@ public abstract class AbstractCipherExecutor<T, R> implements CipherExecutor<T,
         return this.signingKey != null;
     }
 
+    /**
+     * Encrypt and sign values into a {@link CompactCipherEnvelope} instead of JWS/JWE compact serializations.
+     * Values that are not in a compact envelope continue to be decoded as before.
+     * The envelope can only be used with symmetric keys; if the cipher is configured
+     * with other keys, it will continue to produce JWS/JWE values.
+     *
+     * @param rotatedKeys pairs of encryption and signing keys used before the current keys were rotated in,
+     *                    which are only used to decode values
+     */
+    public void enableCompactEnvelope(final List<Pair<String, String>> rotatedKeys) {
+        val encryptionKey = getCompactEnvelopeEncryptionKey();
+        if (!CompactCipherEnvelope.isSupportedEncryptionKey(encryptionKey) || !isSymmetricKey(this.signingKey)) {
+            LOGGER.warn("The compact envelope requires AES encryption and HMAC signing keys, which are not configured for [{}]. "
+                        + "The cipher [{}] will continue to produce JWS/JWE values", getName(), getClass().getSimpleName());
+            return;
+        }
+        val envelope = new CompactCipherEnvelope(encryptionKey, this.signingKey.getEncoded());
+        rotatedKeys.forEach(key -> envelope.addKey(toCompactEnvelopeEncryptionKey(key.getKey()),
+            key.getValue().getBytes(StandardCharsets.UTF_8)));
+        LOGGER.debug("Values for [{}] will be produced in a compact envelope, with [{}] rotated key(s)", getName(), rotatedKeys.size());
+        setCompactEnvelope(envelope);
+    }
+
     /**
      * Sign the array by first turning it into a base64 encoded string.
      *
@@ -188,6 +215,29 @@ public abstract class AbstractCipherExecutor<T, R> implements CipherExecutor<T,
         }
     }
 
+    /**
+     * Gets the raw encryption key to use with the compact envelope.
+     *
+     * @return the encryption key, or null if the cipher does not carry a symmetric encryption key.
+     */
+    protected byte[] getCompactEnvelopeEncryptionKey() {
+        return null;
+    }
+
+    /**
+     * Turn a rotated encryption key setting into the raw key to use with the compact envelope.
+     *
+     * @param encryptionKey the encryption key
+     * @return the raw encryption key
+     */
+    protected byte[] toCompactEnvelopeEncryptionKey(final String encryptionKey) {
+        return encryptionKey.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean isSymmetricKey(final Key key) {
+        return key != null && !"RSA".equalsIgnoreCase(key.getAlgorithm()) && key.getEncoded() != null;
+    }
+
     /**
      * Gets signing algorithm for.
      *
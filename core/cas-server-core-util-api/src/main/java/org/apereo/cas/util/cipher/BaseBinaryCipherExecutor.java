@@ -74,6 +74,9 @@ public abstract class BaseBinaryCipherExecutor extends AbstractCipherExecutor<by
 
     @Override
     public byte[] encode(final byte[] value, final Object[] parameters) {
+        if (getCompactEnvelope() != null) {
+            return getCompactEnvelope().encode(value);
+        }
         return FunctionUtils.doUnchecked(() -> {
             val aesCipher = Cipher.getInstance(CIPHER_ALGORITHM);
             aesCipher.init(Cipher.ENCRYPT_MODE, this.encryptionKey, this.parameterSpec);
@@ -84,6 +87,9 @@ public abstract class BaseBinaryCipherExecutor extends AbstractCipherExecutor<by
 
     @Override
     public byte[] decode(final byte[] value, final Object[] parameters) {
+        if (getCompactEnvelope() != null && CompactCipherEnvelope.isEnvelope(value)) {
+            return getCompactEnvelope().decode(value);
+        }
         try {
             val verifiedValue = verifySignature(value, getSigningKey());
             val aesCipher = Cipher.getInstance(CIPHER_ALGORITHM);
@@ -101,6 +107,17 @@ public abstract class BaseBinaryCipherExecutor extends AbstractCipherExecutor<by
      */
     protected abstract String getEncryptionKeySetting();
 
+    @Override
+    protected byte[] getCompactEnvelopeEncryptionKey() {
+        return this.encryptionSecretKey;
+    }
+
+    @Override
+    protected byte[] toCompactEnvelopeEncryptionKey(final String encryptionKey) {
+        val decoded = EncodingUtils.isBase64(encryptionKey) ? EncodingUtils.decodeBase64(encryptionKey) : ArrayUtils.EMPTY_BYTE_ARRAY;
+        return CompactCipherEnvelope.isSupportedEncryptionKey(decoded) ? decoded : encryptionKey.getBytes(StandardCharsets.UTF_8);
+    }
+
     /**
      * Gets signing key setting.
      *
@@ -112,6 +112,10 @@ public abstract class BaseStringCipherExecutor extends AbstractCipherExecutor<Se
 
     @Override
     public String encode(final Serializable value, final Object[] parameters) {
+        if (getCompactEnvelope() != null) {
+            val encoded = getCompactEnvelope().encode(value.toString().getBytes(StandardCharsets.UTF_8));
+            return EncodingUtils.encodeUrlSafeBase64(encoded);
+        }
         if (strategyType == CipherOperationsStrategyType.ENCRYPT_AND_SIGN) {
             return encryptAndSign(value, getEncryptionKey(), getSigningKey());
         }
@@ -134,6 +138,12 @@ public abstract class BaseStringCipherExecutor extends AbstractCipherExecutor<Se
      */
     protected String decode(final Serializable value, final Object[] parameters,
                             final Key encryptionKey, final Key signingKey) {
+        if (getCompactEnvelope() != null && value.toString().indexOf('.') < 0) {
+            val decoded = EncodingUtils.decodeUrlSafeBase64(value.toString());
+            if (CompactCipherEnvelope.isEnvelope(decoded)) {
+                return new String(getCompactEnvelope().decode(decoded), StandardCharsets.UTF_8);
+            }
+        }
         if (strategyType == CipherOperationsStrategyType.ENCRYPT_AND_SIGN) {
             return verifyAndDecrypt(value, encryptionKey, signingKey);
         }
@@ -152,6 +162,16 @@ public abstract class BaseStringCipherExecutor extends AbstractCipherExecutor<Se
         setEncryptionAlgorithm(KeyManagementAlgorithmIdentifiers.RSA_OAEP_256);
     }
 
+    @Override
+    protected byte[] getCompactEnvelopeEncryptionKey() {
+        return isEncryptionPossible(this.encryptionKey) && this.signingEnabled ? this.encryptionKey.getEncoded() : null;
+    }
+
+    @Override
+    protected byte[] toCompactEnvelopeEncryptionKey(final String encryptionKey) {
+        return EncodingUtils.generateJsonWebKey(encryptionKey).getEncoded();
+    }
+
     /**
      * Is encryption possible?
      *
@@ -2,9 +2,14 @@ package org.apereo.cas.util.cipher;
 
 import org.apereo.cas.configuration.model.core.util.EncryptionJwtSigningJwtCryptographyProperties;
 import org.apereo.cas.configuration.model.core.util.EncryptionOptionalSigningOptionalJwtCryptographyProperties;
+import org.apereo.cas.configuration.model.core.util.RotatedCryptographyKeyProperties;
 
 import lombok.experimental.UtilityClass;
 import lombok.val;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.jooq.lambda.Unchecked.*;
 
@@ -37,10 +42,31 @@ public class CipherExecutorUtils {
                 crypto.getSigning().getKeySize(),
                 crypto.getEncryption().getKeySize());
             cipher.setStrategyType(BaseStringCipherExecutor.CipherOperationsStrategyType.valueOf(crypto.getStrategyType()));
-            return cipher;
+            return configureCompactEnvelope(cipher, crypto.isCompactEnvelope(), crypto.getRotatedKeys());
         }).get();
     }
 
+    /**
+     * Configure the cipher to produce values in a compact envelope, if requested.
+     *
+     * @param <T>             the type parameter
+     * @param cipher          the cipher
+     * @param compactEnvelope whether the compact envelope is requested
+     * @param rotatedKeys     the rotated keys
+     * @return the cipher
+     */
+    public static <T extends AbstractCipherExecutor> T configureCompactEnvelope(final T cipher,
+                                                                               final boolean compactEnvelope,
+                                                                               final List<RotatedCryptographyKeyProperties> rotatedKeys) {
+        if (compactEnvelope) {
+            cipher.enableCompactEnvelope(rotatedKeys
+                .stream()
+                .map(key -> Pair.of(key.getEncryptionKey(), key.getSigningKey()))
+                .collect(Collectors.toList()));
+        }
+        return cipher;
+    }
+
     /**
      * New string cipher executor.
      *
@@ -0,0 +1,209 @@
+package org.apereo.cas.util.cipher;
+
+import org.apereo.cas.util.crypto.DecryptionException;
+import org.apereo.cas.util.function.FunctionUtils;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.codec.binary.Hex;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * This is {@link CompactCipherEnvelope} that encrypts and signs values
+ * into a compact, versioned binary envelope rather than a JWS/JWE compact serialization.
+ * The envelope is laid out as:
+ * <pre>
+ * version (1 byte) | key id (4 bytes) | nonce (12 bytes) | AES/GCM ciphertext and tag | HMAC-SHA256 (32 bytes)
+ * </pre>
+ * Every value is encrypted with a random nonce, and the version and key id are authenticated
+ * as additional data. The key id is derived from the encryption and signing keys, which allows values
+ * produced with keys that have since been rotated out to be decoded as long as those keys are still registered.
+ * {@link Cipher} and {@link Mac} instances are kept per thread and reused across operations.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+public class CompactCipherEnvelope {
+    /**
+     * Version of the envelope format, written as the first byte of every value.
+     */
+    public static final byte VERSION = 1;
+
+    private static final String CIPHER_ALGORITHM = "AES/GCM/NoPadding";
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private static final int KEY_ID_LENGTH = 4;
+
+    private static final int NONCE_LENGTH = 12;
+
+    private static final int GCM_TAG_LENGTH = 128;
+
+    private static final int MAC_LENGTH = 32;
+
+    private static final int HEADER_LENGTH = 1 + KEY_ID_LENGTH;
+
+    private static final int MINIMUM_LENGTH = HEADER_LENGTH + NONCE_LENGTH + GCM_TAG_LENGTH / Byte.SIZE + MAC_LENGTH;
+
+    private static final ThreadLocal<Cipher> CIPHERS = ThreadLocal.withInitial(
+        () -> FunctionUtils.doUnchecked(() -> Cipher.getInstance(CIPHER_ALGORITHM)));
+
+    private static final ThreadLocal<SecureRandom> RANDOMS = ThreadLocal.withInitial(SecureRandom::new);
+
+    private final List<EnvelopeKey> keys = new CopyOnWriteArrayList<>();
+
+    public CompactCipherEnvelope(final byte[] encryptionKey, final byte[] signingKey) {
+        addKey(encryptionKey, signingKey);
+    }
+
+    /**
+     * Whether the value carries the version marker of this envelope.
+     * Values produced as JWS/JWE compact serializations never start with this marker.
+     *
+     * @param value the value
+     * @return true/false
+     */
+    public static boolean isEnvelope(final byte[] value) {
+        return value != null && value.length >= MINIMUM_LENGTH && value[0] == VERSION;
+    }
+
+    /**
+     * Whether the encryption key can be used with the envelope.
+     *
+     * @param encryptionKey the encryption key
+     * @return true/false
+     */
+    public static boolean isSupportedEncryptionKey(final byte[] encryptionKey) {
+        return encryptionKey != null
+            && (encryptionKey.length == 16 || encryptionKey.length == 24 || encryptionKey.length == 32);
+    }
+
+    /**
+     * Register a key pair that is only used to decode values.
+     * The first key pair passed to the envelope is always used to encode values.
+     *
+     * @param encryptionKey the encryption key
+     * @param signingKey    the signing key
+     * @return the compact cipher envelope
+     */
+    public CompactCipherEnvelope addKey(final byte[] encryptionKey, final byte[] signingKey) {
+        if (!isSupportedEncryptionKey(encryptionKey)) {
+            throw new IllegalArgumentException("Encryption key must be 128, 192 or 256 bits to be used with AES");
+        }
+        if (signingKey == null || signingKey.length == 0) {
+            throw new IllegalArgumentException("Signing key must not be empty");
+        }
+        val key = new EnvelopeKey(encryptionKey, signingKey);
+        if (keys.stream().anyMatch(k -> Arrays.equals(k.keyId, key.keyId))) {
+            LOGGER.debug("Key pair with key id [{}] is already registered", key.getKeyIdAsString());
+        } else {
+            keys.add(key);
+        }
+        return this;
+    }
+
+    /**
+     * Encrypt and sign the value with the current key pair.
+     *
+     * @param value the value
+     * @return the envelope
+     */
+    public byte[] encode(final byte[] value) {
+        return FunctionUtils.doUnchecked(() -> {
+            val key = keys.get(0);
+            val nonce = new byte[NONCE_LENGTH];
+            RANDOMS.get().nextBytes(nonce);
+
+            val cipher = CIPHERS.get();
+            cipher.init(Cipher.ENCRYPT_MODE, key.encryptionKey, new GCMParameterSpec(GCM_TAG_LENGTH, nonce));
+            val result = new byte[HEADER_LENGTH + NONCE_LENGTH + cipher.getOutputSize(value.length) + MAC_LENGTH];
+            result[0] = VERSION;
+            System.arraycopy(key.keyId, 0, result, 1, KEY_ID_LENGTH);
+            System.arraycopy(nonce, 0, result, HEADER_LENGTH, NONCE_LENGTH);
+            cipher.updateAAD(result, 0, HEADER_LENGTH);
+            val encrypted = cipher.doFinal(value, 0, value.length, result, HEADER_LENGTH + NONCE_LENGTH);
+
+            val signed = HEADER_LENGTH + NONCE_LENGTH + encrypted;
+            val mac = key.getMac();
+            mac.update(result, 0, signed);
+            mac.doFinal(result, signed);
+            return result;
+        });
+    }
+
+    /**
+     * Verify and decrypt the envelope with the key pair it was encoded with.
+     *
+     * @param value the envelope
+     * @return the value
+     */
+    public byte[] decode(final byte[] value) {
+        if (!isEnvelope(value)) {
+            throw new DecryptionException();
+        }
+        val keyId = Arrays.copyOfRange(value, 1, HEADER_LENGTH);
+        val key = keys.stream()
+            .filter(k -> Arrays.equals(k.keyId, keyId))
+            .findFirst()
+            .orElseThrow(DecryptionException::new);
+        try {
+            val signed = value.length - MAC_LENGTH;
+            val mac = key.getMac();
+            mac.update(value, 0, signed);
+            if (!MessageDigest.isEqual(mac.doFinal(), Arrays.copyOfRange(value, signed, value.length))) {
+                throw new DecryptionException();
+            }
+            val cipher = CIPHERS.get();
+            cipher.init(Cipher.DECRYPT_MODE, key.encryptionKey,
+                new GCMParameterSpec(GCM_TAG_LENGTH, value, HEADER_LENGTH, NONCE_LENGTH));
+            cipher.updateAAD(value, 0, HEADER_LENGTH);
+            return cipher.doFinal(value, HEADER_LENGTH + NONCE_LENGTH, signed - HEADER_LENGTH - NONCE_LENGTH);
+        } catch (final DecryptionException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw LOGGER.isTraceEnabled() ? new DecryptionException(e) : new DecryptionException();
+        }
+    }
+
+    private static class EnvelopeKey {
+        private final SecretKeySpec encryptionKey;
+
+        private final byte[] keyId;
+
+        private final ThreadLocal<Mac> macs;
+
+        EnvelopeKey(final byte[] encryptionKey, final byte[] signingKey) {
+            this.encryptionKey = new SecretKeySpec(encryptionKey, "AES");
+            this.keyId = FunctionUtils.doUnchecked(() -> {
+                val digest = MessageDigest.getInstance("SHA-256");
+                digest.update(encryptionKey);
+                digest.update(signingKey);
+                return Arrays.copyOf(digest.digest(), KEY_ID_LENGTH);
+            });
+            val signingKeySpec = new SecretKeySpec(signingKey, MAC_ALGORITHM);
+            this.macs = ThreadLocal.withInitial(() -> FunctionUtils.doUnchecked(() -> {
+                val mac = Mac.getInstance(MAC_ALGORITHM);
+                mac.init(signingKeySpec);
+                return mac;
+            }));
+        }
+
+        Mac getMac() {
+            return macs.get();
+        }
+
+        String getKeyIdAsString() {
+            return Hex.encodeHexString(keyId);
+        }
+    }
+}
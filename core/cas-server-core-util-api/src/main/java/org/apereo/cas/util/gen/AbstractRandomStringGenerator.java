@@ -25,7 +25,7 @@ public abstract class AbstractRandomStringGenerator implements RandomStringGener
     /**
      * An instance of secure random to ensure randomness is secure.
      */
-    protected final SecureRandom randomizer = RandomUtils.getNativeInstance();
+    protected final SecureRandom randomizer;
 
     /**
      * Default string length before encoding.
@@ -40,6 +40,16 @@ public abstract class AbstractRandomStringGenerator implements RandomStringGener
         this(DEFAULT_LENGTH);
     }
 
+    /**
+     * Instantiates a new random string generator
+     * with the given length, using {@link RandomUtils#getInstance()}.
+     *
+     * @param defaultLength the default length
+     */
+    protected AbstractRandomStringGenerator(final long defaultLength) {
+        this(RandomUtils.getInstance(), defaultLength);
+    }
+
     @Override
     public String getAlgorithm() {
         return randomizer.getAlgorithm();
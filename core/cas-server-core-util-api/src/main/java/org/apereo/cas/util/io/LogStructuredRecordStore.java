@@ -0,0 +1,417 @@
+package org.apereo.cas.util.io;
+
+import org.apereo.cas.util.LoggingUtils;
+import org.apereo.cas.util.function.FunctionUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * This is {@link LogStructuredRecordStore}, an embedded key-value store that appends
+ * every change to a local log file and keeps the current records in memory.
+ * Each change is written as a length-prefixed, checksummed entry, so the cost of a change
+ * does not depend on the number of stored records. When opened, the log is replayed to rebuild
+ * the records; an incomplete or corrupt tail left behind by a crash is truncated.
+ * Appended entries are forced to the storage device in batches, once per sync interval,
+ * and the log is periodically compacted to hold only current records once superseded entries dominate.
+ *
+ * @param <V> the type of records
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+public class LogStructuredRecordStore<V> implements AutoCloseable {
+    private static final byte OPERATION_PUT = 1;
+
+    private static final byte OPERATION_REMOVE = 2;
+
+    private static final byte OPERATION_CLEAR = 3;
+
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private static final int MINIMUM_ENTRIES_TO_COMPACT = 1_000;
+
+    private final Map<String, V> records = new ConcurrentHashMap<>();
+
+    private final Object lock = new Object();
+
+    /**
+     * The log file.
+     */
+    @Getter
+    private final File file;
+
+    private final ObjectMapper objectMapper;
+
+    private final Class<V> type;
+
+    private final Duration syncInterval;
+
+    /**
+     * Whether the log file existed and held entries before this store was opened.
+     */
+    @Getter
+    private final boolean existing;
+
+    private final ScheduledExecutorService scheduler;
+
+    private FileChannel channel;
+
+    private long entries;
+
+    private boolean dirty;
+
+    public LogStructuredRecordStore(final File file, final ObjectMapper objectMapper, final Class<V> type,
+                                    final Duration syncInterval, final Duration compactionInterval) throws IOException {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        this.type = type;
+        this.syncInterval = syncInterval;
+        this.existing = file.exists() && file.length() > 0;
+        FileUtils.forceMkdirParent(file);
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        replay();
+
+        val syncMillis = syncInterval.toMillis();
+        val compactionMillis = compactionInterval.toMillis();
+        if (syncMillis > 0 || compactionMillis > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                val thread = new Thread(runnable, getClass().getSimpleName() + '-' + file.getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            if (syncMillis > 0) {
+                scheduler.scheduleWithFixedDelay(this::sync, syncMillis, syncMillis, TimeUnit.MILLISECONDS);
+            }
+            if (compactionMillis > 0) {
+                scheduler.scheduleWithFixedDelay(this::compactIfNecessary, compactionMillis, compactionMillis, TimeUnit.MILLISECONDS);
+            }
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    private static int checksum(final byte[] payload) {
+        val crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static ByteBuffer frame(final byte[] payload) {
+        val buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length);
+        buffer.putInt(checksum(payload));
+        buffer.put(payload);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Gets the record stored under the key.
+     *
+     * @param key the key
+     * @return the record, or null
+     */
+    public V get(final String key) {
+        return records.get(key);
+    }
+
+    /**
+     * All current records.
+     *
+     * @return the records
+     */
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(records.values());
+    }
+
+    /**
+     * Number of current records.
+     *
+     * @return the size
+     */
+    public int size() {
+        return records.size();
+    }
+
+    /**
+     * Number of entries in the log, including superseded and deleted records.
+     *
+     * @return the entry count
+     */
+    public long getEntryCount() {
+        synchronized (lock) {
+            return entries;
+        }
+    }
+
+    /**
+     * Store the record under the key, replacing any previous record.
+     *
+     * @param key    the key
+     * @param record the record
+     */
+    public void put(final String key, final V record) {
+        FunctionUtils.doUnchecked(u -> {
+            val payload = encode(OPERATION_PUT, key, objectMapper.writeValueAsBytes(record));
+            synchronized (lock) {
+                append(payload);
+                records.put(key, record);
+            }
+        });
+    }
+
+    /**
+     * Remove the record stored under the key.
+     *
+     * @param key the key
+     * @return the removed record, or null
+     */
+    public V remove(final String key) {
+        return FunctionUtils.doUnchecked(() -> {
+            synchronized (lock) {
+                if (!records.containsKey(key)) {
+                    return null;
+                }
+                append(encode(OPERATION_REMOVE, key, new byte[0]));
+                return records.remove(key);
+            }
+        });
+    }
+
+    /**
+     * Remove all records.
+     */
+    public void clear() {
+        FunctionUtils.doUnchecked(u -> {
+            synchronized (lock) {
+                append(encode(OPERATION_CLEAR, StringUtils.EMPTY, new byte[0]));
+                records.clear();
+            }
+        });
+    }
+
+    /**
+     * Replace all records and rewrite the log to hold only the given records.
+     *
+     * @param replacements the records keyed by their keys
+     */
+    public void replaceAll(final Map<String, V> replacements) {
+        FunctionUtils.doUnchecked(u -> {
+            synchronized (lock) {
+                val previous = new HashMap<>(records);
+                records.clear();
+                records.putAll(replacements);
+                try {
+                    rewrite();
+                } catch (final Exception e) {
+                    records.clear();
+                    records.putAll(previous);
+                    throw e;
+                }
+            }
+        });
+    }
+
+    /**
+     * Rewrite the log to hold only the current records.
+     */
+    public void compact() {
+        FunctionUtils.doUnchecked(u -> {
+            synchronized (lock) {
+                rewrite();
+            }
+        });
+    }
+
+    /**
+     * Force appended entries to the storage device.
+     */
+    public void sync() {
+        final FileChannel target;
+        synchronized (lock) {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            target = channel;
+        }
+        try {
+            target.force(false);
+        } catch (final ClosedChannelException e) {
+            LOGGER.trace("Log [{}] was closed or compacted before it could be synced", file);
+        } catch (final Exception e) {
+            LoggingUtils.error(LOGGER, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            FunctionUtils.doUnchecked(u -> {
+                if (!scheduler.awaitTermination(1, TimeUnit.MINUTES)) {
+                    LOGGER.warn("Timed out waiting for scheduled tasks of log [{}] to complete", file);
+                }
+            });
+        }
+        FunctionUtils.doUnchecked(u -> {
+            synchronized (lock) {
+                if (channel.isOpen()) {
+                    channel.force(true);
+                    channel.close();
+                }
+            }
+        });
+    }
+
+    private void compactIfNecessary() {
+        try {
+            synchronized (lock) {
+                val superseded = entries - records.size();
+                if (superseded > Math.max(records.size(), MINIMUM_ENTRIES_TO_COMPACT)) {
+                    LOGGER.debug("Compacting log [{}] holding [{}] entries for [{}] records", file, entries, records.size());
+                    rewrite();
+                }
+            }
+        } catch (final Exception e) {
+            LoggingUtils.error(LOGGER, e);
+        }
+    }
+
+    private byte[] encode(final byte operation, final String key, final byte[] value) throws IOException {
+        val bytes = new ByteArrayOutputStream(value.length + key.length() + Short.BYTES + 1);
+        try (val out = new DataOutputStream(bytes)) {
+            out.writeByte(operation);
+            out.writeUTF(key);
+            out.write(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void append(final byte[] payload) throws IOException {
+        val buffer = frame(payload);
+        val position = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (syncInterval.isZero() || syncInterval.isNegative()) {
+                channel.force(false);
+            } else {
+                dirty = true;
+            }
+        } catch (final IOException e) {
+            LOGGER.warn("Unable to append to log [{}]; discarding the partial entry at offset [{}]", file, position);
+            channel.truncate(position);
+            channel.position(position);
+            throw e;
+        }
+        entries++;
+    }
+
+    private void apply(final byte[] payload) throws IOException {
+        try (val in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            val operation = in.readByte();
+            val key = in.readUTF();
+            switch (operation) {
+                case OPERATION_PUT:
+                    records.put(key, objectMapper.readValue((InputStream) in, type));
+                    break;
+                case OPERATION_REMOVE:
+                    records.remove(key);
+                    break;
+                case OPERATION_CLEAR:
+                    records.clear();
+                    break;
+                default:
+                    throw new IOException("Unknown operation " + operation);
+            }
+        }
+    }
+
+    private void replay() throws IOException {
+        val size = channel.size();
+        var position = 0L;
+        try (val in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            while (position + HEADER_SIZE <= size) {
+                val length = in.readInt();
+                val checksum = in.readInt();
+                if (length <= 0 || position + HEADER_SIZE + length > size) {
+                    break;
+                }
+                val payload = new byte[length];
+                in.readFully(payload);
+                if (checksum(payload) != checksum) {
+                    break;
+                }
+                apply(payload);
+                position += HEADER_SIZE + length;
+                entries++;
+            }
+        }
+        if (position < size) {
+            LOGGER.warn("Log [{}] holds an incomplete or corrupt entry at offset [{}]; truncating [{}] bytes",
+                file, position, size - position);
+            channel.truncate(position);
+            channel.force(true);
+        }
+        channel.position(position);
+        LOGGER.debug("Replayed [{}] entries into [{}] records from [{}]", entries, records.size(), file);
+    }
+
+    private void rewrite() throws IOException {
+        val temporaryFile = new File(file.getParentFile(), file.getName() + ".compact");
+        try (val fileOut = new FileOutputStream(temporaryFile);
+             val out = new BufferedOutputStream(fileOut)) {
+            for (val entry : records.entrySet()) {
+                val payload = encode(OPERATION_PUT, entry.getKey(), objectMapper.writeValueAsBytes(entry.getValue()));
+                val buffer = frame(payload);
+                out.write(buffer.array(), 0, buffer.limit());
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        }
+        channel.close();
+        try {
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            entries = records.size();
+            dirty = false;
+        } finally {
+            Files.deleteIfExists(temporaryFile.toPath());
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+    }
+}
@@ -15,6 +15,7 @@ import org.apereo.cas.util.crypto.PublicKeyFactoryBeanTests;
 import org.apereo.cas.util.function.FunctionUtilsTests;
 import org.apereo.cas.util.http.SimpleHttpClientFactoryBeanTests;
 import org.apereo.cas.util.io.FileWatcherServiceTests;
+import org.apereo.cas.util.io.LogStructuredRecordStoreTests;
 import org.apereo.cas.util.io.PathWatcherServiceTests;
 import org.apereo.cas.util.io.TemporaryFileSystemResourceTests;
 import org.apereo.cas.util.jwt.JsonWebTokenEncryptorTests;
@@ -89,6 +90,7 @@ import org.junit.platform.suite.api.Suite;
     TemporaryFileSystemResourceTests.class,
     PathWatcherServiceTests.class,
     FileWatcherServiceTests.class,
+    LogStructuredRecordStoreTests.class,
     JacksonObjectMapperFactoryTests.class,
     RegexPrincipalNameTransformerTests.class,
     GroovyPrincipalNameTransformerTests.class
@@ -0,0 +1,126 @@
+package org.apereo.cas.util.io;
+
+import org.apereo.cas.util.serialization.JacksonObjectMapperFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.val;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is {@link LogStructuredRecordStoreTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("FileSystem")
+public class LogStructuredRecordStoreTests {
+    private static final ObjectMapper MAPPER = JacksonObjectMapperFactory.builder()
+        .defaultTypingEnabled(false).build().toObjectMapper();
+
+    @TempDir
+    public File directory;
+
+    private LogStructuredRecordStore<SampleRecord> newStore(final Duration syncInterval) throws Exception {
+        return new LogStructuredRecordStore<>(new File(directory, "records.log"), MAPPER, SampleRecord.class,
+            syncInterval, Duration.ZERO);
+    }
+
+    @Test
+    public void verifyChangesReplayed() throws Exception {
+        try (val store = newStore(Duration.ofMillis(10))) {
+            assertFalse(store.isExisting());
+            store.put("first", new SampleRecord("casuser", 1));
+            store.put("second", new SampleRecord("casuser", 2));
+            store.put("second", new SampleRecord("casuser", 3));
+            store.remove("first");
+            assertNull(store.remove("unknown"));
+            assertEquals(4, store.getEntryCount());
+        }
+        try (val store = newStore(Duration.ofMillis(10))) {
+            assertTrue(store.isExisting());
+            assertEquals(1, store.size());
+            assertNull(store.get("first"));
+            assertEquals(3, store.get("second").getValue());
+            store.clear();
+        }
+        try (val store = newStore(Duration.ZERO)) {
+            assertEquals(0, store.size());
+        }
+    }
+
+    @Test
+    public void verifyCorruptTailTruncated() throws Exception {
+        try (val store = newStore(Duration.ZERO)) {
+            store.put("first", new SampleRecord("casuser", 1));
+            store.put("second", new SampleRecord("casuser", 2));
+        }
+        val file = new File(directory, "records.log");
+        val length = file.length();
+        Files.write(file.toPath(), new byte[]{0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+        try (val store = newStore(Duration.ZERO)) {
+            assertEquals(2, store.size());
+            assertEquals(length, file.length());
+            store.put("third", new SampleRecord("casuser", 3));
+        }
+        try (val store = newStore(Duration.ZERO)) {
+            assertEquals(3, store.size());
+        }
+    }
+
+    @Test
+    public void verifyCompaction() throws Exception {
+        val file = new File(directory, "records.log");
+        try (val store = newStore(Duration.ofMillis(10))) {
+            for (var i = 0; i < 100; i++) {
+                store.put("record", new SampleRecord("casuser", i));
+            }
+            val length = file.length();
+            store.compact();
+            assertEquals(1, store.getEntryCount());
+            assertTrue(file.length() < length);
+            store.put("other", new SampleRecord("casuser", 100));
+        }
+        try (val store = newStore(Duration.ZERO)) {
+            assertEquals(2, store.size());
+            assertEquals(99, store.get("record").getValue());
+        }
+    }
+
+    @Test
+    public void verifyReplaceAll() throws Exception {
+        try (val store = newStore(Duration.ZERO)) {
+            store.put("first", new SampleRecord("casuser", 1));
+            store.replaceAll(Map.of("second", new SampleRecord("casuser", 2), "third", new SampleRecord("casuser", 3)));
+            assertEquals(2, store.getEntryCount());
+        }
+        try (val store = newStore(Duration.ZERO)) {
+            assertEquals(2, store.size());
+            assertNull(store.get("first"));
+            assertEquals(2, store.values().stream().filter(r -> r.getPrincipal().equals("casuser")).count());
+        }
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    private static class SampleRecord {
+        private String principal;
+
+        private int value;
+    }
+}
@@ -10,7 +10,9 @@ import org.apereo.cas.util.RegexUtilsTests;
 import org.apereo.cas.util.ResourceUtilsTests;
 import org.apereo.cas.util.ScriptingUtilsTests;
 import org.apereo.cas.util.SystemUtilsTests;
+import org.apereo.cas.util.ThreadLocalSecureRandomTests;
 import org.apereo.cas.util.cipher.BinaryCipherExecutorTests;
+import org.apereo.cas.util.cipher.CompactCipherEnvelopeTests;
 import org.apereo.cas.util.cipher.DefaultTicketCipherExecutorTests;
 import org.apereo.cas.util.cipher.JasyptNumberCipherExecutorTests;
 import org.apereo.cas.util.cipher.JsonWebKeySetStringCipherExecutorTests;
@@ -60,9 +62,11 @@ import org.junit.platform.suite.api.Suite;
     JasyptNumberCipherExecutorTests.class,
     StringCipherExecutorTests.class,
     BinaryCipherExecutorTests.class,
+    CompactCipherEnvelopeTests.class,
     ResourceUtilsTests.class,
     ScriptingUtilsTests.class,
     RandomUtilsTests.class,
+    ThreadLocalSecureRandomTests.class,
     SystemUtilsTests.class,
     JsonUtilsTests.class
 })
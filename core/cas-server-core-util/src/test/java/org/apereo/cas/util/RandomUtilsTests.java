@@ -28,6 +28,21 @@ public class RandomUtilsTests {
         assertNotNull(RandomUtils.getNativeInstance());
     }
 
+    @Test
+    public void verifySecureRandomType() {
+        try {
+            System.setProperty(RandomUtils.SYSTEM_PROPERTY_SECURE_RANDOM_TYPE, "thread_local_drbg");
+            assertTrue(RandomUtils.getInstance() instanceof ThreadLocalSecureRandom);
+            assertSame(RandomUtils.getInstance(), RandomUtils.getInstance());
+            assertNotNull(RandomUtils.generateSecureRandomId());
+            assertEquals(8, RandomUtils.randomAlphanumeric(8).length());
+            System.setProperty(RandomUtils.SYSTEM_PROPERTY_SECURE_RANDOM_TYPE, "unknown");
+            assertFalse(RandomUtils.getInstance() instanceof ThreadLocalSecureRandom);
+        } finally {
+            System.clearProperty(RandomUtils.SYSTEM_PROPERTY_SECURE_RANDOM_TYPE);
+        }
+    }
+
     @Test
     public void verifyOperation() {
         val value = RandomUtils.generateSecureRandomId();
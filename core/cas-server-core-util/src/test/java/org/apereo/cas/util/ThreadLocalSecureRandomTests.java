@@ -0,0 +1,86 @@
+package org.apereo.cas.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is {@link ThreadLocalSecureRandomTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("Utility")
+public class ThreadLocalSecureRandomTests {
+
+    @Test
+    public void verifyOperation() {
+        val random = new ThreadLocalSecureRandom();
+        assertEquals("DRBG", random.getAlgorithm());
+        val first = new byte[32];
+        val second = new byte[32];
+        random.nextBytes(first);
+        random.nextBytes(second);
+        assertFalse(Arrays.equals(first, second));
+        assertEquals(16, random.generateSeed(16).length);
+        val value = random.nextInt(10);
+        assertTrue(value >= 0 && value < 10);
+    }
+
+    @Test
+    public void verifyReseedFromNativeSource() {
+        val seeds = new AtomicInteger();
+        val seedSource = new SecureRandom() {
+            private static final long serialVersionUID = 3447592937201592844L;
+
+            @Override
+            public void nextBytes(final byte[] bytes) {
+                seeds.incrementAndGet();
+                super.nextBytes(bytes);
+            }
+        };
+        val random = new ThreadLocalSecureRandom(seedSource, 5);
+        for (var i = 0; i < 20; i++) {
+            random.nextBytes(new byte[1024]);
+        }
+        assertEquals(5, seeds.get());
+        for (var i = 0; i < 32 * 5; i++) {
+            random.nextBytes(new byte[16]);
+        }
+        assertEquals(6, seeds.get());
+    }
+
+    @Test
+    public void verifyGeneratorPerThread() throws Exception {
+        val random = new ThreadLocalSecureRandom();
+        val values = ConcurrentHashMap.<String>newKeySet();
+        val executor = Executors.newFixedThreadPool(8);
+        try {
+            for (var i = 0; i < 8; i++) {
+                executor.submit(() -> collect(random, values));
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+        assertEquals(8 * 1000, values.size());
+    }
+
+    private static void collect(final SecureRandom random, final Set<String> values) {
+        for (var i = 0; i < 1000; i++) {
+            val bytes = new byte[20];
+            random.nextBytes(bytes);
+            values.add(EncodingUtils.hexEncode(bytes));
+        }
+    }
+}
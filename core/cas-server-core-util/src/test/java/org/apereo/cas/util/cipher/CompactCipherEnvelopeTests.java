@@ -0,0 +1,181 @@
+package org.apereo.cas.util.cipher;
+
+import org.apereo.cas.util.crypto.CipherExecutor;
+import org.apereo.cas.util.crypto.DecryptionException;
+
+import lombok.val;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is {@link CompactCipherEnvelopeTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("Cipher")
+public class CompactCipherEnvelopeTests {
+    private static final String TICKET_ENCRYPTION_KEY = "SEL6UsuoRFnMLzYVt39y40ebQ8ma1sea05uHnfUwOKU=";
+
+    private static final String TICKET_SIGNING_KEY = "VfYEhlNRkOuG8AaWXQmG0QB7XYsvPwpTF6w8pkucuQ3E8ZMBRyesEPMvuBFyF-8czyvapyrsaTwM49x-JzZAKQ";
+
+    private static final String ROTATED_ENCRYPTION_KEY = "qJ5lc45BTvnJQl+pVp8+scQ/hRSvRvWm";
+
+    private static final String ROTATED_SIGNING_KEY = "GMj2k7oO-tv65hOfz5XPrzjKGtpqzvs9lDyLfhftfoNPjBQUPMwlmP3U6sPsz1NZB-Inc3YvL8rO1k9jYzqUwQ";
+
+    private static final String TGC_ENCRYPTION_KEY = "1PbwSbnHeinpkZOSZjuSJ8yYpUrInm5aaV18J2Ar4rM";
+
+    private static final String TGC_SIGNING_KEY = "szxK-5_eJjs-aUj-64MpUZ-GPPzGLhYPLGl0wrYjYNVAGva2P0lLe6UGKGM7k8dWxsOVGutZWgvmY3l5oVPO3w";
+
+    private static final int THREADS = 4;
+
+    private static final int OPERATIONS = 250;
+
+    private static DefaultTicketCipherExecutor getTicketCipher(final String encryptionKey, final String signingKey) {
+        return new DefaultTicketCipherExecutor(encryptionKey, signingKey, "AES", 512, 256, "compact");
+    }
+
+    private static void runConcurrently(final Runnable operation) throws Exception {
+        val executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            val start = new CountDownLatch(1);
+            val tasks = new ArrayList<Callable<Void>>();
+            for (var i = 0; i < THREADS; i++) {
+                tasks.add(() -> {
+                    start.await();
+                    for (var j = 0; j < OPERATIONS; j++) {
+                        operation.run();
+                    }
+                    return null;
+                });
+            }
+            val results = new ArrayList<Future<Void>>();
+            tasks.forEach(task -> results.add(executor.submit(task)));
+            start.countDown();
+            for (val result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void verifyConcurrentRoundTrips(final CipherExecutor<byte[], byte[]> jose,
+                                                   final CipherExecutor<byte[], byte[]> compact) throws Exception {
+        val payload = RandomStringUtils.randomAlphanumeric(512).getBytes(StandardCharsets.UTF_8);
+        runConcurrently(() -> {
+            val encoded = compact.encode(payload);
+            assertTrue(CompactCipherEnvelope.isEnvelope(encoded));
+            assertArrayEquals(payload, compact.decode(encoded));
+        });
+        assertTrue(compact.encode(payload).length < jose.encode(payload).length);
+    }
+
+    @Test
+    public void verifyEnvelope() {
+        val cipher = getTicketCipher(TICKET_ENCRYPTION_KEY, TICKET_SIGNING_KEY);
+        cipher.enableCompactEnvelope(List.of());
+        assertNotNull(cipher.getCompactEnvelope());
+
+        val value = "ST-1234567890".getBytes(StandardCharsets.UTF_8);
+        val encoded = cipher.encode(value);
+        assertTrue(CompactCipherEnvelope.isEnvelope(encoded));
+        assertEquals(CompactCipherEnvelope.VERSION, encoded[0]);
+        assertArrayEquals(value, cipher.decode(encoded));
+        assertFalse(Arrays.equals(encoded, cipher.encode(value)));
+
+        val tampered = encoded.clone();
+        tampered[tampered.length / 2] ^= 1;
+        assertThrows(DecryptionException.class, () -> cipher.decode(tampered));
+
+        val other = getTicketCipher(TICKET_ENCRYPTION_KEY, ROTATED_SIGNING_KEY);
+        other.enableCompactEnvelope(List.of());
+        assertThrows(DecryptionException.class, () -> other.decode(encoded));
+    }
+
+    @Test
+    public void verifyLegacyValuesAreDecoded() {
+        val legacy = getTicketCipher(TICKET_ENCRYPTION_KEY, TICKET_SIGNING_KEY);
+        val value = "TGT-1234567890".getBytes(StandardCharsets.UTF_8);
+        val encoded = legacy.encode(value);
+        assertFalse(CompactCipherEnvelope.isEnvelope(encoded));
+
+        val cipher = getTicketCipher(TICKET_ENCRYPTION_KEY, TICKET_SIGNING_KEY);
+        cipher.enableCompactEnvelope(List.of());
+        assertArrayEquals(value, cipher.decode(encoded));
+    }
+
+    @Test
+    public void verifyRotatedKeys() {
+        val previous = getTicketCipher(ROTATED_ENCRYPTION_KEY, ROTATED_SIGNING_KEY);
+        previous.enableCompactEnvelope(List.of());
+        val value = "ST-1234567890".getBytes(StandardCharsets.UTF_8);
+        val encoded = previous.encode(value);
+
+        val current = getTicketCipher(TICKET_ENCRYPTION_KEY, TICKET_SIGNING_KEY);
+        current.enableCompactEnvelope(List.of());
+        assertThrows(DecryptionException.class, () -> current.decode(encoded));
+
+        val rotated = getTicketCipher(TICKET_ENCRYPTION_KEY, TICKET_SIGNING_KEY);
+        rotated.enableCompactEnvelope(List.of(Pair.of(ROTATED_ENCRYPTION_KEY, ROTATED_SIGNING_KEY)));
+        assertArrayEquals(value, rotated.decode(encoded));
+        assertArrayEquals(value, current.decode(rotated.encode(value)));
+    }
+
+    @Test
+    public void verifyStringCipher() {
+        val legacy = new TicketGrantingCookieCipherExecutor(TGC_ENCRYPTION_KEY, TGC_SIGNING_KEY, 0, 0);
+        val legacyValue = legacy.encode("TGT-1234567890");
+
+        val cipher = new TicketGrantingCookieCipherExecutor(TGC_ENCRYPTION_KEY, TGC_SIGNING_KEY, 0, 0);
+        cipher.enableCompactEnvelope(List.of());
+        assertNotNull(cipher.getCompactEnvelope());
+        val encoded = cipher.encode("TGT-1234567890");
+        assertFalse(encoded.contains("."));
+        assertTrue(encoded.length() < legacyValue.length());
+        assertEquals("TGT-1234567890", cipher.decode(encoded));
+        assertEquals("TGT-1234567890", cipher.decode(legacyValue));
+    }
+
+    @Test
+    public void verifyUnsupportedKeys() {
+        val cipher = new BaseStringCipherExecutor(null, TGC_SIGNING_KEY, false, true, 0, 0) {
+        };
+        cipher.enableCompactEnvelope(List.of());
+        assertNull(cipher.getCompactEnvelope());
+        assertEquals("ST-1234567890", cipher.decode(cipher.encode("ST-1234567890")));
+    }
+
+    @Test
+    public void verifyConcurrentRoundTrips() throws Exception {
+        val ticketRegistry = getTicketCipher(TICKET_ENCRYPTION_KEY, TICKET_SIGNING_KEY);
+        val compactTicketRegistry = getTicketCipher(TICKET_ENCRYPTION_KEY, TICKET_SIGNING_KEY);
+        compactTicketRegistry.enableCompactEnvelope(List.of());
+        verifyConcurrentRoundTrips(ticketRegistry, compactTicketRegistry);
+
+        val webflow = new WebflowConversationStateCipherExecutor(TICKET_ENCRYPTION_KEY, TICKET_SIGNING_KEY, "AES", 512, 256);
+        val compactWebflow = new WebflowConversationStateCipherExecutor(TICKET_ENCRYPTION_KEY, TICKET_SIGNING_KEY, "AES", 512, 256);
+        compactWebflow.enableCompactEnvelope(List.of());
+        verifyConcurrentRoundTrips(webflow, compactWebflow);
+
+        val cookie = new TicketGrantingCookieCipherExecutor(TGC_ENCRYPTION_KEY, TGC_SIGNING_KEY, 0, 0);
+        val compactCookie = new TicketGrantingCookieCipherExecutor(TGC_ENCRYPTION_KEY, TGC_SIGNING_KEY, 0, 0);
+        compactCookie.enableCompactEnvelope(List.of());
+        val tgt = "TGT-1-" + RandomStringUtils.randomAlphanumeric(50);
+        runConcurrently(() -> assertEquals(tgt, compactCookie.decode(compactCookie.encode(tgt))));
+        assertTrue(compactCookie.encode(tgt).length() < cookie.encode(tgt).length());
+    }
+}
@@ -0,0 +1,40 @@
+package org.apereo.cas.web.support;
+
+import org.apereo.cas.authentication.attribute.AttributeRepositoryResolutionContext;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.io.IOException;
+
+/**
+ * Servlet Filter that opens an {@link AttributeRepositoryResolutionContext} for the duration of
+ * the request/response processing cycle, so that results produced by attribute repositories
+ * are shared by principal resolution and attribute release within the same request.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+public class AttributeRepositoryResolutionContextFilter implements Filter {
+
+    @Override
+    public void doFilter(final ServletRequest servletRequest,
+                         final ServletResponse servletResponse,
+                         final FilterChain filterChain) throws IOException, ServletException {
+
+        try (AttributeRepositoryResolutionContext context = AttributeRepositoryResolutionContext.open()) {
+            filterChain.doFilter(servletRequest, servletResponse);
+        }
+    }
+
+    @Override
+    public void init(final FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
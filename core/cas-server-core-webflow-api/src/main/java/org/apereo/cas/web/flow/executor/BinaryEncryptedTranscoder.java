@@ -0,0 +1,165 @@
+package org.apereo.cas.web.flow.executor;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.lang3.ArrayUtils;
+import org.cryptacular.bean.CipherBean;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes an object by encrypting its binary flow state, as produced by {@link BinaryFlowStateOutput}.
+ * The encoded state is prefixed with a header that carries the format version, whether the state is
+ * compressed and the fingerprint of the {@link FlowStateTypeRegistry}; state that carries no such header
+ * is handed over to Java deserialization, so that flows started before the format was switched can resume.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+@Getter
+public class BinaryEncryptedTranscoder extends EncryptedTranscoder {
+    private static final byte[] MAGIC = {(byte) 0xCA, (byte) 0x5F};
+
+    private static final int VERSION = 1;
+
+    private static final int FLAG_COMPRESSED = 0x01;
+
+    private static final int HEADER_LENGTH = 12;
+
+    private static final int COMPRESSION_THRESHOLD = 256;
+
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+    private final FlowStateTypeRegistry registry;
+
+    public BinaryEncryptedTranscoder(final CipherBean cipherBean, final FlowStateTypeRegistry registry) {
+        this(cipherBean, true, registry);
+    }
+
+    public BinaryEncryptedTranscoder(final CipherBean cipherBean, final boolean compression,
+                                     final FlowStateTypeRegistry registry) {
+        super(cipherBean, compression);
+        this.registry = registry;
+    }
+
+    @Override
+    public byte[] encode(final Object o) throws IOException {
+        if (o == null) {
+            return ArrayUtils.EMPTY_BYTE_ARRAY;
+        }
+        try (val output = new BinaryFlowStateOutput(registry)) {
+            output.writeObject(o);
+            val compress = isCompression() && output.size() >= COMPRESSION_THRESHOLD;
+            val data = compress
+                ? deflate(output.getBuffer(), output.size())
+                : copyWithHeader(output.getBuffer(), output.size());
+            writeHeader(data, compress ? FLAG_COMPRESSED : 0, registry.getFingerprint(), output.size());
+            LOGGER.trace("Encoded flow state into [{}] bytes, compressed: [{}]", data.length, compress);
+            return encrypt(data);
+        }
+    }
+
+    @Override
+    public Object decode(final byte[] encoded) throws IOException {
+        val data = decrypt(encoded);
+        if (data.length < HEADER_LENGTH || data[0] != MAGIC[0] || data[1] != MAGIC[1]) {
+            LOGGER.trace("Flow state is not encoded in binary form; decoding it via Java deserialization");
+            return deserialize(data);
+        }
+        if (data[2] != VERSION) {
+            throw new StreamCorruptedException("Unsupported binary flow state version " + data[2]);
+        }
+        val fingerprint = readFixedInt(data, 4);
+        if (fingerprint != registry.getFingerprint()) {
+            throw new StreamCorruptedException("Binary flow state was produced with a different type registry");
+        }
+        val length = readFixedInt(data, 8);
+        try {
+            if ((data[3] & FLAG_COMPRESSED) != 0) {
+                val state = inflate(data, length);
+                return new BinaryFlowStateInput(registry, state, 0, state.length).readObject();
+            }
+            if (length != data.length - HEADER_LENGTH) {
+                throw new StreamCorruptedException("Invalid binary flow state length " + length);
+            }
+            return new BinaryFlowStateInput(registry, data, HEADER_LENGTH, length).readObject();
+        } catch (final ClassNotFoundException e) {
+            throw new IOException("Deserialization error", e);
+        }
+    }
+
+    private static void writeHeader(final byte[] data, final int flags, final int fingerprint, final int length) {
+        data[0] = MAGIC[0];
+        data[1] = MAGIC[1];
+        data[2] = VERSION;
+        data[3] = (byte) flags;
+        writeFixedInt(data, 4, fingerprint);
+        writeFixedInt(data, 8, length);
+    }
+
+    private static byte[] copyWithHeader(final byte[] buffer, final int length) {
+        val data = new byte[HEADER_LENGTH + length];
+        System.arraycopy(buffer, 0, data, HEADER_LENGTH, length);
+        return data;
+    }
+
+    private static byte[] deflate(final byte[] buffer, final int length) {
+        val deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setInput(buffer, 0, length);
+        deflater.finish();
+        var data = new byte[HEADER_LENGTH + Math.max(64, length / 2)];
+        var count = HEADER_LENGTH;
+        while (!deflater.finished()) {
+            if (count == data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            count += deflater.deflate(data, count, data.length - count);
+        }
+        return Arrays.copyOf(data, count);
+    }
+
+    private static byte[] inflate(final byte[] data, final int length) throws IOException {
+        val inflater = INFLATERS.get();
+        inflater.reset();
+        inflater.setInput(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+        val state = new byte[length];
+        try {
+            var count = 0;
+            while (count < length && !inflater.finished()) {
+                val inflated = inflater.inflate(state, count, length - count);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                count += inflated;
+            }
+            if (count != length) {
+                throw new StreamCorruptedException("Invalid compressed binary flow state");
+            }
+            return state;
+        } catch (final DataFormatException e) {
+            throw new StreamCorruptedException("Invalid compressed binary flow state: " + e.getMessage());
+        }
+    }
+
+    private static void writeFixedInt(final byte[] data, final int offset, final int value) {
+        data[offset] = (byte) (value >>> 24);
+        data[offset + 1] = (byte) (value >>> 16);
+        data[offset + 2] = (byte) (value >>> 8);
+        data[offset + 3] = (byte) value;
+    }
+
+    private static int readFixedInt(final byte[] data, final int offset) {
+        return (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16
+               | (data[offset + 2] & 0xFF) << 8 | data[offset + 3] & 0xFF;
+    }
+}
@@ -0,0 +1,359 @@
+package org.apereo.cas.web.flow.executor;
+
+import lombok.val;
+import org.springframework.util.ClassUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.apereo.cas.web.flow.executor.BinaryFlowStateOutput.*;
+
+/**
+ * This is {@link BinaryFlowStateInput} that decodes flow state
+ * that was encoded by {@link BinaryFlowStateOutput}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+public class BinaryFlowStateInput implements ObjectInput {
+    private final FlowStateTypeRegistry registry;
+
+    private final byte[] buffer;
+
+    private final int limit;
+
+    private final List<Object> references = new ArrayList<>();
+
+    private final List<String> names = new ArrayList<>();
+
+    private int position;
+
+    public BinaryFlowStateInput(final FlowStateTypeRegistry registry, final byte[] buffer,
+                                final int offset, final int length) {
+        this.registry = registry;
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    @Override
+    public Object readObject() throws ClassNotFoundException, IOException {
+        val tag = readUnsignedByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_REFERENCE:
+                val reference = readVarInt();
+                if (reference >= references.size() || references.get(reference) == null) {
+                    throw new StreamCorruptedException("Invalid object reference " + reference);
+                }
+                return references.get(reference);
+            case TAG_STRING:
+                return readString();
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_INTEGER:
+                return readInt();
+            case TAG_LONG:
+                return readLong();
+            case TAG_DOUBLE:
+                return readDouble();
+            case TAG_ENUM:
+                return readEnum();
+            case TAG_ZONED_DATE_TIME:
+                return ZonedDateTime.parse(readString());
+            case TAG_LOCAL_DATE_TIME:
+                return LocalDateTime.parse(readString());
+            case TAG_LOCAL_DATE:
+                return LocalDate.parse(readString());
+            case TAG_INSTANT:
+                return Instant.parse(readString());
+            default:
+                return readReferenceable(tag);
+        }
+    }
+
+    private Object readReferenceable(final int tag) throws ClassNotFoundException, IOException {
+        val index = references.size();
+        references.add(null);
+        switch (tag) {
+            case TAG_REGISTERED:
+                val registration = registry.getRegistration(readVarInt());
+                val instance = registration.getSerializer().newInstance(this);
+                references.set(index, instance);
+                registration.getSerializer().read(instance, this);
+                return instance;
+            case TAG_BYTES:
+                val bytes = new byte[readLength()];
+                readFully(bytes);
+                return track(index, bytes);
+            case TAG_CHARS:
+                val chars = new char[readLength()];
+                for (var i = 0; i < chars.length; i++) {
+                    chars[i] = readChar();
+                }
+                return track(index, chars);
+            case TAG_LIST:
+                return readElements(index, new ArrayList<>());
+            case TAG_LINKED_LIST:
+                return readElements(index, new LinkedList<>());
+            case TAG_SET:
+                return readElements(index, new LinkedHashSet<>());
+            case TAG_MAP:
+                return readEntries(index, new LinkedHashMap<>());
+            case TAG_SORTED_MAP:
+                return readEntries(index, new TreeMap<>());
+            case TAG_CASE_INSENSITIVE_MAP:
+                return readEntries(index, (Map) new TreeMap<String, Object>(String.CASE_INSENSITIVE_ORDER));
+            case TAG_SERIALIZED:
+                return track(index, readSerialized());
+            default:
+                throw new StreamCorruptedException("Invalid type tag " + tag);
+        }
+    }
+
+    private Object track(final int index, final Object value) {
+        references.set(index, value);
+        return value;
+    }
+
+    private Collection<Object> readElements(final int index, final Collection<Object> collection)
+        throws ClassNotFoundException, IOException {
+        track(index, collection);
+        val size = readLength();
+        for (var i = 0; i < size; i++) {
+            collection.add(readObject());
+        }
+        return collection;
+    }
+
+    private Map<Object, Object> readEntries(final int index, final Map<Object, Object> map)
+        throws ClassNotFoundException, IOException {
+        track(index, map);
+        val size = readLength();
+        for (var i = 0; i < size; i++) {
+            map.put(readObject(), readObject());
+        }
+        return map;
+    }
+
+    @SuppressWarnings("BanSerializableRead")
+    private Object readSerialized() throws ClassNotFoundException, IOException {
+        val length = readLength();
+        try (val in = new ObjectInputStream(new ByteArrayInputStream(buffer, position, length))) {
+            val value = in.readObject();
+            position += length;
+            return value;
+        }
+    }
+
+    private Object readEnum() throws ClassNotFoundException, IOException {
+        val type = ClassUtils.forName(readName(), getClass().getClassLoader());
+        if (!type.isEnum()) {
+            throw new StreamCorruptedException(type.getName() + " is not an enum");
+        }
+        return Enum.valueOf((Class) type, readString());
+    }
+
+    private String readName() throws IOException {
+        val index = readVarInt();
+        if (index == 0) {
+            val name = readString();
+            names.add(name);
+            return name;
+        }
+        if (index > names.size()) {
+            throw new StreamCorruptedException("Invalid name reference " + index);
+        }
+        return names.get(index - 1);
+    }
+
+    private String readString() throws IOException {
+        val length = readLength();
+        val value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    private int readLength() throws IOException {
+        val length = readVarInt();
+        if (length < 0 || length > limit - position) {
+            throw new StreamCorruptedException("Invalid length " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Read an unsigned variable-length integer.
+     *
+     * @return the value
+     * @throws IOException the io exception
+     */
+    int readVarInt() throws IOException {
+        return (int) readVarLong();
+    }
+
+    private long readVarLong() throws IOException {
+        var result = 0L;
+        for (var shift = 0; shift < 64; shift += 7) {
+            val b = readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new StreamCorruptedException("Malformed variable-length integer");
+    }
+
+    private int readFixedInt() throws IOException {
+        ensureAvailable(4);
+        val value = (buffer[position] & 0xFF) << 24 | (buffer[position + 1] & 0xFF) << 16
+                    | (buffer[position + 2] & 0xFF) << 8 | buffer[position + 3] & 0xFF;
+        position += 4;
+        return value;
+    }
+
+    private void ensureAvailable(final int length) throws EOFException {
+        if (position + length > limit) {
+            throw new EOFException();
+        }
+    }
+
+    @Override
+    public int read() {
+        return position < limit ? buffer[position++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte[] b) {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) {
+        if (position >= limit) {
+            return -1;
+        }
+        val count = Math.min(len, limit - position);
+        System.arraycopy(buffer, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public long skip(final long n) {
+        val count = (int) Math.max(0, Math.min(n, limit - position));
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void readFully(final byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(final byte[] b, final int off, final int len) throws IOException {
+        ensureAvailable(len);
+        System.arraycopy(buffer, position, b, off, len);
+        position += len;
+    }
+
+    @Override
+    public int skipBytes(final int n) {
+        return (int) skip(n);
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readUnsignedByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return (byte) readUnsignedByte();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        ensureAvailable(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return (short) readInt();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return (char) readVarInt();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        val value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        val value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readFixedInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        val high = readFixedInt();
+        val low = readFixedInt();
+        return Double.longBitsToDouble((long) high << 32 | low & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        return readString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return readString();
+    }
+}
@@ -0,0 +1,481 @@
+package org.apereo.cas.web.flow.executor;
+
+import lombok.val;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * This is {@link BinaryFlowStateOutput} that encodes flow state into a compact binary form.
+ * Strings, numbers, enums, dates and the common collection types are written with a one-byte tag
+ * followed by their content, with numbers as variable-length integers. Types that are registered with the
+ * {@link FlowStateTypeRegistry} are written with their registered identifier, and their state is written
+ * by the registered serializer. Objects that are written more than once are written once, and then referenced.
+ * Only the mutable collection types that are decoded as the same or an equivalent type are written
+ * with their own tag; unmodifiable and immutable collections, along with any other serializable value,
+ * are written using Java serialization, as an opaque block, so they remain unmodifiable once decoded.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+public class BinaryFlowStateOutput implements ObjectOutput {
+    /**
+     * Tag for null values.
+     */
+    static final int TAG_NULL = 0;
+
+    /**
+     * Tag for objects that were already written.
+     */
+    static final int TAG_REFERENCE = 1;
+
+    /**
+     * Tag for strings.
+     */
+    static final int TAG_STRING = 2;
+
+    /**
+     * Tag for {@link Boolean#TRUE}.
+     */
+    static final int TAG_TRUE = 3;
+
+    /**
+     * Tag for {@link Boolean#FALSE}.
+     */
+    static final int TAG_FALSE = 4;
+
+    /**
+     * Tag for integers.
+     */
+    static final int TAG_INTEGER = 5;
+
+    /**
+     * Tag for longs.
+     */
+    static final int TAG_LONG = 6;
+
+    /**
+     * Tag for doubles.
+     */
+    static final int TAG_DOUBLE = 7;
+
+    /**
+     * Tag for enums.
+     */
+    static final int TAG_ENUM = 8;
+
+    /**
+     * Tag for lists.
+     */
+    static final int TAG_LIST = 9;
+
+    /**
+     * Tag for linked lists.
+     */
+    static final int TAG_LINKED_LIST = 10;
+
+    /**
+     * Tag for sets.
+     */
+    static final int TAG_SET = 11;
+
+    /**
+     * Tag for maps.
+     */
+    static final int TAG_MAP = 12;
+
+    /**
+     * Tag for sorted maps, in natural order.
+     */
+    static final int TAG_SORTED_MAP = 13;
+
+    /**
+     * Tag for sorted maps, with case-insensitive keys.
+     */
+    static final int TAG_CASE_INSENSITIVE_MAP = 14;
+
+    /**
+     * Tag for byte arrays.
+     */
+    static final int TAG_BYTES = 15;
+
+    /**
+     * Tag for char arrays.
+     */
+    static final int TAG_CHARS = 16;
+
+    /**
+     * Tag for zoned date-times.
+     */
+    static final int TAG_ZONED_DATE_TIME = 17;
+
+    /**
+     * Tag for local date-times.
+     */
+    static final int TAG_LOCAL_DATE_TIME = 18;
+
+    /**
+     * Tag for local dates.
+     */
+    static final int TAG_LOCAL_DATE = 19;
+
+    /**
+     * Tag for instants.
+     */
+    static final int TAG_INSTANT = 20;
+
+    /**
+     * Tag for registered types.
+     */
+    static final int TAG_REGISTERED = 21;
+
+    /**
+     * Tag for values written using Java serialization.
+     */
+    static final int TAG_SERIALIZED = 22;
+
+    private static final int MAXIMUM_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final Set<Class<?>> COLLECTION_TYPES = Set.of(ArrayList.class, LinkedList.class, HashSet.class, LinkedHashSet.class);
+
+    private static final Set<Class<?>> MAP_TYPES = Set.of(HashMap.class, LinkedHashMap.class);
+
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[4096]);
+
+    private final FlowStateTypeRegistry registry;
+
+    private final Map<Object, Integer> references = new IdentityHashMap<>();
+
+    private final Map<String, Integer> names = new HashMap<>();
+
+    private byte[] buffer;
+
+    private int count;
+
+    public BinaryFlowStateOutput(final FlowStateTypeRegistry registry) {
+        this.registry = registry;
+        this.buffer = BUFFERS.get();
+        BUFFERS.set(new byte[0]);
+    }
+
+    /**
+     * Gets the bytes written so far.
+     *
+     * @return the bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * Gets the number of bytes written so far.
+     *
+     * @return the size
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the underlying buffer; only the first {@link #size()} bytes are meaningful.
+     *
+     * @return the buffer
+     */
+    byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Hand the buffer back to the calling thread, for reuse by the next output.
+     */
+    @Override
+    public void close() {
+        if (buffer.length <= MAXIMUM_RETAINED_CAPACITY) {
+            BUFFERS.set(buffer);
+        }
+        buffer = new byte[0];
+        count = 0;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void writeObject(final Object value) throws IOException {
+        if (value == null) {
+            writeTag(TAG_NULL);
+        } else if (value instanceof String) {
+            writeTag(TAG_STRING);
+            writeString((String) value);
+        } else if (value instanceof Boolean) {
+            writeTag((Boolean) value ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Integer) {
+            writeTag(TAG_INTEGER);
+            writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            writeTag(TAG_LONG);
+            writeLong((Long) value);
+        } else if (value instanceof Double) {
+            writeTag(TAG_DOUBLE);
+            writeDouble((Double) value);
+        } else if (value instanceof Enum) {
+            writeTag(TAG_ENUM);
+            writeName(((Enum<?>) value).getDeclaringClass().getName());
+            writeString(((Enum<?>) value).name());
+        } else if (value instanceof ZonedDateTime) {
+            writeTag(TAG_ZONED_DATE_TIME);
+            writeString(value.toString());
+        } else if (value instanceof LocalDateTime) {
+            writeTag(TAG_LOCAL_DATE_TIME);
+            writeString(value.toString());
+        } else if (value instanceof LocalDate) {
+            writeTag(TAG_LOCAL_DATE);
+            writeString(value.toString());
+        } else if (value instanceof Instant) {
+            writeTag(TAG_INSTANT);
+            writeString(value.toString());
+        } else {
+            writeReference(value);
+        }
+    }
+
+    private void writeReference(final Object value) throws IOException {
+        val reference = references.get(value);
+        if (reference != null) {
+            writeTag(TAG_REFERENCE);
+            writeVarInt(reference);
+            return;
+        }
+        references.put(value, references.size());
+
+        val registration = registry.getRegistration(value.getClass());
+        if (registration != null) {
+            writeTag(TAG_REGISTERED);
+            writeVarInt(registration.getId());
+            registration.getSerializer().write(value, this);
+        } else if (value instanceof byte[]) {
+            writeTag(TAG_BYTES);
+            val bytes = (byte[]) value;
+            writeVarInt(bytes.length);
+            write(bytes);
+        } else if (value instanceof char[]) {
+            writeTag(TAG_CHARS);
+            val chars = (char[]) value;
+            writeVarInt(chars.length);
+            for (val c : chars) {
+                writeVarInt(c);
+            }
+        } else if (isCollectionType(value)) {
+            val collection = (Collection<?>) value;
+            writeTag(value instanceof LinkedList ? TAG_LINKED_LIST : value instanceof List ? TAG_LIST : TAG_SET);
+            writeVarInt(collection.size());
+            for (val element : collection) {
+                writeObject(element);
+            }
+        } else if (isMapType(value)) {
+            val map = (Map<?, ?>) value;
+            if (map instanceof TreeMap) {
+                writeTag(((TreeMap<?, ?>) map).comparator() == null ? TAG_SORTED_MAP : TAG_CASE_INSENSITIVE_MAP);
+            } else {
+                writeTag(TAG_MAP);
+            }
+            writeVarInt(map.size());
+            for (val entry : map.entrySet()) {
+                writeObject(entry.getKey());
+                writeObject(entry.getValue());
+            }
+        } else if (value instanceof Serializable) {
+            writeTag(TAG_SERIALIZED);
+            writeSerialized(value);
+        } else {
+            throw new NotSerializableException(value.getClass().getName());
+        }
+    }
+
+    private void writeSerialized(final Object value) throws IOException {
+        val bytes = new ByteArrayOutputStream();
+        try (val out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        writeVarInt(bytes.size());
+        write(bytes.toByteArray());
+    }
+
+    private static boolean isCollectionType(final Object value) {
+        return COLLECTION_TYPES.contains(value.getClass());
+    }
+
+    private static boolean isMapType(final Object value) {
+        if (value instanceof TreeMap) {
+            val comparator = ((TreeMap<?, ?>) value).comparator();
+            return value.getClass() == TreeMap.class
+                   && (comparator == null || comparator == String.CASE_INSENSITIVE_ORDER);
+        }
+        return MAP_TYPES.contains(value.getClass());
+    }
+
+    private void writeTag(final int tag) {
+        write(tag);
+    }
+
+    private void writeName(final String name) throws IOException {
+        val index = names.get(name);
+        if (index != null) {
+            writeVarInt(index + 1);
+        } else {
+            names.put(name, names.size());
+            writeVarInt(0);
+            writeString(name);
+        }
+    }
+
+    private void writeString(final String value) {
+        val length = value.length();
+        var ascii = true;
+        for (var i = 0; i < length && ascii; i++) {
+            ascii = value.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            writeVarInt(length);
+            ensureCapacity(length);
+            for (var i = 0; i < length; i++) {
+                buffer[count++] = (byte) value.charAt(i);
+            }
+        } else {
+            val bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            write(bytes);
+        }
+    }
+
+    /**
+     * Write an unsigned variable-length integer.
+     *
+     * @param value the value
+     */
+    void writeVarInt(final int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    private void writeVarLong(final long value) {
+        ensureCapacity(10);
+        var remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            buffer[count++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        buffer[count++] = (byte) remaining;
+    }
+
+    private void ensureCapacity(final int length) {
+        if (count + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + length));
+        }
+    }
+
+    @Override
+    public void write(final int b) {
+        ensureCapacity(1);
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b) {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+        ensureCapacity(len);
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    @Override
+    public void writeBoolean(final boolean v) {
+        write(v ? 1 : 0);
+    }
+
+    @Override
+    public void writeByte(final int v) {
+        write(v);
+    }
+
+    @Override
+    public void writeShort(final int v) {
+        writeInt((short) v);
+    }
+
+    @Override
+    public void writeChar(final int v) {
+        writeVarInt((char) v);
+    }
+
+    @Override
+    public void writeInt(final int v) {
+        writeVarInt((v << 1) ^ (v >> 31));
+    }
+
+    @Override
+    public void writeLong(final long v) {
+        writeVarLong((v << 1) ^ (v >> 63));
+    }
+
+    @Override
+    public void writeFloat(final float v) {
+        writeFixedInt(Float.floatToIntBits(v));
+    }
+
+    @Override
+    public void writeDouble(final double v) {
+        val bits = Double.doubleToLongBits(v);
+        writeFixedInt((int) (bits >>> 32));
+        writeFixedInt((int) bits);
+    }
+
+    @Override
+    public void writeBytes(final String s) {
+        writeString(s);
+    }
+
+    @Override
+    public void writeChars(final String s) {
+        writeString(s);
+    }
+
+    @Override
+    public void writeUTF(final String s) {
+        writeString(s);
+    }
+
+    private void writeFixedInt(final int v) {
+        ensureCapacity(4);
+        buffer[count++] = (byte) (v >>> 24);
+        buffer[count++] = (byte) (v >>> 16);
+        buffer[count++] = (byte) (v >>> 8);
+        buffer[count++] = (byte) v;
+    }
+}
@@ -113,7 +113,7 @@ public class ClientFlowExecutionRepository implements FlowExecutionRepository, F
     }
 
     @Getter
-    private static class SerializedFlowExecutionState implements Serializable {
+    static class SerializedFlowExecutionState implements Serializable {
         private static final long serialVersionUID = -4020991769174829876L;
 
         private final String flowId;
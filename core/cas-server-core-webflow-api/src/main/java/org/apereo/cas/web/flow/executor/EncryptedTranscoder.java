@@ -2,6 +2,8 @@ package org.apereo.cas.web.flow.executor;
 
 import org.apereo.cas.util.LoggingUtils;
 
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
@@ -41,6 +43,7 @@ public class EncryptedTranscoder implements Transcoder {
     /**
      * Flag to indicate whether to Gzip compression before encryption.
      */
+    @Getter(AccessLevel.PROTECTED)
     private final boolean compression;
 
     public EncryptedTranscoder(final CipherBean cipherBean) {
@@ -100,8 +103,19 @@ public class EncryptedTranscoder implements Transcoder {
      * @throws IOException the io exception
      */
     protected byte[] encrypt(final ByteArrayOutputStream outBuffer) throws IOException {
+        return encrypt(outBuffer.toByteArray());
+    }
+
+    /**
+     * Encrypt.
+     *
+     * @param data the data
+     * @return the byte [ ]
+     * @throws IOException the io exception
+     */
+    protected byte[] encrypt(final byte[] data) throws IOException {
         try {
-            return cipherBean.encrypt(outBuffer.toByteArray());
+            return cipherBean.encrypt(data);
         } catch (final Exception e) {
             LoggingUtils.error(LOGGER, e);
             throw new IOException("Encryption error", e);
@@ -111,7 +125,18 @@ public class EncryptedTranscoder implements Transcoder {
     @Override
     @SuppressWarnings("BanSerializableRead")
     public Object decode(final byte[] encoded) throws IOException {
-        val data = decrypt(encoded);
+        return deserialize(decrypt(encoded));
+    }
+
+    /**
+     * Deserialize the decrypted byte stream.
+     *
+     * @param data the data
+     * @return the object
+     * @throws IOException the io exception
+     */
+    @SuppressWarnings("BanSerializableRead")
+    protected Object deserialize(final byte[] data) throws IOException {
         try (val inBuffer = new ByteArrayInputStream(data);
              val in = this.compression
                  ? new ObjectInputStream(new GZIPInputStream(inBuffer))
@@ -123,7 +148,14 @@ public class EncryptedTranscoder implements Transcoder {
         }
     }
 
-    private byte[] decrypt(final byte[] encoded) throws IOException {
+    /**
+     * Decrypt.
+     *
+     * @param encoded the encoded
+     * @return the byte [ ]
+     * @throws IOException the io exception
+     */
+    protected byte[] decrypt(final byte[] encoded) throws IOException {
         try {
             return cipherBean.decrypt(encoded);
         } catch (final Exception e) {
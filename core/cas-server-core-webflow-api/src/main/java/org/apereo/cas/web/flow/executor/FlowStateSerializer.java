@@ -0,0 +1,48 @@
+package org.apereo.cas.web.flow.executor;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Encodes and decodes objects of a type registered with a {@link FlowStateTypeRegistry}.
+ * Decoding happens in two steps, so that the new instance can be referenced
+ * by the objects that are read while its state is restored.
+ *
+ * @param <T> the type
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+public interface FlowStateSerializer<T> {
+
+    /**
+     * Write the state of the object.
+     *
+     * @param value  the value
+     * @param output the output
+     * @throws IOException the io exception
+     */
+    void write(T value, ObjectOutput output) throws IOException;
+
+    /**
+     * Create a new instance of the type, reading the state
+     * that is required to construct the instance, if any.
+     *
+     * @param input the input
+     * @return the instance
+     * @throws IOException            the io exception
+     * @throws ClassNotFoundException the class not found exception
+     */
+    T newInstance(ObjectInput input) throws IOException, ClassNotFoundException;
+
+    /**
+     * Read the remaining state of the instance.
+     *
+     * @param value the instance created by {@link #newInstance(ObjectInput)}
+     * @param input the input
+     * @throws IOException            the io exception
+     * @throws ClassNotFoundException the class not found exception
+     */
+    default void read(final T value, final ObjectInput input) throws IOException, ClassNotFoundException {
+    }
+}
@@ -0,0 +1,309 @@
+package org.apereo.cas.web.flow.executor;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.objenesis.SpringObjenesis;
+import org.springframework.util.ClassUtils;
+import org.springframework.webflow.core.collection.LocalAttributeMap;
+import org.springframework.webflow.engine.impl.FlowExecutionImpl;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * This is {@link FlowStateTypeRegistry} that keeps track of the types that can be encoded
+ * in binary flow state, along with the serializer that handles each type.
+ * Each registered type is assigned an identifier in the order of registration, which is
+ * written in place of the class name; types must therefore be registered in the same order
+ * on all nodes that share flow state. Types that are registered without a serializer are
+ * encoded field by field, in a fixed order that is derived from the class. The fingerprint
+ * of the registry captures the registered types and their fields, and is used to reject
+ * flow state produced by a node whose registry differs.
+ * <p>
+ * The registry always includes the types that make up a flow execution.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+public class FlowStateTypeRegistry {
+    private static final SpringObjenesis OBJENESIS = new SpringObjenesis();
+
+    private static final String FLOW_SESSION_TYPE = "org.springframework.webflow.engine.impl.FlowSessionImpl";
+
+    private static final List<String> SERIALIZATION_METHODS = List.of("writeObject", "readObject",
+        "readObjectNoData", "writeReplace", "readResolve");
+
+    private final Map<Class<?>, Registration> registrationsByType = new ConcurrentHashMap<>();
+
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+
+    @Getter
+    private volatile int fingerprint = 1;
+
+    public FlowStateTypeRegistry() {
+        register(FlowExecutionImpl.class, new ExternalizableFlowStateSerializer<>(FlowExecutionImpl.class));
+        val flowSessionType = (Class<Externalizable>) ClassUtils.resolveClassName(FLOW_SESSION_TYPE, getClass().getClassLoader());
+        register(flowSessionType, new ExternalizableFlowStateSerializer<>(flowSessionType));
+        register(LocalAttributeMap.class, new LocalAttributeMapFlowStateSerializer());
+        register(ClientFlowExecutionRepository.SerializedFlowExecutionState.class);
+    }
+
+    /**
+     * Register types that are to be encoded field by field.
+     * All non-static and non-transient fields of the type and its super classes
+     * are encoded; types that customize their own serialization are rejected.
+     *
+     * @param types the types
+     * @return the registry
+     */
+    public FlowStateTypeRegistry register(final Class<?>... types) {
+        for (val type : types) {
+            register((Class<Object>) type, new FieldFlowStateSerializer<>((Class<Object>) type));
+        }
+        return this;
+    }
+
+    /**
+     * Register a type with the serializer that handles it.
+     *
+     * @param <T>        the type parameter
+     * @param type       the type
+     * @param serializer the serializer
+     * @return the registry
+     */
+    public synchronized <T> FlowStateTypeRegistry register(final Class<T> type, final FlowStateSerializer<T> serializer) {
+        if (registrationsByType.containsKey(type)) {
+            LOGGER.trace("Type [{}] is already registered", type.getName());
+            return this;
+        }
+        val registration = new Registration(registrations.size(), type, (FlowStateSerializer<Object>) serializer);
+        registrations.add(registration);
+        registrationsByType.put(type, registration);
+        val schema = serializer instanceof FieldFlowStateSerializer
+            ? ((FieldFlowStateSerializer<T>) serializer).getSchema()
+            : type.getName();
+        fingerprint = 31 * fingerprint + schema.hashCode();
+        LOGGER.trace("Registered type [{}] for binary flow state as [{}]", type.getName(), registration.getId());
+        return this;
+    }
+
+    /**
+     * Gets the registration for the given type.
+     *
+     * @param type the type
+     * @return the registration, or null
+     */
+    Registration getRegistration(final Class<?> type) {
+        return registrationsByType.get(type);
+    }
+
+    /**
+     * Gets the registration for the given identifier.
+     *
+     * @param id the id
+     * @return the registration
+     * @throws IOException if no type is registered for the identifier
+     */
+    Registration getRegistration(final int id) throws IOException {
+        if (id < 0 || id >= registrations.size()) {
+            throw new IOException("No type is registered for binary flow state as " + id);
+        }
+        return registrations.get(id);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static final class Registration {
+        private final int id;
+
+        private final Class<?> type;
+
+        private final FlowStateSerializer<Object> serializer;
+    }
+
+    private static final class ExternalizableFlowStateSerializer<T extends Externalizable> implements FlowStateSerializer<T> {
+        private final Constructor<T> constructor;
+
+        ExternalizableFlowStateSerializer(final Class<T> type) {
+            try {
+                this.constructor = type.getDeclaredConstructor();
+                this.constructor.setAccessible(true);
+            } catch (final NoSuchMethodException e) {
+                throw new IllegalArgumentException("Externalizable type " + type.getName() + " has no default constructor", e);
+            }
+        }
+
+        @Override
+        public void write(final T value, final ObjectOutput output) throws IOException {
+            value.writeExternal(output);
+        }
+
+        @Override
+        public T newInstance(final ObjectInput input) throws IOException {
+            try {
+                return constructor.newInstance();
+            } catch (final ReflectiveOperationException e) {
+                throw new IOException("Unable to create " + constructor.getDeclaringClass().getName(), e);
+            }
+        }
+
+        @Override
+        public void read(final T value, final ObjectInput input) throws IOException, ClassNotFoundException {
+            value.readExternal(input);
+        }
+    }
+
+    private static final class LocalAttributeMapFlowStateSerializer implements FlowStateSerializer<LocalAttributeMap> {
+        @Override
+        public void write(final LocalAttributeMap value, final ObjectOutput output) throws IOException {
+            val attributes = value.asMap();
+            output.writeInt(attributes.size());
+            for (val entry : ((Map<String, Object>) attributes).entrySet()) {
+                output.writeObject(entry.getKey());
+                output.writeObject(entry.getValue());
+            }
+        }
+
+        @Override
+        public LocalAttributeMap newInstance(final ObjectInput input) {
+            return new LocalAttributeMap<>();
+        }
+
+        @Override
+        public void read(final LocalAttributeMap value, final ObjectInput input) throws IOException, ClassNotFoundException {
+            val size = input.readInt();
+            for (var i = 0; i < size; i++) {
+                value.put((String) input.readObject(), input.readObject());
+            }
+        }
+    }
+
+    private static final class FieldFlowStateSerializer<T> implements FlowStateSerializer<T> {
+        private final Class<T> type;
+
+        private final Field[] fields;
+
+        FieldFlowStateSerializer(final Class<T> type) {
+            if (!Serializable.class.isAssignableFrom(type) || Externalizable.class.isAssignableFrom(type)
+                || type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+                throw new IllegalArgumentException("Type " + type.getName() + " must be a concrete serializable class");
+            }
+            this.type = type;
+            val hierarchy = new ArrayList<Class<?>>();
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                hierarchy.add(0, current);
+            }
+            val fieldList = new ArrayList<Field>();
+            for (val current : hierarchy) {
+                for (val method : current.getDeclaredMethods()) {
+                    if (SERIALIZATION_METHODS.contains(method.getName())) {
+                        throw new IllegalArgumentException("Type " + type.getName() + " customizes its serialization via "
+                                                           + current.getName() + '#' + method.getName());
+                    }
+                }
+                val declaredFields = new ArrayList<Field>();
+                for (val field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                        field.setAccessible(true);
+                        declaredFields.add(field);
+                    }
+                }
+                declaredFields.sort(Comparator.comparing(Field::getName));
+                fieldList.addAll(declaredFields);
+            }
+            this.fields = fieldList.toArray(Field[]::new);
+        }
+
+        String getSchema() {
+            val schema = new StringBuilder(type.getName());
+            for (val field : fields) {
+                schema.append(';').append(field.getName()).append(':').append(field.getType().getName());
+            }
+            return schema.toString();
+        }
+
+        @Override
+        public void write(final T value, final ObjectOutput output) throws IOException {
+            try {
+                for (val field : fields) {
+                    val fieldType = field.getType();
+                    if (fieldType == int.class) {
+                        output.writeInt(field.getInt(value));
+                    } else if (fieldType == long.class) {
+                        output.writeLong(field.getLong(value));
+                    } else if (fieldType == boolean.class) {
+                        output.writeBoolean(field.getBoolean(value));
+                    } else if (fieldType == double.class) {
+                        output.writeDouble(field.getDouble(value));
+                    } else if (fieldType == float.class) {
+                        output.writeFloat(field.getFloat(value));
+                    } else if (fieldType == short.class) {
+                        output.writeShort(field.getShort(value));
+                    } else if (fieldType == byte.class) {
+                        output.writeByte(field.getByte(value));
+                    } else if (fieldType == char.class) {
+                        output.writeChar(field.getChar(value));
+                    } else {
+                        output.writeObject(field.get(value));
+                    }
+                }
+            } catch (final IllegalAccessException e) {
+                throw new IOException("Unable to write " + type.getName(), e);
+            }
+        }
+
+        @Override
+        public T newInstance(final ObjectInput input) {
+            return OBJENESIS.newInstance(type);
+        }
+
+        @Override
+        public void read(final T value, final ObjectInput input) throws IOException, ClassNotFoundException {
+            try {
+                for (val field : fields) {
+                    val fieldType = field.getType();
+                    if (fieldType == int.class) {
+                        field.setInt(value, input.readInt());
+                    } else if (fieldType == long.class) {
+                        field.setLong(value, input.readLong());
+                    } else if (fieldType == boolean.class) {
+                        field.setBoolean(value, input.readBoolean());
+                    } else if (fieldType == double.class) {
+                        field.setDouble(value, input.readDouble());
+                    } else if (fieldType == float.class) {
+                        field.setFloat(value, input.readFloat());
+                    } else if (fieldType == short.class) {
+                        field.setShort(value, input.readShort());
+                    } else if (fieldType == byte.class) {
+                        field.setByte(value, input.readByte());
+                    } else if (fieldType == char.class) {
+                        field.setChar(value, input.readChar());
+                    } else {
+                        val fieldValue = input.readObject();
+                        if (fieldValue != null && !field.getType().isInstance(fieldValue)) {
+                            throw new IOException("Unable to assign " + fieldValue.getClass().getName() + " to " + field);
+                        }
+                        field.set(value, fieldValue);
+                    }
+                }
+            } catch (final IllegalAccessException e) {
+                throw new IOException("Unable to read " + type.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.apereo.cas.web.flow.executor;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.webflow.execution.FlowExecutionKey;
+import org.springframework.webflow.execution.repository.BadlyFormattedFlowExecutionKeyException;
+
+/**
+ * Spring Webflow execution id that points to flow execution state kept in the ticket registry.
+ * Keys produced by this class have the form ID_SNAPSHOT where ID identifies the flow execution
+ * and SNAPSHOT identifies one of the snapshots that are kept for the execution.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@EqualsAndHashCode(callSuper = false)
+@Getter
+@RequiredArgsConstructor
+public class TicketRegistryFlowExecutionKey extends FlowExecutionKey {
+
+    private static final String KEY_FORMAT = "<id>_<snapshot-id>";
+
+    private static final long serialVersionUID = -6120851734290452893L;
+
+    private final String id;
+
+    private final int snapshotId;
+
+    /**
+     * Parse.
+     *
+     * @param key the key
+     * @return the flow execution key
+     * @throws BadlyFormattedFlowExecutionKeyException the badly formatted flow execution key exception
+     */
+    public static TicketRegistryFlowExecutionKey parse(final String key) throws BadlyFormattedFlowExecutionKeyException {
+        val index = StringUtils.defaultString(key).lastIndexOf('_');
+        if (index <= 0 || index == key.length() - 1) {
+            throw new BadlyFormattedFlowExecutionKeyException(key, KEY_FORMAT);
+        }
+        try {
+            return new TicketRegistryFlowExecutionKey(key.substring(0, index), Integer.parseInt(key.substring(index + 1)));
+        } catch (final NumberFormatException e) {
+            throw new BadlyFormattedFlowExecutionKeyException(key, KEY_FORMAT, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.id + '_' + this.snapshotId;
+    }
+}
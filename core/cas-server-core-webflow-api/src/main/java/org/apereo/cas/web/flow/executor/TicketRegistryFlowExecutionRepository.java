@@ -0,0 +1,254 @@
+package org.apereo.cas.web.flow.executor;
+
+import org.apereo.cas.ticket.ExpirationPolicy;
+import org.apereo.cas.ticket.TicketFactory;
+import org.apereo.cas.ticket.TransientSessionTicket;
+import org.apereo.cas.ticket.TransientSessionTicketFactory;
+import org.apereo.cas.ticket.expiration.TimeoutExpirationPolicy;
+import org.apereo.cas.ticket.registry.TicketRegistry;
+import org.apereo.cas.util.EncodingUtils;
+import org.apereo.cas.util.RandomUtils;
+import org.apereo.cas.util.function.FunctionUtils;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.util.Assert;
+import org.springframework.webflow.definition.registry.FlowDefinitionLocator;
+import org.springframework.webflow.execution.FlowExecution;
+import org.springframework.webflow.execution.FlowExecutionFactory;
+import org.springframework.webflow.execution.FlowExecutionKey;
+import org.springframework.webflow.execution.FlowExecutionKeyFactory;
+import org.springframework.webflow.execution.repository.FlowExecutionLock;
+import org.springframework.webflow.execution.repository.FlowExecutionRepository;
+import org.springframework.webflow.execution.repository.FlowExecutionRepositoryException;
+import org.springframework.webflow.execution.repository.NoSuchFlowExecutionException;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Stores flow execution state server-side in the {@link TicketRegistry}, and hands the client
+ * a {@link TicketRegistryFlowExecutionKey} that only identifies the state. Each flow execution is
+ * kept in a {@link TransientSessionTicket} that expires once the execution is left idle, and carries
+ * a limited number of snapshots of the execution, encoded by a {@link Transcoder}. Snapshots are kept
+ * in their encoded form, and only the snapshot that is requested is decoded.
+ * <p>
+ * Since state is kept in the ticket registry, flow executions can be resumed on any node
+ * when the registry is shared by all nodes.
+ *
+ * @author Misagh Moayyed
+ * @see TicketRegistryFlowExecutionKey
+ * @since 6.6.0
+ */
+@Slf4j
+@Setter
+@RequiredArgsConstructor
+public class TicketRegistryFlowExecutionRepository implements FlowExecutionRepository, FlowExecutionKeyFactory {
+    /**
+     * Ticket property that holds the snapshots of the flow execution.
+     */
+    static final String PROPERTY_SNAPSHOTS = "flowExecutionSnapshots";
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final ReentrantLock[] locks = IntStream.range(0, LOCK_STRIPES)
+        .mapToObj(i -> new ReentrantLock()).toArray(ReentrantLock[]::new);
+
+    private final TicketRegistry ticketRegistry;
+
+    private final TicketFactory ticketFactory;
+
+    private final Transcoder transcoder;
+
+    private FlowExecutionFactory flowExecutionFactory;
+
+    private FlowDefinitionLocator flowDefinitionLocator;
+
+    /**
+     * Maximum number of snapshots kept per flow execution.
+     * The oldest snapshot is removed once the limit is exceeded.
+     */
+    private int maxSnapshots = 10;
+
+    /**
+     * Number of seconds after which an idle flow execution is removed.
+     */
+    private long timeToLiveInSeconds = TimeUnit.MINUTES.toSeconds(10);
+
+    @Override
+    public FlowExecutionKey parseFlowExecutionKey(final String encodedKey) throws FlowExecutionRepositoryException {
+        return TicketRegistryFlowExecutionKey.parse(encodedKey);
+    }
+
+    /**
+     * Locks guard concurrent requests for the same flow execution on this node;
+     * requests for the same flow execution that arrive at different nodes are not serialized.
+     *
+     * @param key the key
+     * @return the lock
+     */
+    @Override
+    public FlowExecutionLock getLock(final FlowExecutionKey key) throws FlowExecutionRepositoryException {
+        val lock = locks[Math.floorMod(getExecutionKey(key).getId().hashCode(), LOCK_STRIPES)];
+        return new FlowExecutionLock() {
+            @Override
+            public void lock() {
+                lock.lock();
+            }
+
+            @Override
+            public void unlock() {
+                lock.unlock();
+            }
+        };
+    }
+
+    @Override
+    public FlowExecution getFlowExecution(final FlowExecutionKey key) throws FlowExecutionRepositoryException {
+        Assert.notNull(flowExecutionFactory, "FlowExecutionFactory cannot be null");
+        Assert.notNull(flowDefinitionLocator, "FlowDefinitionLocator cannot be null");
+
+        val executionKey = getExecutionKey(key);
+        val ticket = getTicket(executionKey);
+        if (ticket == null) {
+            throw new NoSuchFlowExecutionException(key, null);
+        }
+        val encoded = getSnapshots(ticket).get(String.valueOf(executionKey.getSnapshotId()));
+        if (encoded == null) {
+            throw new NoSuchFlowExecutionException(key, null);
+        }
+        try {
+            val state = (ClientFlowExecutionRepository.SerializedFlowExecutionState)
+                transcoder.decode(EncodingUtils.decodeBase64(encoded));
+            val flow = flowDefinitionLocator.getFlowDefinition(state.getFlowId());
+            return flowExecutionFactory.restoreFlowExecution(state.getExecution(), flow, key,
+                state.getConversationScope(), flowDefinitionLocator);
+        } catch (final Exception e) {
+            throw new ClientFlowExecutionRepositoryException("Error decoding flow execution", e);
+        }
+    }
+
+    @Override
+    public void putFlowExecution(final FlowExecution flowExecution) throws FlowExecutionRepositoryException {
+        val executionKey = getExecutionKey(flowExecution.getKey());
+        val encoded = encode(flowExecution);
+        val ticket = getTicket(executionKey);
+        if (ticket == null) {
+            val snapshots = new LinkedHashMap<String, String>();
+            snapshots.put(String.valueOf(executionKey.getSnapshotId()), encoded);
+            val properties = new HashMap<String, Serializable>();
+            properties.put(PROPERTY_SNAPSHOTS, snapshots);
+            properties.put(ExpirationPolicy.class.getName(), new TimeoutExpirationPolicy(timeToLiveInSeconds));
+            val factory = (TransientSessionTicketFactory) ticketFactory.get(TransientSessionTicket.class);
+            val created = factory.create(executionKey.getId(), properties);
+            LOGGER.trace("Storing flow execution [{}] in ticket [{}]", executionKey, created.getId());
+            FunctionUtils.doUnchecked(s -> ticketRegistry.addTicket(created));
+        } else {
+            val snapshots = getSnapshots(ticket);
+            snapshots.remove(String.valueOf(executionKey.getSnapshotId()));
+            snapshots.put(String.valueOf(executionKey.getSnapshotId()), encoded);
+            val iterator = snapshots.keySet().iterator();
+            while (snapshots.size() > maxSnapshots && iterator.hasNext()) {
+                LOGGER.trace("Removing snapshot [{}] of flow execution [{}]", iterator.next(), executionKey.getId());
+                iterator.remove();
+            }
+            updateTicket(ticket, snapshots);
+        }
+    }
+
+    @Override
+    public void removeFlowExecution(final FlowExecution flowExecution) throws FlowExecutionRepositoryException {
+        val executionKey = getExecutionKey(flowExecution.getKey());
+        LOGGER.trace("Removing flow execution [{}]", executionKey.getId());
+        FunctionUtils.doUnchecked(s -> ticketRegistry.deleteTicket(getTicketId(executionKey)));
+    }
+
+    /**
+     * Each new flow execution is assigned a random identifier, and every
+     * subsequent snapshot of the execution is numbered after the one it was taken from.
+     *
+     * @param execution the execution
+     * @return the key
+     */
+    @Override
+    public FlowExecutionKey getKey(final FlowExecution execution) {
+        if (execution.getKey() == null) {
+            return new TicketRegistryFlowExecutionKey(RandomUtils.generateSecureRandomId(), 1);
+        }
+        val executionKey = getExecutionKey(execution.getKey());
+        return new TicketRegistryFlowExecutionKey(executionKey.getId(), executionKey.getSnapshotId() + 1);
+    }
+
+    @Override
+    public void updateFlowExecutionSnapshot(final FlowExecution execution) {
+        putFlowExecution(execution);
+    }
+
+    @Override
+    public void removeFlowExecutionSnapshot(final FlowExecution execution) {
+        val executionKey = getExecutionKey(execution.getKey());
+        val ticket = getTicket(executionKey);
+        if (ticket != null) {
+            val snapshots = getSnapshots(ticket);
+            snapshots.remove(String.valueOf(executionKey.getSnapshotId()));
+            updateTicket(ticket, snapshots);
+        }
+    }
+
+    @Override
+    public void removeAllFlowExecutionSnapshots(final FlowExecution execution) {
+        val executionKey = getExecutionKey(execution.getKey());
+        val ticket = getTicket(executionKey);
+        if (ticket != null) {
+            updateTicket(ticket, new LinkedHashMap<>());
+        }
+    }
+
+    private String encode(final FlowExecution flowExecution) {
+        try {
+            val state = new ClientFlowExecutionRepository.SerializedFlowExecutionState(flowExecution);
+            return EncodingUtils.encodeBase64(transcoder.encode(state));
+        } catch (final Exception e) {
+            throw new ClientFlowExecutionRepositoryException("Error encoding flow execution", e);
+        }
+    }
+
+    private void updateTicket(final TransientSessionTicket ticket, final LinkedHashMap<String, String> snapshots) {
+        ticket.put(PROPERTY_SNAPSHOTS, snapshots);
+        ticket.update();
+        FunctionUtils.doUnchecked(s -> ticketRegistry.updateTicket(ticket));
+    }
+
+    private TransientSessionTicket getTicket(final TicketRegistryFlowExecutionKey executionKey) {
+        val ticket = ticketRegistry.getTicket(getTicketId(executionKey));
+        if (!(ticket instanceof TransientSessionTicket) || ticket.isExpired()) {
+            LOGGER.debug("Flow execution [{}] cannot be found or has expired", executionKey.getId());
+            return null;
+        }
+        return (TransientSessionTicket) ticket;
+    }
+
+    private static LinkedHashMap<String, String> getSnapshots(final TransientSessionTicket ticket) {
+        val snapshots = (Map<String, String>) ticket.getProperties().get(PROPERTY_SNAPSHOTS);
+        return snapshots == null ? new LinkedHashMap<>() : new LinkedHashMap<>(snapshots);
+    }
+
+    private static String getTicketId(final TicketRegistryFlowExecutionKey executionKey) {
+        return TransientSessionTicketFactory.normalizeTicketId(executionKey.getId());
+    }
+
+    private static TicketRegistryFlowExecutionKey getExecutionKey(final FlowExecutionKey key) {
+        if (!(key instanceof TicketRegistryFlowExecutionKey)) {
+            throw new IllegalArgumentException("Expected instance of TicketRegistryFlowExecutionKey but got "
+                                               + (key == null ? null : key.getClass().getName()));
+        }
+        return (TicketRegistryFlowExecutionKey) key;
+    }
+}
@@ -1,11 +1,24 @@
 package org.apereo.cas.web.flow.executor;
 
+import org.apereo.cas.authentication.DefaultAuthentication;
+import org.apereo.cas.authentication.DefaultAuthenticationHandlerExecutionResult;
+import org.apereo.cas.authentication.credential.BasicIdentifiableCredential;
+import org.apereo.cas.authentication.credential.RememberMeUsernamePasswordCredential;
+import org.apereo.cas.authentication.credential.UsernamePasswordCredential;
+import org.apereo.cas.authentication.metadata.BasicCredentialMetaData;
+import org.apereo.cas.authentication.principal.SimplePrincipal;
+import org.apereo.cas.authentication.principal.SimpleWebApplicationServiceImpl;
 import org.apereo.cas.configuration.model.core.web.flow.WebflowProperties;
+import org.apereo.cas.configuration.model.core.web.flow.WebflowSessionManagementProperties;
 import org.apereo.cas.configuration.support.Beans;
+import org.apereo.cas.ticket.TicketFactory;
+import org.apereo.cas.ticket.registry.TicketRegistry;
 import org.apereo.cas.util.crypto.CipherExecutor;
 
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.val;
+import org.springframework.util.Assert;
 import org.springframework.webflow.conversation.impl.SessionBindingConversationManager;
 import org.springframework.webflow.definition.registry.FlowDefinitionRegistry;
 import org.springframework.webflow.engine.impl.FlowExecutionImplFactory;
@@ -29,12 +42,21 @@ public class WebflowExecutorFactory {
     private final CipherExecutor webflowCipherExecutor;
     private final FlowExecutionListener[] executionListeners;
 
+    @Setter
+    private TicketRegistry ticketRegistry;
+
+    @Setter
+    private TicketFactory ticketFactory;
+
     /**
      * Build flow executor.
      *
      * @return the flow executor
      */
     public FlowExecutor build() {
+        if (webflowProperties.getSession().isTicketRegistryStorage()) {
+            return buildFlowExecutorViaTicketRegistry();
+        }
         if (webflowProperties.getSession().isStorage()) {
             return buildFlowExecutorViaServerSessionBindingExecution();
         }
@@ -59,6 +81,22 @@ public class WebflowExecutorFactory {
         return new FlowExecutorImpl(this.flowDefinitionRegistry, executionFactory, repository);
     }
 
+    private FlowExecutor buildFlowExecutorViaTicketRegistry() {
+        Assert.notNull(ticketRegistry, "Ticket registry cannot be null");
+        Assert.notNull(ticketFactory, "Ticket factory cannot be null");
+        val session = webflowProperties.getSession();
+        val repository = new TicketRegistryFlowExecutionRepository(ticketRegistry, ticketFactory, getWebflowStateTranscoder());
+        repository.setFlowDefinitionLocator(this.flowDefinitionRegistry);
+        repository.setMaxSnapshots(session.getMaxSnapshots());
+        repository.setTimeToLiveInSeconds(Beans.newDuration(session.getTicketRegistryTimeout()).getSeconds());
+
+        val factory = new FlowExecutionImplFactory();
+        factory.setExecutionKeyFactory(repository);
+        repository.setFlowExecutionFactory(factory);
+        factory.setExecutionListenerLoader(new StaticFlowExecutionListenerLoader(executionListeners));
+        return new FlowExecutorImpl(this.flowDefinitionRegistry, factory, repository);
+    }
+
     private FlowExecutor buildFlowExecutorViaClientFlowExecution() {
         val repository = new ClientFlowExecutionRepository();
         repository.setFlowDefinitionLocator(this.flowDefinitionRegistry);
@@ -74,6 +112,14 @@ public class WebflowExecutorFactory {
 
     private Transcoder getWebflowStateTranscoder() {
         val cipherBean = new WebflowCipherBean(this.webflowCipherExecutor);
+        if (webflowProperties.getSession().getStateFormat() == WebflowSessionManagementProperties.FlowStateFormatTypes.BINARY) {
+            val registry = new FlowStateTypeRegistry()
+                .register(UsernamePasswordCredential.class, RememberMeUsernamePasswordCredential.class,
+                    BasicIdentifiableCredential.class, BasicCredentialMetaData.class,
+                    SimplePrincipal.class, SimpleWebApplicationServiceImpl.class,
+                    DefaultAuthentication.class, DefaultAuthenticationHandlerExecutionResult.class);
+            return new BinaryEncryptedTranscoder(cipherBean, registry);
+        }
         return new EncryptedTranscoder(cipherBean);
     }
 }
@@ -0,0 +1,253 @@
+package org.apereo.cas.web.flow.executor;
+
+import org.apereo.cas.authentication.credential.UsernamePasswordCredential;
+import org.apereo.cas.authentication.principal.PrincipalFactoryUtils;
+import org.apereo.cas.authentication.principal.SimplePrincipal;
+
+import lombok.val;
+import org.apache.commons.lang3.ArrayUtils;
+import org.cryptacular.bean.AEADBlockCipherBean;
+import org.cryptacular.bean.CipherBean;
+import org.cryptacular.bean.KeyStoreFactoryBean;
+import org.cryptacular.generator.sp80038d.RBGNonce;
+import org.cryptacular.io.ClassPathResource;
+import org.cryptacular.spec.AEADBlockCipherSpec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.webflow.config.FlowBuilderServicesBuilder;
+import org.springframework.webflow.config.FlowDefinitionRegistryBuilder;
+import org.springframework.webflow.core.collection.LocalAttributeMap;
+import org.springframework.webflow.definition.registry.FlowDefinitionRegistry;
+import org.springframework.webflow.engine.impl.FlowExecutionImplFactory;
+import org.springframework.webflow.execution.FlowExecution;
+import org.springframework.webflow.expression.spel.WebFlowSpringELExpressionParser;
+import org.springframework.webflow.test.CasMockViewFactoryCreator;
+import org.springframework.webflow.test.MockExternalContext;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.URL;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test cases for {@link BinaryEncryptedTranscoder}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("Webflow")
+public class BinaryEncryptedTranscoderTests {
+    private CipherBean cipherBean;
+
+    private FlowStateTypeRegistry registry;
+
+    private static CipherBean getCipherBean() {
+        val keystoreFactory = new KeyStoreFactoryBean();
+        keystoreFactory.setType("JCEKS");
+        keystoreFactory.setPassword("changeit");
+        keystoreFactory.setResource(new ClassPathResource("test-keystore.jceks"));
+
+        val cipher = new AEADBlockCipherBean();
+        cipher.setKeyAlias("aes128");
+        cipher.setKeyPassword("changeit");
+        cipher.setKeyStore(keystoreFactory.newInstance());
+        cipher.setBlockCipherSpec(new AEADBlockCipherSpec("AES", "GCM"));
+        cipher.setNonce(new RBGNonce());
+        return cipher;
+    }
+
+    static FlowDefinitionRegistry getFlowDefinitionRegistry() {
+        val applicationContext = new StaticApplicationContext();
+        applicationContext.refresh();
+        val flowBuilderServices = new FlowBuilderServicesBuilder()
+            .setViewFactoryCreator(new CasMockViewFactoryCreator())
+            .setExpressionParser(new WebFlowSpringELExpressionParser(new SpelExpressionParser()))
+            .build();
+        flowBuilderServices.setApplicationContext(applicationContext);
+        val builder = new FlowDefinitionRegistryBuilder(applicationContext, flowBuilderServices);
+        builder.setBasePath("classpath:");
+        builder.addFlowLocationPattern("/test/*-flow.xml");
+        return builder.build();
+    }
+
+    private static ClientFlowExecutionRepository getFlowExecutionRepository(final Transcoder transcoder,
+                                                                           final FlowDefinitionRegistry flowRegistry) {
+        val factory = new FlowExecutionImplFactory();
+        val repository = new ClientFlowExecutionRepository(factory, flowRegistry, transcoder);
+        factory.setExecutionKeyFactory(repository);
+        return repository;
+    }
+
+    private static FlowExecution startFlowExecution(final ClientFlowExecutionRepository repository,
+                                                    final FlowDefinitionRegistry flowRegistry) {
+        val factory = new FlowExecutionImplFactory();
+        factory.setExecutionKeyFactory(repository);
+        val execution = factory.createFlowExecution(flowRegistry.getFlowDefinition("test-flow"));
+        execution.start(new LocalAttributeMap<>(), new MockExternalContext());
+
+        val credential = new UsernamePasswordCredential("casuser", "Mellon");
+        val principal = PrincipalFactoryUtils.newPrincipalFactory().createPrincipal("casuser", Map.of("email", List.<Object>of("casuser@example.org"),
+            "memberOf", List.<Object>of("admins", "staff", "faculty")));
+        val scope = execution.getActiveSession().getScope();
+        scope.put("credential", credential);
+        scope.put("principal", principal);
+        scope.put("warnings", new ArrayList<>(List.of("password.expiring", "mfa.required")));
+        execution.getConversationScope().put("service", "https://app.example.org/login?locale=en");
+        execution.getConversationScope().put("sameCredential", credential);
+        return execution;
+    }
+
+    @BeforeEach
+    public void setup() {
+        cipherBean = getCipherBean();
+        registry = new FlowStateTypeRegistry().register(UsernamePasswordCredential.class, SimplePrincipal.class);
+    }
+
+    @Test
+    public void verifyEncodeDecodeValues() throws Exception {
+        val transcoder = new BinaryEncryptedTranscoder(cipherBean, registry);
+        val attributes = new TreeMap<String, Object>(String.CASE_INSENSITIVE_ORDER);
+        attributes.put("Name", "CAS");
+        val shared = new ArrayList<Object>(List.of(1, 2L, 3.5D, true, "ünïcode"));
+        val values = new LinkedHashMap<String, Object>();
+        values.put("attributes", attributes);
+        values.put("list", shared);
+        values.put("same", shared);
+        values.put("set", new LinkedHashSet<>(List.of("a", "b")));
+        values.put("unit", TimeUnit.SECONDS);
+        values.put("date", ZonedDateTime.of(2022, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC));
+        values.put("bytes", new byte[]{1, 2, 3});
+        values.put("url", new URL("https://apereo.github.io"));
+        values.put("null", null);
+
+        val decoded = (Map<String, Object>) transcoder.decode(transcoder.encode(values));
+        assertEquals(values.keySet(), decoded.keySet());
+        assertEquals("CAS", ((Map) decoded.get("attributes")).get("name"));
+        assertEquals(shared, decoded.get("list"));
+        assertSame(decoded.get("list"), decoded.get("same"));
+        assertEquals(values.get("set"), decoded.get("set"));
+        assertEquals(TimeUnit.SECONDS, decoded.get("unit"));
+        assertEquals(values.get("date"), decoded.get("date"));
+        assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) decoded.get("bytes"));
+        assertEquals(values.get("url"), decoded.get("url"));
+        assertNull(decoded.get("null"));
+    }
+
+    @Test
+    public void verifyRegisteredTypes() throws Exception {
+        val transcoder = new BinaryEncryptedTranscoder(cipherBean, false, registry);
+        val credential = new UsernamePasswordCredential("casuser", "Mellon");
+        val principal = PrincipalFactoryUtils.newPrincipalFactory().createPrincipal("casuser", Map.of("cn", List.<Object>of("CAS")));
+        val decoded = (List<Object>) transcoder.decode(transcoder.encode(List.of(credential, principal, credential)));
+        assertEquals(credential, decoded.get(0));
+        assertEquals(principal, decoded.get(1));
+        assertSame(decoded.get(0), decoded.get(2));
+    }
+
+    @Test
+    public void verifyLaunchAndResumeFlow() {
+        val flowRegistry = getFlowDefinitionRegistry();
+        val repository = getFlowExecutionRepository(new BinaryEncryptedTranscoder(cipherBean, registry), flowRegistry);
+        val execution = startFlowExecution(repository, flowRegistry);
+
+        val restored = repository.getFlowExecution(repository.getKey(execution));
+        val scope = restored.getActiveSession().getScope();
+        assertEquals(execution.getActiveSession().getScope().get("principal"), scope.get("principal"));
+        assertSame(restored.getConversationScope().get("sameCredential"), scope.get("credential"));
+        assertEquals("foodForm", restored.getActiveSession().getState().getId());
+
+        val context = new MockExternalContext();
+        context.setEventId("submit");
+        context.getRequestMap().put("vegan", "0");
+        restored.resume(context);
+        assertEquals("lasagnaDinner", restored.getOutcome().getId());
+    }
+
+    @Test
+    public void verifyJavaSerializedStateIsDecoded() throws Exception {
+        val flowRegistry = getFlowDefinitionRegistry();
+        val javaTranscoder = new EncryptedTranscoder(cipherBean);
+        val execution = startFlowExecution(getFlowExecutionRepository(javaTranscoder, flowRegistry), flowRegistry);
+        val key = getFlowExecutionRepository(javaTranscoder, flowRegistry).getKey(execution);
+
+        val repository = getFlowExecutionRepository(new BinaryEncryptedTranscoder(cipherBean, registry), flowRegistry);
+        val restored = repository.getFlowExecution(key);
+        assertEquals(execution.getActiveSession().getScope().get("credential"),
+            restored.getActiveSession().getScope().get("credential"));
+    }
+
+    @Test
+    public void verifyMismatchedRegistryIsRejected() throws Exception {
+        val transcoder = new BinaryEncryptedTranscoder(cipherBean, registry);
+        val encoded = transcoder.encode(List.of("casuser"));
+        val other = new BinaryEncryptedTranscoder(cipherBean, new FlowStateTypeRegistry());
+        assertThrows(IOException.class, () -> other.decode(encoded));
+    }
+
+    @Test
+    public void verifyInvalidRegistrations() {
+        assertThrows(IllegalArgumentException.class, () -> registry.register(Serializable.class));
+        assertThrows(IllegalArgumentException.class, () -> registry.register(Object.class));
+        assertThrows(IllegalArgumentException.class, () -> registry.register(URL.class));
+    }
+
+    @Test
+    public void verifyBadCipher() {
+        val bean = mock(CipherBean.class);
+        when(bean.decrypt(any())).thenThrow(IllegalArgumentException.class);
+        when(bean.encrypt(any())).thenThrow(IllegalArgumentException.class);
+        val transcoder = new BinaryEncryptedTranscoder(bean, registry);
+        assertArrayEquals(ArrayUtils.EMPTY_BYTE_ARRAY, assertDoesNotThrow(() -> transcoder.encode(null)));
+        assertThrows(IOException.class, () -> transcoder.decode(ArrayUtils.EMPTY_BYTE_ARRAY));
+        assertThrows(IOException.class, () -> transcoder.encode("casuser"));
+        assertThrows(IOException.class, () -> transcoder.encode(new Object()));
+    }
+
+    @Test
+    public void verifyUnmodifiableCollectionsPreserved() throws Exception {
+        val transcoder = new BinaryEncryptedTranscoder(cipherBean, registry);
+        val values = new ArrayList<Object>();
+        values.add(List.of("admins", "staff"));
+        values.add(Set.of("casuser"));
+        values.add(Map.of("cn", "CAS"));
+        values.add(Collections.unmodifiableList(new ArrayList<>(List.of("a", "b"))));
+        values.add(Collections.unmodifiableMap(new LinkedHashMap<>(Map.of("k", "v"))));
+        values.add(Collections.emptyList());
+
+        val decoded = (List<Object>) transcoder.decode(transcoder.encode(values));
+        assertEquals(values, decoded);
+        assertThrows(UnsupportedOperationException.class, () -> ((List<Object>) decoded.get(0)).add("faculty"));
+        assertThrows(UnsupportedOperationException.class, () -> ((Set<Object>) decoded.get(1)).add("other"));
+        assertThrows(UnsupportedOperationException.class, () -> ((Map<Object, Object>) decoded.get(2)).put("sn", "CAS"));
+        assertThrows(UnsupportedOperationException.class, () -> ((List<Object>) decoded.get(3)).add("c"));
+        assertThrows(UnsupportedOperationException.class, () -> ((Map<Object, Object>) decoded.get(4)).put("x", "y"));
+        assertThrows(UnsupportedOperationException.class, () -> ((List<Object>) decoded.get(5)).add("x"));
+        assertTrue(((List<Object>) decoded).add("mutable"));
+    }
+
+    @Test
+    public void verifyEncodedSize() throws Exception {
+        val flowRegistry = getFlowDefinitionRegistry();
+        val javaTranscoder = new EncryptedTranscoder(cipherBean);
+        val execution = startFlowExecution(getFlowExecutionRepository(javaTranscoder, flowRegistry), flowRegistry);
+        val state = new ClientFlowExecutionRepository.SerializedFlowExecutionState(execution);
+        val binaryTranscoder = new BinaryEncryptedTranscoder(cipherBean, registry);
+        assertTrue(binaryTranscoder.encode(state).length < javaTranscoder.encode(state).length);
+    }
+}
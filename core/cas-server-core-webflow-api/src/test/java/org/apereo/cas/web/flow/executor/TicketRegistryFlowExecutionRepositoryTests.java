@@ -0,0 +1,142 @@
+package org.apereo.cas.web.flow.executor;
+
+import org.apereo.cas.configuration.CasConfigurationProperties;
+import org.apereo.cas.ticket.TransientSessionTicket;
+import org.apereo.cas.ticket.TransientSessionTicketFactory;
+import org.apereo.cas.ticket.expiration.builder.TransientSessionTicketExpirationPolicyBuilder;
+import org.apereo.cas.ticket.factory.DefaultTicketFactory;
+import org.apereo.cas.ticket.factory.DefaultTransientSessionTicketFactory;
+import org.apereo.cas.ticket.registry.DefaultTicketRegistry;
+import org.apereo.cas.ticket.registry.TicketRegistry;
+
+import lombok.val;
+import org.cryptacular.bean.CipherBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.webflow.core.collection.LocalAttributeMap;
+import org.springframework.webflow.definition.FlowDefinition;
+import org.springframework.webflow.engine.impl.FlowExecutionImplFactory;
+import org.springframework.webflow.execution.FlowExecution;
+import org.springframework.webflow.execution.repository.BadlyFormattedFlowExecutionKeyException;
+import org.springframework.webflow.execution.repository.NoSuchFlowExecutionException;
+import org.springframework.webflow.executor.FlowExecutorImpl;
+import org.springframework.webflow.test.MockExternalContext;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test cases for {@link TicketRegistryFlowExecutionRepository}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("Webflow")
+public class TicketRegistryFlowExecutionRepositoryTests {
+    private TicketRegistry ticketRegistry;
+
+    private DefaultTicketFactory ticketFactory;
+
+    private static FlowExecution getFlowExecution(final TicketRegistryFlowExecutionKey key) {
+        val definition = mock(FlowDefinition.class);
+        when(definition.getId()).thenReturn("test-flow");
+        val execution = mock(FlowExecution.class);
+        when(execution.getKey()).thenReturn(key);
+        when(execution.getDefinition()).thenReturn(definition);
+        when(execution.getConversationScope()).thenReturn(new LocalAttributeMap<>());
+        return execution;
+    }
+
+    private static CipherBean mockCipherBean() {
+        val cipherBean = mock(CipherBean.class);
+        when(cipherBean.encrypt(any())).thenAnswer(args -> args.getArgument(0));
+        when(cipherBean.decrypt(any())).thenAnswer(args -> args.getArgument(0));
+        return cipherBean;
+    }
+
+    @BeforeEach
+    public void setup() {
+        ticketRegistry = new DefaultTicketRegistry();
+        ticketFactory = new DefaultTicketFactory();
+        ticketFactory.addTicketFactory(TransientSessionTicket.class, new DefaultTransientSessionTicketFactory(
+            new TransientSessionTicketExpirationPolicyBuilder(new CasConfigurationProperties())));
+    }
+
+    @Test
+    public void verifyLaunchAndResumeFlow() {
+        val flowRegistry = BinaryEncryptedTranscoderTests.getFlowDefinitionRegistry();
+        val repository = new TicketRegistryFlowExecutionRepository(ticketRegistry, ticketFactory, new EncryptedTranscoder(mockCipherBean()));
+        repository.setFlowDefinitionLocator(flowRegistry);
+        val factory = new FlowExecutionImplFactory();
+        factory.setExecutionKeyFactory(repository);
+        repository.setFlowExecutionFactory(factory);
+        val flowExecutor = new FlowExecutorImpl(flowRegistry, factory, repository);
+
+        val launchResult = flowExecutor.launchExecution("test-flow", new LocalAttributeMap<>(), new MockExternalContext());
+        val key = TicketRegistryFlowExecutionKey.parse(launchResult.getPausedKey());
+        assertEquals(1, key.getSnapshotId());
+        assertEquals(key.toString(), launchResult.getPausedKey());
+        val ticketId = TransientSessionTicketFactory.normalizeTicketId(key.getId());
+        assertNotNull(ticketRegistry.getTicket(ticketId));
+
+        val context = new MockExternalContext();
+        context.setEventId("submit");
+        context.getRequestMap().put("vegan", "0");
+        val resumeResult = flowExecutor.resumeExecution(launchResult.getPausedKey(), context);
+        assertEquals("lasagnaDinner", resumeResult.getOutcome().getId());
+        assertNull(ticketRegistry.getTicket(ticketId));
+    }
+
+    @Test
+    public void verifySnapshotsAreLimited() throws Exception {
+        val transcoder = mock(Transcoder.class);
+        when(transcoder.encode(any())).thenReturn(new byte[]{1});
+        val repository = new TicketRegistryFlowExecutionRepository(ticketRegistry, ticketFactory, transcoder);
+        repository.setMaxSnapshots(2);
+        repository.setFlowExecutionFactory(new FlowExecutionImplFactory());
+        repository.setFlowDefinitionLocator(BinaryEncryptedTranscoderTests.getFlowDefinitionRegistry());
+
+        var key = (TicketRegistryFlowExecutionKey) repository.getKey(mock(FlowExecution.class));
+        for (var i = 0; i < 5; i++) {
+            val execution = getFlowExecution(key);
+            repository.putFlowExecution(execution);
+            key = (TicketRegistryFlowExecutionKey) repository.getKey(execution);
+        }
+        val id = key.getId();
+        val ticket = ticketRegistry.getTicket(TransientSessionTicketFactory.normalizeTicketId(id), TransientSessionTicket.class);
+        val snapshots = (Map<String, String>) ticket.getProperties().get(TicketRegistryFlowExecutionRepository.PROPERTY_SNAPSHOTS);
+        assertEquals(List.of("4", "5"), List.copyOf(snapshots.keySet()));
+        assertThrows(NoSuchFlowExecutionException.class,
+            () -> repository.getFlowExecution(new TicketRegistryFlowExecutionKey(id, 1)));
+        verify(transcoder, never()).decode(any());
+
+        val current = getFlowExecution(new TicketRegistryFlowExecutionKey(id, 5));
+        repository.removeFlowExecutionSnapshot(current);
+        assertEquals(1, ((Map) ticketRegistry.getTicket(ticket.getId(), TransientSessionTicket.class)
+            .getProperties().get(TicketRegistryFlowExecutionRepository.PROPERTY_SNAPSHOTS)).size());
+        repository.removeAllFlowExecutionSnapshots(current);
+        assertTrue(((Map) ticketRegistry.getTicket(ticket.getId(), TransientSessionTicket.class)
+            .getProperties().get(TicketRegistryFlowExecutionRepository.PROPERTY_SNAPSHOTS)).isEmpty());
+        repository.removeFlowExecution(current);
+        assertNull(ticketRegistry.getTicket(ticket.getId()));
+        assertThrows(NoSuchFlowExecutionException.class, () -> repository.getFlowExecution(current.getKey()));
+    }
+
+    @Test
+    public void verifyBadKeys() {
+        val repository = new TicketRegistryFlowExecutionRepository(ticketRegistry, ticketFactory, mock(Transcoder.class));
+        assertThrows(BadlyFormattedFlowExecutionKeyException.class, () -> repository.parseFlowExecutionKey("unknown"));
+        assertThrows(BadlyFormattedFlowExecutionKeyException.class, () -> repository.parseFlowExecutionKey("unknown_"));
+        assertThrows(BadlyFormattedFlowExecutionKeyException.class, () -> repository.parseFlowExecutionKey("unknown_key"));
+        assertThrows(IllegalArgumentException.class, () -> repository.getLock(mock(ClientFlowExecutionKey.class)));
+        val lock = repository.getLock(repository.parseFlowExecutionKey("unknown_1"));
+        assertDoesNotThrow(() -> {
+            lock.lock();
+            lock.unlock();
+        });
+    }
+}
@@ -27,6 +27,7 @@ import org.apereo.cas.ticket.AbstractTicketException;
 import org.apereo.cas.ticket.UnsatisfiedAuthenticationPolicyException;
 import org.apereo.cas.ticket.registry.TicketRegistry;
 import org.apereo.cas.ticket.registry.TicketRegistrySupport;
+import org.apereo.cas.util.cipher.CipherExecutorUtils;
 import org.apereo.cas.util.cipher.WebflowConversationStateCipherExecutor;
 import org.apereo.cas.util.crypto.CipherExecutor;
 import org.apereo.cas.util.spring.beans.BeanCondition;
@@ -115,12 +116,13 @@ public class CasCoreWebflowConfiguration {
                 enabled = true;
             }
             if (enabled) {
-                return new WebflowConversationStateCipherExecutor(
+                val cipher = new WebflowConversationStateCipherExecutor(
                     crypto.getEncryption().getKey(),
                     crypto.getSigning().getKey(),
                     crypto.getAlg(),
                     crypto.getSigning().getKeySize(),
                     crypto.getEncryption().getKeySize());
+                return CipherExecutorUtils.configureCompactEnvelope(cipher, crypto.isCompactEnvelope(), crypto.getRotatedKeys());
             }
             LOGGER.warn("Webflow encryption/signing is turned off. This "
                         + "MAY NOT be safe in a production environment. Consider using other choices to handle encryption, "
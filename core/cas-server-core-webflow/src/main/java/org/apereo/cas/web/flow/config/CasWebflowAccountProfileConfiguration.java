@@ -2,6 +2,8 @@ package org.apereo.cas.web.flow.config;
 
 import org.apereo.cas.configuration.CasConfigurationProperties;
 import org.apereo.cas.configuration.features.CasFeatureModule;
+import org.apereo.cas.ticket.TicketFactory;
+import org.apereo.cas.ticket.registry.TicketRegistry;
 import org.apereo.cas.util.crypto.CipherExecutor;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeaturesEnabled;
@@ -16,6 +18,7 @@ import org.apereo.cas.web.flow.configurer.acct.AccountProfileWebflowConfigurer;
 import org.apereo.cas.web.flow.executor.WebflowExecutorFactory;
 
 import lombok.val;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -78,9 +81,15 @@ public class CasWebflowAccountProfileConfiguration {
         @Qualifier(CasWebflowConstants.BEAN_NAME_ACCOUNT_PROFILE_FLOW_DEFINITION_REGISTRY)
         final FlowDefinitionRegistry accountProfileFlowRegistry,
         @Qualifier("webflowCipherExecutor")
-        final CipherExecutor webflowCipherExecutor) {
+        final CipherExecutor webflowCipherExecutor,
+        @Qualifier(TicketRegistry.BEAN_NAME)
+        final ObjectProvider<TicketRegistry> ticketRegistry,
+        @Qualifier(TicketFactory.BEAN_NAME)
+        final ObjectProvider<TicketFactory> ticketFactory) {
         val factory = new WebflowExecutorFactory(casProperties.getWebflow(),
             accountProfileFlowRegistry, webflowCipherExecutor, FLOW_EXECUTION_LISTENERS);
+        ticketRegistry.ifAvailable(factory::setTicketRegistry);
+        ticketFactory.ifAvailable(factory::setTicketFactory);
         return factory.build();
     }
 
@@ -9,8 +9,10 @@ import org.apereo.cas.couchbase.core.CouchbaseClientFactory;
 import org.apereo.cas.couchbase.core.DefaultCouchbaseClientFactory;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.val;
 import org.apereo.inspektr.audit.AuditTrailManager;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -44,10 +46,14 @@ public class CasSupportCouchbaseAuditConfiguration {
     public AuditTrailManager couchbaseAuditTrailManager(
         @Qualifier("auditsCouchbaseClientFactory")
         final CouchbaseClientFactory auditsCouchbaseClientFactory,
-        final CasConfigurationProperties casProperties) {
+        final CasConfigurationProperties casProperties,
+        final ObjectProvider<MeterRegistry> meterRegistry) {
         val cb = casProperties.getAudit().getCouchbase();
-        return new CouchbaseAuditTrailManager(auditsCouchbaseClientFactory,
+        val manager = new CouchbaseAuditTrailManager(auditsCouchbaseClientFactory,
             new AuditActionContextJsonSerializer(), cb.isAsynchronous());
+        manager.setQueue(casProperties.getAudit().getEngine().getQueue());
+        meterRegistry.ifAvailable(manager::setMeterRegistry);
+        return manager;
     }
 
     @Bean
@@ -9,8 +9,11 @@ import org.apereo.cas.couchdb.core.CouchDbConnectorFactory;
 import org.apereo.cas.couchdb.core.DefaultCouchDbConnectorFactory;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.val;
 import org.apereo.inspektr.audit.AuditTrailManager;
 import org.ektorp.impl.ObjectMapperFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -54,8 +57,12 @@ public class CasSupportCouchDbAuditConfiguration {
     @RefreshScope(proxyMode = ScopedProxyMode.DEFAULT)
     public AuditTrailManager couchDbAuditTrailManager(
         @Qualifier("auditActionContextCouchDbRepository")
-        final AuditActionContextCouchDbRepository repository, final CasConfigurationProperties casProperties) {
-        return new CouchDbAuditTrailManager(casProperties.getAudit().getCouchDb().isAsynchronous(), repository);
+        final AuditActionContextCouchDbRepository repository, final CasConfigurationProperties casProperties,
+        final ObjectProvider<MeterRegistry> meterRegistry) {
+        val manager = new CouchDbAuditTrailManager(casProperties.getAudit().getCouchDb().isAsynchronous(), repository);
+        manager.setQueue(casProperties.getAudit().getEngine().getQueue());
+        meterRegistry.ifAvailable(manager::setMeterRegistry);
+        return manager;
     }
 
     @ConditionalOnMissingBean(name = "couchDbAuditTrailExecutionPlanConfigurer")
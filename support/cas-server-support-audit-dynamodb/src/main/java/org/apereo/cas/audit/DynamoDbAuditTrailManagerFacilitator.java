@@ -17,11 +17,14 @@ import org.apereo.inspektr.audit.AuditTrailManager;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.ComparisonOperator;
 import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
 import software.amazon.awssdk.services.dynamodb.model.KeyType;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
 import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
 
 import java.time.LocalDate;
 import java.util.Date;
@@ -42,6 +45,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @SuppressWarnings("JavaUtilDate")
 public class DynamoDbAuditTrailManagerFacilitator {
+    private static final int MAX_BATCH_WRITE_ITEMS = 25;
+
     private final AuditDynamoDbProperties dynamoDbProperties;
 
     private final DynamoDbClient amazonDynamoDBClient;
@@ -101,6 +106,30 @@ public class DynamoDbAuditTrailManagerFacilitator {
         LOGGER.debug("Record added with result [{}]", putItemResult);
     }
 
+    /**
+     * Save the records in batches of write requests.
+     * Items that are left unprocessed by a batch are resubmitted.
+     *
+     * @param records the records
+     */
+    public void save(final List<AuditActionContext> records) {
+        val tableName = dynamoDbProperties.getTableName();
+        for (var i = 0; i < records.size(); i += MAX_BATCH_WRITE_ITEMS) {
+            val requests = records.subList(i, Math.min(records.size(), i + MAX_BATCH_WRITE_ITEMS))
+                .stream()
+                .map(record -> WriteRequest.builder()
+                    .putRequest(PutRequest.builder().item(buildTableAttributeValuesMap(record)).build())
+                    .build())
+                .collect(Collectors.toList());
+            Map<String, List<WriteRequest>> items = Map.of(tableName, requests);
+            while (!items.isEmpty()) {
+                LOGGER.debug("Submitting batch write request with [{}] record(s) to [{}]", items.get(tableName).size(), tableName);
+                val result = amazonDynamoDBClient.batchWriteItem(BatchWriteItemRequest.builder().requestItems(items).build());
+                items = result.hasUnprocessedItems() ? result.unprocessedItems() : Map.of();
+            }
+        }
+    }
+
     /**
      * Remove all.
      */
@@ -8,8 +8,10 @@ import org.apereo.cas.configuration.features.CasFeatureModule;
 import org.apereo.cas.dynamodb.AmazonDynamoDbClientFactory;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.val;
 import org.apereo.inspektr.audit.AuditTrailManager;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -34,10 +36,14 @@ public class CasSupportDynamoDbAuditConfiguration {
     @RefreshScope(proxyMode = ScopedProxyMode.DEFAULT)
     public AuditTrailManager dynamoDbAuditTrailManager(
         final CasConfigurationProperties casProperties,
+        final ObjectProvider<MeterRegistry> meterRegistry,
         @Qualifier("dynamoDbAuditTrailManagerFacilitator")
         final DynamoDbAuditTrailManagerFacilitator dynamoDbAuditTrailManagerFacilitator) {
         val db = casProperties.getAudit().getDynamoDb();
-        return new DynamoDbAuditTrailManager(dynamoDbAuditTrailManagerFacilitator, db.isAsynchronous());
+        val manager = new DynamoDbAuditTrailManager(dynamoDbAuditTrailManagerFacilitator, db.isAsynchronous());
+        manager.setQueue(casProperties.getAudit().getEngine().getQueue());
+        meterRegistry.ifAvailable(manager::setMeterRegistry);
+        return manager;
     }
 
     @RefreshScope(proxyMode = ScopedProxyMode.DEFAULT)
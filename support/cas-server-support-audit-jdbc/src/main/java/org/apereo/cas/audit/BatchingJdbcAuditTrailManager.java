@@ -0,0 +1,140 @@
+package org.apereo.cas.audit;
+
+import org.apereo.cas.audit.spi.AuditRecordBatchPipeline;
+import org.apereo.cas.configuration.model.core.audit.AuditQueueProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+import org.apereo.inspektr.audit.AuditActionContext;
+import org.apereo.inspektr.audit.support.JdbcAuditTrailManager;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * This is {@link BatchingJdbcAuditTrailManager}.
+ * Extends the JDBC audit trail manager so that, when asynchronous,
+ * audit records are handed over to a bounded {@link AuditRecordBatchPipeline}
+ * and inserted in batches, sending each batch to the database as a single JDBC batch
+ * within one transaction rather than as one insert per record.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+@Setter
+public class BatchingJdbcAuditTrailManager extends JdbcAuditTrailManager {
+    private static final String INSERT_SQL_TEMPLATE = "INSERT INTO %s (AUD_USER, AUD_CLIENT_IP, AUD_SERVER_IP, AUD_RESOURCE, "
+        + "AUD_ACTION, APPLIC_CD, AUD_DATE, AUD_USERAGENT) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int DEFAULT_COLUMN_LENGTH = 100;
+
+    private final TransactionOperations transactionTemplate;
+
+    /**
+     * Settings for the queue used when saving records asynchronously.
+     */
+    private AuditQueueProperties queue = new AuditQueueProperties();
+
+    /**
+     * Meter registry used to record queue metrics, if any.
+     */
+    private MeterRegistry meterRegistry;
+
+    @Setter(AccessLevel.NONE)
+    private String tableName = "COM_AUDIT_TRAIL";
+
+    @Setter(AccessLevel.NONE)
+    private int columnLength = DEFAULT_COLUMN_LENGTH;
+
+    @Setter(AccessLevel.NONE)
+    private boolean asynchronous = true;
+
+    @Setter(AccessLevel.NONE)
+    private volatile AuditRecordBatchPipeline pipeline;
+
+    public BatchingJdbcAuditTrailManager(final TransactionOperations transactionTemplate) {
+        super(transactionTemplate);
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void setAsynchronous(final boolean asynchronous) {
+        super.setAsynchronous(asynchronous);
+        this.asynchronous = asynchronous;
+    }
+
+    @Override
+    public void setTableName(final String tableName) {
+        super.setTableName(tableName);
+        this.tableName = tableName;
+    }
+
+    @Override
+    public void setColumnLength(final int columnLength) {
+        super.setColumnLength(columnLength);
+        this.columnLength = columnLength;
+    }
+
+    @Override
+    public void record(final AuditActionContext audit) {
+        if (this.asynchronous) {
+            getPipeline().submit(audit);
+        } else {
+            super.record(audit);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (this) {
+            if (this.pipeline != null) {
+                this.pipeline.close();
+            }
+        }
+        super.destroy();
+    }
+
+    /**
+     * Insert the batch of audit records in a single transaction.
+     *
+     * @param audits the audit records
+     */
+    protected void saveAuditRecords(final List<AuditActionContext> audits) {
+        val sql = String.format(INSERT_SQL_TEMPLATE, this.tableName);
+        val parameters = audits
+            .stream()
+            .map(audit -> new Object[]{
+                StringUtils.substring(audit.getPrincipal(), 0, columnLength),
+                audit.getClientIpAddress(),
+                audit.getServerIpAddress(),
+                StringUtils.substring(audit.getResourceOperatedUpon(), 0, columnLength),
+                StringUtils.substring(audit.getActionPerformed(), 0, columnLength),
+                audit.getApplicationCode(),
+                audit.getWhenActionWasPerformed(),
+                audit.getUserAgent()
+            })
+            .collect(Collectors.toList());
+        LOGGER.trace("Inserting [{}] audit records into [{}]", parameters.size(), this.tableName);
+        transactionTemplate.executeWithoutResult(status -> getJdbcTemplate().batchUpdate(sql, parameters));
+    }
+
+    private AuditRecordBatchPipeline getPipeline() {
+        var result = this.pipeline;
+        if (result == null) {
+            synchronized (this) {
+                result = this.pipeline;
+                if (result == null) {
+                    result = new AuditRecordBatchPipeline(getClass().getSimpleName(), queue, this::saveAuditRecords, meterRegistry);
+                    this.pipeline = result;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -1,6 +1,7 @@
 package org.apereo.cas.audit.config;
 
 import org.apereo.cas.audit.AuditTrailExecutionPlanConfigurer;
+import org.apereo.cas.audit.BatchingJdbcAuditTrailManager;
 import org.apereo.cas.audit.spi.entity.AuditTrailEntity;
 import org.apereo.cas.configuration.CasConfigurationProperties;
 import org.apereo.cas.configuration.features.CasFeatureModule;
@@ -13,15 +14,16 @@ import org.apereo.cas.util.spring.beans.BeanCondition;
 import org.apereo.cas.util.spring.beans.BeanSupplier;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.val;
 import org.apache.commons.lang3.StringUtils;
 import org.apereo.inspektr.audit.AuditTrailManager;
-import org.apereo.inspektr.audit.support.JdbcAuditTrailManager;
 import org.apereo.inspektr.audit.support.MaxAgeWhereClauseMatchCriteria;
 import org.apereo.inspektr.audit.support.WhereClauseMatchCriteria;
 import org.apereo.inspektr.common.Cleanable;
 import org.jooq.lambda.Unchecked;
 import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -164,12 +166,15 @@ public class CasSupportJdbcAuditConfiguration {
             final TransactionOperations inspektrAuditTransactionTemplate,
             @Qualifier("inspektrAuditTrailDataSource")
             final DataSource inspektrAuditTrailDataSource,
-            final CasConfigurationProperties casProperties) {
+            final CasConfigurationProperties casProperties,
+            final ObjectProvider<MeterRegistry> meterRegistry) {
             return BeanSupplier.of(AuditTrailManager.class)
                 .when(CONDITION.given(applicationContext.getEnvironment()))
                 .supply(() -> {
                     val jdbc = casProperties.getAudit().getJdbc();
-                    val t = new JdbcAuditTrailManager(inspektrAuditTransactionTemplate);
+                    val t = new BatchingJdbcAuditTrailManager(inspektrAuditTransactionTemplate);
+                    t.setQueue(casProperties.getAudit().getEngine().getQueue());
+                    meterRegistry.ifAvailable(t::setMeterRegistry);
                     t.setCleanupCriteria(auditCleanupCriteria);
                     t.setDataSource(inspektrAuditTrailDataSource);
                     t.setAsynchronous(jdbc.isAsynchronous());
@@ -11,8 +11,10 @@ import org.apereo.cas.util.spring.beans.BeanCondition;
 import org.apereo.cas.util.spring.beans.BeanSupplier;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.val;
 import org.apereo.inspektr.audit.AuditTrailManager;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -42,12 +44,16 @@ public class CasSupportRedisAuditConfiguration {
         final ConfigurableApplicationContext applicationContext,
         @Qualifier("auditRedisTemplate")
         final CasRedisTemplate auditRedisTemplate,
-        final CasConfigurationProperties casProperties) throws Exception {
+        final CasConfigurationProperties casProperties,
+        final ObjectProvider<MeterRegistry> meterRegistry) throws Exception {
         return BeanSupplier.of(AuditTrailManager.class)
             .when(CONDITION.given(applicationContext.getEnvironment()))
             .supply(() -> {
                 val redis = casProperties.getAudit().getRedis();
-                return new RedisAuditTrailManager(auditRedisTemplate, redis.isAsynchronous(), redis.getScanCount());
+                val manager = new RedisAuditTrailManager(auditRedisTemplate, redis.isAsynchronous(), redis.getScanCount());
+                manager.setQueue(casProperties.getAudit().getEngine().getQueue());
+                meterRegistry.ifAvailable(manager::setMeterRegistry);
+                return manager;
             })
             .otherwiseProxy()
             .get();
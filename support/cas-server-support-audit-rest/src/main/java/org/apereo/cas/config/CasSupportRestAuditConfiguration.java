@@ -6,8 +6,10 @@ import org.apereo.cas.configuration.CasConfigurationProperties;
 import org.apereo.cas.configuration.features.CasFeatureModule;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.val;
 import org.apereo.inspektr.audit.AuditTrailManager;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -30,9 +32,13 @@ public class CasSupportRestAuditConfiguration {
     @Bean
     @ConditionalOnMissingBean(name = "restAuditTrailManager")
     @RefreshScope(proxyMode = ScopedProxyMode.DEFAULT)
-    public AuditTrailManager restAuditTrailManager(final CasConfigurationProperties casProperties) {
+    public AuditTrailManager restAuditTrailManager(final CasConfigurationProperties casProperties,
+                                                   final ObjectProvider<MeterRegistry> meterRegistry) {
         val rest = casProperties.getAudit().getRest();
-        return new RestAuditTrailManager(rest);
+        val manager = new RestAuditTrailManager(rest);
+        manager.setQueue(casProperties.getAudit().getEngine().getQueue());
+        meterRegistry.ifAvailable(manager::setMeterRegistry);
+        return manager;
     }
 
     @Bean
@@ -134,7 +134,7 @@ public class CasConsentCoreConfiguration {
             if (location != null) {
                 LOGGER.warn("Storing consent records in [{}]. This MAY NOT be appropriate in production. "
                             + "Consider choosing an alternative repository format for storing consent decisions", location);
-                return new JsonConsentRepository(location);
+                return new JsonConsentRepository(location, casProperties.getConsent().getJson().getLogStore());
             }
 
             val groovy = casProperties.getConsent().getGroovy().getLocation();
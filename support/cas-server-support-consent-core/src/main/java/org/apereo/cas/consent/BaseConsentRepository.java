@@ -6,18 +6,12 @@ import org.apereo.cas.services.RegisteredService;
 import org.apereo.cas.util.RandomUtils;
 
 import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import lombok.Setter;
-import lombok.val;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * This is {@link BaseConsentRepository}.
@@ -25,63 +19,65 @@ import java.util.stream.Collectors;
  * @author Misagh Moayyed
  * @since 5.2.0
  */
-@Setter
 @RequiredArgsConstructor(access = AccessLevel.PROTECTED)
-@AllArgsConstructor(access = AccessLevel.PROTECTED)
 @Getter
 public abstract class BaseConsentRepository implements ConsentRepository {
     private static final long serialVersionUID = 1736846688546785564L;
 
-    private Set<ConsentDecision> consentDecisions = Collections.synchronizedSet(new LinkedHashSet<>(0));
+    private final ConsentDecisionStore consentDecisionStore = new ConsentDecisionStore();
+
+    /**
+     * Gets a snapshot of all consent decisions.
+     *
+     * @return the consent decisions
+     */
+    public Set<ConsentDecision> getConsentDecisions() {
+        return new LinkedHashSet<>(consentDecisionStore.values());
+    }
+
+    /**
+     * Replace all consent decisions.
+     *
+     * @param consentDecisions the consent decisions
+     */
+    public void setConsentDecisions(final Set<ConsentDecision> consentDecisions) {
+        consentDecisionStore.replaceAll(consentDecisions);
+    }
 
     @Override
     public ConsentDecision findConsentDecision(final Service service, final RegisteredService registeredService,
                                                final Authentication authentication) {
-        return this.consentDecisions.stream()
-            .filter(d -> d.getPrincipal().equals(authentication.getPrincipal().getId())
-                && d.getService().equals(service.getId()))
-            .findFirst()
-            .orElse(null);
+        return consentDecisionStore.find(authentication.getPrincipal().getId(), service.getId());
     }
 
     @Override
     public Collection<? extends ConsentDecision> findConsentDecisions(final String principal) {
-        return this.consentDecisions.stream()
-            .filter(d -> d.getPrincipal().equals(principal))
-            .collect(Collectors.toSet());
+        return consentDecisionStore.find(principal);
     }
 
     @Override
     public Collection<? extends ConsentDecision> findConsentDecisions() {
-        return new ArrayList<>(this.consentDecisions);
+        return consentDecisionStore.values();
     }
 
     @Override
     public ConsentDecision storeConsentDecision(final ConsentDecision decision) {
-        val consent = getConsentDecisions()
-            .stream()
-            .anyMatch(d -> d.getId() == decision.getId());
-        if (consent) {
-            getConsentDecisions().remove(decision);
-        } else {
-            decision.setId(RandomUtils.nextLong());
-        }
-        getConsentDecisions().add(decision);
+        consentDecisionStore.storeOrAssignId(decision, RandomUtils::nextLong);
         return decision;
     }
 
     @Override
     public boolean deleteConsentDecision(final long decisionId, final String principal) {
-        return this.consentDecisions.removeIf(d -> d.getId() == decisionId && d.getPrincipal().equalsIgnoreCase(principal));
+        return consentDecisionStore.remove(decisionId, principal) != null;
     }
 
     @Override
     public void deleteAll() {
-        consentDecisions.clear();
+        consentDecisionStore.clear();
     }
 
     @Override
     public boolean deleteConsentDecisions(final String principal) {
-        return consentDecisions.removeIf(consentDecision -> consentDecision.getPrincipal().equalsIgnoreCase(principal));
+        return !consentDecisionStore.removeAll(principal).isEmpty();
     }
 }
@@ -0,0 +1,272 @@
+package org.apereo.cas.consent;
+
+import lombok.Value;
+import lombok.val;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * This is {@link ConsentDecisionStore}, an in-memory store of consent decisions
+ * that indexes decisions by their identifier, by principal and by principal and service.
+ * Lookups read from concurrent maps without locking, while changes are serialized
+ * and update the indexes such that readers never observe a missing decision that is being replaced.
+ * Decisions are returned in the order they were first stored; replacing a decision keeps its position.
+ * If multiple decisions are stored for the same principal and service, lookups return the one that was stored first
+ * until it is removed.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+public class ConsentDecisionStore implements Serializable {
+    private static final long serialVersionUID = -2318377408915482417L;
+
+    private final Map<Long, IndexedConsentDecision> decisions = new ConcurrentHashMap<>();
+
+    private final Map<String, Map<Long, IndexedConsentDecision>> decisionsByPrincipal = new ConcurrentHashMap<>();
+
+    private final Map<DecisionKey, ConsentDecision> decisionsByPrincipalAndService = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Find the decision for the principal and service.
+     *
+     * @param principal the principal
+     * @param service   the service
+     * @return the decision, or null
+     */
+    public ConsentDecision find(final String principal, final String service) {
+        return decisionsByPrincipalAndService.get(new DecisionKey(principal, service));
+    }
+
+    /**
+     * Find all decisions for the principal.
+     *
+     * @param principal the principal
+     * @return the decisions
+     */
+    public Collection<ConsentDecision> find(final String principal) {
+        val found = decisionsByPrincipal.get(principal);
+        return found == null ? new ArrayList<>(0) : sorted(found.values());
+    }
+
+    /**
+     * Gets the decision by its identifier.
+     *
+     * @param id the id
+     * @return the decision, or null
+     */
+    public ConsentDecision get(final long id) {
+        val entry = decisions.get(id);
+        return entry == null ? null : entry.getDecision();
+    }
+
+    /**
+     * Whether a decision is stored under the identifier.
+     *
+     * @param id the id
+     * @return true/false
+     */
+    public boolean contains(final long id) {
+        return decisions.containsKey(id);
+    }
+
+    /**
+     * All stored decisions.
+     *
+     * @return the decisions
+     */
+    public Collection<ConsentDecision> values() {
+        return sorted(decisions.values());
+    }
+
+    /**
+     * Number of stored decisions.
+     *
+     * @return the size
+     */
+    public int size() {
+        return decisions.size();
+    }
+
+    /**
+     * Store the decision, replacing any decision stored under the same identifier.
+     *
+     * @param decision the decision
+     * @return the replaced decision, or null
+     */
+    public synchronized ConsentDecision store(final ConsentDecision decision) {
+        val current = decisions.get(decision.getId());
+        val entry = new IndexedConsentDecision(new DecisionKey(decision.getPrincipal(), decision.getService()), decision,
+            current == null ? sequence.incrementAndGet() : current.getSequence());
+        val previous = decisions.put(decision.getId(), entry);
+        if (previous != null && !Objects.equals(previous.getKey().getPrincipal(), entry.getKey().getPrincipal())) {
+            unindexPrincipal(decision.getId(), previous);
+        }
+        decisionsByPrincipal.computeIfAbsent(entry.getKey().getPrincipal(), k -> new ConcurrentHashMap<>()).put(decision.getId(), entry);
+        if (previous != null && previous.getKey().equals(entry.getKey())) {
+            if (!decisionsByPrincipalAndService.replace(entry.getKey(), previous.getDecision(), decision)) {
+                decisionsByPrincipalAndService.putIfAbsent(entry.getKey(), decision);
+            }
+        } else {
+            if (previous != null) {
+                unindexPrincipalAndService(previous);
+            }
+            decisionsByPrincipalAndService.putIfAbsent(entry.getKey(), decision);
+        }
+        return previous == null ? null : previous.getDecision();
+    }
+
+    /**
+     * Store the decision, replacing the decision stored under the same identifier if any.
+     * Otherwise, the decision is assigned a new identifier that is not in use before it is stored.
+     *
+     * @param decision    the decision
+     * @param identifiers the generator of new identifiers
+     * @return the replaced decision, or null
+     */
+    public synchronized ConsentDecision storeOrAssignId(final ConsentDecision decision, final LongSupplier identifiers) {
+        if (!decisions.containsKey(decision.getId())) {
+            var id = identifiers.getAsLong();
+            while (decisions.containsKey(id)) {
+                id = identifiers.getAsLong();
+            }
+            decision.setId(id);
+        }
+        return store(decision);
+    }
+
+    /**
+     * Remove the decision stored under the identifier, only if it belongs to the principal, ignoring case.
+     *
+     * @param id        the id
+     * @param principal the principal
+     * @return the removed decision, or null
+     */
+    public synchronized ConsentDecision remove(final long id, final String principal) {
+        val current = decisions.get(id);
+        if (current == null || !current.getDecision().getPrincipal().equalsIgnoreCase(principal)) {
+            return null;
+        }
+        return remove(id);
+    }
+
+    /**
+     * Remove the decision stored under the identifier.
+     *
+     * @param id the id
+     * @return the removed decision, or null
+     */
+    public synchronized ConsentDecision remove(final long id) {
+        val previous = decisions.remove(id);
+        if (previous == null) {
+            return null;
+        }
+        unindexPrincipal(id, previous);
+        unindexPrincipalAndService(previous);
+        return previous.getDecision();
+    }
+
+    /**
+     * Remove all decisions for the principal, ignoring case.
+     *
+     * @param principal the principal
+     * @return the removed decisions
+     */
+    public synchronized List<ConsentDecision> removeAll(final String principal) {
+        return decisionsByPrincipal.entrySet()
+            .stream()
+            .filter(entry -> entry.getKey().equalsIgnoreCase(principal))
+            .flatMap(entry -> entry.getValue().keySet().stream())
+            .collect(Collectors.toList())
+            .stream()
+            .map(this::remove)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Replace all stored decisions. Decisions are stored before those that are no longer present
+     * are removed, so decisions present before and after remain visible throughout.
+     *
+     * @param replacements the replacements
+     */
+    public synchronized void replaceAll(final Collection<ConsentDecision> replacements) {
+        val ids = replacements.stream().map(ConsentDecision::getId).collect(Collectors.toSet());
+        replacements.forEach(this::store);
+        new ArrayList<>(decisions.keySet())
+            .stream()
+            .filter(id -> !ids.contains(id))
+            .forEach(this::remove);
+    }
+
+    /**
+     * Remove all decisions.
+     */
+    public synchronized void clear() {
+        decisions.clear();
+        decisionsByPrincipal.clear();
+        decisionsByPrincipalAndService.clear();
+    }
+
+    private void unindexPrincipal(final long id, final IndexedConsentDecision entry) {
+        val principal = entry.getKey().getPrincipal();
+        val principalDecisions = decisionsByPrincipal.get(principal);
+        if (principalDecisions != null) {
+            principalDecisions.remove(id, entry);
+            if (principalDecisions.isEmpty()) {
+                decisionsByPrincipal.remove(principal, principalDecisions);
+            }
+        }
+    }
+
+    private void unindexPrincipalAndService(final IndexedConsentDecision entry) {
+        val key = entry.getKey();
+        val principalDecisions = decisionsByPrincipal.get(key.getPrincipal());
+        if (decisionsByPrincipalAndService.remove(key, entry.getDecision()) && principalDecisions != null) {
+            principalDecisions.values()
+                .stream()
+                .filter(candidate -> candidate.getKey().equals(key))
+                .min(Comparator.comparingLong(IndexedConsentDecision::getSequence))
+                .ifPresent(candidate -> decisionsByPrincipalAndService.putIfAbsent(key, candidate.getDecision()));
+        }
+    }
+
+    private static List<ConsentDecision> sorted(final Collection<IndexedConsentDecision> entries) {
+        return entries
+            .stream()
+            .sorted(Comparator.comparingLong(IndexedConsentDecision::getSequence))
+            .map(IndexedConsentDecision::getDecision)
+            .collect(Collectors.toList());
+    }
+
+    @Value
+    private static class DecisionKey implements Serializable {
+        private static final long serialVersionUID = 2863727513564934367L;
+
+        String principal;
+
+        String service;
+    }
+
+    @Value
+    private static class IndexedConsentDecision implements Serializable {
+        private static final long serialVersionUID = -4913567402683113471L;
+
+        DecisionKey key;
+
+        ConsentDecision decision;
+
+        long sequence;
+    }
+}
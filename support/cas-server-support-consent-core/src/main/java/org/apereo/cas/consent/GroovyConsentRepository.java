@@ -4,9 +4,11 @@ import org.apereo.cas.util.scripting.WatchableGroovyScriptResource;
 
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.apache.commons.lang3.ObjectUtils;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.core.io.Resource;
 
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 /**
@@ -61,6 +63,7 @@ public class GroovyConsentRepository extends BaseConsentRepository implements Di
     }
 
     private Set<ConsentDecision> readDecisionsFromGroovyResource() {
-        return watchableScript.execute("read", Set.class, getConsentDecisions(), LOGGER);
+        val decisions = watchableScript.execute("read", Set.class, getConsentDecisions(), LOGGER);
+        return ObjectUtils.defaultIfNull(decisions, new LinkedHashSet<>(0));
     }
 }
@@ -1,14 +1,19 @@
 package org.apereo.cas.consent;
 
+import org.apereo.cas.configuration.model.core.util.LogStructuredStoreProperties;
+import org.apereo.cas.configuration.support.Beans;
 import org.apereo.cas.util.ResourceUtils;
 import org.apereo.cas.util.function.FunctionUtils;
 import org.apereo.cas.util.io.FileWatcherService;
+import org.apereo.cas.util.io.LogStructuredRecordStore;
 import org.apereo.cas.util.io.WatcherService;
 import org.apereo.cas.util.serialization.JacksonObjectMapperFactory;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.hjson.JsonValue;
 import org.jooq.lambda.Unchecked;
@@ -17,18 +22,28 @@ import org.jooq.lambda.fi.util.function.CheckedSupplier;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.core.io.Resource;
 
+import java.io.File;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * This is {@link JsonConsentRepository}.
+ * Changes are applied to the in-memory decisions and written to the JSON resource,
+ * or appended to the log store, under the same lock so both always agree.
  *
  * @author Misagh Moayyed
  * @since 5.2.0
  */
 @Getter
+@Slf4j
 public class JsonConsentRepository extends BaseConsentRepository implements DisposableBean {
     private static final long serialVersionUID = -402728417464783825L;
 
@@ -39,67 +54,183 @@ public class JsonConsentRepository extends BaseConsentRepository implements Disp
 
     private WatcherService watcherService;
 
+    private transient LogStructuredRecordStore<ConsentDecision> logStore;
+
+    /**
+     * Decisions as found in the JSON resource when it was last imported or exported,
+     * keyed by their identifier, used to tell which decisions were edited in the JSON resource
+     * while the log store is in use.
+     */
+    @Getter(AccessLevel.NONE)
+    private transient Map<Long, String> exportedDecisions = new HashMap<>(0);
+
+    private static Map<Long, String> serializeDecisions(final Collection<ConsentDecision> decisions) {
+        return decisions
+            .stream()
+            .collect(Collectors.toMap(ConsentDecision::getId, Unchecked.function(MAPPER::writeValueAsString), (d1, d2) -> d2, HashMap::new));
+    }
+
     public JsonConsentRepository(final Resource resource) throws Exception {
+        this(resource, new LogStructuredStoreProperties());
+    }
+
+    public JsonConsentRepository(final Resource resource, final LogStructuredStoreProperties logStoreProperties) throws Exception {
         this.jsonResource = resource;
-        setConsentDecisions(readDecisionsFromJsonResource());
+        if (logStoreProperties.isEnabled() && ResourceUtils.isFile(this.jsonResource)) {
+            val jsonFile = resource.getFile();
+            this.logStore = new LogStructuredRecordStore<>(new File(jsonFile.getParentFile(), jsonFile.getName() + ".log"),
+                MAPPER, ConsentDecision.class,
+                Beans.newDuration(logStoreProperties.getSyncInterval()),
+                Beans.newDuration(logStoreProperties.getCompactionInterval()));
+            if (!logStore.isExisting() || jsonFile.lastModified() > logStore.getFile().lastModified()) {
+                importDecisionsIntoLogStore();
+            }
+            setConsentDecisions(new LinkedHashSet<>(logStore.values()));
+            exportedDecisions = serializeDecisions(readDecisionsFromJsonResource());
+        } else {
+            setConsentDecisions(readDecisionsFromJsonResource());
+        }
         if (ResourceUtils.isFile(this.jsonResource)) {
-            this.watcherService = new FileWatcherService(resource.getFile(),
-                Unchecked.consumer(file -> setConsentDecisions(readDecisionsFromJsonResource())));
+            this.watcherService = new FileWatcherService(resource.getFile(), Unchecked.consumer(file -> reloadDecisions()));
             this.watcherService.start(getClass().getSimpleName());
         }
     }
 
     @Override
-    public void destroy() {
+    public synchronized void destroy() {
         if (watcherService != null) {
             watcherService.close();
         }
+        if (logStore != null) {
+            writeAccountToJsonResource();
+            exportedDecisions = serializeDecisions(getConsentDecisions());
+            logStore.close();
+            FunctionUtils.doUnchecked(u -> {
+                val exported = jsonResource.getFile().lastModified();
+                if (!logStore.getFile().setLastModified(exported)) {
+                    LOGGER.debug("Unable to align the modification time of [{}] with [{}]", logStore.getFile(), jsonResource);
+                }
+            });
+        }
     }
 
     @Override
-    public ConsentDecision storeConsentDecision(final ConsentDecision decision) {
+    public synchronized ConsentDecision storeConsentDecision(final ConsentDecision decision) {
         val result = super.storeConsentDecision(decision);
-        writeAccountToJsonResource();
+        if (logStore != null) {
+            logStore.put(String.valueOf(result.getId()), result);
+        } else {
+            writeAccountToJsonResource();
+        }
         return result;
     }
 
     @Override
-    public boolean deleteConsentDecision(final long decisionId, final String principal) {
+    public synchronized boolean deleteConsentDecision(final long decisionId, final String principal) {
         val result = super.deleteConsentDecision(decisionId, principal);
-        writeAccountToJsonResource();
+        if (logStore != null) {
+            if (result) {
+                logStore.remove(String.valueOf(decisionId));
+            }
+        } else {
+            writeAccountToJsonResource();
+        }
         return result;
     }
 
     @Override
-    public boolean deleteConsentDecisions(final String principal) {
-        val result = super.deleteConsentDecisions(principal);
-        writeAccountToJsonResource();
-        return result;
+    public synchronized boolean deleteConsentDecisions(final String principal) {
+        val decisions = getConsentDecisionStore().removeAll(principal);
+        if (logStore != null) {
+            decisions.forEach(decision -> logStore.remove(String.valueOf(decision.getId())));
+        } else {
+            writeAccountToJsonResource();
+        }
+        return !decisions.isEmpty();
     }
 
     @Override
-    public void deleteAll() {
+    public synchronized void deleteAll() {
         super.deleteAll();
-        writeAccountToJsonResource();
+        if (logStore != null) {
+            logStore.clear();
+        } else {
+            writeAccountToJsonResource();
+        }
+    }
+
+    private synchronized void reloadDecisions() {
+        if (logStore != null) {
+            mergeDecisionsIntoLogStore();
+        } else {
+            setConsentDecisions(readDecisionsFromJsonResource());
+        }
+    }
+
+    /**
+     * Apply the edits made to the JSON resource since it was last imported or exported.
+     * While the log store is in use, the JSON resource is only exported on shutdown and so lacks
+     * the changes made since; replacing the log store with it would lose them. Instead, only decisions
+     * that were added, changed or removed in the JSON resource are stored into or removed from the log store.
+     */
+    private void mergeDecisionsIntoLogStore() {
+        final Set<ConsentDecision> decisions;
+        try {
+            decisions = readDecisions();
+        } catch (final Exception e) {
+            LOGGER.warn("Unable to read consent decisions from [{}]; edits are not applied: [{}]", jsonResource, e.getMessage());
+            return;
+        }
+        val edited = serializeDecisions(decisions);
+        decisions
+            .stream()
+            .filter(decision -> !edited.get(decision.getId()).equals(exportedDecisions.get(decision.getId())))
+            .forEach(decision -> {
+                LOGGER.debug("Storing consent decision [{}] edited in [{}]", decision.getId(), jsonResource);
+                getConsentDecisionStore().store(decision);
+                logStore.put(String.valueOf(decision.getId()), decision);
+            });
+        exportedDecisions.keySet()
+            .stream()
+            .filter(id -> !edited.containsKey(id))
+            .forEach(id -> {
+                LOGGER.debug("Removing consent decision [{}] removed from [{}]", id, jsonResource);
+                getConsentDecisionStore().remove(id);
+                logStore.remove(String.valueOf(id));
+            });
+        exportedDecisions = edited;
+    }
+
+    private void importDecisionsIntoLogStore() {
+        val decisions = readDecisionsFromJsonResource();
+        LOGGER.debug("Importing [{}] consent decision(s) from [{}] into [{}]", decisions.size(), jsonResource, logStore.getFile());
+        logStore.replaceAll(decisions
+            .stream()
+            .collect(Collectors.toMap(decision -> String.valueOf(decision.getId()), Function.identity(), (d1, d2) -> d2, LinkedHashMap::new)));
     }
 
     private Set<ConsentDecision> readDecisionsFromJsonResource() {
-        return FunctionUtils.doAndHandle((CheckedSupplier<Set<ConsentDecision>>) () -> {
-            if (ResourceUtils.doesResourceExist(jsonResource)) {
-                try (val reader = new InputStreamReader(jsonResource.getInputStream(), StandardCharsets.UTF_8)) {
-                    val personList = new TypeReference<Set<ConsentDecision>>() {
-                    };
-                    return MAPPER.readValue(JsonValue.readHjson(reader).toString(), personList);
-                }
+        return FunctionUtils.doAndHandle((CheckedSupplier<Set<ConsentDecision>>) this::readDecisions,
+            throwable -> new LinkedHashSet<>(0)).get();
+    }
+
+    private Set<ConsentDecision> readDecisions() throws Exception {
+        if (ResourceUtils.doesResourceExist(jsonResource)) {
+            try (val reader = new InputStreamReader(jsonResource.getInputStream(), StandardCharsets.UTF_8)) {
+                val personList = new TypeReference<Set<ConsentDecision>>() {
+                };
+                return MAPPER.readValue(JsonValue.readHjson(reader).toString(), personList);
             }
-            return new LinkedHashSet<>(0);
-        }, throwable -> new LinkedHashSet<>(0)).get();
+        }
+        return new LinkedHashSet<>(0);
     }
 
     private void writeAccountToJsonResource() {
         Unchecked.consumer((CheckedConsumer<Resource>) resource -> {
             MAPPER.writerWithDefaultPrettyPrinter().writeValue(resource.getFile(), getConsentDecisions());
-            readDecisionsFromJsonResource();
+            if (logStore == null) {
+                readDecisionsFromJsonResource();
+            }
         }).accept(this.jsonResource);
     }
 }
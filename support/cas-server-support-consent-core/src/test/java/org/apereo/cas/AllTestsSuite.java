@@ -2,6 +2,7 @@
 package org.apereo.cas;
 
 import org.apereo.cas.consent.AttributeConsentReportEndpointTests;
+import org.apereo.cas.consent.ConsentDecisionStoreTests;
 import org.apereo.cas.consent.DefaultConsentActivationStrategyDisabledTests;
 import org.apereo.cas.consent.DefaultConsentActivationStrategyTests;
 import org.apereo.cas.consent.DefaultConsentDecisionBuilderTests;
@@ -9,6 +10,7 @@ import org.apereo.cas.consent.DefaultConsentEngineTests;
 import org.apereo.cas.consent.GroovyConsentActivationStrategyTests;
 import org.apereo.cas.consent.GroovyConsentRepositoryTests;
 import org.apereo.cas.consent.InMemoryConsentRepositoryTests;
+import org.apereo.cas.consent.JsonConsentRepositoryLogStoreTests;
 import org.apereo.cas.consent.JsonConsentRepositoryTests;
 
 import org.junit.platform.suite.api.SelectClasses;
@@ -28,7 +30,9 @@ import org.junit.platform.suite.api.Suite;
     DefaultConsentActivationStrategyDisabledTests.class,
     DefaultConsentDecisionBuilderTests.class,
     InMemoryConsentRepositoryTests.class,
+    ConsentDecisionStoreTests.class,
     JsonConsentRepositoryTests.class,
+    JsonConsentRepositoryLogStoreTests.class,
     AttributeConsentReportEndpointTests.class
 })
 @Suite
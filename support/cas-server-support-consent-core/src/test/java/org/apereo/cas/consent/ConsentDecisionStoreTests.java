@@ -0,0 +1,152 @@
+package org.apereo.cas.consent;
+
+import lombok.val;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is {@link ConsentDecisionStoreTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("Simple")
+public class ConsentDecisionStoreTests {
+    private static ConsentDecision newDecision(final long id, final String principal, final String service) {
+        val decision = new ConsentDecision();
+        decision.setId(id);
+        decision.setPrincipal(principal);
+        decision.setService(service);
+        return decision;
+    }
+
+    @Test
+    public void verifyDecisionsIndexed() {
+        val store = new ConsentDecisionStore();
+        val first = newDecision(1, "casuser", "https://app1.example.org");
+        store.store(first);
+        store.store(newDecision(2, "casuser", "https://app2.example.org"));
+        val duplicate = newDecision(3, "casuser", "https://app1.example.org");
+        store.store(duplicate);
+        assertEquals(3, store.size());
+        assertSame(first, store.find("casuser", "https://app1.example.org"));
+        assertEquals(3, store.find("casuser").size());
+        assertTrue(store.find("unknown").isEmpty());
+        assertNull(store.find("casuser", "https://unknown.example.org"));
+
+        store.remove(1);
+        assertSame(duplicate, store.find("casuser", "https://app1.example.org"));
+        val replacement = newDecision(3, "casuser", "https://app1.example.org");
+        assertSame(duplicate, store.store(replacement));
+        assertSame(replacement, store.find("casuser", "https://app1.example.org"));
+        assertSame(replacement, store.get(3));
+
+        store.store(newDecision(3, "other", "https://app3.example.org"));
+        assertNull(store.find("casuser", "https://app1.example.org"));
+        assertEquals(1, store.find("casuser").size());
+        assertEquals(3, store.find("other", "https://app3.example.org").getId());
+
+        assertEquals(1, store.removeAll("OTHER").size());
+        assertFalse(store.contains(3));
+        assertTrue(store.find("other").isEmpty());
+        store.clear();
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void verifyReplaceAll() {
+        val store = new ConsentDecisionStore();
+        store.store(newDecision(1, "casuser", "https://app1.example.org"));
+        store.store(newDecision(2, "casuser", "https://app2.example.org"));
+        store.replaceAll(List.of(newDecision(2, "casuser", "https://app2.example.org"), newDecision(4, "other", "https://app4.example.org")));
+        assertEquals(2, store.size());
+        assertNull(store.find("casuser", "https://app1.example.org"));
+        assertNotNull(store.find("casuser", "https://app2.example.org"));
+        assertNotNull(store.find("other", "https://app4.example.org"));
+    }
+
+    @Test
+    public void verifyInsertionOrderKept() {
+        val store = new ConsentDecisionStore();
+        val ids = List.of(42L, 7L, 19L, 3L, 25L);
+        ids.forEach(id -> store.store(newDecision(id, "casuser", "https://app" + id + ".example.org")));
+        store.store(newDecision(99, "other", "https://app99.example.org"));
+        store.store(newDecision(7, "casuser", "https://updated.example.org"));
+        assertEquals(ids, store.find("casuser").stream().map(ConsentDecision::getId).collect(Collectors.toList()));
+        assertEquals(List.of(42L, 7L, 19L, 3L, 25L, 99L), store.values().stream().map(ConsentDecision::getId).collect(Collectors.toList()));
+
+        store.remove(19);
+        store.store(newDecision(19, "casuser", "https://app19.example.org"));
+        assertEquals(List.of(42L, 7L, 3L, 25L, 19L), store.find("casuser").stream().map(ConsentDecision::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void verifyFirstStoredDecisionFoundAfterRemoval() {
+        val store = new ConsentDecisionStore();
+        store.store(newDecision(5, "casuser", "https://app1.example.org"));
+        store.store(newDecision(9, "casuser", "https://app1.example.org"));
+        store.store(newDecision(1, "casuser", "https://app1.example.org"));
+        store.remove(5);
+        assertEquals(9, store.find("casuser", "https://app1.example.org").getId());
+    }
+
+    @Test
+    public void verifyRemoveOnlyForPrincipal() {
+        val store = new ConsentDecisionStore();
+        store.store(newDecision(1, "casuser", "https://app1.example.org"));
+        assertNull(store.remove(1, "other"));
+        assertTrue(store.contains(1));
+        assertNull(store.remove(2, "casuser"));
+        assertEquals(1, store.remove(1, "CASUSER").getId());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void verifyStoreOrAssignId() throws Exception {
+        val store = new ConsentDecisionStore();
+        val existing = newDecision(1, "casuser", "https://app1.example.org");
+        store.store(existing);
+        val replacement = newDecision(1, "casuser", "https://app1.example.org");
+        assertSame(existing, store.storeOrAssignId(replacement, () -> 99));
+        assertEquals(1, replacement.getId());
+
+        val identifiers = new AtomicLong();
+        val threads = 32;
+        val ready = new CountDownLatch(threads);
+        val start = new CountDownLatch(1);
+        val executor = Executors.newFixedThreadPool(threads);
+        try {
+            val results = new ArrayList<Future<ConsentDecision>>();
+            for (var i = 0; i < threads; i++) {
+                val decision = newDecision(-1, "user" + i, "https://app.example.org");
+                results.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    assertNull(store.storeOrAssignId(decision, () -> identifiers.incrementAndGet() % (threads + 1) + 1));
+                    return decision;
+                }));
+            }
+            assertTrue(ready.await(10, TimeUnit.SECONDS));
+            start.countDown();
+            val ids = new HashSet<Long>();
+            for (val result : results) {
+                assertTrue(ids.add(result.get(10, TimeUnit.SECONDS).getId()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(threads + 1, store.size());
+    }
+}
@@ -0,0 +1,166 @@
+package org.apereo.cas.consent;
+
+import org.apereo.cas.configuration.model.core.util.LogStructuredStoreProperties;
+import org.apereo.cas.util.serialization.JacksonObjectMapperFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.val;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.awaitility.Awaitility.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is {@link JsonConsentRepositoryLogStoreTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("FileSystem")
+public class JsonConsentRepositoryLogStoreTests {
+    private static final int THREADS = 4;
+
+    private static final int CHANGES = 200;
+
+    private static final ObjectMapper MAPPER = JacksonObjectMapperFactory.builder()
+        .defaultTypingEnabled(false).build().toObjectMapper();
+
+    @TempDir
+    public File directory;
+
+    private static ConsentDecision newDecision(final String principal, final String service) {
+        val decision = new ConsentDecision();
+        decision.setPrincipal(principal);
+        decision.setService(service);
+        decision.setAttributes("attributes");
+        return decision;
+    }
+
+    private static LogStructuredStoreProperties getLogStoreProperties() {
+        return new LogStructuredStoreProperties().setEnabled(true);
+    }
+
+    @Test
+    public void verifyDecisionsImportedAndExported() throws Exception {
+        val jsonFile = new File(directory, "consent.json");
+        val resource = new FileSystemResource(jsonFile);
+        val plain = new JsonConsentRepository(resource);
+        plain.storeConsentDecision(newDecision("casuser", "https://app1.example.org"));
+        plain.storeConsentDecision(newDecision("casuser", "https://app2.example.org"));
+        plain.destroy();
+
+        val repository = new JsonConsentRepository(resource, getLogStoreProperties());
+        assertNotNull(repository.getLogStore());
+        assertEquals(2, repository.findConsentDecisions("casuser").size());
+        val exported = Files.readString(jsonFile.toPath(), StandardCharsets.UTF_8);
+        val decision = repository.storeConsentDecision(newDecision("casuser", "https://app3.example.org"));
+        repository.storeConsentDecision(newDecision("other", "https://app1.example.org"));
+        assertTrue(repository.deleteConsentDecision(decision.getId(), "casuser"));
+        assertTrue(repository.deleteConsentDecisions("OTHER"));
+        assertEquals(exported, Files.readString(jsonFile.toPath(), StandardCharsets.UTF_8));
+        assertEquals(2, repository.getLogStore().size());
+        repository.destroy();
+        assertEquals(jsonFile.lastModified(), repository.getLogStore().getFile().lastModified());
+
+        val restarted = new JsonConsentRepository(resource, getLogStoreProperties());
+        assertEquals(6, restarted.getLogStore().getEntryCount());
+        assertEquals(2, restarted.findConsentDecisions().size());
+        restarted.deleteAll();
+        restarted.destroy();
+        assertTrue(new JsonConsentRepository(resource).findConsentDecisions().isEmpty());
+    }
+
+    @Test
+    public void verifyJsonEditedWhileStopped() throws Exception {
+        val jsonFile = new File(directory, "consent.json");
+        val resource = new FileSystemResource(jsonFile);
+        val repository = new JsonConsentRepository(resource, getLogStoreProperties());
+        repository.storeConsentDecision(newDecision("casuser", "https://app1.example.org"));
+        repository.destroy();
+
+        val plain = new JsonConsentRepository(resource);
+        plain.storeConsentDecision(newDecision("casuser", "https://app2.example.org"));
+        plain.destroy();
+        assertTrue(jsonFile.setLastModified(repository.getLogStore().getFile().lastModified() + 10_000));
+
+        val restarted = new JsonConsentRepository(resource, getLogStoreProperties());
+        assertEquals(2, restarted.findConsentDecisions("casuser").size());
+        assertEquals(2, restarted.getLogStore().getEntryCount());
+        restarted.destroy();
+    }
+
+    @Test
+    public void verifyJsonEditedWhileRunning() throws Exception {
+        val jsonFile = new File(directory, "consent.json");
+        val resource = new FileSystemResource(jsonFile);
+        val plain = new JsonConsentRepository(resource);
+        val existing = plain.storeConsentDecision(newDecision("casuser", "https://app1.example.org"));
+        val removed = plain.storeConsentDecision(newDecision("casuser", "https://app2.example.org"));
+        plain.destroy();
+
+        val repository = new JsonConsentRepository(resource, getLogStoreProperties());
+        val stored = repository.storeConsentDecision(newDecision("casuser", "https://app3.example.org"));
+        val edited = newDecision("casuser", "https://app4.example.org");
+        edited.setId(4);
+        existing.setAttributes("edited");
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(jsonFile, List.of(existing, edited));
+
+        await().untilAsserted(() -> assertNotNull(repository.getConsentDecisionStore().get(edited.getId())));
+        assertEquals("edited", repository.getConsentDecisionStore().get(existing.getId()).getAttributes());
+        assertNotNull(repository.getConsentDecisionStore().get(stored.getId()));
+        assertNull(repository.getConsentDecisionStore().get(removed.getId()));
+        repository.destroy();
+
+        val restarted = new JsonConsentRepository(resource, getLogStoreProperties());
+        assertEquals(Set.of(existing.getId(), stored.getId(), edited.getId()),
+            restarted.findConsentDecisions().stream().map(ConsentDecision::getId).collect(Collectors.toSet()));
+        restarted.destroy();
+    }
+
+    @Test
+    public void verifyConcurrentChangesMatchLog() throws Exception {
+        val resource = new FileSystemResource(new File(directory, "consent.json"));
+        val repository = new JsonConsentRepository(resource, getLogStoreProperties());
+        val ids = IntStream.range(0, 10)
+            .mapToObj(i -> repository.storeConsentDecision(newDecision("casuser", "https://app" + i + ".example.org")).getId())
+            .collect(Collectors.toList());
+        val executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            val futures = IntStream.range(0, THREADS)
+                .mapToObj(thread -> executor.submit(() -> IntStream.range(0, CHANGES).forEach(i -> {
+                    val id = ids.get(i % ids.size());
+                    if (thread % 2 == 0) {
+                        val decision = newDecision("casuser", "https://app" + i % ids.size() + ".example.org");
+                        decision.setId(id);
+                        repository.storeConsentDecision(decision);
+                    } else {
+                        repository.deleteConsentDecision(id, "casuser");
+                    }
+                })))
+                .collect(Collectors.toList());
+            for (val future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        val decisions = repository.findConsentDecisions()
+            .stream()
+            .map(ConsentDecision::getId)
+            .collect(Collectors.toSet());
+        assertEquals(decisions, repository.getLogStore().values().stream().map(ConsentDecision::getId).collect(Collectors.toSet()));
+        repository.destroy();
+    }
+}
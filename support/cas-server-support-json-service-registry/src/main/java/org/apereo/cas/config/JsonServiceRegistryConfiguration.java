@@ -12,7 +12,9 @@ import org.apereo.cas.util.function.FunctionUtils;
 import org.apereo.cas.util.io.WatcherService;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.val;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
@@ -25,6 +27,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.core.Ordered;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -50,6 +53,7 @@ public class JsonServiceRegistryConfiguration {
         final CasConfigurationProperties casProperties,
         @Qualifier("registeredServiceReplicationStrategy")
         final RegisteredServiceReplicationStrategy registeredServiceReplicationStrategy,
+        final ObjectProvider<MeterRegistry> meterRegistry,
         final ObjectProvider<List<ServiceRegistryListener>> serviceRegistryListeners) throws Exception {
 
         val registry = casProperties.getServiceRegistry();
@@ -62,6 +66,12 @@ public class JsonServiceRegistryConfiguration {
         if (registry.getJson().isWatcherEnabled()) {
             json.enableDefaultWatcherService();
         }
+        json.setIncrementalLoad(registry.getCore().isIncrementalLoad());
+        json.setLoadParallelism(registry.getCore().getLoadParallelism());
+        if (StringUtils.isNotBlank(registry.getCore().getSnapshotDirectory())) {
+            json.setSnapshotDirectory(new File(registry.getCore().getSnapshotDirectory()));
+        }
+        meterRegistry.ifAvailable(json::setMeterRegistry);
         return json;
     }
 
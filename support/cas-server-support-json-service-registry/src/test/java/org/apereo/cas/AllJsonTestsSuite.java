@@ -1,6 +1,8 @@
 package org.apereo.cas;
 
 import org.apereo.cas.services.JsonServiceRegistryConfigurationTests;
+import org.apereo.cas.services.JsonServiceRegistryIncrementalLoadTests;
+import org.apereo.cas.services.JsonServiceRegistryStartupLoadTests;
 import org.apereo.cas.services.JsonServiceRegistryTests;
 
 import org.junit.platform.suite.api.SelectClasses;
@@ -14,6 +16,8 @@ import org.junit.platform.suite.api.Suite;
  */
 @SelectClasses({
     JsonServiceRegistryConfigurationTests.class,
+    JsonServiceRegistryIncrementalLoadTests.class,
+    JsonServiceRegistryStartupLoadTests.class,
     JsonServiceRegistryTests.class
 })
 @Suite
@@ -0,0 +1,162 @@
+package org.apereo.cas.services;
+
+import org.apereo.cas.services.replication.NoOpRegisteredServiceReplicationStrategy;
+import org.apereo.cas.services.resource.DefaultRegisteredServiceResourceNamingStrategy;
+import org.apereo.cas.services.util.RegisteredServiceJsonSerializer;
+import org.apereo.cas.util.io.WatcherService;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is {@link JsonServiceRegistryIncrementalLoadTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("FileSystem")
+public class JsonServiceRegistryIncrementalLoadTests {
+    @TempDir
+    public Path directory;
+
+    private StaticApplicationContext applicationContext;
+
+    private static CasRegisteredService newService(final long id) {
+        val service = new CasRegisteredService();
+        service.setId(id);
+        service.setName("Service" + id);
+        service.setServiceId("^https://app" + id + "\\.example\\.org/.*");
+        service.setDescription("Service " + id);
+        service.setEvaluationOrder((int) id);
+        return service;
+    }
+
+    @BeforeEach
+    public void setup() {
+        applicationContext = new StaticApplicationContext();
+        applicationContext.refresh();
+    }
+
+    @Test
+    public void verifyOnlyChangedDefinitionsAreReloaded() throws Exception {
+        val servicesManager = newServicesManager(List.of(newService(1), newService(2), newService(3), newService(4)), true);
+        val unchanged = servicesManager.findServiceBy(1);
+        val modified = servicesManager.findServiceBy(2);
+        val touched = servicesManager.findServiceBy(3);
+
+        servicesManager.load();
+        assertSame(unchanged, servicesManager.findServiceBy(1));
+        assertSame(modified, servicesManager.findServiceBy(2));
+
+        val update = newService(2);
+        update.setDescription("Updated description");
+        writeService(update, getServiceFile(update).lastModified() + 10_000);
+        val touchedFile = getServiceFile(touched);
+        assertTrue(touchedFile.setLastModified(touchedFile.lastModified() + 10_000));
+        Files.delete(getServiceFile(newService(4)).toPath());
+        writeService(newService(5), System.currentTimeMillis());
+
+        servicesManager.load();
+        assertSame(unchanged, servicesManager.findServiceBy(1));
+        assertNotSame(modified, servicesManager.findServiceBy(2));
+        assertEquals("Updated description", servicesManager.findServiceBy(2).getDescription());
+        assertSame(touched, servicesManager.findServiceBy(3));
+        assertNull(servicesManager.findServiceBy(4));
+        assertNotNull(servicesManager.findServiceBy(5));
+        assertEquals(4, servicesManager.getAllServices().size());
+    }
+
+    @Test
+    public void verifyRevertedDefinitionKeepsCachedInstance() throws Exception {
+        val servicesManager = newServicesManager(List.of(newService(1)), true);
+        val cached = servicesManager.findServiceBy(1);
+        val file = getServiceFile(cached);
+        val contents = Files.readString(file.toPath());
+        Files.writeString(file.toPath(), contents + System.lineSeparator());
+        assertTrue(file.setLastModified(file.lastModified() + 10_000));
+        servicesManager.load();
+        assertSame(cached, servicesManager.findServiceBy(1));
+    }
+
+    @Test
+    public void verifyUnchangedDefinitionsDoNotExpire() throws Exception {
+        val time = new AtomicLong();
+        val servicesCache = Caffeine.newBuilder()
+            .ticker(time::get)
+            .executor(Runnable::run)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .<Long, RegisteredService>build();
+        val servicesManager = newServicesManager(List.of(newService(1), newService(2)), true, servicesCache);
+        val cached = servicesCache.getIfPresent(1L);
+        assertNotNull(cached);
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        servicesManager.load();
+        time.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        assertSame(cached, servicesCache.getIfPresent(1L));
+        assertEquals(2, servicesCache.asMap().size());
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        assertNull(servicesCache.getIfPresent(1L));
+        servicesManager.load();
+        assertNotNull(servicesCache.getIfPresent(1L));
+        assertEquals(2, servicesManager.getAllServices().size());
+    }
+
+    private ServicesManager newServicesManager(final List<RegisteredService> services, final boolean incrementalLoad) throws Exception {
+        return newServicesManager(services, incrementalLoad, Caffeine.newBuilder().build());
+    }
+
+    private ServicesManager newServicesManager(final List<RegisteredService> services, final boolean incrementalLoad,
+                                               final Cache<Long, RegisteredService> servicesCache) throws Exception {
+        val registry = new JsonServiceRegistry(new FileSystemResource(directory.toFile()), WatcherService.noOp(),
+            applicationContext,
+            new NoOpRegisteredServiceReplicationStrategy(),
+            new DefaultRegisteredServiceResourceNamingStrategy(),
+            new ArrayList<>());
+        registry.setIncrementalLoad(incrementalLoad);
+        services.forEach(registry::save);
+
+        val context = ServicesManagerConfigurationContext.builder()
+            .applicationContext(applicationContext)
+            .serviceRegistry(registry)
+            .registeredServiceLocators(List.of(new DefaultServicesManagerRegisteredServiceLocator()))
+            .servicesCache(servicesCache)
+            .environments(Set.of())
+            .incrementalLoad(incrementalLoad)
+            .build();
+        val servicesManager = new DefaultServicesManager(context);
+        servicesManager.load();
+        return servicesManager;
+    }
+
+    private File getServiceFile(final RegisteredService service) {
+        val fileName = new DefaultRegisteredServiceResourceNamingStrategy().build(service, "json");
+        return directory.resolve(fileName).toFile();
+    }
+
+    private void writeService(final RegisteredService service, final long lastModified) throws Exception {
+        val file = getServiceFile(service);
+        new RegisteredServiceJsonSerializer(applicationContext).to(file, service);
+        assertTrue(file.setLastModified(lastModified));
+    }
+}
@@ -0,0 +1,238 @@
+package org.apereo.cas.services;
+
+import org.apereo.cas.services.replication.NoOpRegisteredServiceReplicationStrategy;
+import org.apereo.cas.services.resource.DefaultRegisteredServiceResourceNamingStrategy;
+import org.apereo.cas.services.util.RegisteredServiceJsonSerializer;
+import org.apereo.cas.util.io.WatcherService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is {@link JsonServiceRegistryStartupLoadTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("FileSystem")
+public class JsonServiceRegistryStartupLoadTests {
+    @TempDir
+    public Path directory;
+
+    @TempDir
+    public File snapshotDirectory;
+
+    private StaticApplicationContext applicationContext;
+
+    private static CasRegisteredService newService(final long id) {
+        val service = new CasRegisteredService();
+        service.setId(id);
+        service.setName("Service" + id);
+        service.setServiceId("^https://app" + id + "\\.example\\.org/.*");
+        service.setDescription("Service " + id);
+        service.setEvaluationOrder((int) id);
+        return service;
+    }
+
+    private static List<RegisteredService> sorted(final JsonServiceRegistry registry) {
+        return registry.load()
+            .stream()
+            .sorted(Comparator.comparingLong(RegisteredService::getId))
+            .collect(Collectors.toList());
+    }
+
+    private static ServiceRegistryListener newDescriptionListener(final String description) {
+        return new ServiceRegistryListener() {
+            private static final long serialVersionUID = -1406372574836404546L;
+
+            @Override
+            public RegisteredService postLoad(final RegisteredService registeredService) {
+                ((CasRegisteredService) registeredService).setDescription(description);
+                return registeredService;
+            }
+        };
+    }
+
+    @BeforeEach
+    public void setup() throws Exception {
+        applicationContext = new StaticApplicationContext();
+        applicationContext.refresh();
+    }
+
+    @Test
+    public void verifyParallelLoadMatchesSequentialLoad() throws Exception {
+        saveServices(500);
+        val sequential = newServiceRegistry();
+        val parallel = newServiceRegistry();
+        parallel.setLoadParallelism(4);
+        val expected = sorted(sequential);
+        assertEquals(500, expected.size());
+        assertEquals(expected, sorted(parallel));
+    }
+
+    @Test
+    public void verifySnapshotRestoredOnStartup() throws Exception {
+        saveServices(10);
+        val registry = newServiceRegistry();
+        registry.setSnapshotDirectory(snapshotDirectory);
+        registry.load();
+        registry.destroy();
+        assertEquals(1, FileUtils.listFiles(snapshotDirectory, new String[]{"snapshot"}, false).size());
+
+        val update = newService(2);
+        update.setDescription("Updated description");
+        writeService(update, getServiceFile(update).lastModified() + 10_000);
+        Files.delete(getServiceFile(newService(3)).toPath());
+
+        val meterRegistry = new SimpleMeterRegistry();
+        val restarted = newServiceRegistry();
+        restarted.setSnapshotDirectory(snapshotDirectory);
+        restarted.setMeterRegistry(meterRegistry);
+        val services = restarted.load();
+        assertEquals(9, services.size());
+        assertEquals("Updated description", restarted.findServiceById(2).getDescription());
+        assertEquals(newService(1), restarted.findServiceById(1));
+        assertNull(restarted.findServiceById(3));
+        List.of("listing", "snapshot", "parsing", "total").forEach(phase ->
+            assertEquals(1, meterRegistry.get("cas.service.registry.load").tag("phase", phase).timer().count()));
+    }
+
+    @Test
+    public void verifyInvalidSnapshotIgnored() throws Exception {
+        saveServices(10);
+        val registry = newServiceRegistry();
+        registry.setSnapshotDirectory(snapshotDirectory);
+        registry.load();
+        registry.destroy();
+        val snapshot = FileUtils.listFiles(snapshotDirectory, new String[]{"snapshot"}, false).iterator().next();
+        FileUtils.write(snapshot, "invalid", StandardCharsets.UTF_8);
+
+        val restarted = newServiceRegistry();
+        restarted.setSnapshotDirectory(snapshotDirectory);
+        assertEquals(10, restarted.load().size());
+    }
+
+    @Test
+    public void verifyListenersInvokedForRestoredDefinitions() throws Exception {
+        saveServices(10);
+        val registry = newServiceRegistry(newDescriptionListener("Before"));
+        registry.setSnapshotDirectory(snapshotDirectory);
+        assertEquals("Before", registry.load().iterator().next().getDescription());
+        registry.destroy();
+
+        val restarted = newServiceRegistry(newDescriptionListener("After"));
+        restarted.setSnapshotDirectory(snapshotDirectory);
+        assertTrue(restarted.load().stream().allMatch(service -> "After".equals(service.getDescription())));
+        restarted.destroy();
+
+        val unchanged = newServiceRegistry();
+        unchanged.setSnapshotDirectory(snapshotDirectory);
+        assertEquals(newService(1), unchanged.load().stream().filter(service -> service.getId() == 1).findFirst().orElseThrow());
+    }
+
+    @Test
+    public void verifySnapshotComparedWithFileContents() throws Exception {
+        saveServices(10);
+        val registry = newServiceRegistry();
+        registry.setSnapshotDirectory(snapshotDirectory);
+        registry.load();
+        registry.destroy();
+
+        val file = getServiceFile(newService(2));
+        val lastModified = file.lastModified();
+        val contents = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        Files.writeString(file.toPath(), contents.replace("Service 2", "Changed 2"), StandardCharsets.UTF_8);
+        assertTrue(file.setLastModified(lastModified));
+        assertEquals(contents.length(), file.length());
+
+        val restarted = newServiceRegistry();
+        restarted.setSnapshotDirectory(snapshotDirectory);
+        assertEquals(10, restarted.load().size());
+        assertEquals("Changed 2", restarted.findServiceById(2).getDescription());
+        assertEquals(newService(1), restarted.findServiceById(1));
+    }
+
+    @Test
+    public void verifyTamperedSnapshotIgnored() throws Exception {
+        saveServices(10);
+        val registry = newServiceRegistry();
+        registry.setSnapshotDirectory(snapshotDirectory);
+        registry.load();
+        registry.destroy();
+
+        val snapshot = FileUtils.listFiles(snapshotDirectory, new String[]{"snapshot"}, false).iterator().next();
+        val contents = FileUtils.readFileToByteArray(snapshot);
+        val tampered = new String(contents, StandardCharsets.ISO_8859_1).replace("Service 5", "Changed 5");
+        assertEquals(contents.length, tampered.length());
+        FileUtils.writeByteArrayToFile(snapshot, tampered.getBytes(StandardCharsets.ISO_8859_1));
+
+        val restarted = newServiceRegistry();
+        restarted.setSnapshotDirectory(snapshotDirectory);
+        assertEquals(10, restarted.load().size());
+        assertEquals(newService(5), restarted.findServiceById(5));
+    }
+
+    @Test
+    public void verifySnapshotReflectsLatestLoad() throws Exception {
+        saveServices(10);
+        val registry = newServiceRegistry();
+        registry.setSnapshotDirectory(snapshotDirectory);
+        registry.load();
+
+        val update = newService(4);
+        update.setDescription("Updated description");
+        writeService(update, getServiceFile(update).lastModified() + 10_000);
+        assertEquals(10, registry.load().size());
+        assertEquals("Updated description", registry.findServiceById(4).getDescription());
+        registry.destroy();
+
+        val restarted = newServiceRegistry();
+        restarted.setSnapshotDirectory(snapshotDirectory);
+        assertEquals(10, restarted.load().size());
+        assertEquals(update, restarted.findServiceById(4));
+        assertEquals(newService(1), restarted.findServiceById(1));
+    }
+
+    private JsonServiceRegistry newServiceRegistry(final ServiceRegistryListener... listeners) throws Exception {
+        return new JsonServiceRegistry(new FileSystemResource(directory.toFile()), WatcherService.noOp(),
+            applicationContext,
+            new NoOpRegisteredServiceReplicationStrategy(),
+            new DefaultRegisteredServiceResourceNamingStrategy(),
+            new ArrayList<>(List.of(listeners)));
+    }
+
+    private void saveServices(final int count) throws Exception {
+        val registry = newServiceRegistry();
+        IntStream.rangeClosed(1, count).forEach(id -> registry.save(newService(id)));
+    }
+
+    private File getServiceFile(final RegisteredService service) {
+        val fileName = new DefaultRegisteredServiceResourceNamingStrategy().build(service, "json");
+        return directory.resolve(fileName).toFile();
+    }
+
+    private void writeService(final RegisteredService service, final long lastModified) throws Exception {
+        val file = getServiceFile(service);
+        new RegisteredServiceJsonSerializer(applicationContext).to(file, service);
+        assertTrue(file.setLastModified(lastModified));
+    }
+}
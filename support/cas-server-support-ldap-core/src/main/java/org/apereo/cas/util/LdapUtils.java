@@ -20,6 +20,8 @@ import org.apereo.cas.configuration.model.support.ldap.LdapSearchEntryHandlersPr
 import org.apereo.cas.configuration.support.Beans;
 import org.apereo.cas.services.ServicesManager;
 import org.apereo.cas.util.function.FunctionUtils;
+import org.apereo.cas.util.ldap.LdapConnectionPoolRegistry;
+import org.apereo.cas.util.ldap.SharedPooledConnectionFactory;
 import org.apereo.cas.util.scripting.ExecutableCompiledGroovyScript;
 import org.apereo.cas.util.scripting.ScriptResourceCacheManager;
 import org.apereo.cas.util.scripting.WatchableGroovyScriptResource;
@@ -698,10 +700,39 @@ public class LdapUtils {
      * @return the pooled connection factory
      */
     public static PooledConnectionFactory newLdaptivePooledConnectionFactory(final AbstractLdapProperties l) {
-        val cc = newLdaptiveConnectionConfig(l);
+        return newLdaptivePooledConnectionFactory(l, LdapConnectionPoolRegistry.PoolUsage.SEARCH);
+    }
 
+    /**
+     * New pooled connection factory for the given usage.
+     * If the pool is allowed to be shared, the pool is obtained from the {@link LdapConnectionPoolRegistry}
+     * and is shared with all components that connect to the same LDAP url with the same bind identity,
+     * credentials and connection settings for the same usage.
+     *
+     * @param l     the ldap properties
+     * @param usage the usage of pooled connections
+     * @return the pooled connection factory
+     */
+    public static PooledConnectionFactory newLdaptivePooledConnectionFactory(final AbstractLdapProperties l,
+                                                                             final LdapConnectionPoolRegistry.PoolUsage usage) {
+        if (l.isSharedPool()) {
+            val registry = LdapConnectionPoolRegistry.getInstance();
+            return registry.getOrCreate(LdapConnectionPoolRegistry.getPoolKey(l, usage), key -> {
+                val name = LdapConnectionPoolRegistry.getPoolName(l, usage);
+                LOGGER.debug("Creating shared LDAP connection pool [{}] for [{}]", name, l.getLdapUrl());
+                val pooledCf = new SharedPooledConnectionFactory(newLdaptiveConnectionConfig(l), key, name, usage, registry);
+                pooledCf.setAdaptiveMaxPoolSize(l.getMaxAdaptivePoolSize());
+                pooledCf.setAdaptiveWaitThreshold(Beans.newDuration(l.getAdaptivePoolWaitThreshold()));
+                return initializeLdaptivePooledConnectionFactory(pooledCf, l);
+            });
+        }
+        val cc = newLdaptiveConnectionConfig(l);
         LOGGER.debug("Creating LDAP connection pool configuration for [{}]", l.getLdapUrl());
-        val pooledCf = new PooledConnectionFactory(cc);
+        return initializeLdaptivePooledConnectionFactory(new PooledConnectionFactory(cc), l);
+    }
+
+    private static <T extends PooledConnectionFactory> T initializeLdaptivePooledConnectionFactory(final T pooledCf,
+                                                                                                  final AbstractLdapProperties l) {
         pooledCf.setMinPoolSize(l.getMinPoolSize());
         pooledCf.setMaxPoolSize(l.getMaxPoolSize());
         pooledCf.setValidateOnCheckOut(l.isValidateOnCheckout());
@@ -906,7 +937,20 @@ public class LdapUtils {
      * @return the connection factory
      */
     public static ConnectionFactory newLdaptiveConnectionFactory(final AbstractLdapProperties l) {
-        return l.isDisablePooling() ? newLdaptiveDefaultConnectionFactory(l) : newLdaptivePooledConnectionFactory(l);
+        return newLdaptiveConnectionFactory(l, LdapConnectionPoolRegistry.PoolUsage.SEARCH);
+    }
+
+    /**
+     * Returns a pooled connection factory for the given usage or default connection factory
+     * based on {@link AbstractLdapProperties#isDisablePooling()}.
+     *
+     * @param l     ldap properties
+     * @param usage the usage of pooled connections
+     * @return the connection factory
+     */
+    public static ConnectionFactory newLdaptiveConnectionFactory(final AbstractLdapProperties l,
+                                                                 final LdapConnectionPoolRegistry.PoolUsage usage) {
+        return l.isDisablePooling() ? newLdaptiveDefaultConnectionFactory(l) : newLdaptivePooledConnectionFactory(l, usage);
     }
 
     /**
@@ -1054,7 +1098,7 @@ public class LdapUtils {
         val resolver = buildAggregateDnResolver(l, connectionFactoryForSearch);
 
         val auth = StringUtils.isBlank(l.getPrincipalAttributePassword())
-            ? new Authenticator(resolver, getBindAuthenticationHandler(newLdaptiveConnectionFactory(l)))
+            ? new Authenticator(resolver, getBindAuthenticationHandler(newLdaptiveConnectionFactory(l, LdapConnectionPoolRegistry.PoolUsage.BIND)))
             : new Authenticator(resolver, getCompareAuthenticationHandler(l, newLdaptiveConnectionFactory(l)));
 
         if (l.isEnhanceWithEntryResolver()) {
@@ -1079,7 +1123,7 @@ public class LdapUtils {
 
     private static Authenticator getAuthenticatorViaDnFormat(final AbstractLdapAuthenticationProperties l) {
         val resolver = new FormatDnResolver(l.getDnFormat());
-        val authenticator = new Authenticator(resolver, getBindAuthenticationHandler(newLdaptiveConnectionFactory(l)));
+        val authenticator = new Authenticator(resolver, getBindAuthenticationHandler(newLdaptiveConnectionFactory(l, LdapConnectionPoolRegistry.PoolUsage.BIND)));
 
         if (l.isEnhanceWithEntryResolver()) {
             authenticator.setEntryResolver(newLdaptiveSearchEntryResolver(l, newLdaptiveConnectionFactory(l)));
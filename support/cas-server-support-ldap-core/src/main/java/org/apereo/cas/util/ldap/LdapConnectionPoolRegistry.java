@@ -0,0 +1,180 @@
+package org.apereo.cas.util.ldap;
+
+import org.apereo.cas.configuration.model.support.ldap.AbstractLdapProperties;
+import org.apereo.cas.util.DigestUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This is {@link LdapConnectionPoolRegistry} that keeps track of LDAP connection pools
+ * that are shared between components connecting to the same LDAP url with the same bind identity,
+ * credentials, connection settings and pool settings.
+ * Pools are reference-counted; each component that obtains a pool from the registry
+ * is expected to close it, and the pool is closed once the last reference is released.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+public class LdapConnectionPoolRegistry {
+    private static final LdapConnectionPoolRegistry INSTANCE = new LdapConnectionPoolRegistry();
+
+    private static final int POOL_NAME_DIGEST_LENGTH = 12;
+
+    private final Map<String, SharedPooledConnectionFactory> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Meter registry to which shared pools registered from now on report their metrics.
+     */
+    @Getter
+    @Setter
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    /**
+     * Gets the registry instance.
+     *
+     * @return the instance
+     */
+    public static LdapConnectionPoolRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Build the key that identifies a shared pool, based on how connections are used, on
+     * every setting that goes into the connection configuration, including credentials and SSL settings,
+     * and on every setting that goes into the pool, such as its size, validation and pruning,
+     * so that pools are only shared between components that would connect and pool connections in exactly the same way.
+     * The key is a digest of these settings and should not be published; see {@link #getPoolName(AbstractLdapProperties, PoolUsage)}.
+     *
+     * @param properties the ldap properties
+     * @param usage      the usage
+     * @return the pool key
+     */
+    public static String getPoolKey(final AbstractLdapProperties properties, final PoolUsage usage) {
+        val secrets = Stream.of(properties.getBindCredential(), properties.getTrustStorePassword(), properties.getKeystorePassword());
+        return DigestUtils.sha256(Stream.concat(getConnectionSettings(properties, usage), secrets)
+            .map(StringUtils::defaultString)
+            .collect(Collectors.joining("|")));
+    }
+
+    /**
+     * Build the name of a shared pool, used when the pool is logged or reported in metrics.
+     * The name is a digest of the connection and pool settings that excludes credentials, so it does not disclose
+     * the bind identity or secrets of the pool.
+     *
+     * @param properties the ldap properties
+     * @param usage      the usage
+     * @return the pool name
+     */
+    public static String getPoolName(final AbstractLdapProperties properties, final PoolUsage usage) {
+        val settings = getConnectionSettings(properties, usage)
+            .map(StringUtils::defaultString)
+            .collect(Collectors.joining("|"));
+        return usage.name().toLowerCase() + '-' + DigestUtils.sha256(settings).substring(0, POOL_NAME_DIGEST_LENGTH);
+    }
+
+    private static Stream<String> getConnectionSettings(final AbstractLdapProperties properties, final PoolUsage usage) {
+        val urls = Arrays.stream(StringUtils.split(properties.getLdapUrl(), ", "))
+            .map(url -> StringUtils.removeEnd(url.trim().toLowerCase(), "/"))
+            .collect(Collectors.joining(" "));
+        val identity = StringUtils.isNotBlank(properties.getSaslMechanism())
+            ? "sasl:" + properties.getSaslMechanism().toLowerCase() + ':' + StringUtils.defaultString(properties.getSaslAuthorizationId())
+            : StringUtils.defaultIfBlank(properties.getBindDn(), "anonymous");
+        val connection = Stream.of(usage.name(), urls, identity,
+            properties.getSaslSecurityStrength(), String.valueOf(properties.getSaslMutualAuth()), properties.getSaslQualityOfProtection(),
+            properties.getConnectionStrategy(), String.valueOf(properties.isUseStartTls()),
+            properties.getConnectTimeout(), properties.getResponseTimeout(),
+            String.valueOf(properties.getHostnameVerifier()), properties.getTrustManager(), properties.getTrustCertificates(),
+            properties.getTrustStore(), properties.getTrustStoreType(), properties.getKeystore(), properties.getKeystoreType());
+        return Stream.concat(connection, getPoolSettings(properties));
+    }
+
+    private static Stream<String> getPoolSettings(final AbstractLdapProperties properties) {
+        val validator = properties.getValidator();
+        return Stream.of(String.valueOf(properties.getMinPoolSize()), String.valueOf(properties.getMaxPoolSize()),
+            String.valueOf(properties.getMaxAdaptivePoolSize()), properties.getAdaptivePoolWaitThreshold(),
+            properties.getBlockWaitTime(), properties.getIdleTime(), properties.getPrunePeriod(),
+            String.valueOf(properties.isFailFast()), properties.getPoolPassivator(),
+            String.valueOf(properties.isValidateOnCheckout()), String.valueOf(properties.isValidatePeriodically()),
+            properties.getValidatePeriod(), properties.getValidateTimeout(),
+            StringUtils.trimToEmpty(validator.getType()).toLowerCase(), validator.getBaseDn(), validator.getSearchFilter(),
+            validator.getScope(), validator.getDn(), validator.getAttributeName(), validator.getAttributeValue());
+    }
+
+    /**
+     * Obtain the pool registered under the given key, or create and register it.
+     * The pool that is returned must be closed by the caller once it is no longer needed.
+     *
+     * @param key     the key
+     * @param factory the factory that creates and initializes the pool if none is registered
+     * @return the pool
+     */
+    public SharedPooledConnectionFactory getOrCreate(final String key,
+                                                     final Function<String, SharedPooledConnectionFactory> factory) {
+        return pools.compute(key, (k, pool) -> {
+            if (pool == null) {
+                return factory.apply(k);
+            }
+            val references = pool.getReferences().incrementAndGet();
+            LOGGER.debug("Sharing LDAP connection pool [{}] with [{}] component(s)", pool.getName(), references);
+            return pool;
+        });
+    }
+
+    /**
+     * Find the pool registered under the given key.
+     *
+     * @param key the key
+     * @return the pool
+     */
+    public Optional<SharedPooledConnectionFactory> find(final String key) {
+        return Optional.ofNullable(pools.get(key));
+    }
+
+    /**
+     * Release a reference to the pool.
+     *
+     * @param pool the pool
+     * @return true if no references to the pool remain and the pool should be closed
+     */
+    boolean release(final SharedPooledConnectionFactory pool) {
+        val closed = new boolean[1];
+        pools.compute(pool.getKey(), (k, registered) -> {
+            val remaining = pool.getReferences().decrementAndGet();
+            closed[0] = remaining == 0;
+            if (registered == pool && closed[0]) {
+                return null;
+            }
+            return registered;
+        });
+        return closed[0];
+    }
+
+    /**
+     * Describes how connections of a pool are used.
+     */
+    public enum PoolUsage {
+        /**
+         * Connections are used to search and modify entries.
+         */
+        SEARCH,
+        /**
+         * Connections are used to authenticate users via bind operations.
+         */
+        BIND
+    }
+}
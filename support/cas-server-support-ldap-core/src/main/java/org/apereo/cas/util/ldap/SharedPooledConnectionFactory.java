@@ -0,0 +1,197 @@
+package org.apereo.cas.util.ldap;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.ldaptive.Connection;
+import org.ldaptive.ConnectionConfig;
+import org.ldaptive.PooledConnectionFactory;
+import org.ldaptive.pool.PoolException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is {@link SharedPooledConnectionFactory} that is handed out by the {@link LdapConnectionPoolRegistry}
+ * to all components that connect to the same directory with the same bind identity, connection settings and pool settings.
+ * The pool is closed once every component that obtained it from the registry has closed it.
+ * The pool may grow beyond its maximum size, up to an adaptive maximum size, when requests wait
+ * for connections for longer than the configured threshold, and gradually shrinks back
+ * once fewer than half of its connections are in use.
+ * When a meter registry is available, checkout wait times, connections in use and the time connections
+ * are held for search or bind operations are recorded, tagged with the name of the pool.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+public class SharedPooledConnectionFactory extends PooledConnectionFactory {
+    private static final long SHRINK_DELAY_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    @Getter
+    private final String key;
+
+    @Getter
+    private final LdapConnectionPoolRegistry.PoolUsage usage;
+
+    private final LdapConnectionPoolRegistry registry;
+
+    @Getter
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private final AtomicLong lastResizeTime = new AtomicLong(System.nanoTime());
+
+    private final Map<Connection, Long> checkoutTimes = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private final List<Meter> meters = new ArrayList<>();
+
+    @Getter
+    @Setter
+    private int adaptiveMaxPoolSize;
+
+    @Getter
+    @Setter
+    private Duration adaptiveWaitThreshold = Duration.ZERO;
+
+    @Getter
+    private int configuredMaxPoolSize;
+
+    private Timer checkoutTimer;
+
+    private Timer operationTimer;
+
+    public SharedPooledConnectionFactory(final ConnectionConfig connectionConfig, final String key, final String name,
+                                         final LdapConnectionPoolRegistry.PoolUsage usage,
+                                         final LdapConnectionPoolRegistry registry) {
+        super(connectionConfig);
+        this.key = key;
+        this.usage = usage;
+        this.registry = registry;
+        setName(name);
+    }
+
+    @Override
+    public synchronized void initialize() {
+        configuredMaxPoolSize = getMaxPoolSize();
+        val meterRegistry = registry.getMeterRegistry();
+        if (meterRegistry != null) {
+            registerMeters(meterRegistry);
+        }
+        super.initialize();
+    }
+
+    @Override
+    public Connection getConnection() throws PoolException {
+        val startTime = System.nanoTime();
+        val connection = super.getConnection();
+        val checkoutTime = System.nanoTime();
+        val waitTime = checkoutTime - startTime;
+        if (checkoutTimer != null) {
+            checkoutTimer.record(waitTime, TimeUnit.NANOSECONDS);
+        }
+        checkoutTimes.put(connection, checkoutTime);
+        if (waitTime >= adaptiveWaitThreshold.toNanos()) {
+            growIfNecessary();
+        }
+        return connection;
+    }
+
+    @Override
+    public void putConnection(final Connection connection) {
+        val checkoutTime = checkoutTimes.remove(connection);
+        if (checkoutTime != null && operationTimer != null) {
+            operationTimer.record(System.nanoTime() - checkoutTime, TimeUnit.NANOSECONDS);
+        }
+        super.putConnection(connection);
+        shrinkIfNecessary();
+    }
+
+    /**
+     * Release the reference held by a component to this pool,
+     * closing the pool once no component references it.
+     */
+    @Override
+    public void close() {
+        if (registry.release(this)) {
+            LOGGER.debug("Closing shared LDAP connection pool [{}]", getName());
+            val meterRegistry = registry.getMeterRegistry();
+            if (meterRegistry != null) {
+                meters.forEach(meterRegistry::remove);
+            }
+            checkoutTimes.clear();
+            super.close();
+        }
+    }
+
+    private void growIfNecessary() {
+        val maxPoolSize = getMaxPoolSize();
+        if (maxPoolSize < adaptiveMaxPoolSize && activeCount() >= maxPoolSize) {
+            synchronized (this) {
+                if (getMaxPoolSize() == maxPoolSize) {
+                    setMaxPoolSize(maxPoolSize + 1);
+                    lastResizeTime.set(System.nanoTime());
+                    LOGGER.debug("Increased maximum size of shared LDAP connection pool [{}] to [{}]", getName(), maxPoolSize + 1);
+                }
+            }
+        }
+    }
+
+    private void shrinkIfNecessary() {
+        val maxPoolSize = getMaxPoolSize();
+        if (maxPoolSize > configuredMaxPoolSize && activeCount() < maxPoolSize / 2
+            && System.nanoTime() - lastResizeTime.get() >= SHRINK_DELAY_NANOS) {
+            synchronized (this) {
+                if (getMaxPoolSize() == maxPoolSize) {
+                    setMaxPoolSize(maxPoolSize - 1);
+                    lastResizeTime.set(System.nanoTime());
+                    LOGGER.debug("Decreased maximum size of shared LDAP connection pool [{}] to [{}]", getName(), maxPoolSize - 1);
+                }
+            }
+        }
+    }
+
+    private void registerMeters(final MeterRegistry meterRegistry) {
+        val usageTag = usage.name().toLowerCase();
+        checkoutTimer = Timer.builder("cas.ldap.pool.checkout.wait")
+            .description("Time spent waiting for a connection from the LDAP connection pool")
+            .tag("pool", getName())
+            .tag("usage", usageTag)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        operationTimer = Timer.builder("cas.ldap.pool.operation")
+            .description("Time LDAP connections are held by search or bind operations")
+            .tag("pool", getName())
+            .tag("usage", usageTag)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        meters.add(checkoutTimer);
+        meters.add(operationTimer);
+        meters.add(Gauge.builder("cas.ldap.pool.connections.active", this, SharedPooledConnectionFactory::activeCount)
+            .description("Number of LDAP connections in use")
+            .tag("pool", getName())
+            .tag("usage", usageTag)
+            .register(meterRegistry));
+        meters.add(Gauge.builder("cas.ldap.pool.connections.available", this, SharedPooledConnectionFactory::availableCount)
+            .description("Number of idle LDAP connections available in the pool")
+            .tag("pool", getName())
+            .tag("usage", usageTag)
+            .register(meterRegistry));
+        meters.add(Gauge.builder("cas.ldap.pool.size.max", this, SharedPooledConnectionFactory::getMaxPoolSize)
+            .description("Maximum size of the LDAP connection pool")
+            .tag("pool", getName())
+            .tag("usage", usageTag)
+            .register(meterRegistry));
+    }
+}
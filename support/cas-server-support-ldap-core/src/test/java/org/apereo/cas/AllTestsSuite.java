@@ -7,6 +7,7 @@ import org.apereo.cas.authentication.support.OptionalWarningLdapAccountStateHand
 import org.apereo.cas.authentication.support.RejectResultCodeLdapPasswordPolicyHandlingStrategyTests;
 import org.apereo.cas.authorization.LdapUserAttributesToRolesAuthorizationGeneratorTests;
 import org.apereo.cas.authorization.LdapUserGroupsToRolesAuthorizationGeneratorTests;
+import org.apereo.cas.util.ldap.LdapConnectionPoolRegistryTests;
 
 import org.junit.platform.suite.api.SelectClasses;
 import org.junit.platform.suite.api.Suite;
@@ -24,7 +25,8 @@ import org.junit.platform.suite.api.Suite;
     DefaultLdapAccountStateHandlerTests.class,
     GroovyPasswordPolicyHandlingStrategyTests.class,
     OptionalWarningLdapAccountStateHandlerTests.class,
-    RejectResultCodeLdapPasswordPolicyHandlingStrategyTests.class
+    RejectResultCodeLdapPasswordPolicyHandlingStrategyTests.class,
+    LdapConnectionPoolRegistryTests.class
 })
 @Suite
 public class AllTestsSuite {
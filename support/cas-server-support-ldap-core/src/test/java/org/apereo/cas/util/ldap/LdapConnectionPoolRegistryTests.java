@@ -0,0 +1,229 @@
+package org.apereo.cas.util.ldap;
+
+import org.apereo.cas.configuration.model.support.ldap.LdapAuthenticationProperties;
+import org.apereo.cas.util.LdapUtils;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.InMemoryListenerConfig;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.ldaptive.Connection;
+import org.ldaptive.Credential;
+import org.ldaptive.auth.AuthenticationRequest;
+
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is {@link LdapConnectionPoolRegistryTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("Ldap")
+public class LdapConnectionPoolRegistryTests {
+    private static final String BASE_DN = "ou=people,dc=example,dc=org";
+
+    private static final String MANAGER_DN = "cn=Directory Manager";
+
+    private InMemoryDirectoryServer directoryServer;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        val config = new InMemoryDirectoryServerConfig("dc=example,dc=org");
+        config.addAdditionalBindCredentials(MANAGER_DN, "Password");
+        config.setListenerConfigs(InMemoryListenerConfig.createLDAPConfig("LDAP", 0));
+        config.setSchema(null);
+        directoryServer = new InMemoryDirectoryServer(config);
+        directoryServer.add("dn: dc=example,dc=org", "objectClass: domain", "dc: example");
+        directoryServer.add("dn: " + BASE_DN, "objectClass: organizationalUnit", "ou: people");
+        for (var i = 0; i < 5; i++) {
+            directoryServer.add("dn: uid=user" + i + ',' + BASE_DN, "objectClass: inetOrgPerson",
+                "uid: user" + i, "cn: User " + i, "sn: User", "userPassword: Mellon" + i);
+        }
+        directoryServer.startListening();
+
+        meterRegistry = new SimpleMeterRegistry();
+        LdapConnectionPoolRegistry.getInstance().setMeterRegistry(meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        LdapConnectionPoolRegistry.getInstance().setMeterRegistry(Metrics.globalRegistry);
+        directoryServer.shutDown(true);
+    }
+
+    private LdapAuthenticationProperties getLdapProperties() {
+        val properties = new LdapAuthenticationProperties();
+        properties.setLdapUrl("ldap://localhost:" + directoryServer.getListenPort());
+        properties.setBindDn(MANAGER_DN);
+        properties.setBindCredential("Password");
+        properties.setBaseDn(BASE_DN);
+        properties.setSearchFilter("uid={user}");
+        properties.setMinPoolSize(1);
+        properties.setMaxPoolSize(2);
+        properties.setSharedPool(true);
+        properties.getValidator().setType("none");
+        return properties;
+    }
+
+    @Test
+    public void verifyPoolsSharedByBindIdentity() {
+        val properties = getLdapProperties();
+        val first = LdapUtils.newLdaptivePooledConnectionFactory(properties);
+        val second = LdapUtils.newLdaptivePooledConnectionFactory(getLdapProperties());
+        assertSame(first, second);
+        assertInstanceOf(SharedPooledConnectionFactory.class, first);
+
+        val bind = LdapUtils.newLdaptivePooledConnectionFactory(properties, LdapConnectionPoolRegistry.PoolUsage.BIND);
+        assertNotSame(first, bind);
+
+        val anonymous = getLdapProperties();
+        anonymous.setBindDn(null);
+        anonymous.setBindCredential(null);
+        val anonymousFactory = LdapUtils.newLdaptivePooledConnectionFactory(anonymous);
+        assertNotSame(first, anonymousFactory);
+
+        val unshared = getLdapProperties();
+        unshared.setSharedPool(false);
+        val unsharedFactory = LdapUtils.newLdaptivePooledConnectionFactory(unshared);
+        assertNotSame(first, unsharedFactory);
+        assertFalse(unsharedFactory instanceof SharedPooledConnectionFactory);
+
+        val key = LdapConnectionPoolRegistry.getPoolKey(properties, LdapConnectionPoolRegistry.PoolUsage.SEARCH);
+        first.close();
+        assertTrue(first.isInitialized());
+        assertTrue(LdapConnectionPoolRegistry.getInstance().find(key).isPresent());
+        second.close();
+        assertFalse(first.isInitialized());
+        assertTrue(LdapConnectionPoolRegistry.getInstance().find(key).isEmpty());
+        assertNull(meterRegistry.find("cas.ldap.pool.checkout.wait").tag("pool", first.getName()).timer());
+
+        bind.close();
+        anonymousFactory.close();
+        unsharedFactory.close();
+    }
+
+    @Test
+    public void verifyPoolsSeparatedByConnectionSettings() {
+        val properties = getLdapProperties();
+        val first = LdapUtils.newLdaptivePooledConnectionFactory(properties);
+
+        val otherCredential = getLdapProperties();
+        otherCredential.setBindCredential("OtherPassword");
+        otherCredential.setMinPoolSize(0);
+        val otherCredentialFactory = LdapUtils.newLdaptivePooledConnectionFactory(otherCredential);
+        assertNotSame(first, otherCredentialFactory);
+
+        val otherSettings = getLdapProperties();
+        otherSettings.setUseStartTls(true);
+        otherSettings.setTrustStore("classpath:truststore.jks");
+        assertNotEquals(LdapConnectionPoolRegistry.getPoolKey(properties, LdapConnectionPoolRegistry.PoolUsage.SEARCH),
+            LdapConnectionPoolRegistry.getPoolKey(otherSettings, LdapConnectionPoolRegistry.PoolUsage.SEARCH));
+        assertNotEquals(LdapConnectionPoolRegistry.getPoolName(properties, LdapConnectionPoolRegistry.PoolUsage.SEARCH),
+            LdapConnectionPoolRegistry.getPoolName(otherSettings, LdapConnectionPoolRegistry.PoolUsage.SEARCH));
+
+        val name = first.getName();
+        assertEquals(LdapConnectionPoolRegistry.getPoolName(properties, LdapConnectionPoolRegistry.PoolUsage.SEARCH), name);
+        assertFalse(name.contains(MANAGER_DN.toLowerCase()));
+        assertFalse(LdapConnectionPoolRegistry.getPoolKey(properties, LdapConnectionPoolRegistry.PoolUsage.SEARCH).contains("Password"));
+        assertTrue(meterRegistry.getMeters().stream()
+            .flatMap(meter -> meter.getId().getTags().stream())
+            .noneMatch(tag -> tag.getValue().toLowerCase().contains(MANAGER_DN.toLowerCase())));
+
+        first.close();
+        otherCredentialFactory.close();
+    }
+
+    @Test
+    public void verifyBindOperationsUseSeparatePool() throws Exception {
+        val properties = getLdapProperties();
+        val authenticator = LdapUtils.newLdaptiveAuthenticator(properties);
+        try {
+            val response = authenticator.authenticate(new AuthenticationRequest("user1", new Credential("Mellon1")));
+            assertTrue(response.isSuccess());
+            assertFalse(authenticator.authenticate(new AuthenticationRequest("user1", new Credential("bad"))).isSuccess());
+
+            val key = LdapConnectionPoolRegistry.getPoolKey(properties, LdapConnectionPoolRegistry.PoolUsage.BIND);
+            assertTrue(LdapConnectionPoolRegistry.getInstance().find(key).isPresent());
+            val timer = meterRegistry.find("cas.ldap.pool.operation").tag("usage", "bind").timer();
+            assertNotNull(timer);
+            assertEquals(2, timer.count());
+            assertNotNull(meterRegistry.find("cas.ldap.pool.operation").tag("usage", "search").timer());
+        } finally {
+            authenticator.close();
+        }
+    }
+
+    @Test
+    public void verifyPoolsSeparatedByPoolSettings() {
+        val properties = getLdapProperties();
+        val key = LdapConnectionPoolRegistry.getPoolKey(properties, LdapConnectionPoolRegistry.PoolUsage.SEARCH);
+        assertEquals(key, LdapConnectionPoolRegistry.getPoolKey(getLdapProperties(), LdapConnectionPoolRegistry.PoolUsage.SEARCH));
+
+        val otherSize = getLdapProperties();
+        otherSize.setMaxPoolSize(5);
+        val otherValidator = getLdapProperties();
+        otherValidator.getValidator().setType("search");
+        val otherValidation = getLdapProperties();
+        otherValidation.setValidateOnCheckout(false);
+        val otherPruning = getLdapProperties();
+        otherPruning.setIdleTime("PT1M");
+        val otherAdaptiveSize = getLdapProperties();
+        otherAdaptiveSize.setMaxAdaptivePoolSize(8);
+        Stream.of(otherSize, otherValidator, otherValidation, otherPruning, otherAdaptiveSize).forEach(other -> {
+            assertNotEquals(key, LdapConnectionPoolRegistry.getPoolKey(other, LdapConnectionPoolRegistry.PoolUsage.SEARCH));
+            assertNotEquals(LdapConnectionPoolRegistry.getPoolName(properties, LdapConnectionPoolRegistry.PoolUsage.SEARCH),
+                LdapConnectionPoolRegistry.getPoolName(other, LdapConnectionPoolRegistry.PoolUsage.SEARCH));
+        });
+
+        val first = LdapUtils.newLdaptivePooledConnectionFactory(properties);
+        val second = LdapUtils.newLdaptivePooledConnectionFactory(otherSize);
+        try {
+            assertNotSame(first, second);
+            assertEquals(2, first.getMaxPoolSize());
+            assertEquals(5, second.getMaxPoolSize());
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    public void verifyAdaptiveSizing() throws Exception {
+        val properties = getLdapProperties();
+        properties.setMaxAdaptivePoolSize(4);
+        properties.setAdaptivePoolWaitThreshold("PT0S");
+        val adaptive = (SharedPooledConnectionFactory) LdapUtils.newLdaptivePooledConnectionFactory(properties);
+        val connections = new ArrayList<Connection>();
+        try {
+            for (var i = 0; i < 4; i++) {
+                connections.add(adaptive.getConnection());
+            }
+            assertEquals(4, adaptive.getMaxPoolSize());
+            assertEquals(2, adaptive.getConfiguredMaxPoolSize());
+            assertEquals(4, adaptive.activeCount());
+
+            val wait = meterRegistry.find("cas.ldap.pool.checkout.wait").tag("pool", adaptive.getName()).timer();
+            assertNotNull(wait);
+            assertEquals(4, wait.count());
+            val maxSize = meterRegistry.find("cas.ldap.pool.size.max").tag("pool", adaptive.getName()).gauge();
+            assertNotNull(maxSize);
+            assertEquals(4, maxSize.value());
+        } finally {
+            connections.forEach(Connection::close);
+            adaptive.close();
+        }
+        assertNull(meterRegistry.find("cas.ldap.pool.size.max").tag("pool", adaptive.getName()).gauge());
+    }
+}
@@ -2,6 +2,7 @@ package org.apereo.cas.support.oauth.util;
 
 import org.apereo.cas.CasProtocolConstants;
 import org.apereo.cas.services.RegisteredService;
+import org.apereo.cas.services.RegisteredServiceIndexedKey;
 import org.apereo.cas.services.ServicesManager;
 import org.apereo.cas.services.UnauthorizedServiceException;
 import org.apereo.cas.support.oauth.OAuth20Constants;
@@ -47,6 +48,12 @@ import java.util.stream.Stream;
 @Slf4j
 @UtilityClass
 public class OAuth20Utils {
+    /**
+     * Indexed key by which OAuth registered services are located using their client id.
+     */
+    public static final RegisteredServiceIndexedKey<OAuthRegisteredService> CLIENT_ID_INDEXED_KEY =
+        RegisteredServiceIndexedKey.of("clientId", OAuthRegisteredService.class, OAuthRegisteredService::getClientId);
+
     private static final ObjectMapper MAPPER = JacksonObjectMapperFactory.builder()
         .singleArrayElementUnwrapped(true).build().toObjectMapper();
 
@@ -105,7 +112,7 @@ public class OAuth20Utils {
         if (StringUtils.isBlank(clientId)) {
             return null;
         }
-        return getRegisteredOAuthServiceByPredicate(servicesManager, s -> s.getClientId().equalsIgnoreCase(clientId));
+        return servicesManager.findServiceBy(CLIENT_ID_INDEXED_KEY, clientId);
     }
 
     /**
@@ -0,0 +1,180 @@
+package org.apereo.cas.support.oauth.services;
+
+import org.apereo.cas.services.CasRegisteredService;
+import org.apereo.cas.services.DefaultChainingServicesManager;
+import org.apereo.cas.services.DefaultServicesManager;
+import org.apereo.cas.services.DefaultServicesManagerRegisteredServiceLocator;
+import org.apereo.cas.services.InMemoryServiceRegistry;
+import org.apereo.cas.services.RegisteredService;
+import org.apereo.cas.services.RegisteredServiceIndexedKey;
+import org.apereo.cas.services.ServicesManager;
+import org.apereo.cas.services.ServicesManagerConfigurationContext;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.val;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is {@link OAuthRegisteredServiceClientIdLookupTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("OAuth")
+public class OAuthRegisteredServiceClientIdLookupTests {
+    private static final RegisteredServiceIndexedKey<OAuthRegisteredService> CLIENT_ID =
+        RegisteredServiceIndexedKey.of("clientId", OAuthRegisteredService.class, OAuthRegisteredService::getClientId);
+
+    private static final int CLIENTS = 2_000;
+
+    private static final int LOOKUPS = 200;
+
+    private static OAuthRegisteredService newClient(final long id, final String clientId, final int evaluationOrder) {
+        val service = new OAuthRegisteredService();
+        service.setId(id);
+        service.setName("Client" + id);
+        service.setServiceId("https://app" + id + ".example.org/.*");
+        service.setClientId(clientId);
+        service.setClientSecret("secret");
+        service.setEvaluationOrder(evaluationOrder);
+        return service;
+    }
+
+    private static DefaultServicesManager newServicesManager(final List<RegisteredService> services, final Set<String> environments) {
+        return newServicesManager(services, environments, Caffeine.newBuilder().build());
+    }
+
+    private static DefaultServicesManager newServicesManager(final List<RegisteredService> services, final Set<String> environments,
+                                                             final Cache<Long, RegisteredService> servicesCache) {
+        val applicationContext = new StaticApplicationContext();
+        applicationContext.refresh();
+        val context = ServicesManagerConfigurationContext.builder()
+            .applicationContext(applicationContext)
+            .serviceRegistry(new InMemoryServiceRegistry(applicationContext, services, List.of()))
+            .registeredServiceLocators(List.of(new DefaultServicesManagerRegisteredServiceLocator()))
+            .servicesCache(servicesCache)
+            .environments(environments)
+            .build();
+        val servicesManager = new DefaultServicesManager(context);
+        servicesManager.load();
+        return servicesManager;
+    }
+
+    private static OAuthRegisteredService findByLinearScan(final ServicesManager servicesManager, final String clientId) {
+        return servicesManager.getAllServicesOfType(OAuthRegisteredService.class)
+            .stream()
+            .filter(s -> s.getClientId().equalsIgnoreCase(clientId))
+            .findFirst()
+            .orElse(null);
+    }
+
+    @Test
+    public void verifyLookupIgnoresCase() {
+        val cas = new CasRegisteredService();
+        cas.setId(100);
+        cas.setName("CAS");
+        cas.setServiceId("https://cas.example.org/.*");
+        val servicesManager = newServicesManager(new ArrayList<>(List.of(newClient(1, "ClientOne", 10), cas)), Set.of());
+        assertEquals(1, servicesManager.findServiceBy(CLIENT_ID, "clientone").getId());
+        assertEquals(1, servicesManager.findServiceBy(CLIENT_ID, "CLIENTONE").getId());
+        assertNull(servicesManager.findServiceBy(CLIENT_ID, "unknown"));
+        assertNull(servicesManager.findServiceBy(CLIENT_ID, null));
+    }
+
+    @Test
+    public void verifyFirstServiceInOrderWins() {
+        val services = new ArrayList<RegisteredService>(List.of(newClient(1, "client", 10), newClient(2, "CLIENT", 1)));
+        val servicesManager = newServicesManager(services, Set.of());
+        assertEquals(2, servicesManager.findServiceBy(CLIENT_ID, "client").getId());
+        assertEquals(findByLinearScan(servicesManager, "client"), servicesManager.findServiceBy(CLIENT_ID, "client"));
+    }
+
+    @Test
+    public void verifyServicesFilteredByEnvironment() {
+        val production = newClient(1, "client", 1);
+        production.setEnvironments(new HashSet<>(Set.of("prod")));
+        val development = newClient(2, "client", 10);
+        development.setEnvironments(new HashSet<>(Set.of("dev")));
+        val servicesManager = newServicesManager(new ArrayList<>(List.of(production, development)), Set.of("dev"));
+        assertEquals(2, servicesManager.findServiceBy(CLIENT_ID, "client").getId());
+    }
+
+    @Test
+    public void verifyIndexMaintainedOnChange() {
+        val servicesManager = newServicesManager(new ArrayList<>(List.of(newClient(1, "client", 10))), Set.of());
+        assertEquals(1, servicesManager.findServiceBy(CLIENT_ID, "client").getId());
+
+        servicesManager.save(newClient(2, "other", 10));
+        assertEquals(2, servicesManager.findServiceBy(CLIENT_ID, "other").getId());
+
+        val renamed = servicesManager.findServiceBy(1, OAuthRegisteredService.class);
+        renamed.setClientId("renamed");
+        servicesManager.save(renamed);
+        assertEquals(1, servicesManager.findServiceBy(CLIENT_ID, "renamed").getId());
+        assertNull(servicesManager.findServiceBy(CLIENT_ID, "client"));
+
+        servicesManager.delete(2);
+        assertNull(servicesManager.findServiceBy(CLIENT_ID, "other"));
+
+        servicesManager.getConfigurationContext().getServiceRegistry().save(newClient(3, "loaded", 10));
+        assertNull(servicesManager.findServiceBy(CLIENT_ID, "loaded"));
+        servicesManager.load();
+        assertEquals(3, servicesManager.findServiceBy(CLIENT_ID, "loaded").getId());
+
+        servicesManager.deleteAll();
+        assertNull(servicesManager.findServiceBy(CLIENT_ID, "renamed"));
+    }
+
+    @Test
+    public void verifyChainingServicesManager() {
+        val chain = new DefaultChainingServicesManager();
+        chain.registerServiceManager(newServicesManager(new ArrayList<>(List.of(newClient(1, "client", 10))), Set.of()));
+        assertEquals(1, chain.findServiceBy(CLIENT_ID, "CLIENT").getId());
+        assertNull(chain.findServiceBy(CLIENT_ID, "unknown"));
+    }
+
+    @Test
+    public void verifyIndexRefreshedAfterCacheExpiry() {
+        val time = new AtomicLong();
+        val cache = Caffeine.newBuilder()
+            .ticker(time::get)
+            .executor(Runnable::run)
+            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .<Long, RegisteredService>build();
+        val servicesManager = newServicesManager(new ArrayList<>(List.of(newClient(1, "client", 10))), Set.of(), cache);
+        assertEquals(1, servicesManager.findServiceBy(CLIENT_ID, "client").getId());
+
+        servicesManager.getConfigurationContext().getServiceRegistry().save(newClient(1, "renamed", 10));
+        time.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        assertEquals("renamed", servicesManager.findServiceBy(1, OAuthRegisteredService.class).getClientId());
+        assertEquals(1, servicesManager.findServiceBy(CLIENT_ID, "renamed").getId());
+        assertNull(servicesManager.findServiceBy(CLIENT_ID, "client"));
+    }
+
+    @Test
+    public void verifyIndexMatchesLinearScan() {
+        val random = new Random(CLIENTS);
+        val services = new ArrayList<RegisteredService>(CLIENTS);
+        for (var i = 0; i < CLIENTS; i++) {
+            services.add(newClient(i, "client-" + i, random.nextInt(CLIENTS)));
+        }
+        val servicesManager = newServicesManager(services, Set.of());
+        for (var i = 0; i < LOOKUPS; i++) {
+            val clientId = i % 10 == 0 ? "unknown-" + i : "CLIENT-" + random.nextInt(CLIENTS);
+            assertEquals(findByLinearScan(servicesManager, clientId), servicesManager.findServiceBy(CLIENT_ID, clientId));
+        }
+    }
+}
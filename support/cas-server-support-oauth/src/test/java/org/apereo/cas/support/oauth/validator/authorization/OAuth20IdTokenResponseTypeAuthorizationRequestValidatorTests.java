@@ -3,6 +3,7 @@ package org.apereo.cas.support.oauth.validator.authorization;
 import org.apereo.cas.AbstractOAuth20Tests;
 import org.apereo.cas.authentication.principal.WebApplicationServiceFactory;
 import org.apereo.cas.services.RegisteredServiceAccessStrategyAuditableEnforcer;
+import org.apereo.cas.services.RegisteredServiceIndexedKey;
 import org.apereo.cas.services.ServicesManager;
 import org.apereo.cas.support.oauth.OAuth20Constants;
 import org.apereo.cas.support.oauth.OAuth20ResponseTypes;
@@ -41,6 +42,7 @@ public class OAuth20IdTokenResponseTypeAuthorizationRequestValidatorTests extend
 
         when(serviceManager.getAllServices()).thenReturn((Collection) CollectionUtils.toCollection(service));
         when(serviceManager.getAllServicesOfType(any())).thenReturn((Collection) CollectionUtils.toCollection(service));
+        when(serviceManager.findServiceBy(any(RegisteredServiceIndexedKey.class), anyString())).thenReturn(service);
         val v = new OAuth20IdTokenResponseTypeAuthorizationRequestValidator(serviceManager, new WebApplicationServiceFactory(),
             new RegisteredServiceAccessStrategyAuditableEnforcer(casProperties), oauthRequestParameterResolver);
 
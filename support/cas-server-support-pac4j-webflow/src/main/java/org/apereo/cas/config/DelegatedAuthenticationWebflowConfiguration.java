@@ -633,9 +633,15 @@ public class DelegatedAuthenticationWebflowConfiguration {
             @Qualifier("delegatedClientRedirectFlowRegistry")
             final FlowDefinitionRegistry delegatedClientRedirectFlowRegistry,
             @Qualifier("webflowCipherExecutor")
-            final CipherExecutor webflowCipherExecutor) {
+            final CipherExecutor webflowCipherExecutor,
+            @Qualifier(TicketRegistry.BEAN_NAME)
+            final ObjectProvider<TicketRegistry> ticketRegistry,
+            @Qualifier(TicketFactory.BEAN_NAME)
+            final ObjectProvider<TicketFactory> ticketFactory) {
             val factory = new WebflowExecutorFactory(casProperties.getWebflow(),
                 delegatedClientRedirectFlowRegistry, webflowCipherExecutor, FLOW_EXECUTION_LISTENERS);
+            ticketRegistry.ifAvailable(factory::setTicketRegistry);
+            ticketFactory.ifAvailable(factory::setTicketFactory);
             return factory.build();
         }
     }
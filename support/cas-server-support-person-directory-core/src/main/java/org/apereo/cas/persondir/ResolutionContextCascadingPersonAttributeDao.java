@@ -0,0 +1,41 @@
+package org.apereo.cas.persondir;
+
+import org.apereo.cas.authentication.attribute.AttributeRepositoryResolutionContext;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.apereo.services.persondir.IPersonAttributeDao;
+import org.apereo.services.persondir.IPersonAttributeDaoFilter;
+import org.apereo.services.persondir.IPersonAttributes;
+import org.apereo.services.persondir.support.CascadingPersonAttributeDao;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This is {@link ResolutionContextCascadingPersonAttributeDao} that cascades queries across attribute repositories
+ * using the {@link AttributeRepositoryResolutionContext} bound to the current thread.
+ * Attribute repositories are queried at most once per query while the context is open.
+ * Since each attribute repository is queried with the results of the previous one,
+ * attribute repositories are always queried in order.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Getter
+@Setter
+public class ResolutionContextCascadingPersonAttributeDao extends CascadingPersonAttributeDao {
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected Set<IPersonAttributes> getAttributesFromDao(final Map<String, List<Object>> seed, final boolean isFirstQuery,
+                                                          final IPersonAttributeDao currentlyConsidering,
+                                                          final Set<IPersonAttributes> resultPeople,
+                                                          final IPersonAttributeDaoFilter filter) {
+        return AttributeRepositoryResolutionContext.resolve(currentlyConsidering, seed,
+            () -> super.getAttributesFromDao(seed, isFirstQuery, currentlyConsidering, resultPeople, filter),
+            () -> ResolutionContextMergingPersonAttributeDao.recordSavedCall(currentlyConsidering, meterRegistry));
+    }
+}
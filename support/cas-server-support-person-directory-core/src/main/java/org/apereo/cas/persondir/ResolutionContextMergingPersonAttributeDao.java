@@ -0,0 +1,90 @@
+package org.apereo.cas.persondir;
+
+import org.apereo.cas.authentication.attribute.AttributeRepositoryResolutionContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apereo.services.persondir.IPersonAttributeDao;
+import org.apereo.services.persondir.IPersonAttributeDaoFilter;
+import org.apereo.services.persondir.IPersonAttributes;
+import org.apereo.services.persondir.support.MergingPersonAttributeDaoImpl;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * This is {@link ResolutionContextMergingPersonAttributeDao} that merges the results of attribute repositories
+ * using the {@link AttributeRepositoryResolutionContext} bound to the current thread.
+ * Attribute repositories are queried at most once per query while the context is open,
+ * and when a context is available, all attribute repositories are queried concurrently
+ * before their results are merged in order.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+@Getter
+@RequiredArgsConstructor
+public class ResolutionContextMergingPersonAttributeDao extends MergingPersonAttributeDaoImpl implements DisposableBean {
+    /**
+     * Name of the counter that records attribute repository calls avoided by sharing results.
+     */
+    public static final String METER_NAME_SAVED_CALLS = "cas.attribute.repository.calls.saved";
+
+    private final ExecutorService executorService;
+
+    @Setter
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Record a call to the attribute repository that was avoided by sharing results.
+     *
+     * @param repository    the attribute repository
+     * @param meterRegistry the meter registry
+     */
+    static void recordSavedCall(final IPersonAttributeDao repository, final MeterRegistry meterRegistry) {
+        if (meterRegistry != null) {
+            Counter.builder(METER_NAME_SAVED_CALLS)
+                .description("Number of attribute repository calls avoided by sharing results within a request")
+                .tag("repository", String.join(",", repository.getId()))
+                .register(meterRegistry)
+                .increment();
+        }
+    }
+
+    @Override
+    public Set<IPersonAttributes> getPeopleWithMultivaluedAttributes(final Map<String, List<Object>> query,
+                                                                     final IPersonAttributeDaoFilter filter) {
+        if (!isStopOnSuccess() && AttributeRepositoryResolutionContext.current().isPresent()) {
+            LOGGER.trace("Querying attribute repositories concurrently for [{}]", query);
+            getPersonAttributeDaos()
+                .stream()
+                .filter(dao -> filter == null || filter.choosePersonAttributeDao(dao))
+                .forEach(dao -> AttributeRepositoryResolutionContext.submit(dao, query,
+                    () -> dao.getPeopleWithMultivaluedAttributes(query, filter), executorService));
+        }
+        return super.getPeopleWithMultivaluedAttributes(query, filter);
+    }
+
+    @Override
+    public void destroy() {
+        executorService.shutdownNow();
+    }
+
+    @Override
+    protected Set<IPersonAttributes> getAttributesFromDao(final Map<String, List<Object>> seed, final boolean isFirstQuery,
+                                                          final IPersonAttributeDao currentlyConsidering,
+                                                          final Set<IPersonAttributes> resultPeople,
+                                                          final IPersonAttributeDaoFilter filter) {
+        return AttributeRepositoryResolutionContext.resolve(currentlyConsidering, seed,
+            () -> super.getAttributesFromDao(seed, isFirstQuery, currentlyConsidering, resultPeople, filter),
+            () -> recordSavedCall(currentlyConsidering, meterRegistry));
+    }
+}
@@ -8,17 +8,21 @@ import org.apereo.cas.authentication.principal.PrincipalFactoryUtils;
 import org.apereo.cas.authentication.principal.PrincipalResolutionExecutionPlanConfigurer;
 import org.apereo.cas.authentication.principal.PrincipalResolver;
 import org.apereo.cas.configuration.CasConfigurationProperties;
+import org.apereo.cas.configuration.model.core.authentication.AttributeRepositoryResolutionContextProperties;
 import org.apereo.cas.configuration.features.CasFeatureModule;
 import org.apereo.cas.configuration.support.Beans;
 import org.apereo.cas.persondir.DefaultPersonDirectoryAttributeRepositoryPlan;
 import org.apereo.cas.persondir.PersonDirectoryAttributeRepositoryCustomizer;
 import org.apereo.cas.persondir.PersonDirectoryAttributeRepositoryPlan;
 import org.apereo.cas.persondir.PersonDirectoryAttributeRepositoryPlanConfigurer;
+import org.apereo.cas.persondir.ResolutionContextCascadingPersonAttributeDao;
+import org.apereo.cas.persondir.ResolutionContextMergingPersonAttributeDao;
 import org.apereo.cas.util.function.FunctionUtils;
 import org.apereo.cas.util.spring.beans.BeanContainer;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.apereo.services.persondir.IPersonAttributeDao;
@@ -38,12 +42,15 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -142,20 +149,43 @@ public class CasPersonDirectoryConfiguration {
     @EnableConfigurationProperties(CasConfigurationProperties.class)
     public static class CasPersonDirectoryAttributeRepositoryConfiguration {
         private static AbstractAggregatingDefaultQueryPersonAttributeDao getAggregateAttributeRepository(
-            final CasConfigurationProperties casProperties) {
+            final CasConfigurationProperties casProperties, final ObjectProvider<MeterRegistry> meterRegistry) {
             val properties = casProperties.getAuthn().getAttributeRepository();
+            val resolutionContext = properties.getCore().getResolutionContext();
             switch (properties.getCore().getAggregation()) {
                 case CASCADE:
-                    val dao = new CascadingPersonAttributeDao();
+                    val dao = resolutionContext.isEnabled() ? getResolutionContextCascadingAttributeRepository(meterRegistry)
+                        : new CascadingPersonAttributeDao();
                     dao.setAddOriginalAttributesToQuery(true);
                     dao.setStopIfFirstDaoReturnsNull(true);
                     return dao;
                 case MERGE:
                 default:
-                    return new MergingPersonAttributeDaoImpl();
+                    return resolutionContext.isEnabled() ? getResolutionContextMergingAttributeRepository(resolutionContext, meterRegistry)
+                        : new MergingPersonAttributeDaoImpl();
             }
         }
 
+        private static CascadingPersonAttributeDao getResolutionContextCascadingAttributeRepository(
+            final ObjectProvider<MeterRegistry> meterRegistry) {
+            val dao = new ResolutionContextCascadingPersonAttributeDao();
+            meterRegistry.ifAvailable(dao::setMeterRegistry);
+            return dao;
+        }
+
+        private static MergingPersonAttributeDaoImpl getResolutionContextMergingAttributeRepository(
+            final AttributeRepositoryResolutionContextProperties properties,
+            final ObjectProvider<MeterRegistry> meterRegistry) {
+            val threadFactory = new CustomizableThreadFactory("cas-attribute-repository-");
+            threadFactory.setDaemon(true);
+            val executor = new ThreadPoolExecutor(properties.getMaxPoolSize(), properties.getMaxPoolSize(),
+                1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), threadFactory);
+            executor.allowCoreThreadTimeOut(true);
+            val dao = new ResolutionContextMergingPersonAttributeDao(executor);
+            meterRegistry.ifAvailable(dao::setMeterRegistry);
+            return dao;
+        }
+
 
         @Bean(name = {"cachingAttributeRepository", PrincipalResolver.BEAN_NAME_ATTRIBUTE_REPOSITORY})
         @ConditionalOnMissingBean(name = {"cachingAttributeRepository", PrincipalResolver.BEAN_NAME_ATTRIBUTE_REPOSITORY})
@@ -197,8 +227,9 @@ public class CasPersonDirectoryConfiguration {
             final IAttributeMerger attributeRepositoryAttributeMerger,
             final CasConfigurationProperties casProperties,
             @Qualifier("personDirectoryAttributeRepositoryPlan")
-            final PersonDirectoryAttributeRepositoryPlan personDirectoryAttributeRepositoryPlan) {
-            val aggregate = getAggregateAttributeRepository(casProperties);
+            final PersonDirectoryAttributeRepositoryPlan personDirectoryAttributeRepositoryPlan,
+            final ObjectProvider<MeterRegistry> meterRegistry) {
+            val aggregate = getAggregateAttributeRepository(casProperties, meterRegistry);
             aggregate.setMerger(attributeRepositoryAttributeMerger);
 
             val list = personDirectoryAttributeRepositoryPlan.getAttributeRepositories();
@@ -29,6 +29,7 @@ import org.junit.platform.suite.api.Suite;
     PersonDirectoryPrincipalResolverActiveDirectoryTests.class,
     PrincipalAttributeRepositoryFetcherLdapTests.class,
     PrincipalAttributeRepositoryFetcherTests.class,
+    AttributeRepositoryResolutionContextTests.class,
     CasPersonDirectoryConfigurationCachingAttributeRepositoryTests.class,
     CasPersonDirectoryConfigurationMergeAggregationTests.class,
     CasPersonDirectoryConfigurationCascadeAggregationTests.class,
@@ -0,0 +1,211 @@
+package org.apereo.cas;
+
+import org.apereo.cas.authentication.CoreAuthenticationTestUtils;
+import org.apereo.cas.authentication.attribute.AttributeRepositoryResolutionContext;
+import org.apereo.cas.authentication.attribute.PrincipalAttributeRepositoryFetcher;
+import org.apereo.cas.persondir.ResolutionContextCascadingPersonAttributeDao;
+import org.apereo.cas.persondir.ResolutionContextMergingPersonAttributeDao;
+import org.apereo.cas.util.CollectionUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Getter;
+import lombok.val;
+import org.apereo.services.persondir.IPersonAttributeDao;
+import org.apereo.services.persondir.IPersonAttributeDaoFilter;
+import org.apereo.services.persondir.IPersonAttributes;
+import org.apereo.services.persondir.support.StubPersonAttributeDao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is {@link AttributeRepositoryResolutionContextTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("Attributes")
+public class AttributeRepositoryResolutionContextTests {
+    private SimpleMeterRegistry meterRegistry;
+
+    private CountingAttributeRepository ldap;
+
+    private CountingAttributeRepository jdbc;
+
+    private CountingAttributeRepository rest;
+
+    private static Map<String, List<Object>> fetch(final IPersonAttributeDao repository, final String credentialClass) {
+        return PrincipalAttributeRepositoryFetcher.builder()
+            .attributeRepository(repository)
+            .principalId("casuser")
+            .currentPrincipal(CoreAuthenticationTestUtils.getPrincipal("casuser"))
+            .queryAttributes(Map.of("credentialClass", CollectionUtils.wrapList(credentialClass)))
+            .build()
+            .retrieve();
+    }
+
+    private ResolutionContextMergingPersonAttributeDao getMergingAttributeRepository() {
+        val dao = new ResolutionContextMergingPersonAttributeDao(Executors.newFixedThreadPool(5));
+        dao.setPersonAttributeDaos(List.of(ldap, jdbc, rest));
+        dao.setMeterRegistry(meterRegistry);
+        return dao;
+    }
+
+    private double getSavedCalls() {
+        return meterRegistry.find(ResolutionContextMergingPersonAttributeDao.METER_NAME_SAVED_CALLS)
+            .counters()
+            .stream()
+            .mapToDouble(counter -> counter.count())
+            .sum();
+    }
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        ldap = new CountingAttributeRepository("LDAP", "mail", "casuser@example.org");
+        jdbc = new CountingAttributeRepository("JDBC", "department", "engineering");
+        rest = new CountingAttributeRepository("REST", "role", "admin");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        assertTrue(AttributeRepositoryResolutionContext.current().isEmpty());
+    }
+
+    @Test
+    public void verifyRepositoriesQueriedOncePerContext() {
+        val dao = getMergingAttributeRepository();
+        try (val context = AttributeRepositoryResolutionContext.open()) {
+            val attributes = fetch(dao, "UsernamePasswordCredential");
+            assertEquals(List.of("casuser@example.org"), attributes.get("mail"));
+            assertEquals(List.of("engineering"), attributes.get("department"));
+            assertEquals(List.of("admin"), attributes.get("role"));
+            assertEquals(attributes, fetch(dao, "UsernamePasswordCredential"));
+            assertEquals(attributes, fetch(dao, "UsernamePasswordCredential"));
+            assertEquals(6, context.getSavedCalls());
+        } finally {
+            dao.destroy();
+        }
+        assertEquals(1, ldap.getCalls().get());
+        assertEquals(1, jdbc.getCalls().get());
+        assertEquals(1, rest.getCalls().get());
+        assertEquals(6, getSavedCalls());
+    }
+
+    @Test
+    public void verifyRepositoriesQueriedWithoutContext() {
+        val dao = getMergingAttributeRepository();
+        try {
+            fetch(dao, "UsernamePasswordCredential");
+            fetch(dao, "Service1");
+        } finally {
+            dao.destroy();
+        }
+        assertEquals(2, ldap.getCalls().get());
+        assertEquals(2, jdbc.getCalls().get());
+        assertEquals(2, rest.getCalls().get());
+        assertEquals(0, getSavedCalls());
+    }
+
+    @Test
+    public void verifyPrincipalsAreNotShared() {
+        val dao = getMergingAttributeRepository();
+        try (val context = AttributeRepositoryResolutionContext.open()) {
+            fetch(dao, "UsernamePasswordCredential");
+            PrincipalAttributeRepositoryFetcher.builder()
+                .attributeRepository(dao)
+                .principalId("other")
+                .build()
+                .retrieve();
+            assertEquals(0, context.getSavedCalls());
+        } finally {
+            dao.destroy();
+        }
+        assertEquals(2, ldap.getCalls().get());
+    }
+
+    @Test
+    public void verifyDifferentQueriesAreNotShared() {
+        val dao = getMergingAttributeRepository();
+        try (val context = AttributeRepositoryResolutionContext.open()) {
+            fetch(dao, "UsernamePasswordCredential");
+            fetch(dao, "Service1");
+            assertEquals(0, context.getSavedCalls());
+        } finally {
+            dao.destroy();
+        }
+        assertEquals(2, ldap.getCalls().get());
+        assertEquals(2, jdbc.getCalls().get());
+        assertEquals(2, rest.getCalls().get());
+        assertEquals(0, getSavedCalls());
+    }
+
+    @Test
+    public void verifyFailuresAreNotShared() {
+        val dao = new ResolutionContextCascadingPersonAttributeDao();
+        dao.setPersonAttributeDaos(List.of(ldap, jdbc));
+        jdbc.getFailures().set(1);
+        try (val context = AttributeRepositoryResolutionContext.open()) {
+            assertFalse(fetch(dao, "UsernamePasswordCredential").containsKey("department"));
+            assertTrue(fetch(dao, "UsernamePasswordCredential").containsKey("department"));
+            assertEquals(1, context.getSavedCalls());
+        }
+        assertEquals(2, jdbc.getCalls().get());
+        assertEquals(1, ldap.getCalls().get());
+    }
+
+    @Test
+    public void verifyCascade() {
+        val dao = new ResolutionContextCascadingPersonAttributeDao();
+        dao.setPersonAttributeDaos(List.of(ldap, jdbc));
+        dao.setMeterRegistry(meterRegistry);
+        try (val context = AttributeRepositoryResolutionContext.open()) {
+            fetch(dao, "UsernamePasswordCredential");
+            fetch(dao, "UsernamePasswordCredential");
+            assertEquals(2, context.getSavedCalls());
+        }
+        assertEquals(1, ldap.getCalls().get());
+        assertEquals(1, jdbc.getCalls().get());
+    }
+
+    @Test
+    public void verifyNestedContexts() {
+        try (val request = AttributeRepositoryResolutionContext.open()) {
+            try (val authentication = AttributeRepositoryResolutionContext.open()) {
+                assertSame(request, authentication);
+            }
+            assertSame(request, AttributeRepositoryResolutionContext.current().orElseThrow());
+        }
+    }
+
+    @Getter
+    private static class CountingAttributeRepository extends StubPersonAttributeDao {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        CountingAttributeRepository(final String id, final String attribute, final String value) {
+            super(Map.of(attribute, CollectionUtils.wrapList(value)));
+            setId(id);
+        }
+
+        @Override
+        public Set<IPersonAttributes> getPeopleWithMultivaluedAttributes(final Map<String, List<Object>> query,
+                                                                         final IPersonAttributeDaoFilter filter) {
+            calls.incrementAndGet();
+            if (failures.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                throw new IllegalStateException("Attribute repository " + getId()[0] + " is unavailable");
+            }
+            return super.getPeopleWithMultivaluedAttributes(query, filter);
+        }
+    }
+}
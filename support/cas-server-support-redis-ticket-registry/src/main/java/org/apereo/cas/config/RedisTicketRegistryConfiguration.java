@@ -90,6 +90,8 @@ public class RedisTicketRegistryConfiguration {
                     val redis = casProperties.getTicket().getRegistry().getRedis();
                     val r = new RedisTicketRegistry(ticketRedisTemplate, redis.getScanCount());
                     r.setCipherExecutor(CoreTicketUtils.newTicketRegistryCipherExecutor(redis.getCrypto(), "redis"));
+                    r.setLegacyKeyMigrationEnabled(redis.isLegacyKeyMigrationEnabled());
+                    r.setBatchSize(redis.getBatchSize());
                     return r;
                 })
                 .otherwise(DefaultTicketRegistry::new)
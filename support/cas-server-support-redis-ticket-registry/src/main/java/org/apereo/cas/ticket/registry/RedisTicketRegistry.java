@@ -2,16 +2,27 @@ package org.apereo.cas.ticket.registry;
 
 import org.apereo.cas.redis.core.CasRedisTemplate;
 import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.TicketGrantingTicket;
 import org.apereo.cas.util.LoggingUtils;
 
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Streams;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -19,6 +30,16 @@ import java.util.stream.Stream;
 
 /**
  * Key-value ticket registry implementation that stores tickets in redis keyed on the ticket ID.
+ * Tickets are stored under {@code CAS_TICKET:<ticket-id>} so that lookups and removals
+ * are direct {@code GET}/{@code DEL} operations. Ticket-granting tickets are additionally
+ * tracked in a per-principal set stored under {@code CAS_PRINCIPAL:<principal-id>},
+ * which allows session lookups without scanning the keyspace. The principal id is lower-cased
+ * in this key, so that sessions are matched regardless of case. Stale members of the set
+ * are pruned lazily when sessions for the principal are fetched.
+ * <p>
+ * Tickets stored by previous versions used the {@code CAS_TICKET:<ticket-id>:<principal-id>}
+ * layout. When {@link #legacyKeyMigrationEnabled} is turned on, such keys are located
+ * via {@code SCAN} on a lookup miss, rewritten into the new layout and then removed.
  *
  * @author serv
  * @since 5.1.0
@@ -28,10 +49,27 @@ import java.util.stream.Stream;
 public class RedisTicketRegistry extends AbstractTicketRegistry {
     private static final String CAS_TICKET_PREFIX = "CAS_TICKET:";
 
+    private static final String CAS_PRINCIPAL_PREFIX = "CAS_PRINCIPAL:";
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
     private final CasRedisTemplate<String, Ticket> client;
 
     private final long scanCount;
 
+    /**
+     * Whether tickets stored using the legacy key layout
+     * should be looked up and migrated on demand.
+     */
+    @Setter
+    private boolean legacyKeyMigrationEnabled;
+
+    /**
+     * Number of tickets fetched or removed together in a single round trip.
+     */
+    @Setter
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
     /**
      * If not time out value is specified, expire the ticket immediately.
      *
@@ -48,7 +86,19 @@ public class RedisTicketRegistry extends AbstractTicketRegistry {
         return ttl;
     }
 
-    private static String getTicketRedisKey(final String ticketId, final String user) {
+    private static String getTicketRedisKey(final String ticketId) {
+        return CAS_TICKET_PREFIX + ticketId.trim();
+    }
+
+    private static String getPrincipalRedisKey(final String principalId) {
+        return CAS_PRINCIPAL_PREFIX + principalId.trim();
+    }
+
+    private String getPrincipalRedisKeyFor(final String principalId) {
+        return getPrincipalRedisKey(encodeTicketId(principalId.trim().toLowerCase(Locale.ENGLISH)));
+    }
+
+    private static String getLegacyTicketRedisKey(final String ticketId, final String user) {
         return CAS_TICKET_PREFIX
                + StringUtils.defaultIfBlank(ticketId.trim(), "*")
                + ':'
@@ -59,30 +109,53 @@ public class RedisTicketRegistry extends AbstractTicketRegistry {
         return CAS_TICKET_PREFIX + '*';
     }
 
+    private static String getPatternPrincipalRedisKey() {
+        return CAS_PRINCIPAL_PREFIX + '*';
+    }
+
     @Override
     @SuppressWarnings("java:S2583")
     public long deleteAll() {
         val redisKeys = getKeysStream().collect(Collectors.toSet());
         val size = Objects.requireNonNull(redisKeys).size();
         this.client.delete(redisKeys);
+        try (val principalKeys = getKeysStream(getPatternPrincipalRedisKey())) {
+            this.client.delete(principalKeys.collect(Collectors.toSet()));
+        }
         return size;
     }
 
     @Override
     public long deleteSingleTicket(final String ticketId) {
-        val redisKey = getTicketRedisKey(encodeTicketId(ticketId), StringUtils.EMPTY);
-        return getKeysStream(redisKey).mapToInt(id -> BooleanUtils.toBoolean(client.delete(id)) ? 1 : 0).sum();
+        val redisKey = getTicketRedisKey(encodeTicketId(ticketId));
+        var count = BooleanUtils.toBoolean(client.delete(redisKey)) ? 1 : 0;
+        if (count == 0 && legacyKeyMigrationEnabled) {
+            val legacyKey = getLegacyTicketRedisKey(encodeTicketId(ticketId), StringUtils.EMPTY);
+            try (val keys = getKeysStream(legacyKey)) {
+                count = keys.mapToInt(id -> BooleanUtils.toBoolean(client.delete(id)) ? 1 : 0).sum();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    protected long deleteSingleTickets(final Collection<String> ticketIds) {
+        if (legacyKeyMigrationEnabled) {
+            return super.deleteSingleTickets(ticketIds);
+        }
+        return Streams.stream(Iterators.partition(ticketIds.iterator(), Math.max(batchSize, 1)))
+            .map(ids -> ids.stream().map(id -> getTicketRedisKey(encodeTicketId(id))).collect(Collectors.toList()))
+            .map(keys -> client.delete(keys))
+            .filter(Objects::nonNull)
+            .mapToLong(Long::longValue)
+            .sum();
     }
 
     @Override
     public void addTicketInternal(final Ticket ticket) {
         try {
             LOGGER.debug("Adding ticket [{}]", ticket);
-            val userId = getPrincipalIdFrom(ticket);
-            val redisKey = getTicketRedisKey(encodeTicketId(ticket.getId()), encodeTicketId(userId));
-            val encodeTicket = encodeTicket(ticket);
-            val timeout = getTimeout(ticket);
-            this.client.boundValueOps(redisKey).set(encodeTicket, timeout, TimeUnit.SECONDS);
+            storeTicket(ticket);
         } catch (final Exception e) {
             LOGGER.error("Failed to add [{}]", ticket);
             LoggingUtils.error(LOGGER, e);
@@ -92,14 +165,12 @@ public class RedisTicketRegistry extends AbstractTicketRegistry {
     @Override
     public Ticket getTicket(final String ticketId, final Predicate<Ticket> predicate) {
         try {
-            val redisKey = getTicketRedisKey(encodeTicketId(ticketId), StringUtils.EMPTY);
-            return getKeysStream(redisKey)
-                .map(key -> client.boundValueOps(key).get())
-                .filter(Objects::nonNull)
+            val redisKey = getTicketRedisKey(encodeTicketId(ticketId));
+            val result = Optional.ofNullable(client.boundValueOps(redisKey).get())
+                .or(() -> findLegacyTicket(ticketId))
                 .map(this::decodeTicket)
-                .filter(predicate)
-                .findFirst()
-                .orElse(null);
+                .filter(predicate);
+            return result.orElse(null);
         } catch (final Exception e) {
             LOGGER.error("Failed fetching [{}]", ticketId);
             LoggingUtils.error(LOGGER, e);
@@ -116,15 +187,10 @@ public class RedisTicketRegistry extends AbstractTicketRegistry {
 
     @Override
     public Stream<? extends Ticket> stream() {
-        return getKeysStream()
-            .map(redisKey -> {
-                val ticket = this.client.boundValueOps(redisKey).get();
-                if (ticket == null) {
-                    this.client.delete(redisKey);
-                    return null;
-                }
-                return ticket;
-            })
+        val keys = getKeysStream();
+        return Streams.stream(Iterators.partition(keys.iterator(), Math.max(batchSize, 1)))
+            .onClose(keys::close)
+            .flatMap(redisKeys -> Objects.requireNonNull(client.opsForValue().multiGet(redisKeys)).stream())
             .filter(Objects::nonNull)
             .map(this::decodeTicket)
             .filter(Objects::nonNull);
@@ -134,15 +200,7 @@ public class RedisTicketRegistry extends AbstractTicketRegistry {
     public Ticket updateTicket(final Ticket ticket) {
         try {
             LOGGER.debug("Updating ticket [{}]", ticket);
-            val encodeTicket = encodeTicket(ticket);
-
-            val userId = getPrincipalIdFrom(ticket);
-            val redisKey = getTicketRedisKey(encodeTicketId(ticket.getId()), encodeTicketId(userId));
-            LOGGER.debug("Fetched redis key [{}] for ticket [{}]", redisKey, ticket);
-
-            val timeout = getTimeout(ticket);
-            client.boundValueOps(redisKey).set(encodeTicket, timeout, TimeUnit.SECONDS);
-            return encodeTicket;
+            return storeTicket(ticket);
         } catch (final Exception e) {
             LOGGER.error("Failed to update [{}]", ticket);
             LoggingUtils.error(LOGGER, e);
@@ -150,16 +208,126 @@ public class RedisTicketRegistry extends AbstractTicketRegistry {
         return null;
     }
 
+    @Override
+    public long countSessionsFor(final String principalId) {
+        return getSessionsFor(principalId).count();
+    }
+
     @Override
     public Stream<? extends Ticket> getSessionsFor(final String principalId) {
-        val redisKey = getTicketRedisKey(StringUtils.EMPTY, encodeTicketId(principalId));
-        return getKeysStream(redisKey)
+        val principalKey = getPrincipalRedisKeyFor(principalId);
+        val members = getPrincipalMembers(principalKey);
+        val sessions = new ArrayList<Ticket>(members.size());
+        if (!members.isEmpty()) {
+            val ticketKeys = new ArrayList<>(members);
+            val tickets = Objects.requireNonNull(client.opsForValue().multiGet(ticketKeys));
+            val staleKeys = new ArrayList<String>();
+            for (var i = 0; i < ticketKeys.size(); i++) {
+                val ticket = tickets.get(i);
+                if (ticket == null) {
+                    staleKeys.add(ticketKeys.get(i));
+                } else {
+                    sessions.add(ticket);
+                }
+            }
+            removePrincipalMembers(principalKey, staleKeys);
+        }
+        val legacySessions = legacyKeyMigrationEnabled
+            ? getKeysStream(getLegacyTicketRedisKey(StringUtils.EMPTY, encodeTicketId(principalId)))
             .map(key -> client.boundValueOps(key).get())
             .filter(Objects::nonNull)
+            : Stream.<Ticket>empty();
+        return Stream.concat(sessions.stream(), legacySessions)
             .map(this::decodeTicket)
             .filter(Objects::nonNull);
     }
 
+    private Ticket storeTicket(final Ticket ticket) throws Exception {
+        val encodeTicket = encodeTicket(ticket);
+        val redisKey = getTicketRedisKey(encodeTicketId(ticket.getId()));
+        val timeout = getTimeout(ticket);
+        LOGGER.debug("Storing ticket [{}] under redis key [{}]", ticket, redisKey);
+        client.boundValueOps(redisKey).set(encodeTicket, timeout, TimeUnit.SECONDS);
+        if (ticket instanceof TicketGrantingTicket) {
+            val principalId = getPrincipalIdFrom(ticket);
+            if (StringUtils.isNotBlank(principalId)) {
+                addPrincipalMember(getPrincipalRedisKeyFor(principalId), redisKey, timeout);
+            }
+        }
+        return encodeTicket;
+    }
+
+    /**
+     * Locate a ticket stored using the legacy key layout, and when found,
+     * store it again using the current layout and remove the legacy key.
+     *
+     * @param ticketId the ticket id
+     * @return the ticket, as stored
+     */
+    private Optional<Ticket> findLegacyTicket(final String ticketId) {
+        if (!legacyKeyMigrationEnabled) {
+            return Optional.empty();
+        }
+        val legacyKey = getLegacyTicketRedisKey(encodeTicketId(ticketId), StringUtils.EMPTY);
+        try (val keys = getKeysStream(legacyKey)) {
+            return keys
+                .map(key -> {
+                    val ticket = client.boundValueOps(key).get();
+                    if (ticket != null) {
+                        migrateLegacyTicket(key, ticket);
+                    }
+                    return ticket;
+                })
+                .filter(Objects::nonNull)
+                .findFirst();
+        }
+    }
+
+    private void migrateLegacyTicket(final String legacyKey, final Ticket storedTicket) {
+        try {
+            val ticket = decodeTicket(storedTicket);
+            if (ticket != null) {
+                LOGGER.debug("Migrating ticket [{}] from legacy redis key [{}]", ticket.getId(), legacyKey);
+                storeTicket(ticket);
+                client.delete(legacyKey);
+            }
+        } catch (final Exception e) {
+            LOGGER.warn("Failed to migrate legacy redis key [{}]", legacyKey);
+            LoggingUtils.warn(LOGGER, e);
+        }
+    }
+
+    private Set<String> getPrincipalMembers(final String principalKey) {
+        val members = client.execute((RedisCallback<Set<byte[]>>) connection ->
+            connection.sMembers(RedisSerializer.string().serialize(principalKey)));
+        return Optional.ofNullable(members)
+            .map(values -> values.stream()
+                .map(value -> RedisSerializer.string().deserialize(value))
+                .collect(Collectors.toSet()))
+            .orElseGet(Set::of);
+    }
+
+    private void addPrincipalMember(final String principalKey, final String ticketKey, final long timeout) {
+        client.execute((RedisCallback<Object>) connection -> {
+            val rawKey = RedisSerializer.string().serialize(principalKey);
+            connection.sAdd(rawKey, RedisSerializer.string().serialize(ticketKey));
+            val ttl = connection.ttl(rawKey);
+            if (ttl == null || ttl < timeout) {
+                connection.expire(rawKey, timeout);
+            }
+            return null;
+        });
+    }
+
+    private void removePrincipalMembers(final String principalKey, final List<String> ticketKeys) {
+        if (!ticketKeys.isEmpty()) {
+            LOGGER.trace("Removing stale session entries [{}] from [{}]", ticketKeys, principalKey);
+            client.execute((RedisCallback<Long>) connection -> connection.sRem(
+                RedisSerializer.string().serialize(principalKey),
+                ticketKeys.stream().map(key -> RedisSerializer.string().serialize(key)).toArray(byte[][]::new)));
+        }
+    }
+
     /**
      * Get a stream of all CAS-related keys from Redis DB.
      *
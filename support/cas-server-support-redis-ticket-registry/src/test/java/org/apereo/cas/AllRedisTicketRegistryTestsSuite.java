@@ -2,6 +2,7 @@ package org.apereo.cas;
 
 import org.apereo.cas.ticket.registry.RedisSentinelServerTicketRegistryTests;
 import org.apereo.cas.ticket.registry.RedisServerTicketRegistryTests;
+import org.apereo.cas.ticket.registry.RedisTicketRegistryBatchingTests;
 
 import org.junit.platform.suite.api.SelectClasses;
 import org.junit.platform.suite.api.Suite;
@@ -14,7 +15,8 @@ import org.junit.platform.suite.api.Suite;
  */
 @SelectClasses({
     RedisServerTicketRegistryTests.class,
-    RedisSentinelServerTicketRegistryTests.class
+    RedisSentinelServerTicketRegistryTests.class,
+    RedisTicketRegistryBatchingTests.class
 })
 @Suite
 public class AllRedisTicketRegistryTestsSuite {
@@ -9,11 +9,15 @@ import org.apereo.cas.util.crypto.CipherExecutor;
 import org.apereo.cas.util.junit.EnabledIfListeningOnPort;
 
 import lombok.val;
+import org.apache.commons.lang3.BooleanUtils;
 import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.function.Executable;
 import org.springframework.test.context.TestPropertySource;
 
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -52,6 +56,43 @@ public class RedisServerTicketRegistryTests extends BaseRedisSentinelTicketRegis
         assertEquals(0, getNewTicketRegistry().stream().count());
     }
 
+    @RepeatedTest(1)
+    public void verifyLegacyKeyMigration() throws Exception {
+        val principalId = UUID.randomUUID().toString();
+        val tgt = new TicketGrantingTicketImpl(ticketGrantingTicketId,
+            CoreAuthenticationTestUtils.getAuthentication(principalId), NeverExpiresExpirationPolicy.INSTANCE);
+        val legacyKey = "CAS_TICKET:" + ticketGrantingTicketId + ':' + principalId;
+        ticketRedisTemplate.boundValueOps(legacyKey).set(tgt, 60, TimeUnit.SECONDS);
+
+        val registry = new RedisTicketRegistry(ticketRedisTemplate, 0);
+        assertNull(registry.getTicket(ticketGrantingTicketId));
+        assertEquals(0, registry.countSessionsFor(principalId));
+
+        registry.setLegacyKeyMigrationEnabled(true);
+        assertEquals(1, registry.countSessionsFor(principalId));
+        assertNotNull(registry.getTicket(ticketGrantingTicketId, TicketGrantingTicket.class));
+        assertFalse(BooleanUtils.toBoolean(ticketRedisTemplate.hasKey(legacyKey)));
+        assertTrue(BooleanUtils.toBoolean(ticketRedisTemplate.hasKey("CAS_TICKET:" + ticketGrantingTicketId)));
+
+        registry.setLegacyKeyMigrationEnabled(false);
+        assertEquals(1, registry.countSessionsFor(principalId));
+        assertEquals(1, registry.deleteSingleTicket(ticketGrantingTicketId));
+        assertEquals(0, registry.countSessionsFor(principalId));
+    }
+
+    @RepeatedTest(1)
+    public void verifySessionsMatchedIgnoringCase() throws Exception {
+        val principalId = "CasUser-" + UUID.randomUUID();
+        val registry = new RedisTicketRegistry(ticketRedisTemplate, 0);
+        val tgt = new TicketGrantingTicketImpl(ticketGrantingTicketId,
+            CoreAuthenticationTestUtils.getAuthentication(principalId), NeverExpiresExpirationPolicy.INSTANCE);
+        registry.addTicket(tgt);
+        assertEquals(1, registry.countSessionsFor(principalId));
+        assertEquals(1, registry.countSessionsFor(principalId.toLowerCase()));
+        assertEquals(1, registry.getSessionsFor(principalId.toUpperCase()).count());
+        registry.deleteSingleTicket(ticketGrantingTicketId);
+    }
+
     @RepeatedTest(1)
     public void verifyFailure() throws Exception {
         val originalAuthn = CoreAuthenticationTestUtils.getAuthentication();
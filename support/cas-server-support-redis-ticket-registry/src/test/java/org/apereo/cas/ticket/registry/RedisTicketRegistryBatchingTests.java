@@ -0,0 +1,118 @@
+package org.apereo.cas.ticket.registry;
+
+import org.apereo.cas.authentication.CasSSLContext;
+import org.apereo.cas.configuration.model.support.redis.RedisTicketRegistryProperties;
+import org.apereo.cas.logout.LogoutManager;
+import org.apereo.cas.redis.core.CasRedisTemplate;
+import org.apereo.cas.redis.core.RedisObjectFactory;
+import org.apereo.cas.ticket.Ticket;
+import org.apereo.cas.ticket.TransientSessionTicket;
+import org.apereo.cas.ticket.TransientSessionTicketImpl;
+import org.apereo.cas.ticket.expiration.NeverExpiresExpirationPolicy;
+import org.apereo.cas.util.junit.EnabledIfListeningOnPort;
+import org.apereo.cas.util.lock.DefaultLockRepository;
+
+import lombok.val;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.integration.redis.util.RedisLockRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This is {@link RedisTicketRegistryBatchingTests}.
+ * Verifies that tickets are streamed and cleaned in batches, by the number of round trips,
+ * while the cleaner holds the lock of each ticket in a batch through a redis lock registry.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("Redis")
+@EnabledIfListeningOnPort(port = 6379)
+public class RedisTicketRegistryBatchingTests {
+    private static final int COUNT = 1_200;
+
+    private static final int BATCH_SIZE = 500;
+
+    private CasRedisTemplate<String, Ticket> template;
+
+    private RedisTicketRegistry ticketRegistry;
+
+    private RedisLockRegistry lockRegistry;
+
+    private static long getCommandCalls(final CasRedisTemplate<String, Ticket> template, final String command) {
+        val stats = template.execute((RedisCallback<Properties>) connection -> connection.serverCommands().info("commandstats"));
+        val value = Objects.requireNonNull(stats).getProperty("cmdstat_" + command, "calls=0");
+        return NumberUtils.toLong(value.substring(value.indexOf('=') + 1, value.contains(",") ? value.indexOf(',') : value.length()));
+    }
+
+    private static void resetCommandStats(final CasRedisTemplate<String, Ticket> template) {
+        template.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().resetConfigStats();
+            return null;
+        });
+    }
+
+    @BeforeEach
+    public void setup() {
+        val props = new RedisTicketRegistryProperties();
+        props.setHost("localhost");
+        props.setPort(6379);
+        val connectionFactory = RedisObjectFactory.newRedisConnectionFactory(props, true, CasSSLContext.disabled());
+        template = RedisObjectFactory.newRedisTemplate(connectionFactory);
+        template.initialize();
+        lockRegistry = new RedisLockRegistry(connectionFactory, "cas-" + getClass().getSimpleName());
+        ticketRegistry = new RedisTicketRegistry(template, 0);
+        ticketRegistry.setBatchSize(BATCH_SIZE);
+        ticketRegistry.deleteAll();
+
+        val tickets = new HashMap<String, Ticket>();
+        for (var i = 0; i < COUNT; i++) {
+            val ticket = new TransientSessionTicketImpl(TransientSessionTicket.PREFIX + '-' + UUID.randomUUID(),
+                NeverExpiresExpirationPolicy.INSTANCE, null, Map.of());
+            ticket.markTicketExpired();
+            tickets.put("CAS_TICKET:" + ticket.getId(), ticket);
+            if (tickets.size() == BATCH_SIZE) {
+                template.opsForValue().multiSet(tickets);
+                tickets.clear();
+            }
+        }
+        template.opsForValue().multiSet(tickets);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ticketRegistry.deleteAll();
+        lockRegistry.destroy();
+    }
+
+    @Test
+    public void verifyStreamAndCleanInBatches() {
+        resetCommandStats(template);
+        try (val tickets = ticketRegistry.stream()) {
+            assertEquals(COUNT, tickets.count());
+        }
+        assertTrue(getCommandCalls(template, "mget") <= COUNT / BATCH_SIZE + 1);
+        assertEquals(0, getCommandCalls(template, "get"));
+
+        resetCommandStats(template);
+        val cleaner = new DefaultTicketRegistryCleaner(new DefaultLockRepository(lockRegistry), mock(LogoutManager.class), ticketRegistry);
+        cleaner.setBatchSize(BATCH_SIZE);
+        assertEquals(COUNT, cleaner.clean());
+        assertTrue(getCommandCalls(template, "del") <= COUNT / BATCH_SIZE + 1);
+        try (val tickets = ticketRegistry.stream()) {
+            assertEquals(0, tickets.count());
+        }
+    }
+}
@@ -7,14 +7,14 @@ import org.apereo.cas.support.saml.SamlException;
 import org.apereo.cas.support.saml.services.SamlRegisteredService;
 import org.apereo.cas.util.function.FunctionUtils;
 
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.google.common.collect.Iterables;
 import lombok.Builder;
 import lombok.Getter;
-import lombok.Synchronized;
 import lombok.experimental.SuperBuilder;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
@@ -28,11 +28,21 @@ import org.opensaml.saml.saml2.metadata.SPSSODescriptor;
 
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * An adaptation of metadata resolver which handles the resolution of metadata resources
  * inside a cache. It basically is a fancy wrapper around a cache, and constructs the cache
  * semantics before processing the resolution of metadata for a SAML service.
+ * <p>
+ * Metadata resolvers are loaded per cache key without a global lock: loads for different keys
+ * proceed in parallel, and concurrent callers for the same key wait on the one load that is in progress.
+ * Resolvers that are still loading are skipped when cached aggregates are searched for an entity.
+ * If a refresh interval is configured, cached resolvers are reloaded in the background once the interval
+ * has passed, and the last resolver that loaded successfully is served until the reload completes.
  *
  * @author Misagh Moayyed
  * @since 5.0.0
@@ -42,7 +52,7 @@ public class SamlRegisteredServiceDefaultCachingMetadataResolver implements Saml
 
     private final CacheLoader<SamlRegisteredServiceCacheKey, MetadataResolver> chainingMetadataResolverCacheLoader;
 
-    private final LoadingCache<SamlRegisteredServiceCacheKey, MetadataResolver> cache;
+    private final AsyncLoadingCache<SamlRegisteredServiceCacheKey, MetadataResolver> cache;
 
     @Getter
     private final OpenSamlConfigBean openSamlConfigBean;
@@ -51,16 +61,32 @@ public class SamlRegisteredServiceDefaultCachingMetadataResolver implements Saml
         final CasConfigurationProperties casProperties,
         final CacheLoader<SamlRegisteredServiceCacheKey, MetadataResolver> loader,
         final OpenSamlConfigBean openSamlConfigBean) {
+        this(casProperties, loader, openSamlConfigBean, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    SamlRegisteredServiceDefaultCachingMetadataResolver(
+        final CasConfigurationProperties casProperties,
+        final CacheLoader<SamlRegisteredServiceCacheKey, MetadataResolver> loader,
+        final OpenSamlConfigBean openSamlConfigBean,
+        final Ticker ticker,
+        final Executor executor) {
         this.openSamlConfigBean = openSamlConfigBean;
         this.chainingMetadataResolverCacheLoader = loader;
 
         val core = casProperties.getAuthn().getSamlIdp().getMetadata().getCore();
         val metadataCacheExpiration = Beans.newDuration(core.getCacheExpiration());
-        this.cache = Caffeine.newBuilder()
+        val builder = Caffeine.newBuilder()
             .maximumSize(core.getCacheMaximumSize())
+            .ticker(ticker)
+            .executor(executor)
             .recordStats()
-            .expireAfter(new SamlRegisteredServiceMetadataExpirationPolicy(metadataCacheExpiration))
-            .build(this.chainingMetadataResolverCacheLoader);
+            .expireAfter(new SamlRegisteredServiceMetadataExpirationPolicy(metadataCacheExpiration));
+        val refreshInterval = Beans.newDuration(core.getCacheRefreshInterval());
+        if (!refreshInterval.isZero() && !refreshInterval.isNegative()) {
+            LOGGER.debug("Cached metadata resolvers will be refreshed in the background every [{}]", refreshInterval);
+            builder.refreshAfterWrite(refreshInterval);
+        }
+        this.cache = builder.buildAsync(this.chainingMetadataResolverCacheLoader);
     }
 
     private static long countResolvableEntityDescriptors(final MetadataResolutionResult result) {
@@ -71,7 +97,6 @@ public class SamlRegisteredServiceDefaultCachingMetadataResolver implements Saml
     }
 
     @Override
-    @Synchronized
     public MetadataResolver resolve(final SamlRegisteredService service, final CriteriaSet criteriaSet) {
         LOGGER.debug("Resolving metadata for [{}] at [{}]", service.getName(), service.getMetadataLocation());
         val cacheKey = new SamlRegisteredServiceCacheKey(service, criteriaSet);
@@ -99,14 +124,14 @@ public class SamlRegisteredServiceDefaultCachingMetadataResolver implements Saml
     @Override
     public void invalidate() {
         LOGGER.trace("Invalidating cache, removing all metadata resolvers");
-        cache.invalidateAll();
+        cache.synchronous().invalidateAll();
     }
 
     @Override
     public void invalidate(final SamlRegisteredService service, final CriteriaSet criteriaSet) {
         LOGGER.trace("Invalidating cache for [{}].", service.getName());
         val cacheKey = new SamlRegisteredServiceCacheKey(service, criteriaSet);
-        cache.invalidate(cacheKey);
+        cache.synchronous().invalidate(cacheKey);
     }
 
     protected MetadataResolutionResult isMetadataResolverAcceptable(
@@ -135,15 +160,22 @@ public class SamlRegisteredServiceDefaultCachingMetadataResolver implements Saml
 
         val result = cache
             .asMap()
-            .values()
+            .entrySet()
             .stream()
-            .map(Unchecked.function(r -> {
+            .filter(entry -> entry.getValue().isDone() && !entry.getValue().isCompletedExceptionally())
+            .map(Unchecked.function(entry -> {
+                val r = entry.getValue().join();
                 val entity = r.resolveSingle(criteriaSet);
                 return Optional.ofNullable(entity)
-                    .map(e -> MetadataResolverCacheQueryResult.builder()
-                        .metadataResolver(r)
-                        .entityDescriptor(Optional.of(e))
-                        .build());
+                    .map(e -> {
+                        LOGGER.trace("Located entity [{}] in cached metadata resolver [{}]", e.getEntityID(), r.getId());
+                        // Reading the entry through the map, which is not recorded as a hit, lets the cache schedule a refresh when due
+                        cache.asMap().get(entry.getKey());
+                        return MetadataResolverCacheQueryResult.builder()
+                            .metadataResolver(r)
+                            .entityDescriptor(Optional.of(e))
+                            .build();
+                    });
             }))
             .filter(Optional::isPresent)
             .flatMap(Optional::stream)
@@ -153,7 +185,7 @@ public class SamlRegisteredServiceDefaultCachingMetadataResolver implements Saml
             return result.get();
         }
         LOGGER.debug("Loading metadata resolver from the cache using [{}]", cacheKey.getCacheKey());
-        val resolver = Objects.requireNonNull(cache.get(cacheKey));
+        val resolver = Objects.requireNonNull(loadMetadataResolver(cacheKey));
         LOGGER.debug("Loaded and cached SAML metadata [{}] from [{}]",
             resolver.getId(), service.getMetadataLocation());
         return MetadataResolverCacheQueryResult.builder()
@@ -162,6 +194,34 @@ public class SamlRegisteredServiceDefaultCachingMetadataResolver implements Saml
             .build();
     }
 
+    /**
+     * Load the metadata resolver for the cache key. The first caller for a key that is not cached
+     * runs the load on its own thread, while any other caller for the same key waits for that load to finish.
+     * Since the load does not run inside the cache, it does not hold up callers that are after other keys.
+     *
+     * @param cacheKey the cache key
+     * @return the metadata resolver
+     */
+    protected MetadataResolver loadMetadataResolver(final SamlRegisteredServiceCacheKey cacheKey) {
+        val loading = new CompletableFuture<MetadataResolver>();
+        val future = cache.get(cacheKey, (key, executor) -> loading);
+        if (future == loading) {
+            try {
+                loading.complete(chainingMetadataResolverCacheLoader.load(cacheKey));
+            } catch (final Throwable e) {
+                loading.completeExceptionally(e);
+            }
+        }
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     @SuperBuilder
     @Getter
     @SuppressWarnings("UnusedMethod")
@@ -183,7 +243,7 @@ public class SamlRegisteredServiceDefaultCachingMetadataResolver implements Saml
     Optional<MetadataResolver> resolveIfPresent(final SamlRegisteredService service,
                                                 final CriteriaSet criteriaSet) {
         val cacheKey = new SamlRegisteredServiceCacheKey(service, criteriaSet);
-        return Optional.ofNullable(this.cache.getIfPresent(cacheKey));
+        return Optional.ofNullable(this.cache.synchronous().getIfPresent(cacheKey));
     }
 
     /**
@@ -192,7 +252,7 @@ public class SamlRegisteredServiceDefaultCachingMetadataResolver implements Saml
      * @return the statistics
      */
     CacheStats getCacheStatistics() {
-        return this.cache.stats();
+        return this.cache.synchronous().stats();
     }
 
     @SuperBuilder
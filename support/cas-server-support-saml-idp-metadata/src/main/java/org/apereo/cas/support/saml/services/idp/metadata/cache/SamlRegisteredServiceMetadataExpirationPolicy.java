@@ -70,8 +70,8 @@ public class SamlRegisteredServiceMetadataExpirationPolicy implements Expiry<Sam
     public long expireAfterUpdate(@NonNull final SamlRegisteredServiceCacheKey cacheKey,
                                   @NonNull final MetadataResolver chainingMetadataResolver,
                                   final long currentTime, final long currentDuration) {
-        LOGGER.trace("Cache expiration duration after updates is set to [{}] nanoseconds", currentDuration);
-        return currentDuration;
+        LOGGER.trace("Metadata resolver for [{}] is refreshed; calculating its cache expiration duration again", cacheKey.getId());
+        return expireAfterCreate(cacheKey, chainingMetadataResolver, currentTime);
     }
 
     @Override
@@ -9,7 +9,6 @@ import org.apereo.cas.util.spring.SpringExpressionLanguageValueResolver;
 
 import com.github.benmanes.caffeine.cache.CacheLoader;
 import lombok.RequiredArgsConstructor;
-import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.jooq.lambda.Unchecked;
@@ -24,6 +23,8 @@ import java.util.Objects;
  * to keep track of metadata resources and resolvers. The cache loader here supports loading
  * metadata resources from SAML services, supports dynamic metadata queries and is able
  * to run various validation filters on the metadata before finally caching the resolver.
+ * Each load builds its own resolver chain, so loads for different cache keys may run concurrently;
+ * resolvers that keep a backup of fetched metadata serialize loads that share the same backup file.
  *
  * @author Misagh Moayyed
  * @since 5.0.0
@@ -45,7 +46,6 @@ public class SamlRegisteredServiceMetadataResolverCacheLoader implements CacheLo
     private final SamlRegisteredServiceMetadataResolutionPlan metadataResolutionPlan;
 
     @Override
-    @Synchronized
     public ChainingMetadataResolver load(final SamlRegisteredServiceCacheKey cacheKey) {
         val metadataResolver = new ChainingMetadataResolver();
 
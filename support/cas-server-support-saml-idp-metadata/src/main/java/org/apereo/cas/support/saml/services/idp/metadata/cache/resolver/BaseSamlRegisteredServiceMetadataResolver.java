@@ -51,7 +51,13 @@ public abstract class BaseSamlRegisteredServiceMetadataResolver implements SamlR
      */
     protected final OpenSamlConfigBean configBean;
 
-    private static void buildEntityRoleFilterIfNeeded(final SamlRegisteredService service, final List<MetadataFilter> metadataFilterList) {
+    /**
+     * Build entity role filter if needed.
+     *
+     * @param service            the service
+     * @param metadataFilterList the metadata filter list
+     */
+    protected static void buildEntityRoleFilterIfNeeded(final SamlRegisteredService service, final List<MetadataFilter> metadataFilterList) {
         if (StringUtils.isNotBlank(service.getMetadataCriteriaRoles())) {
             val roles = new ArrayList<QName>();
             val rolesSet = org.springframework.util.StringUtils.commaDelimitedListToSet(service.getMetadataCriteriaRoles());
@@ -74,7 +80,13 @@ public abstract class BaseSamlRegisteredServiceMetadataResolver implements SamlR
         }
     }
 
-    private static void buildPredicateFilterIfNeeded(final SamlRegisteredService service, final List<MetadataFilter> metadataFilterList) {
+    /**
+     * Build predicate filter if needed.
+     *
+     * @param service            the service
+     * @param metadataFilterList the metadata filter list
+     */
+    protected static void buildPredicateFilterIfNeeded(final SamlRegisteredService service, final List<MetadataFilter> metadataFilterList) {
         if (StringUtils.isNotBlank(service.getMetadataCriteriaDirection())
             && StringUtils.isNotBlank(service.getMetadataCriteriaPattern())
             && RegexUtils.isValidRegex(service.getMetadataCriteriaPattern())) {
@@ -8,6 +8,8 @@ import org.apereo.cas.support.saml.OpenSamlConfigBean;
 import org.apereo.cas.support.saml.SamlException;
 import org.apereo.cas.support.saml.SamlUtils;
 import org.apereo.cas.support.saml.services.SamlRegisteredService;
+import org.apereo.cas.support.saml.services.idp.metadata.index.EntityDescriptorIndex;
+import org.apereo.cas.support.saml.services.idp.metadata.index.IndexedEntityDescriptorMetadataResolver;
 import org.apereo.cas.util.CollectionUtils;
 import org.apereo.cas.util.DigestUtils;
 import org.apereo.cas.util.HttpRequestUtils;
@@ -17,10 +19,13 @@ import org.apereo.cas.util.ResourceUtils;
 import org.apereo.cas.util.function.FunctionUtils;
 import org.apereo.cas.util.spring.SpringExpressionLanguageValueResolver;
 
+import com.google.common.util.concurrent.Striped;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import net.shibboleth.utilities.java.support.resolver.CriteriaSet;
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOCase;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.filefilter.AndFileFilter;
@@ -33,19 +38,30 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpResponse;
 import org.apache.http.util.EntityUtils;
 import org.jooq.lambda.Unchecked;
+import org.opensaml.core.xml.XMLObject;
+import org.opensaml.core.xml.util.XMLObjectSupport;
 import org.opensaml.saml.metadata.resolver.MetadataResolver;
+import org.opensaml.saml.metadata.resolver.filter.MetadataFilter;
 import org.opensaml.saml.metadata.resolver.impl.AbstractMetadataResolver;
+import org.opensaml.saml.saml2.metadata.EntityDescriptor;
 import org.springframework.core.io.AbstractResource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.w3c.dom.Element;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
 
 /**
  * This is {@link UrlResourceMetadataResolver}.
@@ -59,6 +75,11 @@ public class UrlResourceMetadataResolver extends BaseSamlRegisteredServiceMetada
 
     private static final String DIRNAME_METADATA_BACKUPS = "metadata-backups";
 
+    /**
+     * Metadata for services that share a backup file is fetched, written and parsed one service at a time.
+     */
+    private static final Striped<Lock> BACKUP_FILE_LOCKS = Striped.lock(64);
+
     private final File metadataBackupDirectory;
 
     public UrlResourceMetadataResolver(final SamlIdPProperties samlIdPProperties,
@@ -82,6 +103,7 @@ public class UrlResourceMetadataResolver extends BaseSamlRegisteredServiceMetada
 
     @Override
     public Collection<? extends MetadataResolver> resolve(final SamlRegisteredService service, final CriteriaSet criteriaSet) {
+        Lock backupFileLock = null;
         HttpResponse response = null;
         try {
             RegisteredServiceAccessStrategyUtils.ensureServiceAccessIsAllowed(service);
@@ -91,16 +113,21 @@ public class UrlResourceMetadataResolver extends BaseSamlRegisteredServiceMetada
             val metadataResource = new UrlResource(metadataLocation);
 
             val backupFile = getMetadataBackupFile(metadataResource, service);
+            val canonicalPath = backupFile.getCanonicalPath();
+            backupFileLock = BACKUP_FILE_LOCKS.get(canonicalPath);
+            backupFileLock.lock();
             if (backupFile.exists() && samlIdPProperties.getMetadata().getHttp().isForceMetadataRefresh()) {
                 cleanUpExpiredBackupMetadataFilesFor(metadataResource, service);
             }
-            val canonicalPath = backupFile.getCanonicalPath();
             LOGGER.debug("Metadata backup file will be at [{}]", canonicalPath);
             FileUtils.forceMkdirParent(backupFile);
 
             response = fetchMetadata(service, metadataLocation, criteriaSet, backupFile);
             val status = HttpStatus.valueOf(response.getStatusLine().getStatusCode());
             if (shouldHttpResponseStatusBeProcessed(status)) {
+                if (samlIdPProperties.getMetadata().getHttp().isIndexEntityDescriptors()) {
+                    return CollectionUtils.wrap(getIndexedMetadataResolverFromResponse(response, backupFile, service));
+                }
                 val metadataProvider = getMetadataResolverFromResponse(response, backupFile);
                 configureAndInitializeSingleMetadataResolver(metadataProvider, service);
                 return CollectionUtils.wrap(metadataProvider);
@@ -112,6 +139,9 @@ public class UrlResourceMetadataResolver extends BaseSamlRegisteredServiceMetada
             LoggingUtils.error(LOGGER, e);
         } finally {
             HttpUtils.close(response);
+            if (backupFileLock != null) {
+                backupFileLock.unlock();
+            }
         }
         return new ArrayList<>(0);
     }
@@ -171,6 +201,106 @@ public class UrlResourceMetadataResolver extends BaseSamlRegisteredServiceMetada
         return new InMemoryResourceMetadataResolver(backupFile, configBean);
     }
 
+    /**
+     * Gets a metadata resolver from the response that indexes entity descriptors by entity id.
+     * The response is streamed to the backup file, and the index is built next to it, unless an index for the same
+     * metadata and validation settings already exists. Signature and validity filters are applied
+     * to the complete metadata once, and the index is then built from the verified document; remaining filters are applied to each
+     * entity descriptor when it is loaded from the index.
+     *
+     * @param response   the response
+     * @param backupFile the backup file
+     * @param service    the service
+     * @return the metadata resolver from response
+     * @throws Exception the exception
+     */
+    protected AbstractMetadataResolver getIndexedMetadataResolverFromResponse(final HttpResponse response,
+                                                                              final File backupFile,
+                                                                              final SamlRegisteredService service) throws Exception {
+        val entity = response.getEntity();
+        try (val input = entity.getContent()) {
+            LOGGER.trace("Writing metadata to file at [{}]", backupFile);
+            Files.copy(input, backupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        EntityUtils.consume(entity);
+
+        val http = samlIdPProperties.getMetadata().getHttp();
+        val indexName = FilenameUtils.getBaseName(backupFile.getName());
+        val verificationContext = String.join("|", getMetadataSignatureFingerprint(service),
+            String.valueOf(service.getMetadataMaxValidity()), String.valueOf(service.isRequireSignedRoot()));
+        val fingerprint = EntityDescriptorIndex.fingerprint(backupFile, verificationContext);
+        val index = EntityDescriptorIndex.load(metadataBackupDirectory, indexName, fingerprint, http.isMemoryMapIndexedEntityDescriptors())
+            .orElseGet(Unchecked.supplier(() -> {
+                val verified = verifyMetadata(backupFile, service);
+                if (verified.isPresent()) {
+                    return EntityDescriptorIndex.build(verified.get(), metadataBackupDirectory, indexName,
+                        fingerprint, http.isMemoryMapIndexedEntityDescriptors());
+                }
+                return EntityDescriptorIndex.build(backupFile, metadataBackupDirectory, indexName,
+                    fingerprint, http.isMemoryMapIndexedEntityDescriptors());
+            }));
+
+        val metadataProvider = new IndexedEntityDescriptorMetadataResolver(index, configBean, http.getIndexedEntityDescriptorsCacheSize());
+        val md = samlIdPProperties.getMetadata();
+        metadataProvider.setFailFastInitialization(md.getCore().isFailFast());
+        metadataProvider.setRequireValidMetadata(md.getCore().isRequireValidMetadata());
+        metadataProvider.setId(metadataProvider.getClass().getCanonicalName());
+        val metadataFilterList = new ArrayList<MetadataFilter>();
+        buildEntityRoleFilterIfNeeded(service, metadataFilterList);
+        buildPredicateFilterIfNeeded(service, metadataFilterList);
+        if (!metadataFilterList.isEmpty()) {
+            addMetadataFiltersToMetadataResolver(metadataProvider, metadataFilterList);
+        }
+        metadataProvider.initialize();
+        LOGGER.info("Initialized metadata resolver for [{}] indexed entities from [{}]", index.size(), service.getMetadataLocation());
+        return metadataProvider;
+    }
+
+    /**
+     * Verify the signature and validity of the complete metadata document, if the service asks for it.
+     * The verified document is returned so that it can be indexed as it was verified, rather than parsed again.
+     *
+     * @param metadataFile the metadata file
+     * @param service      the service
+     * @return the root element of the verified metadata, or empty if the metadata does not require verification
+     * @throws Exception the exception
+     */
+    protected Optional<Element> verifyMetadata(final File metadataFile, final SamlRegisteredService service) throws Exception {
+        val metadataFilterList = new ArrayList<MetadataFilter>();
+        buildRequiredValidUntilFilterIfNeeded(service, metadataFilterList);
+        buildSignatureValidationFilterIfNeeded(service, metadataFilterList);
+        if (metadataFilterList.isEmpty()) {
+            LOGGER.debug("Metadata from [{}] does not require verification", service.getMetadataLocation());
+            return Optional.empty();
+        }
+        LOGGER.debug("Verifying metadata from [{}] before it is indexed", service.getMetadataLocation());
+        val verifier = new MetadataVerifier(configBean);
+        addMetadataFiltersToMetadataResolver(verifier, metadataFilterList);
+        try (val input = new BufferedInputStream(Files.newInputStream(metadataFile.toPath()))) {
+            val metadata = verifier.verify(input);
+            return Optional.of(metadata.getDOM() == null ? XMLObjectSupport.marshall(metadata) : metadata.getDOM());
+        }
+    }
+
+    /**
+     * Gets a fingerprint of the credential that metadata signatures are verified with, if any,
+     * so that metadata indexed after verification with one credential is not reused once the credential changes.
+     *
+     * @param service the service
+     * @return the fingerprint
+     * @throws Exception the exception
+     */
+    protected String getMetadataSignatureFingerprint(final SamlRegisteredService service) throws Exception {
+        if (StringUtils.isBlank(service.getMetadataSignatureLocation())) {
+            return StringUtils.EMPTY;
+        }
+        val location = SpringExpressionLanguageValueResolver.getInstance().resolve(service.getMetadataSignatureLocation());
+        val resource = ResourceUtils.getResourceFrom(location);
+        try (val input = resource.getInputStream()) {
+            return DigestUtils.digest(MessageDigestAlgorithms.SHA_256, IOUtils.toByteArray(input));
+        }
+    }
+
     /**
      * Fetch metadata http response.
      *
@@ -232,6 +362,8 @@ public class UrlResourceMetadataResolver extends BaseSamlRegisteredServiceMetada
      * The metadata source may be an aggregate, representing more than on entity id
      * inside the single registered service definition. Therefor, using the service's
      * name or id may not be appropriate choice as compounds in the metadata file name.
+     * Metadata fetched dynamically is linked to the service and to the location that was queried,
+     * which carries the entity id, so that entities queried for the same service do not share a file.
      *
      * @param metadataResource the metadata resource
      * @param service          the service
@@ -240,7 +372,7 @@ public class UrlResourceMetadataResolver extends BaseSamlRegisteredServiceMetada
     protected String getBackupMetadataFilenamePrefix(final AbstractResource metadataResource, final SamlRegisteredService service) {
         val metadataLocation = SpringExpressionLanguageValueResolver.getInstance().resolve(service.getMetadataLocation());
         val fileName = SamlUtils.isDynamicMetadataQueryConfigured(metadataLocation)
-            ? service.getServiceId()
+            ? service.getServiceId() + '|' + FunctionUtils.doUnchecked(() -> metadataResource.getURL().toExternalForm())
             : metadataLocation;
 
         val sha = DigestUtils.sha(fileName);
@@ -257,4 +389,27 @@ public class UrlResourceMetadataResolver extends BaseSamlRegisteredServiceMetada
                 CanWriteFileFilter.CAN_WRITE, CanReadFileFilter.CAN_READ)), TrueFileFilter.INSTANCE);
         backups.forEach(Unchecked.consumer(FileUtils::forceDelete));
     }
+
+    /**
+     * Unmarshals metadata and applies the verification filters to it, keeping the parsed document.
+     */
+    private static class MetadataVerifier extends AbstractMetadataResolver {
+        MetadataVerifier(final OpenSamlConfigBean configBean) {
+            setParserPool(configBean.getParserPool());
+            setId(getClass().getCanonicalName());
+        }
+
+        @Override
+        public Iterable<EntityDescriptor> resolve(final CriteriaSet criteria) {
+            return List.of();
+        }
+
+        XMLObject verify(final InputStream input) throws Exception {
+            val metadata = filterMetadata(unmarshallMetadata(input));
+            if (metadata == null) {
+                throw new SamlException("Metadata was rejected by its verification filters");
+            }
+            return metadata;
+        }
+    }
 }
@@ -0,0 +1,516 @@
+package org.apereo.cas.support.saml.services.idp.metadata.index;
+
+import org.apereo.cas.support.saml.SamlException;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import net.shibboleth.utilities.java.support.xml.SerializeSupport;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.w3c.dom.Element;
+
+import javax.xml.XMLConstants;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.events.StartElement;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * This is {@link EntityDescriptorIndex} that keeps the entity descriptors of a metadata aggregate
+ * in a compact store on disk, indexed by entity id. The aggregate is read once in a streaming pass,
+ * and each entity descriptor is written to the store as a standalone XML document that carries all
+ * namespace declarations it inherits from the aggregate. Only the index, which maps each entity id
+ * to the location of its descriptor in the store, is kept in memory; descriptors are read from the
+ * store, optionally memory-mapped, when they are asked for.
+ * <p>
+ * The store is opened, or mapped, once when the index is created and stays open until the index is closed,
+ * so an index keeps serving its descriptors even after a newer index for the same aggregate has replaced
+ * and removed its store.
+ * <p>
+ * Only entity descriptors that make up the aggregate are indexed, that is the document element itself or
+ * the direct children of the document element or of nested entities descriptors; entity descriptors that
+ * appear anywhere else, such as inside extensions, are ignored. An aggregate that carries more than one
+ * entity descriptor for the same entity id is rejected.
+ * <p>
+ * The index is tied to a fingerprint of the aggregate, so an index that was built for the same
+ * aggregate can be loaded again without reading the aggregate.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+public class EntityDescriptorIndex implements Closeable {
+    /**
+     * Extension of the index file.
+     */
+    public static final String INDEX_FILE_EXTENSION = ".index";
+
+    /**
+     * Extension of the file that holds the entity descriptors.
+     */
+    public static final String STORE_FILE_EXTENSION = ".entities";
+
+    private static final String SAML_METADATA_NAMESPACE = "urn:oasis:names:tc:SAML:2.0:metadata";
+
+    private static final QName ENTITY_DESCRIPTOR = new QName(SAML_METADATA_NAMESPACE, "EntityDescriptor");
+
+    private static final QName ENTITIES_DESCRIPTOR = new QName(SAML_METADATA_NAMESPACE, "EntitiesDescriptor");
+
+    private static final QName ENTITY_ID = new QName("entityID");
+
+    private static final QName VALID_UNTIL = new QName("validUntil");
+
+    private static final int MAGIC = 0xCA5E1D01;
+
+    private static final int VERSION = 2;
+
+    private final File store;
+
+    private final Map<String, Integer> entries;
+
+    private final long[] offsets;
+
+    private final int[] lengths;
+
+    private final ByteBuffer mappedStore;
+
+    private final FileChannel channel;
+
+    /**
+     * Fingerprint of the aggregate this index was built for.
+     */
+    @Getter
+    private final String fingerprint;
+
+    /**
+     * The earliest validity of the groups of entities in the aggregate, if any.
+     * Entity descriptors that are read from the store no longer carry the validity of their groups.
+     */
+    @Getter
+    private final Optional<Instant> validUntil;
+
+    private EntityDescriptorIndex(final File store, final String fingerprint, final Instant validUntil,
+                                  final Map<String, Integer> entries, final long[] offsets,
+                                  final int[] lengths, final boolean memoryMapped) throws IOException {
+        this.store = store;
+        this.fingerprint = fingerprint;
+        this.validUntil = Optional.ofNullable(validUntil);
+        this.entries = entries;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.mappedStore = memoryMapped ? map(store) : null;
+        this.channel = mappedStore == null ? FileChannel.open(store.toPath(), StandardOpenOption.READ) : null;
+    }
+
+    /**
+     * Calculate the fingerprint of an aggregate. The context should describe anything
+     * besides the aggregate itself that the validity of the index depends on.
+     *
+     * @param source  the aggregate
+     * @param context the context
+     * @return the fingerprint
+     * @throws IOException the io exception
+     */
+    public static String fingerprint(final File source, final String context) throws IOException {
+        val digest = DigestUtils.getDigest(MessageDigestAlgorithms.SHA_256);
+        try (val input = Files.newInputStream(source.toPath())) {
+            DigestUtils.updateDigest(digest, input);
+        }
+        digest.update(StringUtils.defaultString(context).getBytes(StandardCharsets.UTF_8));
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * Load the index that was previously built under the given name,
+     * if it exists and was built for an aggregate with the same fingerprint.
+     *
+     * @param directory    the directory
+     * @param name         the name
+     * @param fingerprint  the fingerprint
+     * @param memoryMapped whether the store should be memory-mapped
+     * @return the index
+     */
+    public static Optional<EntityDescriptorIndex> load(final File directory, final String name,
+                                                       final String fingerprint, final boolean memoryMapped) {
+        val indexFile = new File(directory, name + INDEX_FILE_EXTENSION);
+        if (!indexFile.isFile()) {
+            return Optional.empty();
+        }
+        try (val input = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile.toPath())))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION || !fingerprint.equals(input.readUTF())) {
+                LOGGER.debug("Entity descriptor index at [{}] does not match the metadata aggregate", indexFile);
+                return Optional.empty();
+            }
+            val store = new File(directory, input.readUTF());
+            val validUntil = input.readLong();
+            val count = input.readInt();
+            val entries = new HashMap<String, Integer>(count * 4 / 3 + 1);
+            val offsets = new long[count];
+            val lengths = new int[count];
+            for (var i = 0; i < count; i++) {
+                entries.put(input.readUTF(), i);
+                offsets[i] = input.readLong();
+                lengths[i] = input.readInt();
+            }
+            if (!store.isFile() || count > 0 && store.length() < offsets[count - 1] + lengths[count - 1]) {
+                LOGGER.debug("Entity descriptor store at [{}] is missing or incomplete", store);
+                return Optional.empty();
+            }
+            LOGGER.debug("Loaded entity descriptor index at [{}] with [{}] entities", indexFile, count);
+            return Optional.of(new EntityDescriptorIndex(store, fingerprint,
+                validUntil < 0 ? null : Instant.ofEpochMilli(validUntil), entries, offsets, lengths, memoryMapped));
+        } catch (final Exception e) {
+            LOGGER.debug("Unable to load entity descriptor index at [{}]: [{}]", indexFile, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Build the index for an aggregate under the given name, reading the aggregate in a single streaming pass.
+     * Stores that were built for a different version of the aggregate under the same name are removed.
+     *
+     * @param source       the aggregate
+     * @param directory    the directory
+     * @param name         the name
+     * @param fingerprint  the fingerprint
+     * @param memoryMapped whether the store should be memory-mapped
+     * @return the index
+     * @throws Exception the exception
+     */
+    public static EntityDescriptorIndex build(final File source, final File directory, final String name,
+                                              final String fingerprint, final boolean memoryMapped) throws Exception {
+        return build(directory, name, fingerprint, memoryMapped, (output, positions) -> {
+            try (val input = new BufferedInputStream(Files.newInputStream(source.toPath()))) {
+                return split(input, output, positions);
+            }
+        });
+    }
+
+    /**
+     * Build the index for an aggregate that is already parsed, typically because its signature was verified.
+     * The index is built from the given document, so it covers exactly the entities that were verified.
+     * Stores that were built for a different version of the aggregate under the same name are removed.
+     *
+     * @param source       the root element of the aggregate
+     * @param directory    the directory
+     * @param name         the name
+     * @param fingerprint  the fingerprint
+     * @param memoryMapped whether the store should be memory-mapped
+     * @return the index
+     * @throws Exception the exception
+     */
+    public static EntityDescriptorIndex build(final Element source, final File directory, final String name,
+                                              final String fingerprint, final boolean memoryMapped) throws Exception {
+        return build(directory, name, fingerprint, memoryMapped, (output, positions) -> {
+            val datatypeFactory = DatatypeFactory.newInstance();
+            return split(source, new CountingOutputStream(output), positions, datatypeFactory, null);
+        });
+    }
+
+    private static EntityDescriptorIndex build(final File directory, final String name, final String fingerprint,
+                                               final boolean memoryMapped, final Splitter splitter) throws Exception {
+        val storeName = name + '-' + fingerprint.substring(0, Math.min(16, fingerprint.length())) + STORE_FILE_EXTENSION;
+        val store = new File(directory, storeName);
+        val storeTemp = File.createTempFile(storeName, ".tmp", directory);
+        val indexFile = new File(directory, name + INDEX_FILE_EXTENSION);
+        val indexTemp = File.createTempFile(indexFile.getName(), ".tmp", directory);
+        try {
+            val positions = new LinkedHashMap<String, long[]>();
+            Instant validUntil = null;
+            try (val output = new BufferedOutputStream(Files.newOutputStream(storeTemp.toPath()))) {
+                validUntil = splitter.split(output, positions);
+            }
+
+            val count = positions.size();
+            val entries = new HashMap<String, Integer>(count * 4 / 3 + 1);
+            val offsets = new long[count];
+            val lengths = new int[count];
+            try (val output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexTemp.toPath())))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeUTF(fingerprint);
+                output.writeUTF(storeName);
+                output.writeLong(validUntil == null ? -1 : validUntil.toEpochMilli());
+                output.writeInt(count);
+                var i = 0;
+                for (val entry : positions.entrySet()) {
+                    entries.put(entry.getKey(), i);
+                    offsets[i] = entry.getValue()[0];
+                    lengths[i] = (int) entry.getValue()[1];
+                    output.writeUTF(entry.getKey());
+                    output.writeLong(offsets[i]);
+                    output.writeInt(lengths[i]);
+                    i++;
+                }
+            }
+            Files.move(storeTemp.toPath(), store.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(indexTemp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            removeStaleStores(directory, name, storeName);
+            LOGGER.info("Indexed [{}] entity descriptors at [{}]", count, store);
+            return new EntityDescriptorIndex(store, fingerprint, validUntil, entries, offsets, lengths, memoryMapped);
+        } finally {
+            FileUtils.deleteQuietly(storeTemp);
+            FileUtils.deleteQuietly(indexTemp);
+        }
+    }
+
+    private static Instant split(final InputStream input, final OutputStream output,
+                                 final Map<String, long[]> positions) throws Exception {
+        val inputFactory = XMLInputFactory.newFactory();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        val outputFactory = XMLOutputFactory.newFactory();
+        val eventFactory = XMLEventFactory.newFactory();
+        val datatypeFactory = DatatypeFactory.newInstance();
+
+        val reader = inputFactory.createXMLEventReader(input, StandardCharsets.UTF_8.name());
+        val namespaces = new ArrayDeque<Map<String, String>>();
+        val structural = new ArrayDeque<Boolean>();
+        val buffer = new ByteArrayOutputStream();
+        XMLEventWriter writer = null;
+        String entityId = null;
+        var depth = 0;
+        var offset = 0L;
+        Instant validUntil = null;
+        try {
+            while (reader.hasNext()) {
+                val event = reader.nextEvent();
+                if (writer != null) {
+                    if (event.isStartElement()) {
+                        depth++;
+                    } else if (event.isEndElement()) {
+                        depth--;
+                    }
+                    writer.add(event);
+                    if (depth == 0) {
+                        writer.close();
+                        addPosition(positions, entityId, offset, buffer.size());
+                        buffer.writeTo(output);
+                        offset += buffer.size();
+                        writer = null;
+                    }
+                } else if (event.isStartElement()) {
+                    val element = event.asStartElement();
+                    val isStructural = structural.isEmpty() || structural.peek();
+                    if (isStructural && ENTITY_DESCRIPTOR.equals(element.getName()) && element.getAttributeByName(ENTITY_ID) != null) {
+                        entityId = element.getAttributeByName(ENTITY_ID).getValue();
+                        buffer.reset();
+                        writer = outputFactory.createXMLEventWriter(buffer, StandardCharsets.UTF_8.name());
+                        writer.add(eventFactory.createStartDocument(StandardCharsets.UTF_8.name(), "1.0"));
+                        writer.add(withInheritedNamespaces(eventFactory, element, namespaces));
+                        depth = 1;
+                    } else {
+                        val isGroup = isStructural && ENTITIES_DESCRIPTOR.equals(element.getName());
+                        if (isGroup && element.getAttributeByName(VALID_UNTIL) != null) {
+                            validUntil = earliest(validUntil, element.getAttributeByName(VALID_UNTIL).getValue(), datatypeFactory);
+                        }
+                        val declared = new LinkedHashMap<String, String>();
+                        element.getNamespaces().forEachRemaining(ns -> declared.put(ns.getPrefix(), ns.getNamespaceURI()));
+                        namespaces.push(declared);
+                        structural.push(isGroup);
+                    }
+                } else if (event.isEndElement() && !namespaces.isEmpty()) {
+                    namespaces.pop();
+                    structural.pop();
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return validUntil;
+    }
+
+    private static Instant split(final Element element, final CountingOutputStream output, final Map<String, long[]> positions,
+                                 final DatatypeFactory datatypeFactory, final Instant validUntil) throws Exception {
+        if (isElement(element, ENTITY_DESCRIPTOR) && element.hasAttributeNS(null, ENTITY_ID.getLocalPart())) {
+            val offset = output.getByteCount();
+            writeStandalone(element, output);
+            addPosition(positions, element.getAttributeNS(null, ENTITY_ID.getLocalPart()), offset, output.getByteCount() - offset);
+            return validUntil;
+        }
+        if (!isElement(element, ENTITIES_DESCRIPTOR)) {
+            return validUntil;
+        }
+        var result = element.hasAttributeNS(null, VALID_UNTIL.getLocalPart())
+            ? earliest(validUntil, element.getAttributeNS(null, VALID_UNTIL.getLocalPart()), datatypeFactory)
+            : validUntil;
+        for (var child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                result = split((Element) child, output, positions, datatypeFactory, result);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isElement(final Element element, final QName name) {
+        return name.getNamespaceURI().equals(element.getNamespaceURI()) && name.getLocalPart().equals(element.getLocalName());
+    }
+
+    private static void writeStandalone(final Element element, final OutputStream output) {
+        val document = element.getOwnerDocument().getImplementation().createDocument(null, null, null);
+        val copy = (Element) document.importNode(element, true);
+        document.appendChild(copy);
+        for (var parent = element.getParentNode(); parent instanceof Element; parent = parent.getParentNode()) {
+            val attributes = parent.getAttributes();
+            for (var i = 0; i < attributes.getLength(); i++) {
+                val attribute = attributes.item(i);
+                if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attribute.getNamespaceURI())
+                    && !copy.hasAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, attribute.getLocalName())) {
+                    copy.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, attribute.getNodeName(), attribute.getNodeValue());
+                }
+            }
+        }
+        SerializeSupport.writeNode(document, output);
+    }
+
+    private static void addPosition(final Map<String, long[]> positions, final String entityId,
+                                    final long offset, final long length) {
+        if (positions.putIfAbsent(entityId, new long[]{offset, length}) != null) {
+            throw new SamlException("Metadata aggregate is rejected; it carries more than one entity descriptor for " + entityId);
+        }
+    }
+
+    private static Instant earliest(final Instant validUntil, final String value, final DatatypeFactory datatypeFactory) {
+        val groupValidUntil = datatypeFactory.newXMLGregorianCalendar(value.trim()).toGregorianCalendar().toInstant();
+        return validUntil == null || groupValidUntil.isBefore(validUntil) ? groupValidUntil : validUntil;
+    }
+
+    private static StartElement withInheritedNamespaces(final XMLEventFactory eventFactory, final StartElement element,
+                                                        final ArrayDeque<Map<String, String>> namespaces) {
+        val declared = new LinkedHashMap<String, String>();
+        val iterator = namespaces.descendingIterator();
+        while (iterator.hasNext()) {
+            declared.putAll(iterator.next());
+        }
+        element.getNamespaces().forEachRemaining(ns -> declared.put(ns.getPrefix(), ns.getNamespaceURI()));
+        val result = declared.entrySet()
+            .stream()
+            .map(entry -> StringUtils.isEmpty(entry.getKey())
+                ? eventFactory.createNamespace(entry.getValue())
+                : eventFactory.createNamespace(entry.getKey(), entry.getValue()))
+            .iterator();
+        val name = element.getName();
+        return eventFactory.createStartElement(name.getPrefix(), name.getNamespaceURI(), name.getLocalPart(),
+            element.getAttributes(), result);
+    }
+
+    private static void removeStaleStores(final File directory, final String name, final String current) {
+        val stale = directory.listFiles((dir, file) -> file.startsWith(name + '-')
+                                                         && file.endsWith(STORE_FILE_EXTENSION) && !file.equals(current));
+        if (stale != null) {
+            Arrays.stream(stale).forEach(file -> {
+                LOGGER.debug("Removing stale entity descriptor store [{}]", file);
+                FileUtils.deleteQuietly(file);
+            });
+        }
+    }
+
+    private static ByteBuffer map(final File store) throws IOException {
+        try (val channel = FileChannel.open(store.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                LOGGER.warn("Entity descriptor store [{}] is too large to be memory-mapped", store);
+                return null;
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Read the descriptor of the entity from the store.
+     *
+     * @param entityId the entity id
+     * @return the descriptor as a standalone XML document, or empty if the entity is not indexed
+     * @throws IOException the io exception
+     */
+    public Optional<byte[]> read(final String entityId) throws IOException {
+        val slot = entries.get(entityId);
+        if (slot == null) {
+            return Optional.empty();
+        }
+        val bytes = new byte[lengths[slot]];
+        if (mappedStore != null) {
+            mappedStore.duplicate().position((int) offsets[slot]).get(bytes);
+        } else {
+            val target = ByteBuffer.wrap(bytes);
+            while (target.hasRemaining()) {
+                if (channel.read(target, offsets[slot] + target.position()) < 0) {
+                    throw new IOException("Entity descriptor store " + store + " is truncated");
+                }
+            }
+        }
+        return Optional.of(bytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Ids of the indexed entities.
+     *
+     * @return the entity ids
+     */
+    public Set<String> getEntityIds() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Number of indexed entities.
+     *
+     * @return the size
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Whether the groups of entities in the aggregate are still valid.
+     *
+     * @return true/false
+     */
+    public boolean isValid() {
+        return validUntil.map(instant -> Instant.now().isBefore(instant)).orElse(Boolean.TRUE);
+    }
+
+    @FunctionalInterface
+    private interface Splitter {
+        Instant split(OutputStream output, Map<String, long[]> positions) throws Exception;
+    }
+}
@@ -0,0 +1,95 @@
+package org.apereo.cas.support.saml.services.idp.metadata.index;
+
+import org.apereo.cas.support.saml.OpenSamlConfigBean;
+import org.apereo.cas.util.LoggingUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import net.shibboleth.utilities.java.support.resolver.CriteriaSet;
+import net.shibboleth.utilities.java.support.resolver.ResolverException;
+import org.apache.commons.io.IOUtils;
+import org.opensaml.core.criterion.EntityIdCriterion;
+import org.opensaml.saml.metadata.resolver.impl.AbstractMetadataResolver;
+import org.opensaml.saml.saml2.metadata.EntityDescriptor;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * This is {@link IndexedEntityDescriptorMetadataResolver} that resolves entity descriptors
+ * from an {@link EntityDescriptorIndex}. Descriptors are unmarshalled and filtered one at a time,
+ * only when they are asked for, and a limited number of them is kept in memory.
+ * Criteria that do not name an entity id are not resolved, since evaluating them would
+ * require every indexed entity to be unmarshalled.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+public class IndexedEntityDescriptorMetadataResolver extends AbstractMetadataResolver {
+    @Getter
+    private final EntityDescriptorIndex index;
+
+    private final Cache<String, Optional<EntityDescriptor>> entityDescriptors;
+
+    public IndexedEntityDescriptorMetadataResolver(final EntityDescriptorIndex index,
+                                                   final OpenSamlConfigBean configBean,
+                                                   final long cacheMaximumSize) {
+        this.index = index;
+        this.entityDescriptors = Caffeine.newBuilder().maximumSize(cacheMaximumSize).build();
+        setParserPool(configBean.getParserPool());
+    }
+
+    @Override
+    public Iterable<EntityDescriptor> resolve(final CriteriaSet criteria) throws ResolverException {
+        val entityIdCriterion = criteria == null ? null : criteria.get(EntityIdCriterion.class);
+        if (entityIdCriterion == null || entityIdCriterion.getEntityId() == null) {
+            LOGGER.debug("Criteria [{}] do not name an entity id and are not evaluated against [{}] indexed entities",
+                criteria, index.size());
+            return List.of();
+        }
+        val candidates = getEntityDescriptor(entityIdCriterion.getEntityId())
+            .map(List::of)
+            .orElseGet(List::of);
+        return predicateFilterCandidates(candidates, criteria, false);
+    }
+
+    @Override
+    protected void doDestroy() {
+        entityDescriptors.invalidateAll();
+        IOUtils.closeQuietly(index);
+        super.doDestroy();
+    }
+
+    private Optional<EntityDescriptor> getEntityDescriptor(final String entityId) {
+        if (isRequireValidMetadata() && !index.isValid()) {
+            LOGGER.warn("Indexed metadata for [{}] is no longer valid as of [{}]", entityId, index.getValidUntil().orElse(null));
+            return Optional.empty();
+        }
+        return entityDescriptors.get(entityId, this::loadEntityDescriptor)
+            .filter(descriptor -> !isRequireValidMetadata() || isValid(descriptor));
+    }
+
+    private Optional<EntityDescriptor> loadEntityDescriptor(final String entityId) {
+        try {
+            val bytes = index.read(entityId);
+            if (bytes.isPresent()) {
+                LOGGER.trace("Unmarshalling indexed entity descriptor for [{}]", entityId);
+                try (val input = new ByteArrayInputStream(bytes.get())) {
+                    val metadata = filterMetadata(unmarshallMetadata(input));
+                    if (metadata instanceof EntityDescriptor) {
+                        return Optional.of((EntityDescriptor) metadata);
+                    }
+                    LOGGER.debug("Indexed entity descriptor for [{}] is removed by metadata filters", entityId);
+                }
+            }
+        } catch (final Exception e) {
+            LoggingUtils.error(LOGGER, e);
+        }
+        return Optional.empty();
+    }
+}
@@ -2,6 +2,7 @@ package org.apereo.cas;
 
 import org.apereo.cas.support.saml.services.SamlIdPEntityIdAuthenticationServiceSelectionStrategyTests;
 import org.apereo.cas.support.saml.services.idp.metadata.cache.SamlRegisteredServiceCacheKeyTests;
+import org.apereo.cas.support.saml.services.idp.metadata.cache.SamlRegisteredServiceConcurrentMetadataResolutionTests;
 import org.apereo.cas.support.saml.services.idp.metadata.cache.SamlRegisteredServiceDefaultCachingMetadataResolverTests;
 import org.apereo.cas.support.saml.services.idp.metadata.cache.SamlRegisteredServiceMetadataResolverCacheLoaderTests;
 import org.apereo.cas.support.saml.services.idp.metadata.cache.resolver.ClasspathResourceMetadataResolverTests;
@@ -11,6 +12,7 @@ import org.apereo.cas.support.saml.services.idp.metadata.cache.resolver.JsonReso
 import org.apereo.cas.support.saml.services.idp.metadata.cache.resolver.MetadataQueryProtocolMetadataResolverTests;
 import org.apereo.cas.support.saml.services.idp.metadata.cache.resolver.SamlRegisteredServiceMetadataExpirationPolicyTests;
 import org.apereo.cas.support.saml.services.idp.metadata.cache.resolver.UrlResourceMetadataResolverTests;
+import org.apereo.cas.support.saml.services.idp.metadata.index.EntityDescriptorIndexTests;
 
 import org.junit.platform.suite.api.SelectClasses;
 import org.junit.platform.suite.api.Suite;
@@ -31,6 +33,8 @@ import org.junit.platform.suite.api.Suite;
     SamlRegisteredServiceCacheKeyTests.class,
     SamlRegisteredServiceDefaultCachingMetadataResolverTests.class,
     SamlRegisteredServiceMetadataResolverCacheLoaderTests.class,
+    SamlRegisteredServiceConcurrentMetadataResolutionTests.class,
+    EntityDescriptorIndexTests.class,
     FileSystemResourceMetadataResolverTests.class,
     JsonResourceMetadataResolverTests.class
 })
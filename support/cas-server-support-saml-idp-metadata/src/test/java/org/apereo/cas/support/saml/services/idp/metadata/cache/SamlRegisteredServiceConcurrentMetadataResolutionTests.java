@@ -0,0 +1,194 @@
+package org.apereo.cas.support.saml.services.idp.metadata.cache;
+
+import org.apereo.cas.configuration.CasConfigurationProperties;
+import org.apereo.cas.support.saml.OpenSamlConfigBean;
+import org.apereo.cas.support.saml.services.SamlRegisteredService;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.val;
+import net.shibboleth.utilities.java.support.resolver.CriteriaSet;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.opensaml.core.criterion.EntityIdCriterion;
+import org.opensaml.saml.criterion.EntityRoleCriterion;
+import org.opensaml.saml.metadata.resolver.MetadataResolver;
+import org.opensaml.saml.saml2.metadata.EntityDescriptor;
+import org.opensaml.saml.saml2.metadata.SPSSODescriptor;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.awaitility.Awaitility.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This is {@link SamlRegisteredServiceConcurrentMetadataResolutionTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("SAMLMetadata")
+public class SamlRegisteredServiceConcurrentMetadataResolutionTests {
+    private static final int SERVICE_COUNT = 200;
+
+    private static CriteriaSet getCriteriaFor(final String entityId) {
+        val criteriaSet = new CriteriaSet();
+        criteriaSet.add(new EntityIdCriterion(entityId));
+        criteriaSet.add(new EntityRoleCriterion(SPSSODescriptor.DEFAULT_ELEMENT_NAME));
+        return criteriaSet;
+    }
+
+    private static SamlRegisteredService getService(final int id) {
+        val service = new SamlRegisteredService();
+        service.setName("SP" + id);
+        service.setId(id);
+        service.setServiceId("https://sp" + id + ".example.org");
+        service.setMetadataLocation("classpath:sp" + id + "-metadata.xml");
+        return service;
+    }
+
+    private static MetadataResolver getMetadataResolver(final String entityId) throws Exception {
+        val entity = mock(EntityDescriptor.class);
+        when(entity.getEntityID()).thenReturn(entityId);
+        when(entity.isValid()).thenReturn(true);
+        when(entity.getCacheDuration()).thenReturn(null);
+        val resolver = mock(MetadataResolver.class);
+        when(resolver.getId()).thenReturn(entityId);
+        when(resolver.resolveSingle(any())).thenAnswer(args -> {
+            val criterion = args.getArgument(0, CriteriaSet.class).get(EntityIdCriterion.class);
+            return criterion != null && entityId.equals(criterion.getEntityId()) ? entity : null;
+        });
+        return resolver;
+    }
+
+    private static SamlRegisteredServiceDefaultCachingMetadataResolver getResolver(
+        final CacheLoader<SamlRegisteredServiceCacheKey, MetadataResolver> loader, final String refreshInterval,
+        final Ticker ticker, final Executor executor) {
+        val casProperties = new CasConfigurationProperties();
+        val core = casProperties.getAuthn().getSamlIdp().getMetadata().getCore();
+        core.setCacheExpiration("PT1H");
+        core.setCacheRefreshInterval(refreshInterval);
+        return new SamlRegisteredServiceDefaultCachingMetadataResolver(casProperties, loader,
+            mock(OpenSamlConfigBean.class), ticker, executor);
+    }
+
+    private static SamlRegisteredServiceDefaultCachingMetadataResolver getResolver(
+        final CacheLoader<SamlRegisteredServiceCacheKey, MetadataResolver> loader) {
+        return getResolver(loader, null, Ticker.systemTicker(), Runnable::run);
+    }
+
+    @Test
+    public void verifySlowMetadataDoesNotBlockOtherServices() throws Exception {
+        val slowLoadStarted = new CountDownLatch(1);
+        val slowLoadReleased = new CountDownLatch(1);
+        val resolver = getResolver(key -> {
+            val service = key.getRegisteredService();
+            if (service.getId() == 0) {
+                slowLoadStarted.countDown();
+                assertTrue(slowLoadReleased.await(30, TimeUnit.SECONDS));
+            }
+            return getMetadataResolver(service.getServiceId());
+        });
+
+        val executor = Executors.newFixedThreadPool(SERVICE_COUNT);
+        try {
+            val slowService = getService(0);
+            val slowResult = executor.submit(() -> resolver.resolve(slowService, getCriteriaFor(slowService.getServiceId())));
+            assertTrue(slowLoadStarted.await(10, TimeUnit.SECONDS));
+
+            val tasks = new ArrayList<Callable<MetadataResolver>>();
+            for (var i = 1; i < SERVICE_COUNT; i++) {
+                val service = getService(i);
+                tasks.add(() -> resolver.resolve(service, getCriteriaFor(service.getServiceId())));
+            }
+            for (val result : executor.invokeAll(tasks, 30, TimeUnit.SECONDS)) {
+                assertNotNull(result.get());
+            }
+            assertFalse(slowResult.isDone());
+            slowLoadReleased.countDown();
+            assertNotNull(slowResult.get(10, TimeUnit.SECONDS));
+            assertEquals(SERVICE_COUNT, resolver.getCacheStatistics().loadSuccessCount());
+        } finally {
+            slowLoadReleased.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void verifyConcurrentLoadsAreCoalesced() throws Exception {
+        val loads = new AtomicInteger();
+        val loadReleased = new CountDownLatch(1);
+        val resolver = getResolver(key -> {
+            loads.incrementAndGet();
+            assertTrue(loadReleased.await(30, TimeUnit.SECONDS));
+            return getMetadataResolver(key.getRegisteredService().getServiceId());
+        });
+
+        val service = getService(1);
+        val threads = new CopyOnWriteArrayList<Thread>();
+        val executor = Executors.newFixedThreadPool(50, runnable -> {
+            val thread = new Thread(runnable);
+            threads.add(thread);
+            return thread;
+        });
+        try {
+            val started = new CountDownLatch(50);
+            val results = new ArrayList<Future<MetadataResolver>>();
+            for (var i = 0; i < 50; i++) {
+                results.add(executor.submit(() -> {
+                    started.countDown();
+                    return resolver.resolve(service, getCriteriaFor(service.getServiceId()));
+                }));
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            await().atMost(Duration.ofSeconds(10))
+                .until(() -> threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING
+                                                                 || thread.getState() == Thread.State.TIMED_WAITING));
+            loadReleased.countDown();
+            val first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (val result : results) {
+                assertSame(first, result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            loadReleased.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void verifyRefreshServesLastResolver() throws Exception {
+        val service = getService(1);
+        val first = getMetadataResolver(service.getServiceId());
+        val second = getMetadataResolver(service.getServiceId());
+        val loads = new AtomicInteger();
+        val time = new AtomicLong();
+        val tasks = new ArrayDeque<Runnable>();
+        val resolver = getResolver(key -> loads.incrementAndGet() == 1 ? first : second, "PT1M", time::get, tasks::add);
+
+        val criteria = getCriteriaFor(service.getServiceId());
+        assertSame(first, resolver.resolve(service, criteria));
+        time.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertSame(first, resolver.resolve(service, criteria));
+        assertSame(first, resolver.resolve(service, criteria));
+        assertEquals(1, loads.get());
+
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+        assertEquals(2, loads.get());
+        assertSame(second, resolver.resolve(service, criteria));
+    }
+}
@@ -6,10 +6,15 @@ import org.apereo.cas.support.saml.services.BaseSamlIdPServicesTests;
 import org.apereo.cas.support.saml.services.SamlRegisteredService;
 
 import lombok.val;
+import net.shibboleth.utilities.java.support.resolver.CriteriaSet;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.opensaml.core.criterion.EntityIdCriterion;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.UrlResource;
+
+import java.io.File;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -63,4 +68,28 @@ public class MetadataQueryProtocolMetadataResolverTests extends BaseSamlIdPServi
         service.setMetadataLocation("https://github.com/entities/{0}");
         assertTrue(resolver.resolve(service).isEmpty());
     }
+
+    @Test
+    public void verifyBackupFilePerEntity() throws Exception {
+        val props = new SamlIdPProperties();
+        props.getMetadata().getFileSystem().setLocation(new FileSystemResource(FileUtils.getTempDirectory()).getFile().getCanonicalPath());
+        val resolver = new MetadataQueryProtocolMetadataResolver(props, openSamlConfigBean);
+        val service = new SamlRegisteredService();
+        service.setId(100);
+        service.setName("Dynamic");
+        service.setMetadataLocation("http://mdq-preview.incommon.org/entities/{0}");
+        service.setServiceId(".+");
+
+        val first = getBackupFile(resolver, service, "https://sp1.example.org");
+        val second = getBackupFile(resolver, service, "https://sp2.example.org");
+        assertNotEquals(first, second);
+        assertEquals(first, getBackupFile(resolver, service, "https://sp1.example.org"));
+    }
+
+    private static File getBackupFile(final MetadataQueryProtocolMetadataResolver resolver,
+                                      final SamlRegisteredService service, final String entityId) throws Exception {
+        val criteriaSet = new CriteriaSet(new EntityIdCriterion(entityId));
+        val location = resolver.getMetadataLocationForService(service, criteriaSet);
+        return resolver.getMetadataBackupFile(new UrlResource(location), service);
+    }
 }
@@ -5,17 +5,25 @@ import org.apereo.cas.services.DefaultRegisteredServiceAccessStrategy;
 import org.apereo.cas.support.saml.SamlException;
 import org.apereo.cas.support.saml.services.BaseSamlIdPServicesTests;
 import org.apereo.cas.support.saml.services.SamlRegisteredService;
+import org.apereo.cas.support.saml.services.idp.metadata.index.IndexedEntityDescriptorMetadataResolver;
 import org.apereo.cas.util.MockWebServer;
 
 import lombok.val;
+import net.shibboleth.utilities.java.support.resolver.CriteriaSet;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.opensaml.core.criterion.EntityIdCriterion;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.context.TestPropertySource;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -65,6 +73,80 @@ public class UrlResourceMetadataResolverTests extends BaseSamlIdPServicesTests {
         }
     }
 
+    @Test
+    public void verifyResolverIndexesEntityDescriptors() throws Exception {
+        try (val webServer = new MockWebServer(9155, new ClassPathResource("aggregate-md.xml"), HttpStatus.OK)) {
+            webServer.start();
+            val props = new SamlIdPProperties();
+            props.getMetadata().getFileSystem().setLocation(new FileSystemResource(FileUtils.getTempDirectory()).getFile().getCanonicalPath());
+            props.getMetadata().getHttp().setIndexEntityDescriptors(true);
+            val service = new SamlRegisteredService();
+            val resolver = new UrlResourceMetadataResolver(props, openSamlConfigBean);
+            service.setName("Aggregate");
+            service.setId(1000);
+            service.setMetadataLocation("http://localhost:9155");
+
+            val criteria = new CriteriaSet(new EntityIdCriterion("https://gitlab.com"));
+            val results = resolver.resolve(service);
+            assertEquals(1, results.size());
+            val metadataResolver = (IndexedEntityDescriptorMetadataResolver) results.iterator().next();
+            assertEquals(3, metadataResolver.getIndex().size());
+            assertNotNull(metadataResolver.resolveSingle(criteria));
+            assertNull(metadataResolver.resolveSingle(new CriteriaSet(new EntityIdCriterion("https://unknown.example.org"))));
+            assertFalse(metadataResolver.resolve(new CriteriaSet()).iterator().hasNext());
+
+            val reloaded = (IndexedEntityDescriptorMetadataResolver) resolver.resolve(service).iterator().next();
+            assertEquals(metadataResolver.getIndex().getFingerprint(), reloaded.getIndex().getFingerprint());
+            assertEquals("https://gitlab.com", reloaded.resolveSingle(criteria).getEntityID());
+        }
+    }
+
+    @Test
+    public void verifyResolverIndexesVerifiedEntityDescriptors() throws Exception {
+        try (val webServer = new MockWebServer(9155, new ClassPathResource("aggregate-md.xml"), HttpStatus.OK)) {
+            webServer.start();
+            val props = new SamlIdPProperties();
+            props.getMetadata().getFileSystem().setLocation(new FileSystemResource(FileUtils.getTempDirectory()).getFile().getCanonicalPath());
+            props.getMetadata().getHttp().setIndexEntityDescriptors(true);
+            val service = new SamlRegisteredService();
+            val resolver = new UrlResourceMetadataResolver(props, openSamlConfigBean);
+            service.setName("VerifiedAggregate");
+            service.setId(1001);
+            service.setMetadataLocation("http://localhost:9155");
+            service.setMetadataMaxValidity(Duration.ofDays(365 * 100).toSeconds());
+
+            val results = resolver.resolve(service);
+            assertEquals(1, results.size());
+            val metadataResolver = (IndexedEntityDescriptorMetadataResolver) results.iterator().next();
+            assertEquals(3, metadataResolver.getIndex().size());
+            assertEquals("https://gitlab.com", metadataResolver.resolveSingle(new CriteriaSet(new EntityIdCriterion("https://gitlab.com"))).getEntityID());
+
+            service.setMetadataMaxValidity(1);
+            assertTrue(resolver.resolve(service).isEmpty());
+        }
+    }
+
+    @Test
+    public void verifyMetadataSignatureFingerprintFollowsCertificate() throws Exception {
+        val props = new SamlIdPProperties();
+        props.getMetadata().getFileSystem().setLocation(new FileSystemResource(FileUtils.getTempDirectory()).getFile().getCanonicalPath());
+        val resolver = new UrlResourceMetadataResolver(props, openSamlConfigBean);
+        val service = new SamlRegisteredService();
+        assertEquals(StringUtils.EMPTY, resolver.getMetadataSignatureFingerprint(service));
+
+        val certificate = File.createTempFile("metadata-signing", ".pem");
+        try {
+            service.setMetadataSignatureLocation(certificate.getCanonicalPath());
+            FileUtils.copyInputStreamToFile(new ClassPathResource("inc-md-cert.pem").getInputStream(), certificate);
+            val fingerprint = resolver.getMetadataSignatureFingerprint(service);
+            assertEquals(fingerprint, resolver.getMetadataSignatureFingerprint(service));
+            FileUtils.writeStringToFile(certificate, "other-certificate", StandardCharsets.UTF_8);
+            assertNotEquals(fingerprint, resolver.getMetadataSignatureFingerprint(service));
+        } finally {
+            FileUtils.deleteQuietly(certificate);
+        }
+    }
+
     @Test
     public void verifyResolverResolvesFailsAccess() throws Exception {
         try (val webServer = new MockWebServer(9155, new ClassPathResource("sample-metadata.xml"), HttpStatus.OK)) {
@@ -0,0 +1,172 @@
+package org.apereo.cas.support.saml.services.idp.metadata.index;
+
+import org.apereo.cas.support.saml.SamlException;
+
+import lombok.val;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.ClassPathResource;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is {@link EntityDescriptorIndexTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Tag("SAMLMetadata")
+public class EntityDescriptorIndexTests {
+    private static final String METADATA_NAMESPACE = "urn:oasis:names:tc:SAML:2.0:metadata";
+
+    @TempDir
+    public File directory;
+
+    private File aggregate;
+
+    private static Document parse(final File file) throws Exception {
+        return parse(FileUtils.readFileToByteArray(file));
+    }
+
+    private static Document parse(final byte[] bytes) throws Exception {
+        val factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(bytes));
+    }
+
+    @BeforeEach
+    public void setup() throws Exception {
+        aggregate = new File(directory, "aggregate.xml");
+        FileUtils.copyInputStreamToFile(new ClassPathResource("aggregate-md.xml").getInputStream(), aggregate);
+    }
+
+    @Test
+    public void verifyIndexAndReadEntities() throws Exception {
+        val fingerprint = EntityDescriptorIndex.fingerprint(aggregate, "context");
+        val index = EntityDescriptorIndex.build(aggregate, directory, "aggregate", fingerprint, true);
+        assertEquals(Set.of("https://issues.shibboleth.net/shibboleth", "https://mfa-auth.dev.phenoapp.com/Saml2",
+            "https://gitlab.com"), index.getEntityIds());
+        assertEquals(Instant.parse("2091-12-06T18:41:22Z"), index.getValidUntil().orElseThrow());
+        assertTrue(index.isValid());
+        assertTrue(index.read("https://unknown.example.org").isEmpty());
+
+        val factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        for (val entityId : index.getEntityIds()) {
+            val bytes = index.read(entityId).orElseThrow();
+            val document = factory.newDocumentBuilder().parse(new ByteArrayInputStream(bytes));
+            val root = document.getDocumentElement();
+            assertEquals(METADATA_NAMESPACE, root.getNamespaceURI());
+            assertEquals("EntityDescriptor", root.getLocalName());
+            assertEquals(entityId, root.getAttribute("entityID"));
+            assertEquals(1, document.getElementsByTagNameNS(METADATA_NAMESPACE, "EntityDescriptor").getLength());
+        }
+        val gitlab = new String(index.read("https://gitlab.com").orElseThrow(), StandardCharsets.UTF_8);
+        assertFalse(gitlab.contains("https://issues.shibboleth.net/shibboleth"));
+    }
+
+    @Test
+    public void verifyIndexIsLoadedForSameAggregate() throws Exception {
+        val fingerprint = EntityDescriptorIndex.fingerprint(aggregate, "context");
+        val built = EntityDescriptorIndex.build(aggregate, directory, "aggregate", fingerprint, false);
+        assertTrue(EntityDescriptorIndex.load(directory, "aggregate",
+            EntityDescriptorIndex.fingerprint(aggregate, "other-context"), false).isEmpty());
+        assertTrue(EntityDescriptorIndex.load(directory, "unknown", fingerprint, false).isEmpty());
+
+        val loaded = EntityDescriptorIndex.load(directory, "aggregate", fingerprint, false).orElseThrow();
+        assertEquals(built.getEntityIds(), loaded.getEntityIds());
+        assertEquals(built.getValidUntil(), loaded.getValidUntil());
+        assertArrayEquals(built.read("https://gitlab.com").orElseThrow(), loaded.read("https://gitlab.com").orElseThrow());
+    }
+
+    @Test
+    public void verifyStaleStoresAreRemoved() throws Exception {
+        EntityDescriptorIndex.build(aggregate, directory, "aggregate", EntityDescriptorIndex.fingerprint(aggregate, "v1"), true);
+        val fingerprint = EntityDescriptorIndex.fingerprint(aggregate, "v2");
+        val index = EntityDescriptorIndex.build(aggregate, directory, "aggregate", fingerprint, true);
+        val stores = directory.listFiles((dir, name) -> name.endsWith(EntityDescriptorIndex.STORE_FILE_EXTENSION));
+        assertNotNull(stores);
+        assertEquals(1, stores.length);
+        assertEquals(3, index.size());
+        assertTrue(EntityDescriptorIndex.load(directory, "aggregate", fingerprint, true).isPresent());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void verifyReplacedIndexKeepsServingEntities(final boolean memoryMapped) throws Exception {
+        val previous = EntityDescriptorIndex.build(aggregate, directory, "aggregate",
+            EntityDescriptorIndex.fingerprint(aggregate, "v1"), memoryMapped);
+        val expected = previous.read("https://gitlab.com").orElseThrow();
+        try (val current = EntityDescriptorIndex.build(aggregate, directory, "aggregate",
+            EntityDescriptorIndex.fingerprint(aggregate, "v2"), memoryMapped)) {
+            val stores = directory.listFiles((dir, name) -> name.endsWith(EntityDescriptorIndex.STORE_FILE_EXTENSION));
+            assertNotNull(stores);
+            assertEquals(1, stores.length);
+            assertArrayEquals(expected, previous.read("https://gitlab.com").orElseThrow());
+            assertArrayEquals(expected, current.read("https://gitlab.com").orElseThrow());
+        } finally {
+            previous.close();
+        }
+    }
+
+    @Test
+    public void verifyOnlyStructuralEntitiesIndexed() throws Exception {
+        val wrapped = new File(directory, "wrapped.xml");
+        FileUtils.writeStringToFile(wrapped, "<md:EntitiesDescriptor xmlns:md=\"" + METADATA_NAMESPACE + "\">"
+            + "<md:Extensions><md:EntityDescriptor entityID=\"https://hidden.example.org\"/></md:Extensions>"
+            + "<md:EntityDescriptor entityID=\"https://app1.example.org\"><md:Extensions>"
+            + "<md:EntityDescriptor entityID=\"https://nested.example.org\"/></md:Extensions></md:EntityDescriptor>"
+            + "<md:EntitiesDescriptor validUntil=\"2091-12-06T18:41:22Z\"><md:EntityDescriptor entityID=\"https://app2.example.org\"/>"
+            + "</md:EntitiesDescriptor></md:EntitiesDescriptor>", StandardCharsets.UTF_8);
+        val fingerprint = EntityDescriptorIndex.fingerprint(wrapped, null);
+        val streamed = EntityDescriptorIndex.build(wrapped, directory, "streamed", fingerprint, true);
+        assertEquals(Set.of("https://app1.example.org", "https://app2.example.org"), streamed.getEntityIds());
+        assertEquals(Instant.parse("2091-12-06T18:41:22Z"), streamed.getValidUntil().orElseThrow());
+
+        val parsed = EntityDescriptorIndex.build(parse(wrapped).getDocumentElement(), directory, "parsed", fingerprint, true);
+        assertEquals(streamed.getEntityIds(), parsed.getEntityIds());
+        assertEquals(streamed.getValidUntil(), parsed.getValidUntil());
+        val document = parse(parsed.read("https://app2.example.org").orElseThrow());
+        assertEquals(METADATA_NAMESPACE, document.getDocumentElement().getNamespaceURI());
+        assertEquals("https://app2.example.org", document.getDocumentElement().getAttribute("entityID"));
+        val nested = parse(parsed.read("https://app1.example.org").orElseThrow());
+        assertEquals(2, nested.getElementsByTagNameNS(METADATA_NAMESPACE, "EntityDescriptor").getLength());
+    }
+
+    @Test
+    public void verifyDuplicateEntitiesRejected() throws Exception {
+        val duplicated = new File(directory, "duplicated.xml");
+        FileUtils.writeStringToFile(duplicated, "<EntitiesDescriptor xmlns=\"" + METADATA_NAMESPACE + "\">"
+            + "<EntityDescriptor entityID=\"https://app1.example.org\"/>"
+            + "<EntitiesDescriptor><EntityDescriptor entityID=\"https://app1.example.org\"/></EntitiesDescriptor>"
+            + "</EntitiesDescriptor>", StandardCharsets.UTF_8);
+        val fingerprint = EntityDescriptorIndex.fingerprint(duplicated, null);
+        assertThrows(SamlException.class, () -> EntityDescriptorIndex.build(duplicated, directory, "duplicated", fingerprint, true));
+        assertThrows(SamlException.class, () -> EntityDescriptorIndex.build(parse(duplicated).getDocumentElement(),
+            directory, "duplicated", fingerprint, true));
+        assertTrue(EntityDescriptorIndex.load(directory, "duplicated", fingerprint, true).isEmpty());
+    }
+
+    @Test
+    public void verifyMalformedAggregate() throws Exception {
+        val malformed = new File(directory, "malformed.xml");
+        FileUtils.writeStringToFile(malformed, "<EntitiesDescriptor xmlns=\"" + METADATA_NAMESPACE + "\"><EntityDescriptor entityID=\"x\">",
+            StandardCharsets.UTF_8);
+        val fingerprint = EntityDescriptorIndex.fingerprint(malformed, null);
+        assertThrows(Exception.class, () -> EntityDescriptorIndex.build(malformed, directory, "malformed", fingerprint, true));
+        assertTrue(EntityDescriptorIndex.load(directory, "malformed", fingerprint, true).isEmpty());
+    }
+}
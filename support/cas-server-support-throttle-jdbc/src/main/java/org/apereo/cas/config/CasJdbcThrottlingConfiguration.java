@@ -2,14 +2,23 @@ package org.apereo.cas.config;
 
 import org.apereo.cas.configuration.CasConfigurationProperties;
 import org.apereo.cas.configuration.features.CasFeatureModule;
+import org.apereo.cas.configuration.model.support.jpa.JpaConfigurationContext;
+import org.apereo.cas.configuration.model.support.throttle.JdbcThrottleProperties;
 import org.apereo.cas.configuration.support.JpaBeans;
+import org.apereo.cas.jpa.JpaBeanFactory;
+import org.apereo.cas.util.CollectionUtils;
 import org.apereo.cas.util.spring.beans.BeanCondition;
 import org.apereo.cas.util.spring.beans.BeanSupplier;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
+import org.apereo.cas.web.support.JdbcCounterThrottledSubmissionHandlerInterceptorAdapter;
 import org.apereo.cas.web.support.JdbcThrottledSubmissionHandlerInterceptorAdapter;
 import org.apereo.cas.web.support.ThrottledSubmissionHandlerConfigurationContext;
 import org.apereo.cas.web.support.ThrottledSubmissionHandlerInterceptor;
+import org.apereo.cas.web.support.entity.ThrottledSubmissionCounterEntity;
 
+import lombok.val;
+import org.jooq.lambda.Unchecked;
+import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -17,10 +26,12 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.cloud.context.config.annotation.RefreshScope;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 
 /**
@@ -35,6 +46,9 @@ import javax.sql.DataSource;
 public class CasJdbcThrottlingConfiguration {
     private static final BeanCondition CONDITION = BeanCondition.on("cas.authn.throttle.jdbc.enabled").isTrue().evenIfMissing();
 
+    private static final BeanCondition COUNTER_CONDITION = BeanCondition.on("cas.authn.throttle.jdbc.enabled").isTrue().evenIfMissing()
+        .and("cas.authn.throttle.jdbc.storage-type").havingValue(JdbcThrottleProperties.ThrottleStorageTypes.COUNTER.name());
+
     @RefreshScope(proxyMode = ScopedProxyMode.DEFAULT)
     @Bean
     @ConditionalOnMissingBean(name = "inspektrThrottleDataSource")
@@ -63,18 +77,51 @@ public class CasJdbcThrottlingConfiguration {
             .get();
     }
 
+    @Bean
+    @ConditionalOnMissingBean(name = "inspektrThrottleEntityManagerFactory")
+    @RefreshScope(proxyMode = ScopedProxyMode.DEFAULT)
+    public FactoryBean<EntityManagerFactory> inspektrThrottleEntityManagerFactory(
+        @Qualifier("inspektrThrottleDataSource")
+        final DataSource inspektrThrottleDataSource,
+        final ConfigurableApplicationContext applicationContext,
+        final CasConfigurationProperties casProperties,
+        @Qualifier(JpaBeanFactory.DEFAULT_BEAN_NAME)
+        final JpaBeanFactory jpaBeanFactory) {
+        return BeanSupplier.of(FactoryBean.class)
+            .when(COUNTER_CONDITION.given(applicationContext.getEnvironment()))
+            .supply(Unchecked.supplier(() -> {
+                val ctx = JpaConfigurationContext.builder()
+                    .jpaVendorAdapter(jpaBeanFactory.newJpaVendorAdapter(casProperties.getJdbc()))
+                    .persistenceUnitName("jpaInspektrThrottleContext")
+                    .dataSource(inspektrThrottleDataSource)
+                    .packagesToScan(CollectionUtils.wrapSet(ThrottledSubmissionCounterEntity.class.getPackage().getName()))
+                    .build();
+                return jpaBeanFactory.newEntityManagerFactoryBean(ctx, casProperties.getAuthn().getThrottle().getJdbc());
+            }))
+            .otherwiseProxy()
+            .get();
+    }
+
     @Bean
     @RefreshScope(proxyMode = ScopedProxyMode.DEFAULT)
     @ConditionalOnMissingBean(name = "jdbcAuthenticationThrottle")
+    @DependsOn("inspektrThrottleEntityManagerFactory")
     public ThrottledSubmissionHandlerInterceptor authenticationThrottle(
         final ConfigurableApplicationContext applicationContext,
+        final CasConfigurationProperties casProperties,
         @Qualifier("inspektrThrottleJdbcTemplate")
         final JdbcOperations inspektrThrottleJdbcTemplate,
         @Qualifier("authenticationThrottlingConfigurationContext")
         final ThrottledSubmissionHandlerConfigurationContext ctx) {
         return BeanSupplier.of(ThrottledSubmissionHandlerInterceptor.class)
             .when(CONDITION.given(applicationContext.getEnvironment()))
-            .supply(() -> new JdbcThrottledSubmissionHandlerInterceptorAdapter(ctx, inspektrThrottleJdbcTemplate))
+            .supply(() -> {
+                val jdbc = casProperties.getAuthn().getThrottle().getJdbc();
+                if (jdbc.getStorageType() == JdbcThrottleProperties.ThrottleStorageTypes.COUNTER) {
+                    return new JdbcCounterThrottledSubmissionHandlerInterceptorAdapter(ctx, inspektrThrottleJdbcTemplate);
+                }
+                return new JdbcThrottledSubmissionHandlerInterceptorAdapter(ctx, inspektrThrottleJdbcTemplate);
+            })
             .otherwise(ThrottledSubmissionHandlerInterceptor::noOp)
             .get();
     }
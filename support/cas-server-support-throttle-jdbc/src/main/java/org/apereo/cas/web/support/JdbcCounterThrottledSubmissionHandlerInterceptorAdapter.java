@@ -0,0 +1,243 @@
+package org.apereo.cas.web.support;
+
+import org.apereo.cas.configuration.support.Beans;
+import org.apereo.cas.util.LoggingUtils;
+import org.apereo.cas.web.support.entity.ThrottledSubmissionCounterEntity;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+import org.apereo.inspektr.common.web.ClientInfoHolder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcOperations;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles authentication attempts using a counter table that keeps track of the number
+ * of failed attempts per client IP address, username and time bucket. The failure range
+ * is split into a fixed number of buckets; recording a failure increments the counter
+ * of the current bucket, and checking the threshold sums up the counters of the buckets
+ * that fall in the failure range, which is a lookup on the primary key of the table.
+ * Buckets that fall out of the failure range are purged by bucket, on release.
+ * <p>
+ * Failures may optionally be buffered locally and written to the database in the background,
+ * in which case failures recorded on this node that are not yet written still count
+ * towards the threshold on this node.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Slf4j
+public class JdbcCounterThrottledSubmissionHandlerInterceptorAdapter extends AbstractInspektrAuditHandlerInterceptorAdapter
+    implements DisposableBean {
+
+    /**
+     * Number of buckets the failure range is split into.
+     */
+    static final int BUCKETS_PER_RANGE = 10;
+
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    private static final String SQL_UPDATE = "UPDATE %s SET FAILURES = FAILURES + ? WHERE CLIENT_IP = ? AND USERNAME = ? AND BUCKET = ?";
+
+    private static final String SQL_INSERT = "INSERT INTO %s (CLIENT_IP, USERNAME, BUCKET, FAILURES) VALUES (?, ?, ?, ?)";
+
+    private static final String SQL_COUNT = "SELECT SUM(FAILURES) FROM %s WHERE CLIENT_IP = ? AND USERNAME = ? AND BUCKET >= ?";
+
+    private static final String SQL_QUERY_ALL = "SELECT CLIENT_IP, USERNAME, SUM(FAILURES) AS FAILURES FROM %s "
+        + "WHERE BUCKET >= ? GROUP BY CLIENT_IP, USERNAME";
+
+    private static final String SQL_PURGE = "DELETE FROM %s WHERE BUCKET < ?";
+
+    private final JdbcOperations jdbcTemplate;
+
+    private final String tableName;
+
+    private final Map<CounterKey, Long> pending = new ConcurrentHashMap<>();
+
+    /**
+     * The clock used to assign failures to buckets.
+     */
+    @Setter
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * Length of each bucket, in seconds.
+     */
+    @Getter
+    private long bucketLength = 1;
+
+    private ScheduledExecutorService writeBehindExecutor;
+
+    public JdbcCounterThrottledSubmissionHandlerInterceptorAdapter(
+        final ThrottledSubmissionHandlerConfigurationContext configurationContext,
+        final JdbcOperations jdbcTemplate) {
+        this(configurationContext, jdbcTemplate, ThrottledSubmissionCounterEntity.TABLE_NAME);
+    }
+
+    public JdbcCounterThrottledSubmissionHandlerInterceptorAdapter(
+        final ThrottledSubmissionHandlerConfigurationContext configurationContext,
+        final JdbcOperations jdbcTemplate,
+        final String tableName) {
+        super(configurationContext);
+        this.jdbcTemplate = jdbcTemplate;
+        this.tableName = tableName;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        val throttle = getConfigurationContext().getCasProperties().getAuthn().getThrottle();
+        this.bucketLength = Math.max(1, (getRangeSeconds() + BUCKETS_PER_RANGE - 1) / BUCKETS_PER_RANGE);
+        val interval = Beans.newDuration(throttle.getJdbc().getWriteBehindInterval());
+        if (!interval.isZero() && !interval.isNegative()) {
+            LOGGER.debug("Buffering throttling failures locally and writing them to [{}] every [{}]", tableName, interval);
+            writeBehindExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                val thread = new Thread(r, "JdbcThrottleWriteBehindThread");
+                thread.setDaemon(true);
+                return thread;
+            });
+            writeBehindExecutor.scheduleWithFixedDelay(this::flush, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (writeBehindExecutor != null) {
+            writeBehindExecutor.shutdown();
+            flush();
+        }
+    }
+
+    @Override
+    public void recordSubmissionFailure(final HttpServletRequest request) {
+        val key = new CounterKey(getClientIpAddress(), getUsername(request), getCurrentBucket());
+        if (writeBehindExecutor != null) {
+            pending.merge(key, 1L, Long::sum);
+        } else {
+            increment(key, 1);
+        }
+    }
+
+    @Override
+    public boolean exceedsThreshold(final HttpServletRequest request) {
+        val clientIp = getClientIpAddress();
+        val username = getUsername(request);
+        val currentBucket = getCurrentBucket();
+        val firstBucket = getFirstBucketInRange(currentBucket);
+        var failures = Objects.requireNonNullElse(jdbcTemplate.queryForObject(String.format(SQL_COUNT, tableName),
+            Long.class, clientIp, username, firstBucket), 0L);
+        if (!pending.isEmpty()) {
+            for (var bucket = firstBucket; bucket <= currentBucket; bucket++) {
+                failures += pending.getOrDefault(new CounterKey(clientIp, username, bucket), 0L);
+            }
+        }
+        val rate = (double) failures / getRangeSeconds();
+        val result = failures > 0 && rate > getThresholdRate();
+        if (result) {
+            LOGGER.debug("Request from [{}] by user [{}] exceeds threshold with [{}] failure(s)", clientIp, username, failures);
+        }
+        return result;
+    }
+
+    @Override
+    public String getName() {
+        return "JdbcCounterThrottle";
+    }
+
+    @Override
+    public Collection getRecords() {
+        return jdbcTemplate.query(String.format(SQL_QUERY_ALL, tableName),
+            (resultSet, i) -> resultSet.getString("CLIENT_IP") + ';' + resultSet.getString("USERNAME")
+                              + "<->" + resultSet.getLong("FAILURES"),
+            getFirstBucketInRange(getCurrentBucket()));
+    }
+
+    @Override
+    public void release() {
+        flush();
+        val firstBucket = getFirstBucketInRange(getCurrentBucket());
+        val count = jdbcTemplate.update(String.format(SQL_PURGE, tableName), firstBucket);
+        LOGGER.debug("Purged [{}] throttling counter(s) older than bucket [{}]", count, firstBucket);
+    }
+
+    /**
+     * Write failures that are buffered locally to the database.
+     */
+    protected void flush() {
+        pending.keySet().forEach(key -> {
+            val count = pending.remove(key);
+            if (count != null) {
+                try {
+                    increment(key, count);
+                } catch (final Exception e) {
+                    LoggingUtils.error(LOGGER, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Add the given number of failures to the counter, creating the counter if it does not exist.
+     *
+     * @param key   the key
+     * @param count the count
+     */
+    protected void increment(final CounterKey key, final long count) {
+        val update = String.format(SQL_UPDATE, tableName);
+        if (jdbcTemplate.update(update, count, key.getClientIp(), key.getUsername(), key.getBucket()) == 0) {
+            try {
+                jdbcTemplate.update(String.format(SQL_INSERT, tableName), key.getClientIp(), key.getUsername(), key.getBucket(), count);
+            } catch (final DuplicateKeyException e) {
+                LOGGER.trace("Counter [{}] was created concurrently; updating it instead", key);
+                jdbcTemplate.update(update, count, key.getClientIp(), key.getUsername(), key.getBucket());
+            }
+        }
+    }
+
+    private long getRangeSeconds() {
+        return Math.max(1, getConfigurationContext().getCasProperties().getAuthn().getThrottle().getFailure().getRangeSeconds());
+    }
+
+    private long getCurrentBucket() {
+        return TimeUnit.MILLISECONDS.toSeconds(clock.millis()) / bucketLength;
+    }
+
+    private long getFirstBucketInRange(final long currentBucket) {
+        return currentBucket - (getRangeSeconds() + bucketLength - 1) / bucketLength + 1;
+    }
+
+    private String getUsername(final HttpServletRequest request) {
+        return StringUtils.left(StringUtils.defaultString(getUsernameParameterFromRequest(request)), MAX_COLUMN_LENGTH);
+    }
+
+    private static String getClientIpAddress() {
+        val clientInfo = ClientInfoHolder.getClientInfo();
+        return clientInfo == null ? StringUtils.EMPTY : StringUtils.left(StringUtils.defaultString(clientInfo.getClientIpAddress()), MAX_COLUMN_LENGTH);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    protected static final class CounterKey {
+        private final String clientIp;
+
+        private final String username;
+
+        private final long bucket;
+    }
+}
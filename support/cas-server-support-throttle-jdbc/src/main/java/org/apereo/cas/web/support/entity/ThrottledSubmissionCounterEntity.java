@@ -0,0 +1,68 @@
+package org.apereo.cas.web.support.entity;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.io.Serializable;
+
+/**
+ * This is {@link ThrottledSubmissionCounterEntity} that represents the table
+ * holding the number of failed authentication attempts per client IP address,
+ * username and time bucket. Schema is generated automatically.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@Entity(name = ThrottledSubmissionCounterEntity.TABLE_NAME)
+@Table(name = ThrottledSubmissionCounterEntity.TABLE_NAME,
+    indexes = @Index(name = "CAS_THROTTLE_COUNTER_BUCKET_IDX", columnList = "BUCKET"))
+@IdClass(ThrottledSubmissionCounterEntity.CounterId.class)
+@Getter
+@Setter
+public class ThrottledSubmissionCounterEntity {
+
+    /**
+     * Counter table name.
+     */
+    public static final String TABLE_NAME = "CAS_THROTTLE_COUNTER";
+
+    @Id
+    @Column(name = "CLIENT_IP", nullable = false)
+    private String clientIp;
+
+    @Id
+    @Column(name = "USERNAME", nullable = false)
+    private String username;
+
+    @Id
+    @Column(name = "BUCKET", nullable = false)
+    private long bucket;
+
+    @Column(name = "FAILURES", nullable = false)
+    private long failures;
+
+    /**
+     * Composite primary key of the counter table.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class CounterId implements Serializable {
+        private static final long serialVersionUID = -4172285743950296378L;
+
+        private String clientIp;
+
+        private String username;
+
+        private long bucket;
+    }
+}
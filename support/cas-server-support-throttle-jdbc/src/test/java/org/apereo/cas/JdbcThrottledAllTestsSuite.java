@@ -1,5 +1,6 @@
 package org.apereo.cas;
 
+import org.apereo.cas.web.support.JdbcCounterThrottledSubmissionHandlerInterceptorAdapterTests;
 import org.apereo.cas.web.support.JdbcThrottledSubmissionHandlerInterceptorAdapterTests;
 import org.apereo.cas.web.support.MySQLJdbcThrottledSubmissionHandlerInterceptorAdapterTests;
 import org.apereo.cas.web.support.PostgresJdbcThrottledSubmissionHandlerInterceptorAdapterTests;
@@ -15,6 +16,7 @@ import org.junit.platform.suite.api.Suite;
  */
 @SelectClasses({
     JdbcThrottledSubmissionHandlerInterceptorAdapterTests.class,
+    JdbcCounterThrottledSubmissionHandlerInterceptorAdapterTests.class,
     PostgresJdbcThrottledSubmissionHandlerInterceptorAdapterTests.class,
     MySQLJdbcThrottledSubmissionHandlerInterceptorAdapterTests.class
 })
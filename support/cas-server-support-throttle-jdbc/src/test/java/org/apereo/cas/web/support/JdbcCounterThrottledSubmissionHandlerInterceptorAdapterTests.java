@@ -0,0 +1,61 @@
+package org.apereo.cas.web.support;
+
+import org.apereo.cas.audit.config.CasSupportJdbcAuditConfiguration;
+import org.apereo.cas.config.CasHibernateJpaConfiguration;
+import org.apereo.cas.config.CasJdbcThrottlingConfiguration;
+
+import lombok.Getter;
+import lombok.val;
+import org.apereo.inspektr.common.web.ClientInfo;
+import org.apereo.inspektr.common.web.ClientInfoHolder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is {@link JdbcCounterThrottledSubmissionHandlerInterceptorAdapterTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@SpringBootTest(classes = {
+    CasJdbcThrottlingConfiguration.class,
+    CasSupportJdbcAuditConfiguration.class,
+    CasHibernateJpaConfiguration.class,
+    BaseThrottledSubmissionHandlerInterceptorAdapterTests.SharedTestConfiguration.class
+}, properties = {
+    "cas.authn.throttle.core.username-parameter=username",
+    "cas.authn.throttle.failure.code=AUTHENTICATION_FAILED",
+    "cas.authn.throttle.failure.range-seconds=5",
+    "cas.authn.throttle.jdbc.storage-type=COUNTER",
+    "cas.audit.jdbc.asynchronous=false"
+})
+@Getter
+@Tag("JDBC")
+public class JdbcCounterThrottledSubmissionHandlerInterceptorAdapterTests extends BaseThrottledSubmissionHandlerInterceptorAdapterTests {
+
+    @Autowired
+    @Qualifier("authenticationThrottle")
+    private ThrottledSubmissionHandlerInterceptor throttle;
+
+    @Test
+    public void verifyRecords() {
+        val request = new MockHttpServletRequest();
+        request.setRemoteAddr("1.2.3.4");
+        request.setLocalAddr("4.5.6.7");
+        request.addParameter("username", "casuser");
+        request.addHeader("User-Agent", "Firefox");
+        ClientInfoHolder.setClientInfo(new ClientInfo(request));
+
+        throttle.recordSubmissionFailure(request);
+        throttle.recordSubmissionFailure(request);
+        assertTrue(throttle.getRecords().contains("1.2.3.4;casuser<->2"));
+        throttle.release();
+        assertFalse(throttle.getRecords().isEmpty());
+    }
+}
@@ -3,11 +3,13 @@ package org.apereo.cas.config;
 import org.apereo.cas.audit.AuditTrailExecutionPlan;
 import org.apereo.cas.configuration.CasConfigurationProperties;
 import org.apereo.cas.configuration.features.CasFeatureModule;
+import org.apereo.cas.configuration.model.support.throttle.ThrottleCoreProperties;
 import org.apereo.cas.throttle.AuthenticationThrottlingExecutionPlan;
 import org.apereo.cas.throttle.AuthenticationThrottlingExecutionPlanConfigurer;
 import org.apereo.cas.throttle.ConcurrentThrottledSubmissionsStore;
 import org.apereo.cas.throttle.DefaultAuthenticationThrottlingExecutionPlan;
 import org.apereo.cas.throttle.DefaultThrottledRequestResponseHandler;
+import org.apereo.cas.throttle.SlidingWindowThrottledSubmissionsStore;
 import org.apereo.cas.throttle.ThrottledRequestExecutor;
 import org.apereo.cas.throttle.ThrottledRequestFilter;
 import org.apereo.cas.throttle.ThrottledRequestResponseHandler;
@@ -125,6 +127,10 @@ public class CasThrottlingConfiguration {
         @ConditionalOnMissingBean(name = ThrottledSubmissionsStore.BEAN_NAME)
         @Bean
         public ThrottledSubmissionsStore throttleSubmissionMap(final CasConfigurationProperties casProperties) {
+            val store = casProperties.getAuthn().getThrottle().getCore().getInMemoryStore();
+            if (store == ThrottleCoreProperties.InMemoryStoreTypes.SLIDING_WINDOW) {
+                return new SlidingWindowThrottledSubmissionsStore(casProperties);
+            }
             return new ConcurrentThrottledSubmissionsStore(casProperties);
         }
 
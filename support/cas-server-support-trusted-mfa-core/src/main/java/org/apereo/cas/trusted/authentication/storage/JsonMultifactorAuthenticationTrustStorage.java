@@ -1,12 +1,14 @@
 package org.apereo.cas.trusted.authentication.storage;
 
 import org.apereo.cas.configuration.model.support.mfa.trusteddevice.TrustedDevicesMultifactorProperties;
+import org.apereo.cas.configuration.support.Beans;
 import org.apereo.cas.trusted.authentication.api.MultifactorAuthenticationTrustRecord;
 import org.apereo.cas.trusted.authentication.api.MultifactorAuthenticationTrustRecordKeyGenerator;
 import org.apereo.cas.util.DateTimeUtils;
 import org.apereo.cas.util.ResourceUtils;
 import org.apereo.cas.util.crypto.CipherExecutor;
 import org.apereo.cas.util.function.FunctionUtils;
+import org.apereo.cas.util.io.LogStructuredRecordStore;
 import org.apereo.cas.util.serialization.JacksonObjectMapperFactory;
 
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -14,8 +16,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.hjson.JsonValue;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.core.io.Resource;
 
+import java.io.File;
 import java.io.InputStreamReader;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
@@ -25,6 +29,7 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -34,7 +39,7 @@ import java.util.stream.Collectors;
  * @since 5.2.0
  */
 @Slf4j
-public class JsonMultifactorAuthenticationTrustStorage extends BaseMultifactorAuthenticationTrustStorage {
+public class JsonMultifactorAuthenticationTrustStorage extends BaseMultifactorAuthenticationTrustStorage implements DisposableBean {
     private static final ObjectMapper MAPPER = JacksonObjectMapperFactory.builder()
         .defaultTypingEnabled(false).build().toObjectMapper();
 
@@ -42,24 +47,66 @@ public class JsonMultifactorAuthenticationTrustStorage extends BaseMultifactorAu
 
     private Map<String, MultifactorAuthenticationTrustRecord> storage;
 
+    private LogStructuredRecordStore<MultifactorAuthenticationTrustRecord> logStore;
+
     public JsonMultifactorAuthenticationTrustStorage(final TrustedDevicesMultifactorProperties properties,
                                                      final CipherExecutor<Serializable, String> cipherExecutor,
                                                      final Resource location,
                                                      final MultifactorAuthenticationTrustRecordKeyGenerator keyGenerationStrategy) {
         super(properties, cipherExecutor, keyGenerationStrategy);
         this.location = location;
-        readTrustedRecordsFromResource();
+        val logStoreProperties = properties.getJson().getLogStore();
+        if (logStoreProperties.isEnabled() && ResourceUtils.isFile(location)) {
+            FunctionUtils.doUnchecked(u -> {
+                val jsonFile = location.getFile();
+                this.logStore = new LogStructuredRecordStore<>(new File(jsonFile.getParentFile(), jsonFile.getName() + ".log"),
+                    MAPPER, MultifactorAuthenticationTrustRecord.class,
+                    Beans.newDuration(logStoreProperties.getSyncInterval()),
+                    Beans.newDuration(logStoreProperties.getCompactionInterval()));
+                if (!logStore.isExisting() || jsonFile.lastModified() > logStore.getFile().lastModified()) {
+                    readTrustedRecordsFromResource();
+                    LOGGER.debug("Importing [{}] trusted device record(s) from [{}] into [{}]", storage.size(), location, logStore.getFile());
+                    logStore.replaceAll(storage);
+                }
+                this.storage = new ConcurrentHashMap<>();
+                logStore.values().forEach(record -> storage.put(record.getRecordKey(), record));
+            });
+        } else {
+            readTrustedRecordsFromResource();
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (logStore != null) {
+            FunctionUtils.doUnchecked(u -> {
+                val file = location.getFile();
+                MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, new LinkedHashMap<>(storage));
+                logStore.close();
+                if (!logStore.getFile().setLastModified(file.lastModified())) {
+                    LOGGER.debug("Unable to align the modification time of [{}] with [{}]", logStore.getFile(), location);
+                }
+            });
+        }
     }
 
     @Override
-    public void remove(final String key) {
-        storage.keySet().removeIf(k -> k.equalsIgnoreCase(key));
-        writeTrustedRecordsToResource();
+    public synchronized void remove(final String key) {
+        val keys = storage.keySet()
+            .stream()
+            .filter(k -> k.equalsIgnoreCase(key))
+            .collect(Collectors.toList());
+        keys.forEach(storage::remove);
+        if (logStore != null) {
+            keys.forEach(logStore::remove);
+        } else {
+            writeTrustedRecordsToResource();
+        }
     }
 
     @Override
     @SuppressWarnings("JavaUtilDate")
-    public void remove(final ZonedDateTime expirationDate) {
+    public synchronized void remove(final ZonedDateTime expirationDate) {
         val results = storage
             .values()
             .stream()
@@ -75,7 +122,11 @@ public class JsonMultifactorAuthenticationTrustStorage extends BaseMultifactorAu
         if (!results.isEmpty()) {
             results.forEach(entry -> storage.remove(entry.getRecordKey()));
             LOGGER.info("Invalidated and removed [{}] expired records", results.size());
-            writeTrustedRecordsToResource();
+            if (logStore != null) {
+                results.forEach(entry -> logStore.remove(entry.getRecordKey()));
+            } else {
+                writeTrustedRecordsToResource();
+            }
         }
     }
 
@@ -121,9 +172,13 @@ public class JsonMultifactorAuthenticationTrustStorage extends BaseMultifactorAu
 
 
     @Override
-    public MultifactorAuthenticationTrustRecord saveInternal(final MultifactorAuthenticationTrustRecord record) {
+    public synchronized MultifactorAuthenticationTrustRecord saveInternal(final MultifactorAuthenticationTrustRecord record) {
         this.storage.put(record.getRecordKey(), record);
-        writeTrustedRecordsToResource();
+        if (logStore != null) {
+            logStore.put(record.getRecordKey(), record);
+        } else {
+            writeTrustedRecordsToResource();
+        }
         return record;
     }
 
@@ -3,6 +3,7 @@ package org.apereo.cas.trusted;
 import org.apereo.cas.trusted.authentication.keys.DefaultMultifactorAuthenticationTrustRecordKeyGeneratorTests;
 import org.apereo.cas.trusted.authentication.keys.LegacyMultifactorAuthenticationTrustRecordKeyGeneratorTests;
 import org.apereo.cas.trusted.authentication.storage.InMemoryMultifactorAuthenticationTrustStorageTests;
+import org.apereo.cas.trusted.authentication.storage.JsonLogStoreMultifactorAuthenticationTrustStorageTests;
 import org.apereo.cas.trusted.authentication.storage.JsonMultifactorAuthenticationTrustStorageTests;
 import org.apereo.cas.trusted.authentication.storage.MultifactorAuthenticationTrustStorageCleanerTests;
 import org.apereo.cas.trusted.authentication.storage.fingerprint.ClientIpDeviceFingerprintComponentManagerTests;
@@ -29,6 +30,7 @@ import org.junit.platform.suite.api.Suite;
     ClientIpDeviceFingerprintComponentManagerTests.class,
     UserAgentDeviceFingerprintComponentManagerTests.class,
     JsonMultifactorAuthenticationTrustStorageTests.class,
+    JsonLogStoreMultifactorAuthenticationTrustStorageTests.class,
     InMemoryMultifactorAuthenticationTrustStorageTests.class,
     MultifactorAuthenticationVerifyTrustActionTests.class,
     DefaultDeviceFingerprintStrategyTests.class,
@@ -0,0 +1,50 @@
+package org.apereo.cas.trusted.authentication.storage;
+
+import org.apereo.cas.trusted.AbstractMultifactorAuthenticationTrustStorageTests;
+
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.File;
+
+/**
+ * This is {@link JsonLogStoreMultifactorAuthenticationTrustStorageTests}.
+ *
+ * @author Misagh Moayyed
+ * @since 6.6.0
+ */
+@SpringBootTest(classes = AbstractMultifactorAuthenticationTrustStorageTests.SharedTestConfiguration.class)
+@TestPropertySource(properties = {
+    "cas.authn.mfa.trusted.json.location=file:${java.io.tmpdir}/trusted-device-log.json",
+    "cas.authn.mfa.trusted.json.log-store.enabled=true",
+    "cas.authn.mfa.trusted.json.log-store.sync-interval=PT0S"
+})
+@Tag("FileSystem")
+@Getter
+public class JsonLogStoreMultifactorAuthenticationTrustStorageTests extends AbstractMultifactorAuthenticationTrustStorageTests {
+
+    @BeforeAll
+    @SneakyThrows
+    public static void beforeClass() {
+        deleteFiles();
+    }
+
+    @AfterAll
+    @SneakyThrows
+    public static void afterClass() {
+        deleteFiles();
+    }
+
+    private static void deleteFiles() {
+        val directory = FileUtils.getTempDirectory();
+        FileUtils.deleteQuietly(new File(directory, "trusted-device-log.json"));
+        FileUtils.deleteQuietly(new File(directory, "trusted-device-log.json.log"));
+    }
+}
@@ -16,6 +16,7 @@ import org.junit.platform.suite.api.Suite;
     InMemoryMultifactorAuthenticationTrustStorageTests.class,
     UserAgentDeviceFingerprintComponentManagerTests.class,
     JsonMultifactorAuthenticationTrustStorageTests.class,
+    JsonLogStoreMultifactorAuthenticationTrustStorageTests.class,
     ClientIpDeviceFingerprintComponentManagerTests.class
 })
 @Suite
@@ -12,7 +12,9 @@ import org.apereo.cas.util.function.FunctionUtils;
 import org.apereo.cas.util.io.WatcherService;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.val;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
@@ -24,6 +26,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.ScopedProxyMode;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -52,6 +55,7 @@ public class YamlServiceRegistryConfiguration {
             final CasConfigurationProperties casProperties,
             @Qualifier("registeredServiceReplicationStrategy")
             final RegisteredServiceReplicationStrategy registeredServiceReplicationStrategy,
+            final ObjectProvider<MeterRegistry> meterRegistry,
             final ObjectProvider<List<ServiceRegistryListener>> serviceRegistryListeners) throws Exception {
 
             val registry = casProperties.getServiceRegistry();
@@ -62,6 +66,12 @@ public class YamlServiceRegistryConfiguration {
             if (registry.getYaml().isWatcherEnabled()) {
                 yaml.enableDefaultWatcherService();
             }
+            yaml.setIncrementalLoad(registry.getCore().isIncrementalLoad());
+            yaml.setLoadParallelism(registry.getCore().getLoadParallelism());
+            if (StringUtils.isNotBlank(registry.getCore().getSnapshotDirectory())) {
+                yaml.setSnapshotDirectory(new File(registry.getCore().getSnapshotDirectory()));
+            }
+            meterRegistry.ifAvailable(yaml::setMeterRegistry);
             return yaml;
         }
 
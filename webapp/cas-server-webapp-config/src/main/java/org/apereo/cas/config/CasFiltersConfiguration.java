@@ -12,6 +12,7 @@ import org.apereo.cas.util.spring.beans.BeanCondition;
 import org.apereo.cas.util.spring.beans.BeanSupplier;
 import org.apereo.cas.util.spring.boot.ConditionalOnFeatureEnabled;
 import org.apereo.cas.web.support.ArgumentExtractor;
+import org.apereo.cas.web.support.AttributeRepositoryResolutionContextFilter;
 import org.apereo.cas.web.support.AuthenticationCredentialsThreadLocalBinderClearingFilter;
 import org.apereo.cas.web.support.filters.AddResponseHeadersFilter;
 import org.apereo.cas.web.support.filters.RequestParameterPolicyEnforcementFilter;
@@ -76,6 +77,19 @@ public class CasFiltersConfiguration {
             return bean;
         }
 
+        @Bean
+        @RefreshScope(proxyMode = ScopedProxyMode.DEFAULT)
+        public FilterRegistrationBean<AttributeRepositoryResolutionContextFilter> attributeRepositoryResolutionContextFilter(
+            final CasConfigurationProperties casProperties) {
+            val bean = new FilterRegistrationBean<AttributeRepositoryResolutionContextFilter>();
+            bean.setFilter(new AttributeRepositoryResolutionContextFilter());
+            bean.setUrlPatterns(CollectionUtils.wrap("/*"));
+            bean.setName("attributeRepositoryResolutionContextFilter");
+            bean.setAsyncSupported(true);
+            bean.setEnabled(casProperties.getAuthn().getAttributeRepository().getCore().getResolutionContext().isEnabled());
+            return bean;
+        }
+
     }
     @Configuration(value = "CasFiltersResponseHeadersConfiguration", proxyBeanMethods = false)
     @EnableConfigurationProperties(CasConfigurationProperties.class)